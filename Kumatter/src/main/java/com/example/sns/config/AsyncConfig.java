@@ -0,0 +1,23 @@
+package com.example.sns.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 非同期処理と定期実行ジョブを有効化する設定クラス。
+ * 投稿・フォローなどのコミット後に行う派生データの更新（@Async）や、
+ * 定期的な整合性チェック・刈り込み（@Scheduled）で使用する。
+ *
+ * スレッドプールのサイズ等は spring.task.execution.* / spring.task.scheduling.* で設定する。
+ * 定期実行ジョブのプールは既定では1スレッドのため、spring.task.scheduling.pool.size で
+ * ジョブ数以上を確保し、長いジョブの実行中も短い間隔のジョブ（アウトボックスのポーリング等）が遅れないようにしている。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+}
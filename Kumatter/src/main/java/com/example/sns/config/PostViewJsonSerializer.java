@@ -0,0 +1,110 @@
+package com.example.sns.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.example.sns.dto.PostViewDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * 投稿表示用DTO（{@link PostViewDto}）のJSONシリアライザ。
+ *
+ * 閲覧ユーザーに依存しない部分（投稿ID・本文・投稿日時・投稿者・いいね数）を
+ * シリアライズ済みのJSON断片としてメモリにキャッシュし、
+ * レスポンスごとに閲覧ユーザーのいいね済みフラグだけを付け足して出力する。
+ *
+ * 投稿の本文・投稿日時・投稿者は変更されないため、断片は「投稿ID＋いいね数」をバージョンとして識別する。
+ * いいね数が変わった投稿は新しいキーで作り直され、古い断片は容量上限により追い出される。
+ * キャッシュのヒット・ミスは「posts.json-fragments」としてメトリクスに公開する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@JsonComponent
+public class PostViewJsonSerializer extends JsonSerializer<PostViewDto> {
+	private static final String LIKED_TRUE  = ",\"likedByLoginUser\":true}";
+	private static final String LIKED_FALSE = ",\"likedByLoginUser\":false}";
+	/** 断片の生成用（アプリケーション全体のObjectMapperはこのシリアライザを含むため使用しない） */
+	private final ObjectMapper fragmentMapper = JsonMapper.builder().build();
+	/** 投稿ID＋バージョンごとのJSON断片（末尾の「}」を除いたもの） */
+	private final Cache<FragmentKey, String> fragments;
+
+	public PostViewJsonSerializer(
+			MeterRegistry meterRegistry,
+			@Value("${sns.posts.json-fragment.max-size:100000}") long maxSize) {
+		this.fragments = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, fragments, "posts.json-fragments");
+	}
+	/**
+	 * キャッシュ済みの断片に、閲覧ユーザーのいいね済みフラグを付け足して出力する。
+	 */
+	@Override
+	public void serialize(PostViewDto post, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+		String fragment = fragments.get(new FragmentKey(post.getPostId(), post.getLikeCount()), key -> toFragment(post));
+		gen.writeRawValue(fragment + (post.isLikedByLoginUser() ? LIKED_TRUE : LIKED_FALSE));
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 閲覧ユーザーに依存しない部分をJSONに変換し、末尾の「}」を除いた断片を返す。
+	 *
+	 * @param post 投稿表示用DTO
+	 * @return JSON断片
+	 */
+	private String toFragment(PostViewDto post) {
+		PostPayload payload = new PostPayload(
+				post.getPostId(),
+				post.getContent(),
+				post.getPostedAt(),
+				post.getUserId(),
+				post.getUserName(),
+				post.getLoginId(),
+				post.getLikeCount());
+		try {
+			String json = fragmentMapper.writeValueAsString(payload);
+			return json.substring(0, json.length() - 1);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 断片のキャッシュキー。
+	 *
+	 * @param postId 投稿ID
+	 * @param likeCount いいね数（投稿の可変部分のためバージョンとして扱う）
+	 */
+	private record FragmentKey(UUID postId, int likeCount) {
+	}
+
+	/**
+	 * JSON断片の内容（出力順はクライアントとの互換のため PostViewDto と同じ）。
+	 */
+	private record PostPayload(
+			UUID postId,
+			String content,
+			long postedAt,
+			UUID userId,
+			String userName,
+			String loginId,
+			int likeCount) {
+	}
+}
@@ -0,0 +1,34 @@
+package com.example.sns.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * コントローラー共通の条件付きGET（ETag / If-None-Match）処理。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+final class ConditionalGetSupport {
+
+	private ConditionalGetSupport() {
+	}
+	/**
+	 * ETagをレスポンスに設定し、リクエストのIf-None-Matchと一致するか判定する。
+	 * 一致した場合は304 Not Modifiedが設定されるため、呼び出し元はnullを返すこと。
+	 * ユーザーごとの内容のため、共有キャッシュには保存させず、毎回の再検証を要求する。
+	 *
+	 * @param webRequest リクエスト
+	 * @param etag 現在の内容のETag
+	 * @return 304を返す場合はtrue
+	 */
+	static boolean notModified(ServletWebRequest webRequest, String etag) {
+		HttpServletResponse response = webRequest.getResponse();
+		if (response != null) {
+			response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+		}
+		return webRequest.checkNotModified(etag);
+	}
+}
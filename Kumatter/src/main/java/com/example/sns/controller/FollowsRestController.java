@@ -1,22 +1,29 @@
 package com.example.sns.controller;
 
 import java.security.Principal;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.sns.entity.Users;
+import com.example.sns.dto.FollowBatchRequest;
+import com.example.sns.dto.FollowBatchResultDto;
+import com.example.sns.dto.UserIdentity;
 import com.example.sns.service.FollowsService;
 import com.example.sns.service.UsersService;
 
 /**
  * フォロー／フォロー解除機能を提供するRESTコントローラー。
  * ログインユーザーが他のユーザーをフォローおよびフォロー解除できるAPIを提供する。
+ * ログインユーザーの解決は識別情報のキャッシュ（UserIdentityCache）経由で行い、リクエストごとにusersを読まない。
  *
  * CSRF対策はHTMLのmetaタグおよびJavaScriptのfetchヘッダーで対応済み。
  * 
@@ -28,50 +35,85 @@ import com.example.sns.service.UsersService;
 public class FollowsRestController {
 	private final FollowsService followsService;
 	private final UsersService usersService;
+	/** 一括APIで1回に指定できる件数の上限 */
+	private final int maxBatchItems;
 	
 	public FollowsRestController(
 			FollowsService followsService,
-			UsersService usersService) {
+			UsersService usersService,
+			@Value("${sns.batch.max-items:100}") int maxBatchItems) {
 		this.followsService = followsService;
 		this.usersService   = usersService;
+		this.maxBatchItems  = maxBatchItems;
 	}
 	/**
 	 * 指定したユーザーをログインユーザーがフォローする。
 	 * 
 	 * @param userId フォロー対象のユーザーID（PathVariableで受け取る）
 	 * @param principal ログイン中のユーザー情報（認証済みのユーザー）
-	 * @return フォロー成功時は200 OK、エラー時は適切なステータスとメッセージを返す
+	 * @return フォロー成功時（既にフォロー済みの場合を含む）は200 OKと操作後の状態（following=true）、
+	 *         フォロー対象が存在しない場合は404、エラー時は適切なステータスとメッセージを返す
 	 */
 	@PostMapping("/{userId}")
 	public ResponseEntity<?> follow(@PathVariable UUID userId, Principal principal) {
 		System.out.println("フォローボタンが押された");
-		Users follower = usersService.findByLoginIdOrEmail(principal.getName());
+		UserIdentity follower = usersService.findIdentityByLoginIdOrEmail(principal.getName());
 		if (follower == null) {
 			return ResponseEntity.status(401).body("ログインユーザーが存在しません");
 		}
-		if (follower.getUserId().equals(userId)) {
+		if (follower.userId().equals(userId)) {
 			return ResponseEntity.badRequest().body("自分自身はフォローできません");
 		}
-		followsService.follow(follower.getUserId(), userId);
-		return ResponseEntity.ok().build();
+		try {
+			followsService.follow(follower.userId(), userId);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.status(404).body(e.getMessage());
+		}
+		return ResponseEntity.ok(Map.of("following", true));
+	}
+	/**
+	 * 複数のユーザーをログインユーザーがまとめてフォローする。
+	 * 1回のトランザクション・JDBCバッチで反映し、ユーザーごとの結果を返す。
+	 * 
+	 * @param request フォロー対象のユーザーIDのリスト（userIds）を含むリクエスト
+	 * @param principal ログイン中のユーザー情報（認証済みのユーザー）
+	 * @return 成功時は200 OKとユーザーごとの結果（userId, following, status）のリスト、
+	 *         リクエストが不正な場合は400を返す
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<?> followAll(@RequestBody FollowBatchRequest request, Principal principal) {
+		UserIdentity follower = usersService.findIdentityByLoginIdOrEmail(principal.getName());
+		if (follower == null) {
+			return ResponseEntity.status(401).body("ログインユーザーが存在しません");
+		}
+		List<UUID> userIds = request.getUserIds();
+		if (userIds == null || userIds.isEmpty() || userIds.contains(null)) {
+			return ResponseEntity.badRequest().body("userIdsが不正です");
+		}
+		if (userIds.size() > maxBatchItems) {
+			return ResponseEntity.badRequest().body("一度に指定できるのは" + maxBatchItems + "件までです");
+		}
+		List<FollowBatchResultDto> results = followsService.followAll(follower.userId(), userIds);
+		return ResponseEntity.ok(results);
 	}
 	/**
 	 * 指定したユーザーのフォローをログインユーザーが解除する。
 	 * 
 	* @param userId フォロー解除対象のユーザーID（PathVariableで受け取る）
 	* @param principal ログイン中のユーザー情報（認証済みのユーザー）
-	* @return フォロー解除成功時は200 OK、エラー時は適切なステータスとメッセージを返す
+	* @return フォロー解除成功時（フォローしていなかった場合を含む）は200 OKと操作後の状態（following=false）、
+	*         エラー時は適切なステータスとメッセージを返す
 	*/
 	@DeleteMapping("/{userId}")
 	public ResponseEntity<?> unfollow(@PathVariable UUID userId, Principal principal) {
-		Users follower = usersService.findByLoginIdOrEmail(principal.getName());
+		UserIdentity follower = usersService.findIdentityByLoginIdOrEmail(principal.getName());
 		if (follower == null) {
 			return ResponseEntity.status(401).body("ログインユーザーが存在しません");
 		}
-		if (follower.getUserId().equals(userId)) {
+		if (follower.userId().equals(userId)) {
 			return ResponseEntity.badRequest().body("自分自身のフォロー解除は不要です");
 		}
-		followsService.unfollow(follower.getUserId(), userId);
-		return ResponseEntity.ok().build();
+		followsService.unfollow(follower.userId(), userId);
+		return ResponseEntity.ok(Map.of("following", false));
 	}
 }
\ No newline at end of file
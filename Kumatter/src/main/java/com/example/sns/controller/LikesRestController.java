@@ -1,8 +1,10 @@
 package com.example.sns.controller;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -10,6 +12,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.sns.dto.LikeBatchRequest;
+import com.example.sns.dto.LikeBatchResultDto;
+import com.example.sns.dto.LikeStateDto;
 import com.example.sns.security.UsersDetails;
 import com.example.sns.service.LikesService;
 import com.example.sns.validator.PostIdValidator;
@@ -32,9 +37,15 @@ import com.example.sns.validator.PostIdValidator;
 public class LikesRestController {
 
     private final LikesService likesService;
+    /** 一括APIで1回に指定できる件数の上限 */
+    private final int maxBatchItems;
 
-    public LikesRestController(LikesService likesService) {
+    public LikesRestController(
+        LikesService likesService,
+        @Value("${sns.batch.max-items:100}") int maxBatchItems
+    ) {
         this.likesService = likesService;
+        this.maxBatchItems = maxBatchItems;
     }
 
     /**
@@ -66,6 +77,37 @@ public class LikesRestController {
         return handleLikeRequest(loginUserDetails, request, false);
     }
 
+    /**
+     * 複数投稿のいいね状態をまとめて変更するPOST API。
+     * 1回のトランザクション・JDBCバッチで反映し、投稿ごとの結果を返す。
+     * 
+     * @param loginUserDetails ログイン中のユーザー情報
+     * @param request JSON形式で投稿ごとの操作（postId, liked）のリストを含むリクエスト
+     * @return 成功時は投稿ごとの結果（postId, liked, likeCount, status）のリスト
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(
+        @AuthenticationPrincipal UsersDetails loginUserDetails,
+        @RequestBody LikeBatchRequest request
+    ) {
+        if (loginUserDetails == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "ログインしてください"));
+        }
+        List<LikeBatchRequest.Item> items = request.getItems();
+        if (items == null || items.isEmpty() || items.stream().anyMatch(item -> item == null || item.getPostId() == null)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "itemsが不正です"));
+        }
+        if (items.size() > maxBatchItems) {
+            return ResponseEntity.badRequest().body(Map.of("error", "一度に指定できるのは" + maxBatchItems + "件までです"));
+        }
+        try {
+            List<LikeBatchResultDto> results = likesService.applyBatch(loginUserDetails.getUser().getUserId(), items);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "いいね処理に失敗しました"));
+        }
+    }
+
     /**
      * 共通のいいね追加・解除処理。
      * 
@@ -91,17 +133,13 @@ public class LikesRestController {
         UUID postId = postIdOpt.get();
         try {
             UUID userId = loginUserDetails.getUser().getUserId();
-            if (isAdd) {
-                likesService.addLike(userId, postId.toString());
-            } else {
-                likesService.removeLike(userId, postId.toString());
-            }
-
-            int likeCount = likesService.countLikes(postId);
-            return ResponseEntity.ok(Map.of(
-                "liked", isAdd,
-                "likeCount", likeCount
-            ));
+            // 操作後の状態（いいね済みか・いいね数）をそのまま返す
+            LikeStateDto state = isAdd
+                    ? likesService.addLike(userId, postId.toString())
+                    : likesService.removeLike(userId, postId.toString());
+            return ResponseEntity.ok(state);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             String msg = isAdd ? "いいね処理に失敗しました" : "いいね解除処理に失敗しました";
             return ResponseEntity.status(500).body(Map.of("error", msg));
@@ -55,9 +55,9 @@ public class PostsController {
 		List<PostViewDto> postDtoList;
 		
 		if ("followed".equals(mode)) {
-			postDtoList = postsService.getFollowedUsersPostsWithLikes(loginUser);
+			postDtoList = postsService.getFollowedUsersPostsWithLikes(loginUser, null, null).getItems();
 		}else {
-			postDtoList = postsService.getAllPostsWithLikes(loginUser);
+			postDtoList = postsService.getAllPostsWithLikes(loginUser, null, null).getItems();
 		}
 		model.addAttribute("user", loginUser);
 		model.addAttribute("posts", postDtoList);
@@ -4,16 +4,25 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.sns.dto.CursorPageDto;
+import com.example.sns.dto.KeysetCursor;
 import com.example.sns.dto.PostViewDto;
 import com.example.sns.entity.Users;
 import com.example.sns.security.UsersDetails;
+import com.example.sns.service.ChangeVersionService;
+import com.example.sns.service.PostStreamService;
 import com.example.sns.service.PostsService;
 import com.example.sns.service.UsersService;
 
@@ -30,43 +39,73 @@ import com.example.sns.service.UsersService;
 @RequestMapping("/api/posts")
 public class PostsRestController {
 
+    /** 全文検索の検索語の最大文字数 */
+    private static final int MAX_QUERY_LENGTH = 100;
+
     private final PostsService postsService;
     private final UsersService usersService;
+    private final PostStreamService postStreamService;
+    private final ChangeVersionService changeVersionService;
 
-    public PostsRestController(PostsService postsService, UsersService usersService) {
+    public PostsRestController(
+            PostsService postsService,
+            UsersService usersService,
+            PostStreamService postStreamService,
+            ChangeVersionService changeVersionService) {
         this.postsService = postsService;
         this.usersService = usersService;
+        this.postStreamService = postStreamService;
+        this.changeVersionService = changeVersionService;
     }
 
     /**
-     * ログインユーザーのタイムライン（フォロー中ユーザー＋自分の投稿）を取得する。
+     * ログインユーザーのタイムライン（フォロー中ユーザー＋自分の投稿）を1ページ分取得する。
      * ログインしていなければ401 Unauthorizedを返す。
+     * 前回の取得以降に変更が無ければ304 Not Modifiedを返す。
      * 
      * @param loginUserDetails 認証済みユーザー情報
-     * @return 投稿DTOリスト（作成日時降順）
+     * @param cursor 前ページのレスポンスに含まれるnextカーソル（先頭ページは省略）
+     * @param size ページサイズ（省略時は既定値）
+     * @param webRequest 条件付きGETの判定に使うリクエスト
+     * @return 投稿DTOページ（作成日時降順）。304の場合はnull
      */
     @GetMapping("/timeline")
-    public List<PostViewDto> getTimeline(@AuthenticationPrincipal UsersDetails loginUserDetails) {
+    public CursorPageDto<PostViewDto> getTimeline(
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            ServletWebRequest webRequest) {
         if (loginUserDetails == null) {
             // 非ログインユーザーは拒否
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
         }
-        return postsService.getFollowedUsersPostsWithLikes(loginUserDetails.getUser());
+        String etag = changeVersionService.timelineETag(loginUserDetails.getUser().getUserId());
+        if (ConditionalGetSupport.notModified(webRequest, etag)) {
+            return null;
+        }
+        return postsService.getFollowedUsersPostsWithLikes(loginUserDetails.getUser(), parseCursor(cursor), size);
     }
 
     /**
-     * 指定されたユーザーIDの投稿一覧を取得するAPI。
+     * 指定されたユーザーIDの投稿一覧を1ページ分取得するAPI。
      * ログイン済みユーザーのみアクセス可能。
      * 指定ユーザーが存在しなければ404 Not Foundを返す。
+     * 前回の取得以降に変更が無ければ304 Not Modifiedを返す。
      * 
      * @param userId 取得対象のユーザーID(UUID)
      * @param loginUserDetails 認証済みユーザー情報
-     * @return 投稿DTOリスト（作成日時降順）
+     * @param cursor 前ページのレスポンスに含まれるnextカーソル（先頭ページは省略）
+     * @param size ページサイズ（省略時は既定値）
+     * @param webRequest 条件付きGETの判定に使うリクエスト
+     * @return 投稿DTOページ（作成日時降順）。304の場合はnull
      */
     @GetMapping("/user/{userId}")
-    public List<PostViewDto> getPostsByUser(
+    public CursorPageDto<PostViewDto> getPostsByUser(
             @PathVariable UUID userId,
-            @AuthenticationPrincipal UsersDetails loginUserDetails) {
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            ServletWebRequest webRequest) {
 
         if (loginUserDetails == null) {
             // 非ログインユーザーは拒否
@@ -75,22 +114,166 @@ public class PostsRestController {
 
         Users loginUser = loginUserDetails.getUser();
 
-        // ユーザー存在チェック
-        Users user = usersService.findByUserId(userId);
-        if (user == null) {
+        // ユーザー存在チェック（識別情報のキャッシュで確認する）
+        if (usersService.findIdentity(userId) == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "指定ユーザーは存在しません");
         }
 
+        String etag = changeVersionService.userPostsETag(userId, loginUser.getUserId());
+        if (ConditionalGetSupport.notModified(webRequest, etag)) {
+            return null;
+        }
+
         // 投稿一覧を取得（ログインユーザー判定でいいね状態も含む）
-        return postsService.getPostsByUserWithLikes(loginUser, user);
+        return postsService.getPostsByUserWithLikes(loginUser, userId, parseCursor(cursor), size);
     }
     
+    /**
+     * 全ユーザーの投稿を1ページ分取得するAPI。
+     * 前回の取得以降に変更が無ければ304 Not Modifiedを返す。
+     * 
+     * @param loginUserDetails 認証済みユーザー情報
+     * @param cursor 前ページのレスポンスに含まれるnextカーソル（先頭ページは省略）
+     * @param size ページサイズ（省略時は既定値）
+     * @param webRequest 条件付きGETの判定に使うリクエスト
+     * @return 投稿DTOページ（作成日時降順）。304の場合はnull
+     */
     @GetMapping("/all")
-    public List<PostViewDto> getAllPosts(@AuthenticationPrincipal UsersDetails loginUserDetails) {
+    public CursorPageDto<PostViewDto> getAllPosts(
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            ServletWebRequest webRequest) {
         if (loginUserDetails == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
         }
-        // postsServiceに全投稿取得メソッドがあることが前提
-        return postsService.getAllPostsWithLikes(loginUserDetails.getUser());
+        if (ConditionalGetSupport.notModified(webRequest, changeVersionService.allPostsETag())) {
+            return null;
+        }
+        return postsService.getAllPostsWithLikes(loginUserDetails.getUser(), parseCursor(cursor), size);
+    }
+
+    /**
+     * 急上昇投稿（いいねの時間減衰スコアの高い順）を取得するAPI。
+     * ランキングはいいねのたびにメモリ上で更新されるため、リクエストごとの集計は行わない。
+     * 
+     * @param loginUserDetails 認証済みユーザー情報
+     * @param size 取得件数（省略時は既定値）
+     * @return 投稿DTOのリスト（スコア降順）
+     */
+    @GetMapping("/trending")
+    public List<PostViewDto> getTrendingPosts(
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "size", required = false) Integer size) {
+        if (loginUserDetails == null) {
+            // 非ログインユーザーは拒否
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
+        }
+        return postsService.getTrendingPostsWithLikes(loginUserDetails.getUser(), size);
+    }
+
+    /**
+     * 本文に検索語を含む投稿を、作成日時の新しい順に1ページ分取得するAPI。
+     * 検索語は空白・記号で区切られた語、日本語は隣接2文字ごとに分割し、すべてを含む投稿を返す。
+     * 検索語が空、または長すぎる場合は400 Bad Requestを返す。
+     * 
+     * @param loginUserDetails 認証済みユーザー情報
+     * @param query 検索語
+     * @param cursor 前ページのレスポンスに含まれるnextカーソル（先頭ページは省略）
+     * @param size ページサイズ（省略時は既定値）
+     * @return 投稿DTOページ（作成日時降順）
+     */
+    @GetMapping("/search")
+    public CursorPageDto<PostViewDto> searchPosts(
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam("q") String query,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        if (loginUserDetails == null) {
+            // 非ログインユーザーは拒否
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
+        }
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "検索語は1文字以上" + MAX_QUERY_LENGTH + "文字以下で入力してください。");
+        }
+        return postsService.searchPostsWithLikes(loginUserDetails.getUser(), query.trim(), parseCursor(cursor), size);
+    }
+
+    /**
+     * 指定されたユーザーがいいねした投稿を、いいねした日時の新しい順に1ページ分取得するAPI。
+     * ログイン済みユーザーのみアクセス可能。
+     * 指定ユーザーが存在しなければ404 Not Foundを返す。
+     * 
+     * @param userId いいねしたユーザーのID(UUID)
+     * @param loginUserDetails 認証済みユーザー情報
+     * @param cursor 前ページのレスポンスに含まれるnextカーソル（先頭ページは省略）
+     * @param size ページサイズ（省略時は既定値）
+     * @return 投稿DTOページ（いいね日時降順）
+     */
+    @GetMapping("/liked/{userId}")
+    public CursorPageDto<PostViewDto> getLikedPosts(
+            @PathVariable UUID userId,
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+
+        if (loginUserDetails == null) {
+            // 非ログインユーザーは拒否
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
+        }
+
+        if (usersService.findIdentity(userId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "指定ユーザーは存在しません");
+        }
+
+        return postsService.getLikedPostsWithLikes(loginUserDetails.getUser(), userId, parseCursor(cursor), size);
+    }
+
+    /**
+     * 新着投稿をServer-Sent Eventsで配信するストリームAPI。
+     * mode=followed では自分＋フォロー中ユーザー、mode=all では全ユーザーの新着投稿を受信する。
+     * 再接続時はブラウザが送る Last-Event-ID ヘッダ（またはlastEventIdパラメータ）以降の投稿を再送する。
+     * 同時接続数の上限に達している場合は503 Service Unavailableを返す。
+     * 
+     * @param loginUserDetails 認証済みユーザー情報
+     * @param mode 'followed'（フォロー中） or 'all'（全体）
+     * @param lastEventIdHeader 最後に受信したイベントID（EventSourceの自動再接続時）
+     * @param lastEventIdParam 最後に受信したイベントID（クライアントが明示的に再接続する場合）
+     * @return SSE接続
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPosts(
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "mode", defaultValue = "followed") String mode,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(name = "lastEventId", required = false) String lastEventIdParam) {
+        if (loginUserDetails == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
+        }
+        if (!"followed".equals(mode) && !"all".equals(mode)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "modeが不正です");
+        }
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        try {
+            return postStreamService.subscribe(loginUserDetails.getUser().getUserId(), "followed".equals(mode), lastEventId);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * クエリパラメータのカーソル文字列を復元する。
+     * 形式が不正な場合は400 Bad Requestを返す。
+     * 
+     * @param cursor カーソル文字列（nullなら先頭ページ）
+     * @return 復元したカーソル／先頭ページの場合はnull
+     */
+    private KeysetCursor parseCursor(String cursor) {
+        try {
+            return KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursorが不正です");
+        }
     }
 }
\ No newline at end of file
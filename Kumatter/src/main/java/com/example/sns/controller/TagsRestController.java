@@ -0,0 +1,90 @@
+package com.example.sns.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.sns.dto.CursorPageDto;
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.PostViewDto;
+import com.example.sns.dto.TagTrendDto;
+import com.example.sns.security.UsersDetails;
+import com.example.sns.service.PostsService;
+import com.example.sns.service.TagTrendService;
+
+/**
+ * ハッシュタグに関するREST APIを提供するコントローラークラス。
+ * タグ別の投稿一覧と急上昇タグを扱う。
+ * 
+ * タグ別の投稿一覧は post_tags のインデックスから取得し、投稿本文は検索しない。
+ * 急上昇タグは TagTrendService がメモリ上で集計しているものを返す。
+ * 
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/tags")
+public class TagsRestController {
+
+    /** 急上昇タグの1回に返す件数の上限 */
+    private static final int MAX_TRENDING_LIMIT = 50;
+
+    private final PostsService postsService;
+    private final TagTrendService tagTrendService;
+
+    public TagsRestController(PostsService postsService, TagTrendService tagTrendService) {
+        this.postsService = postsService;
+        this.tagTrendService = tagTrendService;
+    }
+
+    /**
+     * 指定したハッシュタグの付いた投稿を、作成日時の新しい順に1ページ分取得するAPI。
+     * タグとして無効な文字列の場合は400 Bad Requestを返す。
+     * 
+     * @param tag ハッシュタグ（「#」は省略可）
+     * @param loginUserDetails 認証済みユーザー情報
+     * @param cursor 前ページのレスポンスに含まれるnextカーソル（先頭ページは省略）
+     * @param size ページサイズ（省略時は既定値）
+     * @return 投稿DTOページ（作成日時降順）
+     */
+    @GetMapping("/{tag}/posts")
+    public CursorPageDto<PostViewDto> getTagPosts(
+            @PathVariable String tag,
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        if (loginUserDetails == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
+        }
+        try {
+            return postsService.getTagPostsWithLikes(
+                    loginUserDetails.getUser(), tag, KeysetCursor.decode(cursor), size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * 直近の集計期間内に付けられた投稿数の多いタグを返すAPI。
+     * 
+     * @param limit 返す件数（1〜50、省略時は10）
+     * @param loginUserDetails 認証済みユーザー情報
+     * @return 急上昇タグのリスト（投稿数降順）
+     */
+    @GetMapping("/trending")
+    public List<TagTrendDto> getTrendingTags(
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @AuthenticationPrincipal UsersDetails loginUserDetails) {
+        if (loginUserDetails == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
+        }
+        return tagTrendService.findTrending(Math.max(1, Math.min(limit, MAX_TRENDING_LIMIT)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.sns.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.sns.dto.CursorPageDto;
+import com.example.sns.dto.FollowUserDto;
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.security.UsersDetails;
+import com.example.sns.service.FollowsService;
+import com.example.sns.service.UsersService;
+
+/**
+ * フォロワー・フォロー中ユーザー一覧のAPIコントローラー。
+ * 一覧はフォロー日時の新しい順に、キーセットページングで1ページずつ返す。
+ * 各ユーザーにはログインユーザーとのフォロー関係を付けて返す。
+ * 
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserFollowsRestController {
+
+    private final FollowsService followsService;
+    private final UsersService usersService;
+
+    public UserFollowsRestController(
+            FollowsService followsService,
+            UsersService usersService) {
+        this.followsService = followsService;
+        this.usersService = usersService;
+    }
+
+    /**
+     * 指定ユーザーのフォロワー一覧を1ページ分取得するAPI。
+     * 
+     * @param userId 対象のユーザーID
+     * @param loginUserDetails 認証済みユーザー情報
+     * @param cursor 前ページのレスポンスに含まれるnextカーソル（先頭ページは省略）
+     * @param size ページサイズ（省略時は既定値）
+     * @return フォロワーのページ（フォローされた日時の新しい順）
+     */
+    @GetMapping("/{userId}/followers")
+    public CursorPageDto<FollowUserDto> getFollowers(
+            @PathVariable UUID userId,
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        UUID viewerId = requireViewer(loginUserDetails);
+        requireUser(userId);
+        return followsService.getFollowers(userId, viewerId, parseCursor(cursor), size);
+    }
+
+    /**
+     * 指定ユーザーのフォロー中ユーザー一覧を1ページ分取得するAPI。
+     * 
+     * @param userId 対象のユーザーID
+     * @param loginUserDetails 認証済みユーザー情報
+     * @param cursor 前ページのレスポンスに含まれるnextカーソル（先頭ページは省略）
+     * @param size ページサイズ（省略時は既定値）
+     * @return フォロー中ユーザーのページ（フォローした日時の新しい順）
+     */
+    @GetMapping("/{userId}/following")
+    public CursorPageDto<FollowUserDto> getFollowees(
+            @PathVariable UUID userId,
+            @AuthenticationPrincipal UsersDetails loginUserDetails,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        UUID viewerId = requireViewer(loginUserDetails);
+        requireUser(userId);
+        return followsService.getFollowees(userId, viewerId, parseCursor(cursor), size);
+    }
+
+    /**
+     * ログインユーザーのIDを返す。ログインしていなければ401 Unauthorizedを返す。
+     * 
+     * @param loginUserDetails 認証済みユーザー情報
+     * @return ログインユーザーのID
+     */
+    private UUID requireViewer(UsersDetails loginUserDetails) {
+        if (loginUserDetails == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ログインが必要です");
+        }
+        return loginUserDetails.getUser().getUserId();
+    }
+
+    /**
+     * 指定ユーザーが存在しなければ404 Not Foundを返す。
+     * 
+     * @param userId ユーザーID
+     */
+    private void requireUser(UUID userId) {
+        if (usersService.findIdentity(userId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "指定ユーザーは存在しません");
+        }
+    }
+
+    /**
+     * クエリパラメータのカーソル文字列を復元する。
+     * 形式が不正な場合は400 Bad Requestを返す。
+     * 
+     * @param cursor カーソル文字列（nullなら先頭ページ）
+     * @return 復元したカーソル／先頭ページの場合はnull
+     */
+    private KeysetCursor parseCursor(String cursor) {
+        try {
+            return KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursorが不正です");
+        }
+    }
+}
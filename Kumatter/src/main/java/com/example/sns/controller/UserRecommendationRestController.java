@@ -0,0 +1,60 @@
+package com.example.sns.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.sns.dto.UserRecommendationDto;
+import com.example.sns.security.UsersDetails;
+import com.example.sns.service.UserRecommendationService;
+
+/**
+ * おすすめユーザー（フォローしているユーザーがフォローしているユーザー）のAPIコントローラー。
+ * ホーム画面のサイドバーから呼び出される。
+ * 
+ * 候補は UserRecommendationService がメモリに保持しているものを返すため、
+ * 表示のたびに2ホップの集計SQLは実行しない。
+ * 
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/users/recommendations")
+public class UserRecommendationRestController {
+
+    /** 1回に返す件数の上限 */
+    private static final int MAX_LIMIT = 20;
+
+    private final UserRecommendationService userRecommendationService;
+
+    public UserRecommendationRestController(UserRecommendationService userRecommendationService) {
+        this.userRecommendationService = userRecommendationService;
+    }
+
+    /**
+     * ログインユーザーへのおすすめユーザーを返すAPI。
+     * 
+     * @param limit 返す件数（1〜20、省略時は5）
+     * @param userDetails 現在認証済みユーザーの情報（Spring Securityから注入）
+     * @return おすすめユーザー一覧（共通のつながりの多い順）
+     */
+    @GetMapping
+    public ResponseEntity<?> recommendUsers(
+            @RequestParam(name = "limit", defaultValue = "5") int limit,
+            @AuthenticationPrincipal UsersDetails userDetails) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("ログインしてください");
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<UserRecommendationDto> recommendations =
+                userRecommendationService.recommend(userDetails.getUser().getUserId(), size);
+        return ResponseEntity.ok(recommendations);
+    }
+}
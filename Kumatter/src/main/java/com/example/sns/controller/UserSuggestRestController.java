@@ -18,7 +18,7 @@ import com.example.sns.service.UsersService;
  * ユーザー名またはログインIDによる予測検索APIコントローラー。
  * 入力文字列に対して部分一致検索を行い、候補を最大10件返す。
  * 
- * SQLインジェクション防止のため、検索語はバインド処理される。
+ * 検索はメモリ上の索引（UserSearchIndex）で行い、DBへは問い合わせない。
  * 
  * @author 岡本
  * @since 2025-07-10
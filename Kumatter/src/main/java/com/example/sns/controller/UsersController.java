@@ -7,13 +7,15 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.example.sns.dto.UserProfileDto;
 import com.example.sns.entity.Users;
-import com.example.sns.repository.FollowsRepository;
 import com.example.sns.repository.LikesRepository;
 import com.example.sns.repository.PostsRepository;
 import com.example.sns.security.UsersDetails;
+import com.example.sns.service.ChangeVersionService;
+import com.example.sns.service.FollowGraphService;
 import com.example.sns.service.PostsService;
 import com.example.sns.service.UsersService;
 
@@ -28,42 +30,51 @@ import com.example.sns.service.UsersService;
 public class UsersController {
 	private final UsersService usersService;
 	private final PostsService postsService;
-	private final FollowsRepository followsRepository;
+	private final FollowGraphService followGraphService;
+	private final ChangeVersionService changeVersionService;
 	
 	public UsersController(
 			UsersService usersService, 
 			PostsService postsService, 
-			FollowsRepository followsRepository,
+			FollowGraphService followGraphService,
 			LikesRepository likesRepository,
-			PostsRepository postsRepository) {
+			PostsRepository postsRepository,
+			ChangeVersionService changeVersionService) {
 		this.usersService = usersService;
 		this.postsService = postsService;
-		this.followsRepository = followsRepository;
+		this.followGraphService = followGraphService;
+		this.changeVersionService = changeVersionService;
 	}
 	/**
 	 * 指定されたユーザーIDのプロフィールページを表示する。
+	 * 前回の表示以降に変更が無ければ304 Not Modifiedを返す。
+	 * ユーザーの存在確認は識別情報のキャッシュで行い、DBの読み取りはプロフィール（主キーでの1回）と投稿一覧のみとする。
 	 * 
 	 * @param userId URLパスのユーザーID（UUID）
 	 * @param model Viewに渡すモデル
-	 * @return ユーザープロフィール画面のテンプレート名（例: "user_profile"）
+	 * @param webRequest 条件付きGETの判定に使うリクエスト
+	 * @return ユーザープロフィール画面のテンプレート名（例: "user_profile"）。304の場合はnull
 	 */
 	@GetMapping("/users/{userId}")
 	public String showUserProfile(
 			@PathVariable("userId") UUID userId, 
 			@AuthenticationPrincipal UsersDetails loginUserDetails,
-			Model model) {
+			Model model,
+			ServletWebRequest webRequest) {
 		if (loginUserDetails == null)  return "redirect:/users/login"; 
 		
-		Users user = usersService.findByUserId(userId);
-		if (user == null) return "error/404";
+		if (usersService.findIdentity(userId) == null) return "error/404";
 		
 		Users loginUser = loginUserDetails.getUser();
+		String etag = changeVersionService.profileETag(userId, loginUser.getUserId(), webRequest.getSessionId());
+		if (ConditionalGetSupport.notModified(webRequest, etag)) return null;
+		
 		UserProfileDto profileDto = usersService.getUserProfileDto(userId);
 		
 		model.addAttribute("user",  profileDto);
-		model.addAttribute("posts", postsService.getPostsByUserWithLikes(loginUser, user));
-		model.addAttribute("isOwnProfile", loginUser.getUserId().equals(user.getUserId()));
-		model.addAttribute("isFollowing", followsRepository.existsByFollowerAndFollowee(loginUser, user));
+		model.addAttribute("posts", postsService.getPostsByUserWithLikes(loginUser, userId, null, null).getItems());
+		model.addAttribute("isOwnProfile", loginUser.getUserId().equals(userId));
+		model.addAttribute("isFollowing", followGraphService.isFollowing(loginUser.getUserId(), userId));
 		return "user_profile";
 	}
 }
\ No newline at end of file
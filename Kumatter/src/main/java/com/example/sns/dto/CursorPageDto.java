@@ -0,0 +1,27 @@
+package com.example.sns.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * キーセットページングAPIのレスポンスを表す汎用DTOクラス。
+ * 1ページ分の要素と、次ページ取得用の不透明なカーソルを持つ。
+ *
+ * @param <T> ページに含まれる要素の型
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+	/** 1ページ分の要素（並び順はAPIごとに定義） */
+	private List<T> items;
+	/** 次ページ取得用カーソル。最終ページの場合はnull */
+	private String next;
+}
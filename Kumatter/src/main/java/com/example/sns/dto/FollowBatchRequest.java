@@ -0,0 +1,20 @@
+package com.example.sns.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * フォロー一括APIのリクエストを表すDTOクラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+public class FollowBatchRequest {
+	/** フォロー対象のユーザーIDのリスト */
+	private List<UUID> userIds;
+}
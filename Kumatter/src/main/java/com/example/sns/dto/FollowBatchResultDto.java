@@ -0,0 +1,36 @@
+package com.example.sns.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * フォロー一括APIの、対象ユーザーごとの結果を表すDTOクラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowBatchResultDto {
+	/** 新たにフォローした */
+	public static final String FOLLOWED = "followed";
+	/** 既にフォロー済みだった */
+	public static final String ALREADY_FOLLOWING = "already_following";
+	/** ユーザーが存在しない */
+	public static final String NOT_FOUND = "not_found";
+	/** 自分自身のためフォローしなかった */
+	public static final String SELF = "self";
+
+	/** 対象のユーザーID */
+	private UUID userId;
+	/** 操作後にフォロー中かどうか */
+	private boolean following;
+	/** 結果の種類（FOLLOWED / ALREADY_FOLLOWING / NOT_FOUND / SELF） */
+	private String status;
+}
@@ -0,0 +1,43 @@
+package com.example.sns.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * フォロー中・フォロワー一覧の表示用DTOクラス。
+ * 一覧の表示に必要な最小限のユーザー情報と、閲覧ユーザーとのフォロー関係を持つ。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowUserDto {
+	/** フォロー関係のID（次ページのカーソル生成に使用。レスポンスには含めない） */
+	@JsonIgnore
+	private UUID followId;
+	/** フォローした日時（次ページのカーソル生成に使用。レスポンスには含めない） */
+	@JsonIgnore
+	private LocalDateTime followedAt;
+	/** ユーザーID */
+	private UUID userId;
+	/** 表示用ユーザー名 */
+	private String userName;
+	/** ログインID */
+	private String loginId;
+	/** ログインユーザーがこのユーザーをフォローしているか */
+	private boolean followedByLoginUser;
+	/** このユーザーがログインユーザーをフォローしているか */
+	private boolean followingLoginUser;
+	/** ログインユーザー自身かどうか */
+	private boolean self;
+}
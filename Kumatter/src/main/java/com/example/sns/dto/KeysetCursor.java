@@ -0,0 +1,65 @@
+package com.example.sns.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * キーセットページング用のカーソルを表すクラス。
+ * 「作成日時（created_at）＋ID」の組で並び順上の位置を一意に表す。
+ *
+ * クライアントには encode() した不透明な文字列として渡し、
+ * 次ページ要求時に decode() して復元する。
+ * OFFSET方式と異なり、新しい行が追加されても既に返したページの位置はずれない。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+	/** 区切り文字（日時・UUIDのどちらにも現れない文字） */
+	private static final String SEPARATOR = "|";
+	/** 最後に返した行の作成日時 */
+	private final LocalDateTime createdAt;
+	/** 最後に返した行のID（同一日時の並びを一意にするためのタイブレーク） */
+	private final UUID id;
+
+	/**
+	 * カーソルをURLセーフなBase64文字列に変換する。
+	 *
+	 * @return クライアントに渡す不透明なカーソル文字列
+	 */
+	public String encode() {
+		String raw = createdAt + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * クライアントから受け取ったカーソル文字列を復元する。
+	 * nullまたは空文字の場合は「先頭ページ」を意味するnullを返す。
+	 *
+	 * @param cursor encode() で生成されたカーソル文字列
+	 * @return 復元したカーソル／先頭ページの場合はnull
+	 * @throws IllegalArgumentException カーソルの形式が不正な場合
+	 */
+	public static KeysetCursor decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) return null;
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int sep = raw.indexOf(SEPARATOR);
+			if (sep < 0) throw new IllegalArgumentException("カーソルの形式が不正です");
+			return new KeysetCursor(
+					LocalDateTime.parse(raw.substring(0, sep)),
+					UUID.fromString(raw.substring(sep + 1)));
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("カーソルの形式が不正です", e);
+		}
+	}
+}
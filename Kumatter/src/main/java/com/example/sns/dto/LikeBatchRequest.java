@@ -0,0 +1,33 @@
+package com.example.sns.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * いいね一括APIのリクエストを表すDTOクラス。
+ * 投稿ごとに、いいね・いいね解除のどちらの状態にするかを指定する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+public class LikeBatchRequest {
+	/** 投稿ごとの操作のリスト */
+	private List<Item> items;
+
+	/**
+	 * 投稿1件分の操作。
+	 */
+	@Getter
+	@Setter
+	public static class Item {
+		/** 対象の投稿ID */
+		private UUID postId;
+		/** true: いいね / false: いいね解除 */
+		private boolean liked;
+	}
+}
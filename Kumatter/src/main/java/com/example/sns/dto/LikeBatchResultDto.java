@@ -0,0 +1,34 @@
+package com.example.sns.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * いいね一括APIの、投稿ごとの結果を表すDTOクラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeBatchResultDto {
+	/** 指定した状態になった（既にその状態だった場合を含む） */
+	public static final String OK = "ok";
+	/** 投稿が存在しない */
+	public static final String NOT_FOUND = "not_found";
+
+	/** 対象の投稿ID */
+	private UUID postId;
+	/** 操作後にログインユーザーがいいね済みかどうか */
+	private boolean liked;
+	/** 投稿の現在のいいね数 */
+	private int likeCount;
+	/** 結果の種類（OK / NOT_FOUND） */
+	private String status;
+}
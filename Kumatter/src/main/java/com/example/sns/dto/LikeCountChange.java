@@ -0,0 +1,16 @@
+package com.example.sns.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * いいねの追加・削除によって変化した投稿のいいね数。
+ *
+ * @param postAuthorId 投稿者のユーザーID
+ * @param likeCount 変化後のいいね数
+ * @param likedAt 追加・削除したいいねの作成日時
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record LikeCountChange(UUID postAuthorId, int likeCount, LocalDateTime likedAt) {
+}
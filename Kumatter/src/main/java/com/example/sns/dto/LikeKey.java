@@ -0,0 +1,15 @@
+package com.example.sns.dto;
+
+import java.util.UUID;
+
+/**
+ * 「どのユーザーがどの投稿に」いいねするかの組を表すキー。
+ * likes テーブルのユニーク制約 (user_id, post_id) に対応する。
+ *
+ * @param userId ユーザーID
+ * @param postId 投稿ID
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record LikeKey(UUID userId, UUID postId) {
+}
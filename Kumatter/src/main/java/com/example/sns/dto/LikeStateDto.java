@@ -0,0 +1,24 @@
+package com.example.sns.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * いいね追加・解除APIのレスポンスを表すDTOクラス。
+ * 操作後のいいね状態と、投稿の現在のいいね数を持つ。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeStateDto {
+	/** 操作後にログインユーザーがいいね済みかどうか */
+	private boolean liked;
+	/** 投稿の現在のいいね数 */
+	private int likeCount;
+}
@@ -0,0 +1,26 @@
+package com.example.sns.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * いいねした投稿一覧の1件を表すレコード。
+ * 投稿表示用DTOに、次ページのカーソル生成に使う「いいね」側の位置を添える。
+ *
+ * @param post 投稿表示用DTO
+ * @param likedAt いいねした日時
+ * @param likeId いいねID
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record LikedPostView(PostViewDto post, LocalDateTime likedAt, UUID likeId) {
+	/**
+	 * この行の位置を次ページ取得用のカーソルに変換する。
+	 *
+	 * @return キーセットカーソル
+	 */
+	public KeysetCursor toCursor() {
+		return new KeysetCursor(likedAt, likeId);
+	}
+}
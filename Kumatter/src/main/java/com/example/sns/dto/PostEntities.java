@@ -0,0 +1,15 @@
+package com.example.sns.dto;
+
+import java.util.Set;
+
+/**
+ * 投稿本文から抽出したハッシュタグとメンションを表すレコード。
+ *
+ * @param tags ハッシュタグ（「#」を除き、正規化・小文字化したもの。出現順）
+ * @param mentions メンション先のログインID（「@」を除き、小文字化したもの。出現順）
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record PostEntities(Set<String> tags, Set<String> mentions) {
+}
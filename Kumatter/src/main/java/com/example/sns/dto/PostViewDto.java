@@ -1,6 +1,9 @@
 package com.example.sns.dto;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -8,8 +11,9 @@ import lombok.Setter;
 /**
  * 投稿一覧表示用のDTOクラス。
  * Postsエンティティの情報に加え、表示に必要な加工済みの情報を持つ。
- * 例えば、投稿の相対時間表示やログインユーザーのいいね状態などを含む。
- * ビュー（Thymeleafなど）に渡すことで画面表示を容易にする。
+ * 例えば、投稿者の表示名やログインユーザーのいいね状態などを含む。
+ * 相対時刻（「5分前」など）は閲覧時刻に依存するため、クライアント側で投稿日時から表示する。
+ * JSONへの変換は PostViewJsonSerializer が行う。
  * 
  * @author 岡本
  * @since 2025-07-10
@@ -23,8 +27,11 @@ public class PostViewDto {
 	private UUID postId;
 	/** 投稿内容（テキスト） */
 	private String content;
-	/** 投稿からの経過時間を表す相対時刻文字列（例：「5分前」） */
-	private String relativeTime;
+	/** 投稿日時（エポックミリ秒。クライアントで相対時刻の表示に使用） */
+	private long postedAt;
+	/** 投稿の作成日時（次ページのカーソル生成に使用。レスポンスには含めない） */
+	@JsonIgnore
+	private LocalDateTime createdAt;
 	/** 投稿者のユーザーID（プロフィールページへのリンク用） */
 	private UUID userId;
 	/** 投稿者のユーザー名 */
@@ -0,0 +1,15 @@
+package com.example.sns.dto;
+
+import java.util.UUID;
+
+/**
+ * おすすめユーザーの候補（フォローグラフ上の2ホップ先のユーザー）を表すレコード。
+ *
+ * @param userId 候補のユーザーID
+ * @param mutualCount 共通のつながりの数（自分がフォローしているユーザーのうち、候補をフォローしている人数）
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record RecommendationCandidate(UUID userId, int mutualCount) {
+}
@@ -0,0 +1,15 @@
+package com.example.sns.dto;
+
+/**
+ * 閲覧ユーザーから見た、相手ユーザーとのフォロー関係を表すレコード。
+ *
+ * @param following 閲覧ユーザーが相手をフォローしているか
+ * @param followedBy 相手が閲覧ユーザーをフォローしているか
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record Relationship(boolean following, boolean followedBy) {
+	/** フォロー関係なし（未ログイン・自分自身を含む） */
+	public static final Relationship NONE = new Relationship(false, false);
+}
@@ -0,0 +1,23 @@
+package com.example.sns.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 急上昇タグの表示用DTOクラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagTrendDto {
+	/** ハッシュタグ（「#」を除く） */
+	private String tag;
+	/** 集計期間内にこのタグを付けた投稿の数 */
+	private int postCount;
+}
@@ -0,0 +1,56 @@
+package com.example.sns.dto;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+import com.example.sns.util.UuidOrder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * タイムライン上の1投稿の位置（投稿ID＋作成日時）だけを持つ軽量な参照クラス。
+ * タイムライン生成エンジンはこの参照の並びを返し、
+ * 表示用の情報はページ確定後にまとめて取得する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class TimelinePostRef {
+	/**
+	 * タイムラインの並び順（作成日時の降順、同時刻は投稿IDの降順）。
+	 * 投稿IDはPostgreSQLのuuid型と同じく符号なしのバイト順で比較し、
+	 * DB側のキーセット条件と並びを一致させる。
+	 */
+	public static final Comparator<TimelinePostRef> NEWEST_FIRST =
+			Comparator.comparing(TimelinePostRef::getCreatedAt)
+				.thenComparing(TimelinePostRef::getPostId, UuidOrder.UNSIGNED)
+				.reversed();
+	/** 投稿ID */
+	private final UUID postId;
+	/** 投稿の作成日時 */
+	private final LocalDateTime createdAt;
+
+	/**
+	 * この参照の位置を指すカーソルを作成する。
+	 *
+	 * @return キーセットカーソル
+	 */
+	public KeysetCursor toCursor() {
+		return new KeysetCursor(createdAt, postId);
+	}
+
+	/**
+	 * 指定カーソルより古い（並び順で後ろにある）かどうかを判定する。
+	 *
+	 * @param cursor 比較するカーソル（nullの場合は常にtrue）
+	 * @return カーソルより後ろに並ぶ場合はtrue
+	 */
+	public boolean isBefore(KeysetCursor cursor) {
+		if (cursor == null) return true;
+		return NEWEST_FIRST.compare(this, new TimelinePostRef(cursor.getId(), cursor.getCreatedAt())) > 0;
+	}
+}
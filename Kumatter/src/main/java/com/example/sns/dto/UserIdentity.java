@@ -0,0 +1,18 @@
+package com.example.sns.dto;
+
+import java.util.UUID;
+
+/**
+ * リクエストをまたいでキャッシュするユーザーの識別情報を表すレコード。
+ * パスワードや自己紹介文などは含まない。
+ *
+ * @param userId ユーザーID
+ * @param loginId ログインID
+ * @param email メールアドレス
+ * @param userName ユーザー名
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record UserIdentity(UUID userId, String loginId, String email, String userName) {
+}
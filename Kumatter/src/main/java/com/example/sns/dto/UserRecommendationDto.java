@@ -0,0 +1,31 @@
+package com.example.sns.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * おすすめユーザー（フォローしているユーザーがフォローしているユーザー）の表示用DTOクラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRecommendationDto {
+	/** ユーザーID */
+	private UUID userId;
+	/** 表示用ユーザー名 */
+	private String userName;
+	/** ログインID */
+	private String loginId;
+	/** 共通のつながりの数 */
+	private int mutualCount;
+	/** 相手がログインユーザーをフォローしているか */
+	private boolean followingLoginUser;
+}
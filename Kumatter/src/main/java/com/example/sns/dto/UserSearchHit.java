@@ -0,0 +1,16 @@
+package com.example.sns.dto;
+
+import java.util.UUID;
+
+/**
+ * ユーザー検索の索引から返される候補を表すレコード。
+ *
+ * @param userId ユーザーID
+ * @param loginId ログインID
+ * @param userName ユーザー名
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record UserSearchHit(UUID userId, String loginId, String userName) {
+}
@@ -0,0 +1,37 @@
+package com.example.sns.dto;
+
+/**
+ * ユーザーごとの件数（user_stats）の増減を表すレコード。
+ * 複数の操作による増減を合算してから、まとめて反映するために使用する。
+ *
+ * @param posts 投稿数の増減
+ * @param following フォロー数の増減
+ * @param followers フォロワー数の増減
+ * @param liked いいね数の増減
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public record UserStatsDelta(int posts, int following, int followers, int liked) {
+	/**
+	 * 2つの増減を合算する。
+	 *
+	 * @param other 加算する増減
+	 * @return 合算後の増減
+	 */
+	public UserStatsDelta plus(UserStatsDelta other) {
+		return new UserStatsDelta(
+				posts + other.posts,
+				following + other.following,
+				followers + other.followers,
+				liked + other.liked);
+	}
+	/**
+	 * 増減が無いかどうかを返す。
+	 *
+	 * @return すべての件数の増減が0の場合はtrue
+	 */
+	public boolean isZero() {
+		return posts == 0 && following == 0 && followers == 0 && liked == 0;
+	}
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -35,7 +36,14 @@ import lombok.Setter;
  */
 @Entity
 @Table(name = "follows",
-	uniqueConstraints = @UniqueConstraint(columnNames = {"follower_id", "followee_id"}))
+	uniqueConstraints = @UniqueConstraint(columnNames = {"follower_id", "followee_id"}),
+	indexes = {
+		// 投稿者のフォロワーを引く（タイムラインのファンアウト等）
+		@Index(name = "idx_follows_followee_id", columnList = "followee_id"),
+		// フォロワー・フォロー中一覧のキーセットページング（INCLUDE列は db/006 で定義）
+		@Index(name = "idx_follows_followee_id_created_at_follow_id", columnList = "followee_id, created_at DESC, follow_id DESC"),
+		@Index(name = "idx_follows_follower_id_created_at_follow_id", columnList = "follower_id, created_at DESC, follow_id DESC")
+	})
 @Getter
 @Setter
 @NoArgsConstructor
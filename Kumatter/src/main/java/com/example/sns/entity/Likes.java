@@ -8,6 +8,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -34,7 +35,13 @@ import lombok.Setter;
  */
 @Entity
 @Table(name = "likes",
-	uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "post_id"}))
+	uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "post_id"}),
+	indexes = {
+		// 投稿ごとのいいね数集計用（ユニーク制約は user_id 先頭のため post_id 単独の検索に使えない）
+		@Index(name = "idx_likes_post_id", columnList = "post_id"),
+		// いいねした投稿一覧のキーセットページング用（INCLUDE列は db/007 で定義）
+		@Index(name = "idx_likes_user_id_created_at_like_id", columnList = "user_id, created_at DESC, like_id DESC")
+	})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,5 +1,6 @@
 package com.example.sns.entity;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 import jakarta.persistence.Column;
@@ -8,6 +9,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -29,7 +31,13 @@ import lombok.Setter;
 * @since 2025-07-09
 */
 @Entity
-@Table(name = "posts")
+@Table(name = "posts",
+	indexes = {
+		// 全体タイムラインのキーセットページング用（created_at, post_id の降順走査）
+		@Index(name = "idx_posts_created_at_post_id", columnList = "created_at DESC, post_id DESC"),
+		// ユーザー別・フォロー中タイムラインのキーセットページング用
+		@Index(name = "idx_posts_user_id_created_at_post_id", columnList = "user_id, created_at DESC, post_id DESC")
+	})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -68,6 +76,14 @@ public class Posts {
 	 */
 	@Column(name = "spread_source_id")
 	private UUID spreadSourceId;
+	/**
+	 * いいね数（likes テーブルの件数の非正規化カウンタ）。
+	 * いいねの追加・削除と同じトランザクションでSQLにより加減算されるため、
+	 * エンティティの更新では書き換えない（updatable = false）。
+	 */
+	@Builder.Default
+	@Column(name = "like_count", nullable = false, updatable = false)
+	private int likeCount = 0;
 	/**
 	 * 投稿作成日時。
 	 * レコード作成時に自動設定。
@@ -93,10 +109,12 @@ public class Posts {
 	/**
 	 * エンティティが初めて永続化される直前に呼び出されるコールバック。
 	 * 作成日時・更新日時を現在時刻で初期化する。
+	 * DB（timestamp型）の精度に合わせてマイクロ秒で切り捨て、
+	 * 保存後のエンティティの値とDBの値が一致するようにする（カーソル比較のため）。
 	 */
 	@PrePersist
 	public void prePersist() {
-		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 		createdAt = now;
 		updatedAt = now;
 	}
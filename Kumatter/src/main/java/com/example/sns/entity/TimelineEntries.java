@@ -0,0 +1,74 @@
+package com.example.sns.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * TimelineEntriesエンティティ：ユーザーごとのホームタイムライン受信箱（inbox）を表現するクラス。
+ *
+ * 投稿作成時にフォロワーへ書き込み時ファンアウトされた「投稿への参照」を保持する。
+ * 表示に必要な情報は持たず、並び順（created_at, post_id）と投稿者IDのみを非正規化して持つ。
+ * owner_id と post_id の組み合わせは一意。
+ *
+ * 列は参照整合性のためのリレーションを持たない（大量のINSERT/DELETEを単一SQLで行うため）。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Entity
+@Table(name = "timeline_entries",
+	uniqueConstraints = @UniqueConstraint(columnNames = {"owner_id", "post_id"}),
+	indexes = {
+		// 受信箱のキーセットページング用
+		@Index(name = "idx_timeline_entries_owner_created", columnList = "owner_id, created_at DESC, post_id DESC"),
+		// フォロー解除時の削除用
+		@Index(name = "idx_timeline_entries_owner_author", columnList = "owner_id, author_id")
+	})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimelineEntries {
+	/**
+	 * エントリID（主キー）。自動生成されるUUID。
+	 */
+	@Id
+	@GeneratedValue
+	@Column(name = "entry_id", nullable = false)
+	private UUID entryId;
+	/**
+	 * 受信箱の持ち主（タイムラインを閲覧するユーザー）のID。
+	 */
+	@Column(name = "owner_id", nullable = false)
+	private UUID ownerId;
+	/**
+	 * 配信された投稿のID。
+	 */
+	@Column(name = "post_id", nullable = false)
+	private UUID postId;
+	/**
+	 * 投稿者のユーザーID。フォロー解除時の刈り込みに使用する。
+	 */
+	@Column(name = "author_id", nullable = false)
+	private UUID authorId;
+	/**
+	 * 投稿の作成日時（posts.created_at の複製）。並び順のキーとなる。
+	 */
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+}
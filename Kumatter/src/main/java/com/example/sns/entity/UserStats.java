@@ -0,0 +1,60 @@
+package com.example.sns.entity;
+
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * UserStatsエンティティ：ユーザーごとの件数（posts / follows / likes の非正規化カウンタ）を表現するクラス。
+ *
+ * 件数は投稿・フォロー・いいねの操作と同じトランザクションで UserStatsRepository の
+ * ネイティブSQLにより加減算するため、エンティティ経由では更新しない。
+ * 行が存在しないユーザーは全件数0として扱う。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Entity
+@Table(name = "user_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserStats {
+	/**
+	 * ユーザーID（主キー。users.user_id と同じ値）。
+	 */
+	@Id
+	@Column(name = "user_id", nullable = false)
+	private UUID userId;
+	/**
+	 * 投稿数。
+	 */
+	@Column(name = "post_count", nullable = false, updatable = false)
+	private int postCount;
+	/**
+	 * フォロー中の人数。
+	 */
+	@Column(name = "following_count", nullable = false, updatable = false)
+	private int followingCount;
+	/**
+	 * フォロワー数。
+	 */
+	@Column(name = "follower_count", nullable = false, updatable = false)
+	private int followerCount;
+	/**
+	 * いいねした投稿の数。
+	 */
+	@Column(name = "liked_count", nullable = false, updatable = false)
+	private int likedCount;
+}
@@ -7,6 +7,7 @@ import java.util.UUID;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
@@ -16,17 +17,21 @@ import jakarta.persistence.Table;
 
 import org.hibernate.annotations.UuidGenerator;
 
+import com.example.sns.service.UserIdentityCacheListener;
+
 import lombok.Getter;
 import lombok.Setter;
 /**
 * ユーザー情報を表すJPAエンティティクラス。
 * DBの users テーブルに対応します。
+* 更新・削除時はユーザー識別情報のキャッシュから破棄されます（UserIdentityCacheListener）。
 * 
 * @author 岡本
 * @since 2025-07-07
 */
 @Entity
 @Table(name = "users")
+@EntityListeners(UserIdentityCacheListener.class)
 @Getter
 @Setter
 public class Users {
@@ -0,0 +1,24 @@
+package com.example.sns.event;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * フォロー関係が追加・解除されたことを表すドメインイベント。
+ * FollowsService が発行し、コミット後にタイムライン等の派生データを更新する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class FollowChangedEvent {
+	/** フォローする側のユーザーID */
+	private final UUID followerId;
+	/** フォローされる側のユーザーID */
+	private final UUID followeeId;
+	/** true: フォロー追加 / false: フォロー解除 */
+	private final boolean following;
+}
@@ -0,0 +1,30 @@
+package com.example.sns.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * いいねが追加・解除されたことを表すドメインイベント。
+ * LikesService が実際に行を追加・削除した場合にだけ発行し、
+ * コミット後にいいね状態のキャッシュ等の派生データを更新する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class LikeChangedEvent {
+	/** いいねしたユーザーのID */
+	private final UUID userId;
+	/** いいね対象の投稿ID */
+	private final UUID postId;
+	/** いいね対象の投稿の投稿者ID */
+	private final UUID postAuthorId;
+	/** true: いいね追加 / false: いいね解除 */
+	private final boolean liked;
+	/** いいねした日時（解除の場合は解除したいいねの作成日時） */
+	private final LocalDateTime likedAt;
+}
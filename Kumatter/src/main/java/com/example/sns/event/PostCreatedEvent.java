@@ -0,0 +1,25 @@
+package com.example.sns.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 通常投稿が作成されたことを表すドメインイベント。
+ * PostsService が投稿保存時に発行し、コミット後にタイムライン等の派生データを更新する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class PostCreatedEvent {
+	/** 作成された投稿のID */
+	private final UUID postId;
+	/** 投稿者のユーザーID */
+	private final UUID authorId;
+	/** 投稿の作成日時 */
+	private final LocalDateTime createdAt;
+}
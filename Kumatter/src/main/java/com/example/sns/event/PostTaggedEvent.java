@@ -0,0 +1,26 @@
+package com.example.sns.event;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * ハッシュタグ付きの投稿が作成されたことを表すドメインイベント。
+ * PostsService が投稿保存時に発行し、コミット後に急上昇タグの集計へ反映する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class PostTaggedEvent {
+	/** 作成された投稿のID */
+	private final UUID postId;
+	/** ハッシュタグ（正規化済み） */
+	private final Set<String> tags;
+	/** 投稿の作成日時 */
+	private final LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.example.sns.event;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * ユーザーが登録されたことを表すドメインイベント。
+ * UsersService がユーザー登録時に発行し、コミット後にユーザー検索の索引等を更新する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class UserRegisteredEvent {
+	/** 登録されたユーザーのID */
+	private final UUID userId;
+	/** ログインID */
+	private final String loginId;
+	/** ユーザー名 */
+	private final String userName;
+}
@@ -18,7 +18,7 @@ import com.example.sns.entity.Users;
  * @author 岡本
  * @since 2025-07-10
  */
-public interface FollowsRepository extends JpaRepository<Follows, UUID> {
+public interface FollowsRepository extends JpaRepository<Follows, UUID>, FollowsRepositoryCustom {
 	/**
 	 * ログインユーザーが指定ユーザーをフォローしているかを判定します。
 	 *
@@ -40,8 +40,9 @@ public interface FollowsRepository extends JpaRepository<Follows, UUID> {
 	 *
 	 * @param follower フォローしている側
 	 * @param followee フォローされている側
+	 * @return 削除した件数（フォローしていなかった場合は0）
 	 */
-	void deleteByFollowerAndFollowee(Users follower, Users followee);
+	long deleteByFollowerAndFollowee(Users follower, Users followee);
 	/**
 	 * 指定ユーザーがフォローしているユーザーID一覧を取得します。
 	 *
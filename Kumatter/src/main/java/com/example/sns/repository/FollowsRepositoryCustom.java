@@ -0,0 +1,63 @@
+package com.example.sns.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.example.sns.dto.FollowUserDto;
+import com.example.sns.dto.KeysetCursor;
+
+/**
+ * フォロー関係の単一SQL・バッチでの書き込みと、一覧のページング取得を定義するリポジトリ拡張インタフェース。
+ * 実装は {@link FollowsRepositoryCustomImpl} で、{@link FollowsRepository} に合成される。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public interface FollowsRepositoryCustom {
+	/**
+	 * フォロー関係を1回のSQLで追加する。既にフォロー済みの場合は何もしない。
+	 * ユーザーの存在は外部キー制約で検証する（存在しない場合は DataIntegrityViolationException）。
+	 *
+	 * @param followerId フォローする側のユーザーID
+	 * @param followeeId フォローされる側のユーザーID
+	 * @return 新たに追加した場合はtrue、既にフォロー済みの場合はfalse
+	 */
+	boolean insertFollowIfAbsent(UUID followerId, UUID followeeId);
+	/**
+	 * フォロー関係を1回のSQLで削除する。
+	 *
+	 * @param followerId フォローしている側のユーザーID
+	 * @param followeeId フォローされている側のユーザーID
+	 * @return 削除した場合はtrue、フォローしていなかった場合はfalse
+	 */
+	boolean deleteFollow(UUID followerId, UUID followeeId);
+	/**
+	 * 複数ユーザーへのフォロー関係をJDBCバッチでまとめて追加する。
+	 * 既にフォロー済みの組・存在しないユーザーへの組は何もしない。
+	 *
+	 * @param followerId フォローする側のユーザーID
+	 * @param followeeIds フォローされる側のユーザーIDのリスト
+	 * @return ユーザーごとの追加件数（1: 追加した / 0: 追加しなかった）。followeeIds と同じ順
+	 */
+	int[] insertFollowsIfAbsent(UUID followerId, List<UUID> followeeIds);
+	/**
+	 * 指定ユーザーのフォロワーを、フォローされた日時の新しい順に1ページ分取得する。
+	 * フォロー関係は閲覧ユーザーとの関係を設定しない（常にfalse）。
+	 *
+	 * @param followeeId フォローされている側のユーザーID
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param limit 取得件数の上限
+	 * @return フォロワーのリスト（フォロー日時降順、同時刻はフォローID降順）
+	 */
+	List<FollowUserDto> findFollowers(UUID followeeId, KeysetCursor cursor, int limit);
+	/**
+	 * 指定ユーザーがフォローしているユーザーを、フォローした日時の新しい順に1ページ分取得する。
+	 * フォロー関係は閲覧ユーザーとの関係を設定しない（常にfalse）。
+	 *
+	 * @param followerId フォローしている側のユーザーID
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param limit 取得件数の上限
+	 * @return フォロー中ユーザーのリスト（フォロー日時降順、同時刻はフォローID降順）
+	 */
+	List<FollowUserDto> findFollowees(UUID followerId, KeysetCursor cursor, int limit);
+}
@@ -0,0 +1,137 @@
+package com.example.sns.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import com.example.sns.dto.FollowUserDto;
+import com.example.sns.dto.KeysetCursor;
+
+/**
+ * {@link FollowsRepositoryCustom} のJDBC実装クラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public class FollowsRepositoryCustomImpl implements FollowsRepositoryCustom {
+	/** 一覧表示用DTOへの変換（相手のユーザーは列名 user_id 等で受け取る） */
+	private static final RowMapper<FollowUserDto> FOLLOW_USER_MAPPER = (rs, rowNum) -> new FollowUserDto(
+			rs.getObject("follow_id", UUID.class),
+			rs.getObject("created_at", LocalDateTime.class),
+			rs.getObject("user_id", UUID.class),
+			rs.getString("user_name"),
+			rs.getString("login_id"),
+			false,
+			false,
+			false);
+	private final JdbcClient jdbcClient;
+	private final JdbcTemplate jdbcTemplate;
+
+	public FollowsRepositoryCustomImpl(JdbcClient jdbcClient, JdbcTemplate jdbcTemplate) {
+		this.jdbcClient   = jdbcClient;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	/**
+	 * ユニーク制約 (follower_id, followee_id) の重複は ON CONFLICT で読み捨て、
+	 * 実際に追加した行だけを RETURNING で返す。同時に同じ組を追加しても例外にならない。
+	 */
+	@Override
+	public boolean insertFollowIfAbsent(UUID followerId, UUID followeeId) {
+		return jdbcClient.sql("INSERT INTO follows (follow_id, follower_id, followee_id, created_at) "
+				+ "VALUES (:followId, :followerId, :followeeId, :createdAt) "
+				+ "ON CONFLICT (follower_id, followee_id) DO NOTHING "
+				+ "RETURNING follow_id")
+				.param("followId", UUID.randomUUID())
+				.param("followerId", followerId)
+				.param("followeeId", followeeId)
+				.param("createdAt", LocalDateTime.now())
+				.query(UUID.class)
+				.optional()
+				.isPresent();
+	}
+	@Override
+	public boolean deleteFollow(UUID followerId, UUID followeeId) {
+		return jdbcClient.sql("DELETE FROM follows WHERE follower_id = :followerId AND followee_id = :followeeId "
+				+ "RETURNING follow_id")
+				.param("followerId", followerId)
+				.param("followeeId", followeeId)
+				.query(UUID.class)
+				.optional()
+				.isPresent();
+	}
+	/**
+	 * ユーザーの存在を条件に INSERT し、ユニーク制約の重複は ON CONFLICT で読み捨てる。
+	 * 1件の失敗でバッチ全体が失敗しないよう、エラーになり得る行は挿入前に除外する。
+	 */
+	@Override
+	public int[] insertFollowsIfAbsent(UUID followerId, List<UUID> followeeIds) {
+		if (followeeIds.isEmpty()) return new int[0];
+		LocalDateTime now = LocalDateTime.now();
+		return jdbcTemplate.batchUpdate("INSERT INTO follows (follow_id, follower_id, followee_id, created_at) "
+				+ "SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM users WHERE user_id = ?) "
+				+ "ON CONFLICT (follower_id, followee_id) DO NOTHING",
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						UUID followeeId = followeeIds.get(i);
+						ps.setObject(1, UUID.randomUUID());
+						ps.setObject(2, followerId);
+						ps.setObject(3, followeeId);
+						ps.setObject(4, now);
+						ps.setObject(5, followeeId);
+					}
+					@Override
+					public int getBatchSize() {
+						return followeeIds.size();
+					}
+				});
+	}
+	@Override
+	public List<FollowUserDto> findFollowers(UUID followeeId, KeysetCursor cursor, int limit) {
+		return findFollowUsers("followee_id", "follower_id", followeeId, cursor, limit);
+	}
+	@Override
+	public List<FollowUserDto> findFollowees(UUID followerId, KeysetCursor cursor, int limit) {
+		return findFollowUsers("follower_id", "followee_id", followerId, cursor, limit);
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * フォロー関係を (owner列, created_at, follow_id) のインデックス順に範囲走査し、
+	 * 相手のユーザー情報を主キーで結合して1ページ分取得する。
+	 *
+	 * @param ownerColumn 絞り込みに使う列（一覧の持ち主側）
+	 * @param otherColumn 相手のユーザーIDの列
+	 * @param ownerId 一覧の持ち主のユーザーID
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param limit 取得件数の上限
+	 * @return 一覧表示用DTOのリスト
+	 */
+	private List<FollowUserDto> findFollowUsers(
+			String ownerColumn, String otherColumn, UUID ownerId, KeysetCursor cursor, int limit) {
+		StringBuilder sql = new StringBuilder()
+				.append("SELECT f.follow_id, f.created_at, u.user_id, u.user_name, u.login_id ")
+				.append("FROM follows f JOIN users u ON u.user_id = f.").append(otherColumn).append(" ")
+				.append("WHERE f.").append(ownerColumn).append(" = :ownerId ");
+		if (cursor != null) sql.append("AND (f.created_at, f.follow_id) < (:createdAt, :followId) ");
+		sql.append("ORDER BY f.created_at DESC, f.follow_id DESC LIMIT :limit");
+
+		JdbcClient.StatementSpec statement = jdbcClient.sql(sql.toString())
+				.param("ownerId", ownerId)
+				.param("limit", limit);
+		if (cursor != null) {
+			statement = statement
+					.param("createdAt", cursor.getCreatedAt())
+					.param("followId", cursor.getId());
+		}
+		return statement.query(FOLLOW_USER_MAPPER).list();
+	}
+}
@@ -1,5 +1,6 @@
 package com.example.sns.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,7 +19,7 @@ import com.example.sns.entity.Users;
  * @author 岡本
  * @since 2025-07-10
  */
-public interface LikesRepository extends JpaRepository<Likes, UUID> {
+public interface LikesRepository extends JpaRepository<Likes, UUID>, LikesRepositoryCustom {
 	/**
 	 * 指定ユーザーが指定投稿に対して既にいいねしているか判定する。
 	 * 
@@ -27,23 +28,25 @@ public interface LikesRepository extends JpaRepository<Likes, UUID> {
 	 * @return いいね済みならtrue、そうでなければfalse
 	 */
 	boolean existsByUserAndPost(Users user, Posts post);
-	/**
-	 * 複数の投稿IDに対して、それぞれの投稿のいいね数を取得するJPQLクエリ。
-	 * グルーピングして投稿IDごとの件数を返す。
-	 * 
-	 * @param postIds 投稿IDのリスト
-	 * @return Object配列のリスト。各配列は[投稿ID, いいね数]を表す。
-	 */
-	@Query("SELECT l.post.postId, COUNT(l) FROM Likes l WHERE l.post.postId IN :postIds GROUP BY l.post.postId")
-	List<Object[]> countLikesByPostIds(@Param("postIds") List<UUID> postIds);
 	/**
 	 * 指定ユーザーがいいね済みの投稿ID一覧を取得するJPQLクエリ。
+	 * 件数が多くなり得るため、いいね済み判定フィルタの構築時にのみ使用する。
 	 * 
 	 * @param userId ユーザーID(UUID)
 	 * @return いいね済み投稿IDのリスト
 	 */
 	@Query("SELECT l.post.postId FROM Likes l WHERE l.user.userId = :userId")
 	List<UUID> findPostIdsLikedByUser(@Param("userId") UUID userId);
+	/**
+	 * 指定した投稿IDのうち、指定ユーザーがいいね済みのものを取得するJPQLクエリ。
+	 * (user_id, post_id) のユニーク制約のインデックスで判定する。
+	 * 
+	 * @param userId ユーザーID(UUID)
+	 * @param postIds 判定対象の投稿IDのリスト
+	 * @return いいね済み投稿IDのリスト
+	 */
+	@Query("SELECT l.post.postId FROM Likes l WHERE l.user.userId = :userId AND l.post.postId IN :postIds")
+	List<UUID> findLikedPostIdsAmong(@Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
 	/**
 	 * 指定ユーザーが「いいね」した投稿数を取得する
 	 * @param userId ログインユーザーのID
@@ -51,18 +54,12 @@ public interface LikesRepository extends JpaRepository<Likes, UUID> {
 	 */
 	@Query("SELECT COUNT(l) FROM Likes l WHERE l.user.userId = :userId")
 	long countByLikes_UserId(UUID userId);
-	/**
-	 * 指定投稿のいいね数をカウントする。
-	 * 
-	 * @param postId 投稿ID(UUID)
-	 * @return いいねの件数
-	 */
-	int countByPost_PostId(UUID postId);
 	/**
 	 * 指定ユーザーと投稿に紐づくいいねを削除する。
 	 * 
 	 * @param user ユーザーエンティティ
 	 * @param post 投稿エンティティ
+	 * @return 削除した件数（いいねしていなかった場合は0）
 	 */
-	void deleteByUserAndPost(Users user, Posts post);
+	long deleteByUserAndPost(Users user, Posts post);
 }
@@ -0,0 +1,53 @@
+package com.example.sns.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.example.sns.dto.LikeCountChange;
+import com.example.sns.dto.LikeKey;
+
+/**
+ * いいねの単一SQL・バッチでの書き込みを定義するリポジトリ拡張インタフェース。
+ * 実装は {@link LikesRepositoryCustomImpl} で、{@link LikesRepository} に合成される。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public interface LikesRepositoryCustom {
+	/**
+	 * いいねをJDBCバッチでまとめて追加する。
+	 * 既にいいね済みの組・存在しない投稿への組は何もしない。
+	 *
+	 * @param keys 追加する（ユーザー, 投稿）の組
+	 * @param likedAt いいねの作成日時
+	 * @return 組ごとの追加件数（1: 追加した / 0: 追加しなかった）。keys と同じ順
+	 */
+	int[] insertLikesIfAbsent(List<LikeKey> keys, LocalDateTime likedAt);
+	/**
+	 * いいねを1回のSQLでまとめて削除する。
+	 *
+	 * @param keys 削除する（ユーザー, 投稿）の組
+	 * @return 削除した組ごとの、削除したいいねの作成日時（いいねしていなかった組は含まない）
+	 */
+	Map<LikeKey, LocalDateTime> deleteLikes(List<LikeKey> keys);
+	/**
+	 * いいねの追加と投稿のいいね数カウンタの加算を1回のSQLで行う。既にいいね済みの場合は何もしない。
+	 * ユーザー・投稿の存在は外部キー制約で検証する（存在しない場合は DataIntegrityViolationException）。
+	 *
+	 * @param userId いいねするユーザーのID
+	 * @param postId いいね対象の投稿ID
+	 * @return 追加した場合は投稿者と加算後のいいね数、いいねの作成日時。既にいいね済みの場合は空
+	 */
+	Optional<LikeCountChange> insertLikeIfAbsent(UUID userId, UUID postId);
+	/**
+	 * いいねの削除と投稿のいいね数カウンタの減算を1回のSQLで行う。
+	 *
+	 * @param userId いいね解除するユーザーのID
+	 * @param postId いいね解除対象の投稿ID
+	 * @return 削除した場合は投稿者と減算後のいいね数、削除したいいねの作成日時。いいねしていなかった場合は空
+	 */
+	Optional<LikeCountChange> deleteLike(UUID userId, UUID postId);
+}
@@ -0,0 +1,126 @@
+package com.example.sns.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.example.sns.dto.LikeCountChange;
+import com.example.sns.dto.LikeKey;
+
+/**
+ * {@link LikesRepositoryCustom} のJDBC実装クラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public class LikesRepositoryCustomImpl implements LikesRepositoryCustom {
+	/** 更新後の投稿行からの変換 */
+	private static final RowMapper<LikeCountChange> LIKE_COUNT_CHANGE_MAPPER = (rs, rowNum) ->
+			new LikeCountChange(rs.getObject("user_id", UUID.class), rs.getInt("like_count"),
+					rs.getObject("created_at", LocalDateTime.class));
+	private final JdbcTemplate jdbcTemplate;
+
+	public LikesRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	/**
+	 * 投稿の存在を条件に INSERT し、ユニーク制約の重複は ON CONFLICT で読み捨てる。
+	 * 1件の失敗でバッチ全体が失敗しないよう、エラーになり得る行は挿入前に除外する。
+	 */
+	@Override
+	public int[] insertLikesIfAbsent(List<LikeKey> keys, LocalDateTime likedAt) {
+		if (keys.isEmpty()) return new int[0];
+		return jdbcTemplate.batchUpdate("INSERT INTO likes (like_id, user_id, post_id, created_at) "
+				+ "SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM posts WHERE post_id = ?) "
+				+ "ON CONFLICT (user_id, post_id) DO NOTHING",
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						LikeKey key = keys.get(i);
+						ps.setObject(1, UUID.randomUUID());
+						ps.setObject(2, key.userId());
+						ps.setObject(3, key.postId());
+						ps.setObject(4, likedAt);
+						ps.setObject(5, key.postId());
+					}
+					@Override
+					public int getBatchSize() {
+						return keys.size();
+					}
+				});
+	}
+	/**
+	 * 組の一覧をユーザーID・投稿IDの配列として渡し、1回の DELETE ... RETURNING で削除する。
+	 * 削除したいいねの作成日時を返すため、JDBCバッチではなく配列の unnest を使う。
+	 * 結合の順に行ロックを取ると順序が実行計画次第になるため、先に（投稿ID, ユーザーID）の順で
+	 * 行ロックを取ってから削除する（他のバッチ・単一の操作とデッドロックしないため）。
+	 */
+	@Override
+	public Map<LikeKey, LocalDateTime> deleteLikes(List<LikeKey> keys) {
+		Map<LikeKey, LocalDateTime> deleted = new HashMap<>();
+		if (keys.isEmpty()) return deleted;
+		UUID[] userIds = keys.stream().map(LikeKey::userId).toArray(UUID[]::new);
+		UUID[] postIds = keys.stream().map(LikeKey::postId).toArray(UUID[]::new);
+		jdbcTemplate.query("WITH locked AS ("
+				+ "  SELECT l.like_id FROM likes l "
+				+ "  JOIN unnest(?::uuid[], ?::uuid[]) AS k(user_id, post_id) "
+				+ "    ON l.user_id = k.user_id AND l.post_id = k.post_id "
+				+ "  ORDER BY l.post_id, l.user_id "
+				+ "  FOR UPDATE OF l"
+				+ ") "
+				+ "DELETE FROM likes l USING locked "
+				+ "WHERE l.like_id = locked.like_id "
+				+ "RETURNING l.user_id, l.post_id, l.created_at",
+				ps -> {
+					ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds));
+					ps.setArray(2, ps.getConnection().createArrayOf("uuid", postIds));
+				},
+				rs -> {
+					deleted.put(new LikeKey(rs.getObject("user_id", UUID.class), rs.getObject("post_id", UUID.class)),
+							rs.getObject("created_at", LocalDateTime.class));
+				});
+		return deleted;
+	}
+	/**
+	 * ユニーク制約 (user_id, post_id) の重複は ON CONFLICT で読み捨て、
+	 * 実際に追加した行がある場合だけ、同じSQL内で投稿のカウンタを加算する。
+	 * 同時に同じ組を追加しても例外にならず、カウンタも二重に加算されない。
+	 */
+	@Override
+	public Optional<LikeCountChange> insertLikeIfAbsent(UUID userId, UUID postId) {
+		return jdbcTemplate.query("WITH inserted AS ("
+				+ "  INSERT INTO likes (like_id, user_id, post_id, created_at) VALUES (?, ?, ?, ?) "
+				+ "  ON CONFLICT (user_id, post_id) DO NOTHING "
+				+ "  RETURNING post_id, created_at"
+				+ ") "
+				+ "UPDATE posts p SET like_count = p.like_count + 1 "
+				+ "FROM inserted i WHERE p.post_id = i.post_id "
+				+ "RETURNING p.user_id, p.like_count, i.created_at",
+				LIKE_COUNT_CHANGE_MAPPER, UUID.randomUUID(), userId, postId, LocalDateTime.now())
+				.stream().findFirst();
+	}
+	/**
+	 * 実際に削除した行がある場合だけ、同じSQL内で投稿のカウンタを減算する。
+	 */
+	@Override
+	public Optional<LikeCountChange> deleteLike(UUID userId, UUID postId) {
+		return jdbcTemplate.query("WITH deleted AS ("
+				+ "  DELETE FROM likes WHERE user_id = ? AND post_id = ? "
+				+ "  RETURNING post_id, created_at"
+				+ ") "
+				+ "UPDATE posts p SET like_count = p.like_count - 1 "
+				+ "FROM deleted d WHERE p.post_id = d.post_id "
+				+ "RETURNING p.user_id, p.like_count, d.created_at",
+				LIKE_COUNT_CHANGE_MAPPER, userId, postId)
+				.stream().findFirst();
+	}
+}
@@ -1,13 +1,19 @@
 package com.example.sns.repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.sns.dto.TimelinePostRef;
 import com.example.sns.entity.Posts;
-import com.example.sns.entity.Users;
 /**
 * 投稿情報にアクセスするためのリポジトリインタフェース。
 * Spring Data JPA により、基本的なCRUD操作が自動生成される。
@@ -16,30 +22,99 @@ import com.example.sns.entity.Users;
 * @since 2025-07-09
 */
 @Repository
-public interface PostsRepository extends JpaRepository<Posts, UUID> {
+public interface PostsRepository extends JpaRepository<Posts, UUID>, PostsRepositoryCustom {
 	/**
-	 * 指定したユーザーに紐づく全投稿を作成日時の降順で取得する。
+	 * 指定ユーザー群の投稿参照（投稿ID＋作成日時）の先頭ページを取得する。
+	 * (user_id, created_at, post_id) インデックスのみで応答できるよう参照だけを返す。
 	 *
-	 * @param user 投稿を作成したユーザー
-	 * @return 投稿一覧（最新順）
+	 * @param userIds 投稿者ユーザーIDのリスト
+	 * @param limit 取得件数の上限
+	 * @return 投稿参照のリスト（最新順）
 	 */
-	List<Posts> findByUserOrderByCreatedAtDesc(Users user);
+	@Query("SELECT new com.example.sns.dto.TimelinePostRef(p.postId, p.createdAt) FROM Posts p "
+			+ "WHERE p.user.userId IN :userIds "
+			+ "ORDER BY p.createdAt DESC, p.postId DESC")
+	List<TimelinePostRef> findRefsByUserIds(@Param("userIds") Collection<UUID> userIds, Limit limit);
 	/**
-	 * 全ユーザーの投稿を作成日時の降順で取得する。
-	 * 
-	 * @return 投稿一覧（最新順）
-	 */
-	List<Posts> findAllByOrderByCreatedAtDesc();
-	
-	List<Posts> findByUser_UserIdInOrderByCreatedAtDesc(List<UUID> userIds);
-	
-	 /**
-	  * 投稿がある全ユーザーのIDを重複なく取得する。
-	  * 
-	  * @return ユーザーID一覧
-	  */
-	@Query("SELECT DISTINCT p.user.userId FROM Posts p")
-	 List<UUID> findAllUserIds();
+	 * 指定ユーザー群の投稿参照のうち、カーソル位置より古いものを取得する。
+	 *
+	 * @param userIds 投稿者ユーザーIDのリスト
+	 * @param createdAt 前ページ末尾の作成日時
+	 * @param postId 前ページ末尾の投稿ID
+	 * @param limit 取得件数の上限
+	 * @return 投稿参照のリスト（最新順）
+	 */
+	@Query("SELECT new com.example.sns.dto.TimelinePostRef(p.postId, p.createdAt) FROM Posts p "
+			+ "WHERE p.user.userId IN :userIds "
+			+ "AND (p.createdAt, p.postId) < (:createdAt, :postId) "
+			+ "ORDER BY p.createdAt DESC, p.postId DESC")
+	List<TimelinePostRef> findRefsByUserIdsBefore(
+			@Param("userIds") Collection<UUID> userIds,
+			@Param("createdAt") LocalDateTime createdAt,
+			@Param("postId") UUID postId,
+			Limit limit);
+	/**
+	 * 投稿のいいね数カウンタを加減算する。
+	 * 行ロックを取得して原子的に更新するため、同時のいいねでも数え漏れが起きない。
+	 *
+	 * @param postId 投稿ID
+	 * @param delta 加算する値（いいね解除の場合は負数）
+	 * @return 更新件数
+	 */
+	@Modifying
+	@Query(value = "UPDATE posts SET like_count = like_count + :delta WHERE post_id = :postId", nativeQuery = true)
+	int addLikeCount(@Param("postId") UUID postId, @Param("delta") int delta);
+	/**
+	 * 投稿のいいね数カウンタを取得する。
+	 *
+	 * @param postId 投稿ID
+	 * @return いいね数（投稿が存在しない場合は空）
+	 */
+	@Query("SELECT p.likeCount FROM Posts p WHERE p.postId = :postId")
+	Optional<Integer> findLikeCountByPostId(@Param("postId") UUID postId);
+	/**
+	 * 指定日時以降に作成された投稿のIDを、IDの昇順で指定件数まで取得する（照合対象の列挙）。
+	 *
+	 * @param since 対象とする作成日時の下限（含む）
+	 * @param afterId このIDより大きい投稿のみを対象とする（先頭の場合は最小のUUID）
+	 * @param limit 最大件数
+	 * @return 投稿IDのリスト（ID昇順）
+	 */
+	@Query(value = "SELECT post_id FROM posts "
+			+ "WHERE created_at >= :since AND post_id > :afterId "
+			+ "ORDER BY post_id LIMIT :limit", nativeQuery = true)
+	List<UUID> findPostIdsCreatedSince(
+			@Param("since") LocalDateTime since,
+			@Param("afterId") UUID afterId,
+			@Param("limit") int limit);
+	/**
+	 * 指定した投稿の行をIDの昇順でロックする（SELECT ... FOR UPDATE）。
+	 * いいね数の照合前に呼び出し、照合中にカウンタを更新するいいね操作を待たせる。
+	 * 呼び出し側のトランザクション内で使うこと。
+	 *
+	 * @param postIds 投稿IDのリスト
+	 * @return ロックした投稿IDのリスト
+	 */
+	@Query(value = "SELECT post_id FROM posts WHERE post_id IN (:postIds) ORDER BY post_id FOR UPDATE", nativeQuery = true)
+	List<UUID> lockPosts(@Param("postIds") Collection<UUID> postIds);
+	/**
+	 * 指定した投稿のいいね数カウンタを likes テーブルの実件数と照合し、ずれている投稿だけを修正する。
+	 * 同じトランザクションで先に lockPosts で行をロックしてから呼び出すこと。
+	 * ロック後の文で件数を数えるため、ロック取得までにコミットされたいいねは件数に含まれ、
+	 * 未コミットのいいねはロックの解放を待ってから修正後のカウンタへ加算される。
+	 *
+	 * @param postIds 投稿IDのリスト
+	 * @return 修正した投稿数
+	 */
+	@Modifying
+	@Query(value = "UPDATE posts p SET like_count = c.actual "
+			+ "FROM ("
+			+ "  SELECT p2.post_id, (SELECT COUNT(*) FROM likes l WHERE l.post_id = p2.post_id) AS actual "
+			+ "  FROM posts p2 "
+			+ "  WHERE p2.post_id IN (:postIds)"
+			+ ") c "
+			+ "WHERE p.post_id = c.post_id AND p.like_count <> c.actual", nativeQuery = true)
+	int reconcileLikeCounts(@Param("postIds") Collection<UUID> postIds);
 	/**
 	 * 指定ユーザーの投稿数をカウントする
 	 * 
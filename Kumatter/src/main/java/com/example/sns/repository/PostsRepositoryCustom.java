@@ -0,0 +1,108 @@
+package com.example.sns.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.LikedPostView;
+import com.example.sns.dto.PostViewDto;
+import com.example.sns.dto.TimelinePostRef;
+
+/**
+ * Spring Data の導出クエリ・JPQLでは表現しにくい投稿検索を定義するリポジトリ拡張インタフェース。
+ * 実装は {@link PostsRepositoryCustomImpl} で、{@link PostsRepository} に合成される。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public interface PostsRepositoryCustom {
+	/**
+	 * 投稿者ごとに最新 perAuthor 件の投稿参照を1回のクエリでまとめて取得する。
+	 * 投稿が1件も無い投稿者も空リストとして結果に含める。
+	 *
+	 * @param authorIds 投稿者ユーザーIDのリスト
+	 * @param perAuthor 投稿者1人あたりの取得件数
+	 * @return 投稿者IDごとの投稿参照リスト（それぞれ最新順）
+	 */
+	Map<UUID, List<TimelinePostRef>> findRecentRefsByAuthors(Collection<UUID> authorIds, int perAuthor);
+	/**
+	 * 投稿表示用DTOを、投稿者情報・いいね数と合わせて1回のSQLで1ページ分取得する。
+	 * いいね済みフラグは設定しない（常にfalse）。
+	 *
+	 * @param authorId 投稿者ユーザーID（nullの場合は全ユーザーの投稿）
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param limit 取得件数の上限
+	 * @return 投稿DTOのリスト（作成日時降順、同時刻は投稿ID降順）
+	 */
+	List<PostViewDto> findPostViews(UUID authorId, KeysetCursor cursor, int limit);
+	/**
+	 * 指定ユーザーがいいねした投稿を、いいねした日時の新しい順に1ページ分、
+	 * 投稿者情報・いいね数と合わせて1回のSQLで取得する。
+	 * いいね済みフラグは設定しない（常にfalse）。
+	 *
+	 * @param userId いいねしたユーザーのID
+	 * @param cursor 前ページ末尾のカーソル（いいね日時＋いいねID。先頭ページの場合はnull）
+	 * @param limit 取得件数の上限
+	 * @return いいねした投稿のリスト（いいね日時降順、同時刻はいいねID降順）
+	 */
+	List<LikedPostView> findLikedPostViews(UUID userId, KeysetCursor cursor, int limit);
+	/**
+	 * 投稿IDのリストに該当する投稿表示用DTOを1回のSQLで取得する。
+	 * 並び順は保証しないため、呼び出し側で並べ直す。いいね済みフラグは設定しない。
+	 *
+	 * @param postIds 投稿IDのリスト
+	 * @return 投稿DTOのリスト（存在しない投稿は含まない）
+	 */
+	List<PostViewDto> findPostViewsByIds(Collection<UUID> postIds);
+	/**
+	 * 複数投稿のいいね数カウンタをJDBCバッチでまとめて加減算する。
+	 * デッドロックを避けるため、投稿IDの順に更新する。
+	 *
+	 * @param deltas 投稿IDごとの加算値（いいね解除分は負数）
+	 */
+	void addLikeCounts(Map<UUID, Integer> deltas);
+	/**
+	 * 投稿IDごとの投稿者IDを取得する。
+	 *
+	 * @param postIds 投稿IDのリスト
+	 * @return 投稿IDをキー、投稿者IDを値とするマップ（存在しない投稿は含まない）
+	 */
+	Map<UUID, UUID> findAuthorIdsByPostIds(Collection<UUID> postIds);
+	/**
+	 * 投稿IDごとのいいね数カウンタを取得する。
+	 *
+	 * @param postIds 投稿IDのリスト
+	 * @return 投稿IDをキー、いいね数を値とするマップ（存在しない投稿は含まない）
+	 */
+	Map<UUID, Integer> findLikeCountsByPostIds(Collection<UUID> postIds);
+	/**
+	 * 投稿のハッシュタグをJDBCバッチでまとめて保存する。
+	 *
+	 * @param postId 投稿ID
+	 * @param createdAt 投稿の作成日時（posts.created_at と同じ値）
+	 * @param tags ハッシュタグ（正規化済み）
+	 */
+	void insertTags(UUID postId, LocalDateTime createdAt, Collection<String> tags);
+	/**
+	 * 投稿のメンションをJDBCバッチでまとめて保存する。
+	 * 存在しないログインIDへのメンションは保存しない。
+	 *
+	 * @param postId 投稿ID
+	 * @param createdAt 投稿の作成日時（posts.created_at と同じ値）
+	 * @param loginIds メンション先のログインID
+	 */
+	void insertMentions(UUID postId, LocalDateTime createdAt, Collection<String> loginIds);
+	/**
+	 * 指定したハッシュタグの付いた投稿表示用DTOを、作成日時の新しい順に1ページ分取得する。
+	 * いいね済みフラグは設定しない（常にfalse）。
+	 *
+	 * @param tag ハッシュタグ（正規化済み）
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param limit 取得件数の上限
+	 * @return 投稿DTOのリスト（作成日時降順、同時刻は投稿ID降順）
+	 */
+	List<PostViewDto> findPostViewsByTag(String tag, KeysetCursor cursor, int limit);
+}
@@ -0,0 +1,228 @@
+package com.example.sns.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.LikedPostView;
+import com.example.sns.dto.PostViewDto;
+import com.example.sns.dto.TimelinePostRef;
+import com.example.sns.util.UuidOrder;
+
+/**
+ * {@link PostsRepositoryCustom} のJDBC実装クラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public class PostsRepositoryCustomImpl implements PostsRepositoryCustom {
+	/**
+	 * 投稿表示用DTOの取得列。
+	 * 投稿者は結合で取得し、いいね数は非正規化カウンタ（posts.like_count）をそのまま読む。
+	 * 閲覧ユーザーのいいね済みフラグは LikeMembershipService で別途設定する。
+	 */
+	private static final String POST_VIEW_SELECT = "SELECT p.post_id, p.content, p.created_at, "
+			+ "u.user_id, u.user_name, u.login_id, "
+			+ "p.like_count "
+			+ "FROM posts p "
+			+ "JOIN users u ON u.user_id = p.user_id ";
+	/** 投稿表示用DTOへの変換 */
+	private static final RowMapper<PostViewDto> POST_VIEW_MAPPER = (rs, rowNum) -> {
+		LocalDateTime createdAt = rs.getObject("created_at", LocalDateTime.class);
+		return new PostViewDto(
+				rs.getObject("post_id", UUID.class),
+				rs.getString("content"),
+				createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+				createdAt,
+				rs.getObject("user_id", UUID.class),
+				rs.getString("user_name"),
+				rs.getString("login_id"),
+				rs.getInt("like_count"),
+				false);
+	};
+	private final JdbcClient jdbcClient;
+	private final JdbcTemplate jdbcTemplate;
+
+	public PostsRepositoryCustomImpl(JdbcClient jdbcClient, JdbcTemplate jdbcTemplate) {
+		this.jdbcClient   = jdbcClient;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	/**
+	 * LATERAL結合により、投稿者ごとに (user_id, created_at, post_id) インデックスを
+	 * 先頭から perAuthor 件だけ走査する。全体のソートは発生しない。
+	 */
+	@Override
+	public Map<UUID, List<TimelinePostRef>> findRecentRefsByAuthors(Collection<UUID> authorIds, int perAuthor) {
+		Map<UUID, List<TimelinePostRef>> result = new HashMap<>();
+		if (authorIds.isEmpty()) return result;
+		for (UUID authorId : authorIds) {
+			result.put(authorId, new ArrayList<>());
+		}
+		jdbcClient.sql("SELECT p.user_id, p.post_id, p.created_at "
+				+ "FROM users a "
+				+ "CROSS JOIN LATERAL ("
+				+ "  SELECT user_id, post_id, created_at FROM posts "
+				+ "  WHERE user_id = a.user_id "
+				+ "  ORDER BY created_at DESC, post_id DESC "
+				+ "  LIMIT :perAuthor"
+				+ ") p "
+				+ "WHERE a.user_id IN (:authorIds) "
+				+ "ORDER BY p.user_id, p.created_at DESC, p.post_id DESC")
+			.param("authorIds", authorIds)
+			.param("perAuthor", perAuthor)
+			.query(rs -> {
+				result.get(rs.getObject("user_id", UUID.class)).add(new TimelinePostRef(
+						rs.getObject("post_id", UUID.class),
+						rs.getObject("created_at", LocalDateTime.class)));
+			});
+		return result;
+	}
+	/**
+	 * 条件（投稿者・カーソル）に応じてWHERE句を組み立て、
+	 * (created_at, post_id) の降順インデックスを範囲走査する。
+	 */
+	@Override
+	public List<PostViewDto> findPostViews(UUID authorId, KeysetCursor cursor, int limit) {
+		List<String> conditions = new ArrayList<>();
+		if (authorId != null) conditions.add("p.user_id = :authorId");
+		if (cursor != null) conditions.add("(p.created_at, p.post_id) < (:createdAt, :postId)");
+		StringBuilder sql = new StringBuilder(POST_VIEW_SELECT);
+		if (!conditions.isEmpty()) sql.append("WHERE ").append(String.join(" AND ", conditions)).append(" ");
+		sql.append("ORDER BY p.created_at DESC, p.post_id DESC LIMIT :limit");
+
+		JdbcClient.StatementSpec statement = jdbcClient.sql(sql.toString())
+				.param("limit", limit);
+		if (authorId != null) statement = statement.param("authorId", authorId);
+		if (cursor != null) {
+			statement = statement
+					.param("createdAt", cursor.getCreatedAt())
+					.param("postId", cursor.getId());
+		}
+		return statement.query(POST_VIEW_MAPPER).list();
+	}
+	/**
+	 * ユーザーのいいねを (user_id, created_at, like_id) のインデックス順に範囲走査し、
+	 * 投稿・投稿者を主キーで結合する。1ページ分の行だけを読むため、いいね数に関係なく一定のコストで応答する。
+	 */
+	@Override
+	public List<LikedPostView> findLikedPostViews(UUID userId, KeysetCursor cursor, int limit) {
+		StringBuilder sql = new StringBuilder()
+				.append("SELECT l.like_id, l.created_at AS liked_at, p.post_id, p.content, p.created_at, ")
+				.append("u.user_id, u.user_name, u.login_id, p.like_count ")
+				.append("FROM likes l ")
+				.append("JOIN posts p ON p.post_id = l.post_id ")
+				.append("JOIN users u ON u.user_id = p.user_id ")
+				.append("WHERE l.user_id = :userId ");
+		if (cursor != null) sql.append("AND (l.created_at, l.like_id) < (:likedAt, :likeId) ");
+		sql.append("ORDER BY l.created_at DESC, l.like_id DESC LIMIT :limit");
+
+		JdbcClient.StatementSpec statement = jdbcClient.sql(sql.toString())
+				.param("userId", userId)
+				.param("limit", limit);
+		if (cursor != null) {
+			statement = statement
+					.param("likedAt", cursor.getCreatedAt())
+					.param("likeId", cursor.getId());
+		}
+		return statement.query((rs, rowNum) -> new LikedPostView(
+				POST_VIEW_MAPPER.mapRow(rs, rowNum),
+				rs.getObject("liked_at", LocalDateTime.class),
+				rs.getObject("like_id", UUID.class)))
+				.list();
+	}
+	@Override
+	public List<PostViewDto> findPostViewsByIds(Collection<UUID> postIds) {
+		if (postIds.isEmpty()) return List.of();
+		return jdbcClient.sql(POST_VIEW_SELECT + "WHERE p.post_id IN (:postIds)")
+				.param("postIds", postIds)
+				.query(POST_VIEW_MAPPER)
+				.list();
+	}
+	@Override
+	public void addLikeCounts(Map<UUID, Integer> deltas) {
+		List<Object[]> args = deltas.entrySet().stream()
+				.filter(entry -> entry.getValue() != 0)
+				// lockPosts（ORDER BY post_id）と同じ順に行ロックを取り、デッドロックを避ける
+				.sorted(Map.Entry.comparingByKey(UuidOrder.UNSIGNED))
+				.map(entry -> new Object[] { entry.getValue(), entry.getKey() })
+				.toList();
+		if (args.isEmpty()) return;
+		jdbcTemplate.batchUpdate("UPDATE posts SET like_count = like_count + ? WHERE post_id = ?", args);
+	}
+	@Override
+	public Map<UUID, UUID> findAuthorIdsByPostIds(Collection<UUID> postIds) {
+		Map<UUID, UUID> result = new HashMap<>();
+		if (postIds.isEmpty()) return result;
+		jdbcClient.sql("SELECT post_id, user_id FROM posts WHERE post_id IN (:postIds)")
+			.param("postIds", postIds)
+			.query(rs -> {
+				result.put(rs.getObject("post_id", UUID.class), rs.getObject("user_id", UUID.class));
+			});
+		return result;
+	}
+	@Override
+	public Map<UUID, Integer> findLikeCountsByPostIds(Collection<UUID> postIds) {
+		Map<UUID, Integer> result = new HashMap<>();
+		if (postIds.isEmpty()) return result;
+		jdbcClient.sql("SELECT post_id, like_count FROM posts WHERE post_id IN (:postIds)")
+			.param("postIds", postIds)
+			.query(rs -> {
+				result.put(rs.getObject("post_id", UUID.class), rs.getInt("like_count"));
+			});
+		return result;
+	}
+	@Override
+	public void insertTags(UUID postId, LocalDateTime createdAt, Collection<String> tags) {
+		if (tags.isEmpty()) return;
+		List<Object[]> args = tags.stream()
+				.map(tag -> new Object[] { tag, createdAt, postId })
+				.toList();
+		jdbcTemplate.batchUpdate("INSERT INTO post_tags (tag, created_at, post_id) VALUES (?, ?, ?) "
+				+ "ON CONFLICT DO NOTHING", args);
+	}
+	/**
+	 * ログインIDからユーザーIDへの変換を INSERT ... SELECT で行い、存在しないログインIDは0行の挿入になる。
+	 */
+	@Override
+	public void insertMentions(UUID postId, LocalDateTime createdAt, Collection<String> loginIds) {
+		if (loginIds.isEmpty()) return;
+		List<Object[]> args = loginIds.stream()
+				.map(loginId -> new Object[] { createdAt, postId, loginId })
+				.toList();
+		jdbcTemplate.batchUpdate("INSERT INTO post_mentions (mentioned_user_id, created_at, post_id) "
+				+ "SELECT u.user_id, ?, ? FROM users u WHERE u.login_id = ? "
+				+ "ON CONFLICT DO NOTHING", args);
+	}
+	/**
+	 * post_tags の主キー (tag, created_at, post_id) を降順に範囲走査し、投稿・投稿者を主キーで結合する。
+	 * 本文（posts.content）は走査しない。
+	 */
+	@Override
+	public List<PostViewDto> findPostViewsByTag(String tag, KeysetCursor cursor, int limit) {
+		StringBuilder sql = new StringBuilder(POST_VIEW_SELECT)
+				.append("JOIN post_tags t ON t.post_id = p.post_id ")
+				.append("WHERE t.tag = :tag ");
+		if (cursor != null) sql.append("AND (t.created_at, t.post_id) < (:createdAt, :postId) ");
+		sql.append("ORDER BY t.created_at DESC, t.post_id DESC LIMIT :limit");
+
+		JdbcClient.StatementSpec statement = jdbcClient.sql(sql.toString())
+				.param("tag", tag)
+				.param("limit", limit);
+		if (cursor != null) {
+			statement = statement
+					.param("createdAt", cursor.getCreatedAt())
+					.param("postId", cursor.getId());
+		}
+		return statement.query(POST_VIEW_MAPPER).list();
+	}
+}
@@ -0,0 +1,145 @@
+package com.example.sns.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.sns.dto.TimelinePostRef;
+import com.example.sns.entity.TimelineEntries;
+
+/**
+ * ホームタイムライン受信箱（timeline_entries）へのデータアクセスを行うリポジトリ。
+ * ファンアウト・バックフィル・刈り込みは行数に比例するため、
+ * いずれもエンティティを経由せず単一のネイティブSQLで実行する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public interface TimelineEntriesRepository extends JpaRepository<TimelineEntries, UUID> {
+	/**
+	 * 受信箱の先頭ページを取得する。
+	 *
+	 * @param ownerId 受信箱の持ち主のユーザーID
+	 * @param limit 取得件数の上限
+	 * @return 投稿参照のリスト（最新順）
+	 */
+	@Query("SELECT new com.example.sns.dto.TimelinePostRef(t.postId, t.createdAt) FROM TimelineEntries t "
+			+ "WHERE t.ownerId = :ownerId "
+			+ "ORDER BY t.createdAt DESC, t.postId DESC")
+	List<TimelinePostRef> findRefs(@Param("ownerId") UUID ownerId, Limit limit);
+	/**
+	 * 受信箱のうち、カーソル位置より古いエントリを取得する。
+	 *
+	 * @param ownerId 受信箱の持ち主のユーザーID
+	 * @param createdAt 前ページ末尾の作成日時
+	 * @param postId 前ページ末尾の投稿ID
+	 * @param limit 取得件数の上限
+	 * @return 投稿参照のリスト（最新順）
+	 */
+	@Query("SELECT new com.example.sns.dto.TimelinePostRef(t.postId, t.createdAt) FROM TimelineEntries t "
+			+ "WHERE t.ownerId = :ownerId "
+			+ "AND (t.createdAt, t.postId) < (:createdAt, :postId) "
+			+ "ORDER BY t.createdAt DESC, t.postId DESC")
+	List<TimelinePostRef> findRefsBefore(
+			@Param("ownerId") UUID ownerId,
+			@Param("createdAt") LocalDateTime createdAt,
+			@Param("postId") UUID postId,
+			Limit limit);
+	/**
+	 * 投稿を投稿者のフォロワー全員の受信箱へ配信する（書き込み時ファンアウト）。
+	 * 作成日時はpostsテーブルの値をそのまま複製し、カーソルの比較がずれないようにする。
+	 * 投稿者本人の投稿は読み取り時にマージするため配信しない。
+	 *
+	 * @param postId 配信する投稿のID
+	 * @return 追加されたエントリ数
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO timeline_entries (entry_id, owner_id, post_id, author_id, created_at) "
+			+ "SELECT gen_random_uuid(), f.follower_id, p.post_id, p.user_id, p.created_at "
+			+ "FROM posts p JOIN follows f ON f.followee_id = p.user_id "
+			+ "WHERE p.post_id = :postId "
+			+ "ON CONFLICT (owner_id, post_id) DO NOTHING", nativeQuery = true)
+	int fanOut(@Param("postId") UUID postId);
+	/**
+	 * 新たにフォローした相手の投稿を受信箱へ補充する。
+	 * 受信箱が保持している期間（最古エントリ以降）の投稿だけを対象にし、
+	 * 受信箱が「新しい順に欠けのない範囲」であり続けるようにする。
+	 * 非同期実行のため、実行時点でフォロー関係が残っている場合のみ補充する。
+	 *
+	 * @param ownerId 受信箱の持ち主（フォローした側）のユーザーID
+	 * @param authorId フォローされた側のユーザーID
+	 * @param limit 補充する投稿数の上限
+	 * @return 追加されたエントリ数
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO timeline_entries (entry_id, owner_id, post_id, author_id, created_at) "
+			+ "SELECT gen_random_uuid(), :ownerId, p.post_id, p.user_id, p.created_at "
+			+ "FROM (SELECT post_id, user_id, created_at FROM posts "
+			+ "      WHERE user_id = :authorId "
+			+ "      AND created_at >= COALESCE("
+			+ "        (SELECT MIN(created_at) FROM timeline_entries WHERE owner_id = :ownerId), '-infinity') "
+			+ "      ORDER BY created_at DESC, post_id DESC LIMIT :limit) p "
+			+ "WHERE EXISTS (SELECT 1 FROM follows f WHERE f.follower_id = :ownerId AND f.followee_id = :authorId) "
+			+ "ON CONFLICT (owner_id, post_id) DO NOTHING", nativeQuery = true)
+	int backfill(@Param("ownerId") UUID ownerId, @Param("authorId") UUID authorId, @Param("limit") int limit);
+	/**
+	 * 指定投稿者の投稿を、そのフォロワー全員の受信箱へまとめて補充する。
+	 * プル型からファンアウト対象に戻った投稿者について、プル型だった期間の投稿を埋めるために使用する。
+	 * 各受信箱が保持している期間（最古エントリ以降）の投稿だけを対象にする。
+	 *
+	 * @param authorId 投稿者のユーザーID
+	 * @param limit 受信箱1つあたりに補充する投稿数の上限
+	 * @return 追加されたエントリ数
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO timeline_entries (entry_id, owner_id, post_id, author_id, created_at) "
+			+ "SELECT gen_random_uuid(), f.follower_id, p.post_id, p.user_id, p.created_at "
+			+ "FROM follows f "
+			+ "CROSS JOIN LATERAL (SELECT post_id, user_id, created_at FROM posts "
+			+ "      WHERE user_id = :authorId "
+			+ "      AND created_at >= COALESCE("
+			+ "        (SELECT MIN(t.created_at) FROM timeline_entries t WHERE t.owner_id = f.follower_id), '-infinity') "
+			+ "      ORDER BY created_at DESC, post_id DESC LIMIT :limit) p "
+			+ "WHERE f.followee_id = :authorId "
+			+ "ON CONFLICT (owner_id, post_id) DO NOTHING", nativeQuery = true)
+	int backfillFollowers(@Param("authorId") UUID authorId, @Param("limit") int limit);
+	/**
+	 * フォロー解除した相手の投稿を受信箱から取り除く。
+	 * 実行時点で再びフォローしている場合は取り除かない。
+	 *
+	 * @param ownerId 受信箱の持ち主（フォロー解除した側）のユーザーID
+	 * @param authorId フォロー解除された側のユーザーID
+	 * @return 削除されたエントリ数
+	 */
+	@Modifying
+	@Query(value = "DELETE FROM timeline_entries WHERE owner_id = :ownerId AND author_id = :authorId "
+			+ "AND NOT EXISTS (SELECT 1 FROM follows f WHERE f.follower_id = :ownerId AND f.followee_id = :authorId)",
+			nativeQuery = true)
+	int prune(@Param("ownerId") UUID ownerId, @Param("authorId") UUID authorId);
+	/**
+	 * 指定ユーザーの受信箱を新しい順に capacity 件だけ残し、それより古いエントリを削除する。
+	 * 受信箱ごとに capacity+1 件目の位置をインデックスで求め、その位置以前を範囲削除するため、
+	 * テーブル全体を順位付けせずに済む。受信箱から溢れた範囲は読み取り時にDB検索へフォールバックする。
+	 *
+	 * @param ownerIds 受信箱の持ち主のユーザーIDのリスト
+	 * @param capacity 受信箱1つあたりの保持件数
+	 * @return 削除されたエントリ数
+	 */
+	@Modifying
+	@Query(value = "DELETE FROM timeline_entries t USING ("
+			+ "  SELECT u.user_id AS owner_id, b.created_at, b.post_id FROM users u "
+			+ "  CROSS JOIN LATERAL (SELECT e.created_at, e.post_id FROM timeline_entries e "
+			+ "      WHERE e.owner_id = u.user_id "
+			+ "      ORDER BY e.created_at DESC, e.post_id DESC OFFSET :capacity LIMIT 1) b "
+			+ "  WHERE u.user_id IN (:ownerIds)) cut "
+			+ "WHERE t.owner_id = cut.owner_id "
+			+ "AND (t.created_at, t.post_id) <= (cut.created_at, cut.post_id)", nativeQuery = true)
+	int trimOwners(@Param("ownerIds") Collection<UUID> ownerIds, @Param("capacity") int capacity);
+}
@@ -0,0 +1,120 @@
+package com.example.sns.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.sns.dto.UserProfileDto;
+import com.example.sns.entity.UserStats;
+
+/**
+ * ユーザーごとの件数（user_stats）へのデータアクセスを行うリポジトリ。
+ * 件数の加減算は同時更新で失われないよう、単一のネイティブSQL（UPSERT）で行う。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public interface UserStatsRepository extends JpaRepository<UserStats, UUID>, UserStatsRepositoryCustom {
+	/**
+	 * ユーザーの件数を加減算する。行が無い場合は作成する。
+	 * 複数ユーザーの件数を同じトランザクションで更新する場合は、
+	 * デッドロックを避けるためユーザーIDの昇順で呼び出すこと。
+	 *
+	 * @param userId ユーザーID
+	 * @param posts 投稿数の増減
+	 * @param following フォロー数の増減
+	 * @param followers フォロワー数の増減
+	 * @param liked いいね数の増減
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO user_stats (user_id, post_count, following_count, follower_count, liked_count) "
+			+ "VALUES (:userId, GREATEST(:posts, 0), GREATEST(:following, 0), GREATEST(:followers, 0), GREATEST(:liked, 0)) "
+			+ "ON CONFLICT (user_id) DO UPDATE SET "
+			+ "post_count = user_stats.post_count + :posts, "
+			+ "following_count = user_stats.following_count + :following, "
+			+ "follower_count = user_stats.follower_count + :followers, "
+			+ "liked_count = user_stats.liked_count + :liked", nativeQuery = true)
+	void addCounts(
+			@Param("userId") UUID userId,
+			@Param("posts") int posts,
+			@Param("following") int following,
+			@Param("followers") int followers,
+			@Param("liked") int liked);
+	/**
+	 * プロフィール表示用の情報（ユーザー情報＋件数）を主キーで1回で取得する。
+	 *
+	 * @param userId ユーザーID
+	 * @return プロフィールDTO（ユーザーが存在しない場合は空）
+	 */
+	@Query("SELECT new com.example.sns.dto.UserProfileDto("
+			+ "u.userId, u.userName, u.userBio, "
+			+ "COALESCE(s.postCount, 0), COALESCE(s.followingCount, 0), "
+			+ "COALESCE(s.followerCount, 0), COALESCE(s.likedCount, 0)) "
+			+ "FROM Users u LEFT JOIN UserStats s ON s.userId = u.userId "
+			+ "WHERE u.userId = :userId")
+	Optional<UserProfileDto> findProfile(@Param("userId") UUID userId);
+	/**
+	 * 指定したIDより大きいユーザーIDを、昇順で指定件数まで取得する（照合・受信箱の刈り込み対象の列挙）。
+	 *
+	 * @param afterId このIDより大きいユーザーのみを対象とする（先頭の場合は最小のUUID）
+	 * @param limit 最大件数
+	 * @return ユーザーIDのリスト（ID昇順）
+	 */
+	@Query(value = "SELECT user_id FROM users WHERE user_id > :afterId ORDER BY user_id LIMIT :limit", nativeQuery = true)
+	List<UUID> findUserIdsAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+	/**
+	 * 指定したユーザーのうち、件数の行が無いユーザーの行を0件で作成する。
+	 * 照合前に呼び出し、すべての対象ユーザーの行をロックできるようにする。
+	 *
+	 * @param userIds ユーザーIDのリスト
+	 * @return 作成した行数
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO user_stats (user_id, post_count, following_count, follower_count, liked_count) "
+			+ "SELECT u.user_id, 0, 0, 0, 0 FROM users u WHERE u.user_id IN (:userIds) ORDER BY u.user_id "
+			+ "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+	int insertMissingStats(@Param("userIds") Collection<UUID> userIds);
+	/**
+	 * 指定したユーザーの件数の行をユーザーIDの昇順でロックする（SELECT ... FOR UPDATE）。
+	 * 照合前に呼び出し、照合中に件数を加減算する操作（addCounts）を待たせる。
+	 * 呼び出し側のトランザクション内で使うこと。
+	 *
+	 * @param userIds ユーザーIDのリスト
+	 * @return ロックしたユーザーIDのリスト
+	 */
+	@Query(value = "SELECT user_id FROM user_stats WHERE user_id IN (:userIds) ORDER BY user_id FOR UPDATE", nativeQuery = true)
+	List<UUID> lockStats(@Param("userIds") Collection<UUID> userIds);
+	/**
+	 * 指定したユーザーの件数を実件数と照合し、ずれていれば修正する。
+	 * 同じトランザクションで先に lockStats で行をロックしてから呼び出すこと。
+	 * ロック後の文で件数を数えるため、ロック取得までにコミットされた操作は件数に含まれ、
+	 * 未コミットの操作はロックの解放を待ってから修正後の件数へ加減算される。
+	 *
+	 * @param userIds ユーザーIDのリスト
+	 * @return 修正したユーザー数
+	 */
+	@Modifying
+	@Query(value = "UPDATE user_stats s SET "
+			+ "post_count = c.post_count, "
+			+ "following_count = c.following_count, "
+			+ "follower_count = c.follower_count, "
+			+ "liked_count = c.liked_count "
+			+ "FROM ("
+			+ "  SELECT u.user_id, "
+			+ "    (SELECT COUNT(*) FROM posts p WHERE p.user_id = u.user_id) AS post_count, "
+			+ "    (SELECT COUNT(*) FROM follows f WHERE f.follower_id = u.user_id) AS following_count, "
+			+ "    (SELECT COUNT(*) FROM follows f WHERE f.followee_id = u.user_id) AS follower_count, "
+			+ "    (SELECT COUNT(*) FROM likes l WHERE l.user_id = u.user_id) AS liked_count "
+			+ "  FROM users u WHERE u.user_id IN (:userIds)"
+			+ ") c "
+			+ "WHERE s.user_id = c.user_id "
+			+ "AND (s.post_count, s.following_count, s.follower_count, s.liked_count) "
+			+ "    IS DISTINCT FROM (c.post_count, c.following_count, c.follower_count, c.liked_count)", nativeQuery = true)
+	int reconcileStats(@Param("userIds") Collection<UUID> userIds);
+}
@@ -0,0 +1,23 @@
+package com.example.sns.repository;
+
+import java.util.Map;
+import java.util.UUID;
+
+import com.example.sns.dto.UserStatsDelta;
+
+/**
+ * ユーザーごとの件数（user_stats）のバッチでの書き込みを定義するリポジトリ拡張インタフェース。
+ * 実装は {@link UserStatsRepositoryCustomImpl} で、{@link UserStatsRepository} に合成される。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public interface UserStatsRepositoryCustom {
+	/**
+	 * 複数ユーザーの件数をJDBCバッチでまとめて加減算する。行が無いユーザーは作成する。
+	 * デッドロックを避けるため、ユーザーIDの順に更新する。
+	 *
+	 * @param deltas ユーザーIDごとの増減
+	 */
+	void addCountsBatch(Map<UUID, UserStatsDelta> deltas);
+}
@@ -0,0 +1,50 @@
+package com.example.sns.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.sns.dto.UserStatsDelta;
+import com.example.sns.util.UuidOrder;
+
+/**
+ * {@link UserStatsRepositoryCustom} のJDBC実装クラス。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public class UserStatsRepositoryCustomImpl implements UserStatsRepositoryCustom {
+	private final JdbcTemplate jdbcTemplate;
+
+	public UserStatsRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	/**
+	 * 1件ずつの加減算（{@link UserStatsRepository#addCounts}）と同じUPSERTをバッチで実行する。
+	 */
+	@Override
+	public void addCountsBatch(Map<UUID, UserStatsDelta> deltas) {
+		List<Object[]> args = deltas.entrySet().stream()
+				.filter(entry -> !entry.getValue().isZero())
+				// lockStats（ORDER BY user_id）と同じ順に行ロックを取り、デッドロックを避ける
+				.sorted(Map.Entry.comparingByKey(UuidOrder.UNSIGNED))
+				.map(entry -> {
+					UserStatsDelta d = entry.getValue();
+					return new Object[] {
+							entry.getKey(),
+							d.posts(), d.following(), d.followers(), d.liked(),
+							d.posts(), d.following(), d.followers(), d.liked() };
+				})
+				.toList();
+		if (args.isEmpty()) return;
+		jdbcTemplate.batchUpdate("INSERT INTO user_stats (user_id, post_count, following_count, follower_count, liked_count) "
+				+ "VALUES (?, GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0)) "
+				+ "ON CONFLICT (user_id) DO UPDATE SET "
+				+ "post_count = user_stats.post_count + ?, "
+				+ "following_count = user_stats.following_count + ?, "
+				+ "follower_count = user_stats.follower_count + ?, "
+				+ "liked_count = user_stats.liked_count + ?", args);
+	}
+}
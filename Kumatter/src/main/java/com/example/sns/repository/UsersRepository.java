@@ -1,5 +1,6 @@
 package com.example.sns.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,14 +38,11 @@ public interface UsersRepository extends JpaRepository<Users, UUID> {
 	 */
 	Optional<Users> findByLoginIdOrEmail(String loginId, String email);
 	/**
-	 * 入力されたキーワードに部分一致するユーザー名またはログインIDを持つユーザー一覧を返す。
-	 * ※ SQLインジェクション対策のため、バインド変数を使用
+	 * 指定したユーザーIDのうち、存在するものだけを返す。
 	 *
-	 * @param keyword 入力文字列（2文字以上を想定）
-	 * @return 部分一致するユーザー一覧（最大20件などに制限するのも可）
+	 * @param userIds ユーザーIDのリスト
+	 * @return 存在するユーザーIDのリスト
 	 */
-	@Query("SELECT u FROM Users u WHERE u.userName LIKE %:keyword% OR u.loginId LIKE %:keyword%")
-	List<Users> searchByKeyword(@Param("keyword") String keyword);
-	
-	List<Users> findTop10ByLoginIdContainingIgnoreCaseOrUserNameContainingIgnoreCase(String loginId, String userName);
-}
\ No newline at end of file
+	@Query("SELECT u.userId FROM Users u WHERE u.userId IN :userIds")
+	List<UUID> findExistingUserIds(@Param("userIds") Collection<UUID> userIds);
+}
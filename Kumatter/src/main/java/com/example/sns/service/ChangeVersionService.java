@@ -0,0 +1,224 @@
+package com.example.sns.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.sns.event.FollowChangedEvent;
+import com.example.sns.event.LikeChangedEvent;
+import com.example.sns.event.PostCreatedEvent;
+
+/**
+ * タイムライン・プロフィールの条件付きGET（ETag）に使う変更バージョンを管理するサービスクラス。
+ *
+ * 投稿・いいね・フォローの変更ごとに全体の連番を進め、次の2種類のバージョンとして記録する。
+ * - 投稿者バージョン: そのユーザーの投稿の内容（新規投稿・いいね数）が変わった時点
+ * - ユーザーバージョン: そのユーザー自身の状態（フォロー・フォロワー・いいね済み）が変わった時点
+ * 各画面のETagは、表示内容に関係するバージョンの最大値から作る。
+ *
+ * ホームタイムラインはフォロー中ユーザー全員の投稿者バージョンに依存するため、読み取りのたびに全員を走査せず、
+ * 投稿者バージョンを進める時点でフォロワーごとのタイムラインバージョンへ書き込んでおく（書き込み時の配布）。
+ * フォロワー数が閾値以上の投稿者は配布の件数が大きいため配布せず、読み取り時にフォロー中のものだけ参照する。
+ *
+ * 変更はコミット後（他のリスナーによる派生データの更新の後）に記録するため、
+ * 新しいETagで古い内容が返されることはない。非同期で派生データを更新する処理は、
+ * 更新完了時に touchAuthor() / touchUser() を呼び出すこと。
+ * バージョンはこのインスタンスのメモリ上にのみ保持し、他のインスタンスでの変更は反映されないため、
+ * 単一インスタンスでの運用を前提とする。起動ごとに異なる識別子をETagに含めて再起動後の衝突を防ぐ。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class ChangeVersionService {
+	private final FollowGraphService followGraphService;
+	/** タイムラインバージョンを配布せず、読み取り時に参照するフォロワー数の閾値 */
+	private final int pushThreshold;
+	/** 起動ごとに異なる識別子 */
+	private final String bootId = Long.toHexString(System.currentTimeMillis());
+	/** 全体の変更連番（全体タイムラインのバージョン） */
+	private final AtomicLong sequence = new AtomicLong();
+	/** 投稿者IDごとのバージョン */
+	private final ConcurrentHashMap<UUID, Long> authorVersions = new ConcurrentHashMap<>();
+	/** ユーザーIDごとのバージョン */
+	private final ConcurrentHashMap<UUID, Long> userVersions = new ConcurrentHashMap<>();
+	/** 閲覧ユーザーIDごとのタイムラインバージョン（フォロー中の投稿者から配布されたバージョンの最大値） */
+	private final ConcurrentHashMap<UUID, Long> timelineVersions = new ConcurrentHashMap<>();
+	/** フォロワー数が閾値以上のため、タイムラインバージョンを配布しなかった投稿者のID */
+	private final Set<UUID> unpushedAuthorIds = ConcurrentHashMap.newKeySet();
+
+	public ChangeVersionService(
+			FollowGraphService followGraphService,
+			@Value("${sns.timeline.etag.push-threshold:1000}") int pushThreshold) {
+		this.followGraphService = followGraphService;
+		this.pushThreshold      = pushThreshold;
+	}
+	/**
+	 * 全体タイムライン（/api/posts/all）のETagを返す。
+	 *
+	 * @return ETag
+	 */
+	public String allPostsETag() {
+		return toETag(sequence.get());
+	}
+	/**
+	 * ホームタイムライン（自分＋フォロー中ユーザー）のETagを返す。
+	 * フォロー中ユーザーの変更は配布済みのタイムラインバージョンで判定し、
+	 * 配布対象外の投稿者のうちフォロー中のものだけを個別に参照する。
+	 *
+	 * @param viewerId 閲覧ユーザーのID
+	 * @return ETag
+	 */
+	public String timelineETag(UUID viewerId) {
+		long version = Math.max(Math.max(userVersion(viewerId), authorVersion(viewerId)),
+				timelineVersions.getOrDefault(viewerId, 0L));
+		if (!unpushedAuthorIds.isEmpty()) {
+			List<UUID> followeeIds = followGraphService.findFolloweeIdsAmong(viewerId, unpushedAuthorIds);
+			for (UUID followeeId : followeeIds) {
+				version = Math.max(version, authorVersion(followeeId));
+			}
+		}
+		return toETag(version);
+	}
+	/**
+	 * ユーザー別の投稿一覧のETagを返す。
+	 *
+	 * @param authorId 投稿者のユーザーID
+	 * @param viewerId 閲覧ユーザーのID（いいね済み判定が変わるため）
+	 * @return ETag
+	 */
+	public String userPostsETag(UUID authorId, UUID viewerId) {
+		return toETag(Math.max(authorVersion(authorId), userVersion(viewerId)));
+	}
+	/**
+	 * プロフィール画面（件数・投稿一覧・フォロー状態）のETagを返す。
+	 * 画面にはセッションのCSRFトークンが埋め込まれるため、セッションごとに区別する。
+	 *
+	 * @param userId 表示対象のユーザーID
+	 * @param viewerId 閲覧ユーザーのID
+	 * @param sessionId 閲覧中のセッションID
+	 * @return ETag
+	 */
+	public String profileETag(UUID userId, UUID viewerId, String sessionId) {
+		long version = Math.max(Math.max(authorVersion(userId), userVersion(userId)), userVersion(viewerId));
+		String etag = toETag(version);
+		return etag.substring(0, etag.length() - 1) + "-" + Integer.toHexString(sessionId.hashCode()) + "\"";
+	}
+	/**
+	 * 投稿者の投稿の内容が変わったことを記録する（非同期の派生データ更新の完了時など）。
+	 * トランザクション中に呼ばれた場合はコミット後に記録する。
+	 *
+	 * @param authorId 投稿者のユーザーID
+	 */
+	public void touchAuthor(UUID authorId) {
+		afterCommit(() -> advanceAuthor(authorId, sequence.incrementAndGet()));
+	}
+	/**
+	 * ユーザー自身の状態が変わったことを記録する（非同期の派生データ更新の完了時など）。
+	 * トランザクション中に呼ばれた場合はコミット後に記録する。
+	 *
+	 * @param userId ユーザーID
+	 */
+	public void touchUser(UUID userId) {
+		afterCommit(() -> userVersions.put(userId, sequence.incrementAndGet()));
+	}
+	/**
+	 * 投稿作成のコミット後、投稿者バージョンを進める。
+	 *
+	 * @param event 投稿作成イベント
+	 */
+	@TransactionalEventListener
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void onPostCreated(PostCreatedEvent event) {
+		advanceAuthor(event.getAuthorId(), sequence.incrementAndGet());
+	}
+	/**
+	 * いいね変更のコミット後、投稿の投稿者（いいね数）といいねしたユーザー（いいね済み・いいね数）のバージョンを進める。
+	 *
+	 * @param event いいね変更イベント
+	 */
+	@TransactionalEventListener
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void onLikeChanged(LikeChangedEvent event) {
+		long version = sequence.incrementAndGet();
+		if (event.getPostAuthorId() != null) advanceAuthor(event.getPostAuthorId(), version);
+		userVersions.put(event.getUserId(), version);
+	}
+	/**
+	 * フォロー変更のコミット後、フォローした側・された側のバージョンを進める。
+	 *
+	 * @param event フォロー変更イベント
+	 */
+	@TransactionalEventListener
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void onFollowChanged(FollowChangedEvent event) {
+		long version = sequence.incrementAndGet();
+		userVersions.put(event.getFollowerId(), version);
+		userVersions.put(event.getFolloweeId(), version);
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * トランザクション中であればコミット後に、そうでなければ即座に処理を実行する。
+	 * コミット前にバージョンを進めると、新しいETagで古い内容が返されるため。
+	 *
+	 * @param action 実行する処理
+	 */
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+	/**
+	 * 投稿者バージョンを進め、フォロワーのタイムラインバージョンへ配布する。
+	 * フォロワー数が閾値以上の投稿者は配布せず、読み取り時の参照対象に加える
+	 * （一度加えた投稿者は、フォロワーが減っても読み取り時の参照を続ける）。
+	 *
+	 * @param authorId 投稿者のユーザーID
+	 * @param version 新しいバージョン
+	 */
+	private void advanceAuthor(UUID authorId, long version) {
+		authorVersions.put(authorId, version);
+		if (unpushedAuthorIds.contains(authorId)) return;
+		if (followGraphService.countFollowers(authorId) >= pushThreshold) {
+			unpushedAuthorIds.add(authorId);
+			return;
+		}
+		for (UUID followerId : followGraphService.findFollowerIds(authorId)) {
+			timelineVersions.merge(followerId, version, Math::max);
+		}
+	}
+	private long authorVersion(UUID authorId) {
+		return authorVersions.getOrDefault(authorId, 0L);
+	}
+	private long userVersion(UUID userId) {
+		return userVersions.getOrDefault(userId, 0L);
+	}
+	/**
+	 * バージョンから強いETagを作る。
+	 *
+	 * @param version バージョン
+	 * @return ETag（ダブルクォート付き）
+	 */
+	private String toETag(long version) {
+		return "\"" + bootId + "-" + version + "\"";
+	}
+}
@@ -0,0 +1,485 @@
+package com.example.sns.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.dto.RecommendationCandidate;
+import com.example.sns.dto.Relationship;
+import com.example.sns.event.FollowChangedEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * フォロー関係をメモリ上に保持し、フォロー判定・件数・一覧を高速に返すサービスクラス。
+ *
+ * - ユーザーのUUIDを連番のint IDに対応付け、フォロー中・フォロワーの隣接リストを
+ *   ソート済みのintプリミティブ配列として保持する（UUIDのリストと比べて1件4バイト）
+ * - 起動時に follows テーブルをストリーミングで読み込んで構築する
+ * - フォロー・フォロー解除のコミット後に FollowChangedEvent を受けて更新する
+ *
+ * 判定は二分探索、件数は配列の要素数、一覧は配列の走査で応答し、DBへの問い合わせは発生しない。
+ * 使用メモリの概算は「follows.graph.memory」（バイト）としてメトリクスに公開する。
+ * メモリ上の状態はこのインスタンスでの変更のみを反映するため、単一インスタンスでの運用を前提とする。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class FollowGraphService {
+	private static final Logger logger = LoggerFactory.getLogger(FollowGraphService.class);
+	private static final int[] EMPTY = new int[0];
+	/** 読み込み時のフェッチサイズ */
+	private static final int FETCH_SIZE = 10_000;
+	/** UUID1件あたりの概算バイト数（UUIDオブジェクト＋対応表のエントリ） */
+	private static final long BYTES_PER_USER = 32 + 48 + 16;
+	/** 配列1つあたりのヘッダの概算バイト数 */
+	private static final long BYTES_PER_ARRAY = 16;
+	/** フォロー変更の反映を組ごとに直列化するロックの分割数 */
+	private static final int PAIR_LOCK_STRIPES = 64;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** フォロー変更の反映（DBの読み直し＋グラフへの反映）を同じ組について直列化するためのロック */
+	private final Object[] pairLocks = new Object[PAIR_LOCK_STRIPES];
+	/** UUID → int ID */
+	private final Map<UUID, Integer> idsByUuid = new HashMap<>();
+	/** int ID → UUID */
+	private UUID[] uuids = new UUID[1024];
+	/** int ID ごとのフォロー中ユーザー（ソート済み。末尾に空きを持つ） */
+	private int[][] followees = new int[1024][];
+	private int[] followeeCounts = new int[1024];
+	/** int ID ごとのフォロワー（ソート済み。末尾に空きを持つ） */
+	private int[][] followers = new int[1024][];
+	private int[] followerCounts = new int[1024];
+	/** 割り当て済みのint IDの数 */
+	private int size;
+	/** 隣接リスト配列の確保済み要素数の合計 */
+	private long allocatedSlots;
+
+	public FollowGraphService(
+			JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry) {
+		this.jdbcTemplate        = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		for (int i = 0; i < pairLocks.length; i++) {
+			pairLocks[i] = new Object();
+		}
+		Gauge.builder("follows.graph.memory", this, FollowGraphService::estimatedBytes)
+				.baseUnit("bytes")
+				.description("フォローグラフの使用メモリ（概算）")
+				.register(meterRegistry);
+		Gauge.builder("follows.graph.users", this, graph -> graph.userCount())
+				.register(meterRegistry);
+	}
+	/**
+	 * follows テーブルをストリーミングで読み込み、グラフを構築する。
+	 * PostgreSQLはトランザクション内でのみフェッチサイズ単位の読み込みを行うため、
+	 * 読み取り専用トランザクションの中で読み込む。
+	 * 読み込んだ関係は隣接リストの末尾に追加し、最後に各リストを1回ずつソートする
+	 * （1件ずつソート位置へ挿入すると、フォロワーの多いユーザーで要素の移動が件数の2乗に比例するため）。
+	 */
+	@PostConstruct
+	public void load() {
+		long start = System.currentTimeMillis();
+		long[] edges = {0};
+		JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+		streaming.setFetchSize(FETCH_SIZE);
+		lock.writeLock().lock();
+		try {
+			transactionTemplate.executeWithoutResult(status ->
+					streaming.query("SELECT follower_id, followee_id FROM follows", rs -> {
+						append(rs.getObject("follower_id", UUID.class), rs.getObject("followee_id", UUID.class));
+						edges[0]++;
+					}));
+			sortRows();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		logger.info("フォローグラフを構築しました: ユーザー {} 件, フォロー {} 件, {} ms",
+				userCount(), edges[0], System.currentTimeMillis() - start);
+	}
+	/**
+	 * 指定ユーザーが相手をフォローしているかを判定する。
+	 *
+	 * @param followerId フォローしている側のユーザーID
+	 * @param followeeId フォローされている側のユーザーID
+	 * @return フォローしていればtrue
+	 */
+	public boolean isFollowing(UUID followerId, UUID followeeId) {
+		lock.readLock().lock();
+		try {
+			Integer follower = idsByUuid.get(followerId);
+			Integer followee = idsByUuid.get(followeeId);
+			if (follower == null || followee == null) return false;
+			return Arrays.binarySearch(followees[follower], 0, followeeCounts[follower], followee) >= 0;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 指定ユーザーのフォロー数を返す。
+	 *
+	 * @param userId ユーザーID
+	 * @return フォロー数
+	 */
+	public int countFollowees(UUID userId) {
+		lock.readLock().lock();
+		try {
+			Integer id = idsByUuid.get(userId);
+			return id == null ? 0 : followeeCounts[id];
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 指定ユーザーのフォロワー数を返す。
+	 *
+	 * @param userId ユーザーID
+	 * @return フォロワー数
+	 */
+	public int countFollowers(UUID userId) {
+		lock.readLock().lock();
+		try {
+			Integer id = idsByUuid.get(userId);
+			return id == null ? 0 : followerCounts[id];
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 指定ユーザーがフォローしているユーザーID一覧を返す。
+	 *
+	 * @param followerId フォローしている側のユーザーID
+	 * @return フォロー中ユーザーのID一覧（呼び出し元で変更可能）
+	 */
+	public List<UUID> findFolloweeIds(UUID followerId) {
+		lock.readLock().lock();
+		try {
+			Integer id = idsByUuid.get(followerId);
+			return id == null ? new ArrayList<>() : toUuids(followees[id], followeeCounts[id]);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 指定ユーザーをフォローしているユーザーID一覧を返す。
+	 *
+	 * @param followeeId フォローされている側のユーザーID
+	 * @return フォロワーのID一覧（呼び出し元で変更可能）
+	 */
+	public List<UUID> findFollowerIds(UUID followeeId) {
+		lock.readLock().lock();
+		try {
+			Integer id = idsByUuid.get(followeeId);
+			return id == null ? new ArrayList<>() : toUuids(followers[id], followerCounts[id]);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 候補ユーザーのうち、指定ユーザーがフォローしているユーザーID一覧を返す。
+	 *
+	 * @param followerId フォローしている側のユーザーID
+	 * @param candidateIds 判定対象のユーザーID
+	 * @return 候補のうちフォローしているユーザーのID一覧
+	 */
+	public List<UUID> findFolloweeIdsAmong(UUID followerId, Collection<UUID> candidateIds) {
+		List<UUID> result = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			Integer follower = idsByUuid.get(followerId);
+			if (follower == null) return result;
+			for (UUID candidateId : candidateIds) {
+				Integer candidate = idsByUuid.get(candidateId);
+				if (candidate != null
+						&& Arrays.binarySearch(followees[follower], 0, followeeCounts[follower], candidate) >= 0) {
+					result.add(candidateId);
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 閲覧ユーザーと候補ユーザーそれぞれとのフォロー関係（双方向）をまとめて返す。
+	 * 候補の数だけ二分探索を行い、閲覧ユーザーのフォロー・フォロワー一覧は展開しない。
+	 * ユーザー一覧にフォロー状態を付けて返す処理で共通に使用する。
+	 *
+	 * @param viewerId 閲覧ユーザーのID（nullの場合はすべて関係なし）
+	 * @param candidateIds 判定対象のユーザーID
+	 * @return 候補のユーザーIDごとのフォロー関係（候補すべてを含む）
+	 */
+	public Map<UUID, Relationship> findRelationships(UUID viewerId, Collection<UUID> candidateIds) {
+		Map<UUID, Relationship> result = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			Integer viewer = viewerId == null ? null : idsByUuid.get(viewerId);
+			for (UUID candidateId : candidateIds) {
+				Integer candidate = idsByUuid.get(candidateId);
+				if (viewer == null || candidate == null) {
+					result.put(candidateId, Relationship.NONE);
+					continue;
+				}
+				boolean following = Arrays.binarySearch(followees[viewer], 0, followeeCounts[viewer], candidate) >= 0;
+				boolean followedBy = Arrays.binarySearch(followees[candidate], 0, followeeCounts[candidate], viewer) >= 0;
+				result.put(candidateId, new Relationship(following, followedBy));
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * フォロワー数が閾値以上のユーザーID一覧を返す。
+	 *
+	 * @param threshold フォロワー数の閾値
+	 * @return フォロワー数が閾値以上のユーザーID一覧
+	 */
+	public List<UUID> findUserIdsWithFollowersAtLeast(long threshold) {
+		List<UUID> result = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (int id = 0; id < size; id++) {
+				if (followerCounts[id] >= threshold) result.add(uuids[id]);
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 指定ユーザーがフォローしているユーザーのフォロー先（2ホップ先）から、
+	 * 共通のつながりが多い順に、まだフォローしていないユーザーを返す。
+	 * 同数の場合はフォロワー数の多い順とする。
+	 *
+	 * 走査するフォロー関係の数は maxScan までとし、フォローの多いユーザーでも一定の時間で応答する
+	 * （上限に達した場合は、それまでに走査した範囲での順位になる）。
+	 *
+	 * @param userId ユーザーID
+	 * @param limit 返す件数の上限
+	 * @param maxScan 走査するフォロー関係の数の上限
+	 * @return 候補のリスト（共通のつながりの多い順）
+	 */
+	public List<RecommendationCandidate> findFriendsOfFriends(UUID userId, int limit, int maxScan) {
+		lock.readLock().lock();
+		try {
+			Integer id = idsByUuid.get(userId);
+			if (id == null || limit <= 0) return new ArrayList<>();
+			int[] mine = followees[id];
+			int myCount = followeeCounts[id];
+			Map<Integer, Integer> mutualCounts = new HashMap<>();
+			int scanned = 0;
+			scan:
+			for (int i = 0; i < myCount; i++) {
+				int friend = mine[i];
+				for (int j = 0; j < followeeCounts[friend]; j++) {
+					if (++scanned > maxScan) break scan;
+					int candidate = followees[friend][j];
+					if (candidate == id || Arrays.binarySearch(mine, 0, myCount, candidate) >= 0) continue;
+					mutualCounts.merge(candidate, 1, Integer::sum);
+				}
+			}
+			// 上位 limit 件を最小ヒープで選ぶ（先頭が最も順位の低い候補）
+			PriorityQueue<int[]> top = new PriorityQueue<>(limit + 1, (a, b) -> a[1] != b[1]
+					? Integer.compare(a[1], b[1])
+					: Integer.compare(followerCounts[a[0]], followerCounts[b[0]]));
+			mutualCounts.forEach((candidate, count) -> {
+				top.add(new int[] { candidate, count });
+				if (top.size() > limit) top.poll();
+			});
+			List<RecommendationCandidate> result = new ArrayList<>(top.size());
+			while (!top.isEmpty()) {
+				int[] entry = top.poll();
+				result.add(new RecommendationCandidate(uuids[entry[0]], entry[1]));
+			}
+			Collections.reverse(result);
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * フォロー・フォロー解除のコミット後、グラフに反映する。
+	 * 他のリスナー（変更バージョン等）がグラフを参照するため、最初に実行する。
+	 *
+	 * 同じ組へのフォロー・解除が同時にコミットされると、リスナーの実行順がコミット順と
+	 * 逆になり得るため、イベントの内容ではなくコミット済みのDBの状態を読み直して反映する。
+	 * 読み直しと反映は組ごとのロックで直列化するため、最後に実行されたリスナーが最新の状態を反映し、グラフはDBと一致する。
+	 * DBの読み直しはグラフ全体の書き込みロックの外で行い、読み取り側を待たせるのはメモリ上の追加・削除の間だけにする。
+	 *
+	 * @param event フォロー変更イベント
+	 */
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onFollowChanged(FollowChangedEvent event) {
+		Object pairLock = pairLocks[Math.floorMod(31 * event.getFollowerId().hashCode() + event.getFolloweeId().hashCode(), pairLocks.length)];
+		synchronized (pairLock) {
+			Boolean following = jdbcTemplate.queryForObject(
+					"SELECT EXISTS (SELECT 1 FROM follows WHERE follower_id = ? AND followee_id = ?)",
+					Boolean.class, event.getFollowerId(), event.getFolloweeId());
+			lock.writeLock().lock();
+			try {
+				if (Boolean.TRUE.equals(following)) {
+					add(event.getFollowerId(), event.getFolloweeId());
+				} else {
+					remove(event.getFollowerId(), event.getFolloweeId());
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	//-- 以下privateメソッド（書き込みロックを取得した状態で呼び出す） --//
+
+	private void add(UUID followerId, UUID followeeId) {
+		int follower = idOf(followerId);
+		int followee = idOf(followeeId);
+		int pos = Arrays.binarySearch(followees[follower], 0, followeeCounts[follower], followee);
+		if (pos >= 0) return;
+		followees[follower] = insert(followees[follower], followeeCounts[follower]++, -(pos + 1), followee);
+		pos = Arrays.binarySearch(followers[followee], 0, followerCounts[followee], follower);
+		followers[followee] = insert(followers[followee], followerCounts[followee]++, -(pos + 1), follower);
+	}
+	/**
+	 * 読み込み時に、フォロー関係を隣接リストの末尾へ追加する（ソート順は保たない）。
+	 * follows の主キーにより同じ組は重複しないため、重複の確認は行わない。
+	 * 読み込みの最後に sortRows() を呼び出すこと。
+	 *
+	 * @param followerId フォロワーのユーザーID
+	 * @param followeeId フォローされる側のユーザーID
+	 */
+	private void append(UUID followerId, UUID followeeId) {
+		int follower = idOf(followerId);
+		int followee = idOf(followeeId);
+		followees[follower] = insert(followees[follower], followeeCounts[follower], followeeCounts[follower]++, followee);
+		followers[followee] = insert(followers[followee], followerCounts[followee], followerCounts[followee]++, follower);
+	}
+	/**
+	 * すべての隣接リストを、使用中の範囲についてソートする。
+	 */
+	private void sortRows() {
+		for (int id = 0; id < size; id++) {
+			Arrays.sort(followees[id], 0, followeeCounts[id]);
+			Arrays.sort(followers[id], 0, followerCounts[id]);
+		}
+	}
+	private void remove(UUID followerId, UUID followeeId) {
+		Integer follower = idsByUuid.get(followerId);
+		Integer followee = idsByUuid.get(followeeId);
+		if (follower == null || followee == null) return;
+		int pos = Arrays.binarySearch(followees[follower], 0, followeeCounts[follower], followee);
+		if (pos < 0) return;
+		delete(followees[follower], followeeCounts[follower]--, pos);
+		pos = Arrays.binarySearch(followers[followee], 0, followerCounts[followee], follower);
+		if (pos >= 0) delete(followers[followee], followerCounts[followee]--, pos);
+	}
+	/**
+	 * UUIDに対応するint IDを返す。未登録の場合は新しく割り当てる。
+	 *
+	 * @param uuid ユーザーID
+	 * @return int ID
+	 */
+	private int idOf(UUID uuid) {
+		Integer id = idsByUuid.get(uuid);
+		if (id != null) return id;
+		if (size == uuids.length) {
+			int capacity = size * 2;
+			uuids          = Arrays.copyOf(uuids, capacity);
+			followees      = Arrays.copyOf(followees, capacity);
+			followeeCounts = Arrays.copyOf(followeeCounts, capacity);
+			followers      = Arrays.copyOf(followers, capacity);
+			followerCounts = Arrays.copyOf(followerCounts, capacity);
+		}
+		int newId = size++;
+		uuids[newId]     = uuid;
+		followees[newId] = EMPTY;
+		followers[newId] = EMPTY;
+		idsByUuid.put(uuid, newId);
+		return newId;
+	}
+	/**
+	 * ソート済み配列の指定位置に値を挿入する。空きが無い場合は1.5倍に拡張する。
+	 *
+	 * @param row 配列
+	 * @param count 現在の要素数
+	 * @param pos 挿入位置
+	 * @param value 挿入する値
+	 * @return 挿入後の配列（拡張した場合は新しい配列）
+	 */
+	private int[] insert(int[] row, int count, int pos, int value) {
+		if (count == row.length) {
+			int capacity = Math.max(4, count + (count >> 1));
+			allocatedSlots += capacity - row.length;
+			row = Arrays.copyOf(row, capacity);
+		}
+		System.arraycopy(row, pos, row, pos + 1, count - pos);
+		row[pos] = value;
+		return row;
+	}
+	/**
+	 * ソート済み配列の指定位置の値を削除する（配列は縮小しない）。
+	 *
+	 * @param row 配列
+	 * @param count 現在の要素数
+	 * @param pos 削除位置
+	 */
+	private static void delete(int[] row, int count, int pos) {
+		System.arraycopy(row, pos + 1, row, pos, count - pos - 1);
+	}
+	private List<UUID> toUuids(int[] row, int count) {
+		List<UUID> result = new ArrayList<>(count + 1);
+		for (int i = 0; i < count; i++) {
+			result.add(uuids[row[i]]);
+		}
+		return result;
+	}
+	private int userCount() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 使用メモリの概算（バイト）を返す。
+	 *
+	 * @return 概算バイト数
+	 */
+	private double estimatedBytes() {
+		lock.readLock().lock();
+		try {
+			long tables = (long) uuids.length * (8 + 8 + 4 + 8 + 4);
+			long rows = (long) size * 2 * BYTES_PER_ARRAY + allocatedSlots * Integer.BYTES;
+			return tables + rows + size * BYTES_PER_USER;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+}
@@ -1,19 +1,33 @@
 package com.example.sns.service;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.sns.entity.Follows;
-import com.example.sns.entity.Users;
+import com.example.sns.dto.CursorPageDto;
+import com.example.sns.dto.FollowBatchResultDto;
+import com.example.sns.dto.FollowUserDto;
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.Relationship;
+import com.example.sns.dto.UserStatsDelta;
+import com.example.sns.event.FollowChangedEvent;
 import com.example.sns.repository.FollowsRepository;
-import com.example.sns.repository.UsersRepository;
+import com.example.sns.repository.UserStatsRepository;
+import com.example.sns.util.UuidOrder;
 
 /**
  * フォロー・フォロー解除のビジネスロジックを提供するサービスクラス。
- * Followsエンティティを操作する。
+ * follows テーブルを操作する。
  * 
  * @author 岡本
  * @since 2025-07-10
@@ -21,59 +35,205 @@ import com.example.sns.repository.UsersRepository;
 @Service
 public class FollowsService {
 	private final FollowsRepository followsRepository;
-	private final UsersRepository usersRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final FollowGraphService followGraphService;
+	private final UserStatsRepository userStatsRepository;
+	private final UserIdentityCache userIdentityCache;
+	/** 一覧のページサイズ（省略時） */
+	private final int defaultPageSize;
+	/** 一覧のページサイズの上限 */
+	private final int maxPageSize;
 	
-	public FollowsService(FollowsRepository followsRepository, UsersRepository usersRepository) {
+	public FollowsService(
+			FollowsRepository followsRepository,
+			ApplicationEventPublisher eventPublisher,
+			FollowGraphService followGraphService,
+			UserStatsRepository userStatsRepository,
+			UserIdentityCache userIdentityCache,
+			@Value("${sns.follows.page-size:20}") int defaultPageSize,
+			@Value("${sns.follows.max-page-size:100}") int maxPageSize) {
 		this.followsRepository = followsRepository;
-		this.usersRepository = usersRepository;
+		this.eventPublisher = eventPublisher;
+		this.followGraphService = followGraphService;
+		this.userStatsRepository = userStatsRepository;
+		this.userIdentityCache = userIdentityCache;
+		this.defaultPageSize = defaultPageSize;
+		this.maxPageSize = maxPageSize;
 	}
 	/**
 	 * 指定ユーザーをフォローする。
+	 * フォロー関係は1回のSQL（INSERT ... ON CONFLICT DO NOTHING）で追加するため、
+	 * 同じ組への同時リクエストでもユニーク制約違反にならない。
+	 * 新たにフォロー関係を作成した場合は双方の件数（user_stats）を更新し、フォロー変更イベントを発行する。
 	 * 
 	 * @param followerId フォロワーのユーザーID
 	 * @param followeeId フォローされる側のユーザーID
+	 * @return 新たにフォローした場合はtrue、既にフォロー済みだった場合はfalse
+	 * @throws IllegalArgumentException フォロー対象が存在しない場合にスローされる
 	 */
 	@Transactional
-	public void follow(UUID followerId, UUID followeeId) {
-		Users follower = usersRepository.findById(followerId)
-				.orElseThrow(() -> new IllegalArgumentException("フォロワーが存在しません"));
-		Users followee = usersRepository.findById(followeeId)
-				.orElseThrow(() -> new IllegalArgumentException("フォロー対象が存在しません"));
-		if (followsRepository.existsByFollowerAndFollowee(follower, followee)) {
-			return; // 既にフォロー済みなら何もしない
+	public boolean follow(UUID followerId, UUID followeeId) {
+		boolean created;
+		try {
+			created = followsRepository.insertFollowIfAbsent(followerId, followeeId);
+		} catch (DataIntegrityViolationException e) {
+			// 外部キー制約違反（ユーザーが存在しない）
+			throw new IllegalArgumentException("フォロー対象が存在しません", e);
 		}
-		Follows follow = new Follows();
-		follow.setFollower(follower);
-		follow.setFollowee(followee);
-		follow.setCreatedAt(LocalDateTime.now());
-		followsRepository.save(follow);
+		if (!created) return false; // 既にフォロー済みなら何もしない
+		addFollowCounts(followerId, followeeId, 1);
+		eventPublisher.publishEvent(new FollowChangedEvent(followerId, followeeId, true));
+		return true;
+	}
+	/**
+	 * 複数のユーザーをまとめてフォローする。
+	 * フォロー関係の追加は1回のJDBCバッチ（INSERT ... ON CONFLICT DO NOTHING）で行い、
+	 * 新たにフォローした分の件数（user_stats）の更新も1回のバッチでまとめて行う。
+	 * 同じユーザーが複数含まれる場合は1件として扱い、結果はユーザーごとに1件返す。
+	 * 
+	 * @param followerId フォロワーのユーザーID
+	 * @param followeeIds フォロー対象のユーザーIDのリスト
+	 * @return ユーザーごとの結果（指定順）
+	 */
+	@Transactional
+	public List<FollowBatchResultDto> followAll(UUID followerId, List<UUID> followeeIds) {
+		List<UUID> distinctIds = followeeIds.stream().distinct().toList();
+		List<UUID> targets = distinctIds.stream().filter(id -> !id.equals(followerId)).toList();
+		int[] inserted = followsRepository.insertFollowsIfAbsent(followerId, targets);
+		Set<UUID> followed = new HashSet<>();
+		List<UUID> skipped = new ArrayList<>();
+		for (int i = 0; i < inserted.length; i++) {
+			if (inserted[i] > 0) followed.add(targets.get(i));
+			else skipped.add(targets.get(i));
+		}
+		// 追加しなかったユーザーは、フォロー済みか存在しないかを判別する（キャッシュに無いユーザーのみDBで確認）
+		Set<UUID> existing = skipped.isEmpty() ? Set.of() : userIdentityCache.findExistingUserIds(skipped);
+		if (!followed.isEmpty()) {
+			Map<UUID, UserStatsDelta> deltas = new HashMap<>();
+			for (UUID followeeId : followed) {
+				deltas.put(followeeId, new UserStatsDelta(0, 0, 1, 0));
+			}
+			deltas.put(followerId, new UserStatsDelta(0, followed.size(), 0, 0));
+			userStatsRepository.addCountsBatch(deltas);
+			for (UUID followeeId : followed) {
+				eventPublisher.publishEvent(new FollowChangedEvent(followerId, followeeId, true));
+			}
+		}
+		return distinctIds.stream().map(id -> {
+			if (id.equals(followerId)) return new FollowBatchResultDto(id, false, FollowBatchResultDto.SELF);
+			if (followed.contains(id)) return new FollowBatchResultDto(id, true, FollowBatchResultDto.FOLLOWED);
+			if (existing.contains(id)) return new FollowBatchResultDto(id, true, FollowBatchResultDto.ALREADY_FOLLOWING);
+			return new FollowBatchResultDto(id, false, FollowBatchResultDto.NOT_FOUND);
+		}).toList();
 	}
 	/**
 	 * 指定ユーザーをフォロー解除する。
+	 * フォロー関係は1回のSQL（DELETE ... RETURNING）で削除する。
+	 * 実際に解除した場合は双方の件数（user_stats）を更新し、フォロー変更イベントを発行する。
 	 * 
 	 * @param followerId フォロワーのユーザーID
 	 * @param followeeId フォローされる側のユーザーID
+	 * @return 解除した場合はtrue、フォローしていなかった場合はfalse
 	 */
 	@Transactional
-	public void unfollow(UUID followerId, UUID followeeId) {
-		Users follower = usersRepository.findById(followerId)
-				.orElseThrow(() -> new IllegalArgumentException("フォロワーが存在しません"));
-		Users followee = usersRepository.findById(followeeId)
-				.orElseThrow(() -> new IllegalArgumentException("フォロー対象が存在しません"));
-		followsRepository.deleteByFollowerAndFollowee(follower, followee);
+	public boolean unfollow(UUID followerId, UUID followeeId) {
+		if (!followsRepository.deleteFollow(followerId, followeeId)) return false;
+		addFollowCounts(followerId, followeeId, -1);
+		eventPublisher.publishEvent(new FollowChangedEvent(followerId, followeeId, false));
+		return true;
 	}
 	/**
 	 * ログインユーザーが指定ユーザーをフォローしているかどうかを確認する。
+	 * メモリ上のフォローグラフで判定する。
 	 * 
 	 * @param followerId フォロワーのユーザーID
 	 * @param followeeId フォローされる側のユーザーID
 	 * @return フォローしていればtrue
 	 */
 	public boolean isFollowing(UUID followerId, UUID followeeId) {
-		Users follower = usersRepository.findById(followerId)
-				.orElseThrow(() -> new IllegalArgumentException("フォロワーが存在しません"));
-		Users followee = usersRepository.findById(followeeId)
-				.orElseThrow(() -> new IllegalArgumentException("フォロー対象が存在しません"));
-		return followsRepository.existsByFollowerAndFollowee(follower, followee);
+		return followGraphService.isFollowing(followerId, followeeId);
+	}
+	/**
+	 * 指定ユーザーのフォロワー一覧を、フォローされた日時の新しい順に1ページ分取得する。
+	 * (follows.created_at, follow_id) によるキーセットページングのため、件数に関係なく一定のコストで応答する。
+	 * 
+	 * @param userId 一覧を表示するユーザーのID
+	 * @param viewerId 閲覧ユーザーのID（フォロー関係の判定に使用）
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param size ページサイズ（nullの場合は既定値）
+	 * @return フォロワーのページ
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageDto<FollowUserDto> getFollowers(UUID userId, UUID viewerId, KeysetCursor cursor, Integer size) {
+		int pageSize = resolvePageSize(size);
+		return toPage(followsRepository.findFollowers(userId, cursor, pageSize + 1), viewerId, pageSize);
+	}
+	/**
+	 * 指定ユーザーのフォロー中ユーザー一覧を、フォローした日時の新しい順に1ページ分取得する。
+	 * (follows.created_at, follow_id) によるキーセットページングのため、件数に関係なく一定のコストで応答する。
+	 * 
+	 * @param userId 一覧を表示するユーザーのID
+	 * @param viewerId 閲覧ユーザーのID（フォロー関係の判定に使用）
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param size ページサイズ（nullの場合は既定値）
+	 * @return フォロー中ユーザーのページ
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageDto<FollowUserDto> getFollowees(UUID userId, UUID viewerId, KeysetCursor cursor, Integer size) {
+		int pageSize = resolvePageSize(size);
+		return toPage(followsRepository.findFollowees(userId, cursor, pageSize + 1), viewerId, pageSize);
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 1件多く取得した一覧からページを作る。
+	 * ページ内のユーザーについてのみ、閲覧ユーザーとのフォロー関係をフォローグラフでまとめて設定する。
+	 *
+	 * @param users 取得した一覧（pageSize + 1 件まで）
+	 * @param viewerId 閲覧ユーザーのID
+	 * @param pageSize ページサイズ
+	 * @return ページ
+	 */
+	private CursorPageDto<FollowUserDto> toPage(List<FollowUserDto> users, UUID viewerId, int pageSize) {
+		boolean hasNext = users.size() > pageSize;
+		List<FollowUserDto> page = hasNext ? users.subList(0, pageSize) : users;
+		Map<UUID, Relationship> relationships = followGraphService.findRelationships(
+				viewerId, page.stream().map(FollowUserDto::getUserId).toList());
+		for (FollowUserDto user : page) {
+			Relationship relationship = relationships.get(user.getUserId());
+			user.setFollowedByLoginUser(relationship.following());
+			user.setFollowingLoginUser(relationship.followedBy());
+			user.setSelf(user.getUserId().equals(viewerId));
+		}
+		String next = null;
+		if (hasNext) {
+			FollowUserDto last = page.get(pageSize - 1);
+			next = new KeysetCursor(last.getFollowedAt(), last.getFollowId()).encode();
+		}
+		return new CursorPageDto<>(page, next);
+	}
+	private int resolvePageSize(Integer size) {
+		if (size == null || size <= 0) return defaultPageSize;
+		return Math.min(size, maxPageSize);
+	}
+
+	/**
+	 * フォローした側のフォロー数と、された側のフォロワー数を加減算する。
+	 * 同時に逆向きのフォローや整合性チェックが行われてもデッドロックしないよう、
+	 * DB側の行ロックと同じ順（uuid型の符号なしの順）にユーザーIDの小さい方から更新する。
+	 *
+	 * @param followerId フォロワーのユーザーID
+	 * @param followeeId フォローされる側のユーザーID
+	 * @param delta 増減（1: フォロー / -1: フォロー解除）
+	 */
+	private void addFollowCounts(UUID followerId, UUID followeeId, int delta) {
+		if (UuidOrder.compare(followerId, followeeId) < 0) {
+			userStatsRepository.addCounts(followerId, 0, delta, 0, 0);
+			userStatsRepository.addCounts(followeeId, 0, 0, delta, 0);
+		} else {
+			userStatsRepository.addCounts(followeeId, 0, 0, delta, 0);
+			userStatsRepository.addCounts(followerId, 0, delta, 0, 0);
+		}
 	}
 }
\ No newline at end of file
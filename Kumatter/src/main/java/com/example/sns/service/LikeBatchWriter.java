@@ -0,0 +1,99 @@
+package com.example.sns.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.sns.dto.LikeKey;
+import com.example.sns.dto.UserStatsDelta;
+import com.example.sns.event.LikeChangedEvent;
+import com.example.sns.repository.LikesRepository;
+import com.example.sns.repository.PostsRepository;
+import com.example.sns.repository.UserStatsRepository;
+import com.example.sns.util.UuidOrder;
+
+/**
+ * 複数のいいね・いいね解除をJDBCバッチでまとめてDBへ反映するコンポーネント。
+ * いいねの一括API（LikesService）と、ライトビハインドのバッファ（LikeWriteBuffer）から使用される。
+ *
+ * 反映は likes → posts.like_count → user_stats.liked_count の順に、それぞれ1回のバッチで行う。
+ * 同時に実行される他のバッチとデッドロックしないよう、各バッチ内の行はIDの順に並べる。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+public class LikeBatchWriter {
+	/** likes への書き込み順（投稿ID→ユーザーIDの順。DB側の行ロックと同じく uuid 型の符号なしの順） */
+	private static final Comparator<LikeKey> KEY_ORDER =
+			Comparator.comparing(LikeKey::postId, UuidOrder.UNSIGNED).thenComparing(LikeKey::userId, UuidOrder.UNSIGNED);
+	private final LikesRepository likesRepository;
+	private final PostsRepository postsRepository;
+	private final UserStatsRepository userStatsRepository;
+	private final ApplicationEventPublisher eventPublisher;
+
+	public LikeBatchWriter(
+			LikesRepository likesRepository,
+			PostsRepository postsRepository,
+			UserStatsRepository userStatsRepository,
+			ApplicationEventPublisher eventPublisher) {
+		this.likesRepository     = likesRepository;
+		this.postsRepository     = postsRepository;
+		this.userStatsRepository = userStatsRepository;
+		this.eventPublisher      = eventPublisher;
+	}
+	/**
+	 * いいね・いいね解除をJDBCバッチで likes に反映し、実際に変化した分だけ
+	 * いいね数カウンタ（投稿・ユーザー）の更新といいね変更イベントの発行を行う。
+	 * 既にいいね済みの組へのいいね、いいねしていない組への解除、存在しない投稿への操作は何もしない。
+	 *
+	 * @param intents （ユーザー, 投稿）の組ごとの操作（true: いいね / false: いいね解除）
+	 * @return 実際に状態が変化した組と、変化後の状態
+	 */
+	@Transactional
+	public Map<LikeKey, Boolean> write(Map<LikeKey, Boolean> intents) {
+		List<LikeKey> likes = new ArrayList<>();
+		List<LikeKey> unlikes = new ArrayList<>();
+		intents.forEach((key, liked) -> (liked ? likes : unlikes).add(key));
+		likes.sort(KEY_ORDER);
+		unlikes.sort(KEY_ORDER);
+
+		Map<UUID, Integer> countDeltas = new HashMap<>();
+		Map<UUID, UserStatsDelta> userDeltas = new HashMap<>();
+		Map<LikeKey, Boolean> changed = new HashMap<>();
+		// 変化した組ごとの、追加・削除したいいねの作成日時
+		Map<LikeKey, LocalDateTime> likedAts = new HashMap<>();
+		LocalDateTime now = LocalDateTime.now();
+		int[] inserted = likesRepository.insertLikesIfAbsent(likes, now);
+		for (int i = 0; i < inserted.length; i++) {
+			if (inserted[i] > 0) {
+				countDeltas.merge(likes.get(i).postId(), 1, Integer::sum);
+				userDeltas.merge(likes.get(i).userId(), new UserStatsDelta(0, 0, 0, 1), UserStatsDelta::plus);
+				changed.put(likes.get(i), true);
+				likedAts.put(likes.get(i), now);
+			}
+		}
+		Map<LikeKey, LocalDateTime> deleted = likesRepository.deleteLikes(unlikes);
+		deleted.forEach((key, likedAt) -> {
+			countDeltas.merge(key.postId(), -1, Integer::sum);
+			userDeltas.merge(key.userId(), new UserStatsDelta(0, 0, 0, -1), UserStatsDelta::plus);
+			changed.put(key, false);
+			likedAts.put(key, likedAt);
+		});
+		if (changed.isEmpty()) return changed;
+		Map<UUID, UUID> authorIds = postsRepository.findAuthorIdsByPostIds(countDeltas.keySet());
+		changed.forEach((key, liked) -> eventPublisher.publishEvent(
+				new LikeChangedEvent(key.userId(), key.postId(), authorIds.get(key.postId()), liked, likedAts.get(key))));
+		postsRepository.addLikeCounts(countDeltas);
+		userStatsRepository.addCountsBatch(userDeltas);
+		return changed;
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.sns.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.repository.PostsRepository;
+
+/**
+ * 投稿のいいね数カウンタ（posts.like_count）を likes テーブルの実件数と照合し、
+ * ずれを修正する定期ジョブ。
+ *
+ * カウンタはいいねの追加・削除と同じトランザクションで更新されるため通常はずれないが、
+ * 手作業でのデータ修正などで生じたずれをここで修復する。
+ *
+ * - いいねが集中するのは新しい投稿のため、照合は直近の一定期間に作成された投稿に限る
+ * - 投稿IDの順に一定件数ずつ区切り、区切りごとに短いトランザクションで照合する
+ * - 照合では先に投稿の行をロックしてから件数を数える。照合中のいいね操作はロックの解放を待ってから
+ *   修正後のカウンタへ加算するため、照合がいいね操作の加算を上書きすることはない
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+public class LikeCountReconciler {
+	private static final Logger logger = LoggerFactory.getLogger(LikeCountReconciler.class);
+	/** 投稿IDの走査の起点（最小のUUID） */
+	private static final UUID MIN_ID = new UUID(0L, 0L);
+	private final PostsRepository postsRepository;
+	private final TransactionTemplate transactionTemplate;
+	/** 照合の対象とする投稿の作成日時の範囲（現在からさかのぼる期間） */
+	private final Duration lookback;
+	/** 1トランザクションで照合する投稿数 */
+	private final int batchSize;
+
+	public LikeCountReconciler(
+			PostsRepository postsRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${sns.likes.reconcile.lookback-hours:72}") long lookbackHours,
+			@Value("${sns.likes.reconcile.batch-size:500}") int batchSize) {
+		this.postsRepository     = postsRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.lookback            = Duration.ofHours(lookbackHours);
+		this.batchSize           = batchSize;
+	}
+	/**
+	 * 直近の投稿のいいね数カウンタを、一定件数ずつ照合・修正する。
+	 */
+	@Scheduled(fixedDelayString = "${sns.likes.reconcile.interval-ms:3600000}",
+			initialDelayString = "${sns.likes.reconcile.interval-ms:3600000}")
+	public void reconcile() {
+		LocalDateTime since = LocalDateTime.now().minus(lookback);
+		UUID afterId = MIN_ID;
+		int repaired = 0;
+		while (true) {
+			List<UUID> postIds = postsRepository.findPostIdsCreatedSince(since, afterId, batchSize);
+			if (postIds.isEmpty()) break;
+			repaired += reconcileBatch(postIds);
+			if (postIds.size() < batchSize) break;
+			afterId = postIds.get(postIds.size() - 1);
+		}
+		if (repaired > 0) {
+			logger.warn("いいね数カウンタのずれを修正しました: {} 件", repaired);
+		} else {
+			logger.info("いいね数カウンタの照合完了: ずれなし");
+		}
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 1区切り分の投稿を、行をロックしてから照合する。
+	 *
+	 * @param postIds 投稿IDのリスト（ID昇順）
+	 * @return 修正した投稿数
+	 */
+	private int reconcileBatch(List<UUID> postIds) {
+		return transactionTemplate.execute(status -> {
+			List<UUID> locked = postsRepository.lockPosts(postIds);
+			return locked.isEmpty() ? 0 : postsRepository.reconcileLikeCounts(locked);
+		});
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.sns.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sns.event.LikeChangedEvent;
+import com.example.sns.repository.LikesRepository;
+import com.example.sns.util.UuidBloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * ユーザーごとの「いいね済み投稿」の所属判定を提供するサービスクラス。
+ *
+ * ユーザーごとにいいね済み投稿IDのブルームフィルタをメモリにキャッシュし、
+ * 表示中ページの投稿のうち「いいね済みの可能性がある」ものだけを
+ * DBでページ単位に確認する。大半の投稿はフィルタだけで「未いいね」と確定できる。
+ *
+ * - フィルタはユーザーの初回参照時にDBから構築し、容量上限（バイト数）で追い出す
+ * - いいね追加はコミット後にフィルタへ反映する
+ * - いいね解除はフィルタから削除できないが、DBでの確認により偽陽性として除外される
+ * - 想定件数を超えていいねが追加されたフィルタは破棄し、次回参照時に作り直す
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class LikeMembershipService {
+	private final LikesRepository likesRepository;
+	/** ユーザーIDごとのいいね済み投稿フィルタ */
+	private final Cache<UUID, LikedPosts> likedPostsCache;
+	/** フィルタの目標偽陽性率 */
+	private final double falsePositiveRate;
+
+	public LikeMembershipService(
+			LikesRepository likesRepository,
+			MeterRegistry meterRegistry,
+			@Value("${sns.likes.membership.false-positive-rate:0.01}") double falsePositiveRate,
+			@Value("${sns.likes.membership.max-bytes:67108864}") long maxBytes,
+			@Value("${sns.likes.membership.idle-minutes:30}") long idleMinutes) {
+		this.likesRepository   = likesRepository;
+		this.falsePositiveRate = falsePositiveRate;
+		this.likedPostsCache   = Caffeine.newBuilder()
+				.maximumWeight(maxBytes)
+				.weigher((UUID userId, LikedPosts liked) -> liked.filter().sizeInBytes())
+				.expireAfterAccess(Duration.ofMinutes(idleMinutes))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, likedPostsCache, "likes.membership");
+	}
+	/**
+	 * 指定した投稿のうち、ユーザーがいいね済みの投稿IDを返す。
+	 * フィルタで「未いいね」と確定しない投稿だけをDBで確認する。
+	 *
+	 * @param userId ユーザーID
+	 * @param postIds 判定対象の投稿ID（表示中のページ分）
+	 * @return いいね済みの投稿IDの集合
+	 */
+	public Set<UUID> findLikedAmong(UUID userId, Collection<UUID> postIds) {
+		if (userId == null || postIds.isEmpty()) return Set.of();
+		LikedPosts liked = likedPostsCache.get(userId, this::load);
+		List<UUID> candidates = postIds.stream()
+				.filter(liked.filter()::mightContain)
+				.toList();
+		if (candidates.isEmpty()) return Set.of();
+		return new HashSet<>(likesRepository.findLikedPostIdsAmong(userId, candidates));
+	}
+	/**
+	 * いいね追加のコミット後、キャッシュ済みのフィルタへ反映する。
+	 * フィルタの構築中に呼ばれた場合は、構築完了を待ってから反映される。
+	 *
+	 * @param event いいね変更イベント
+	 */
+	@TransactionalEventListener
+	public void onLikeChanged(LikeChangedEvent event) {
+		if (!event.isLiked()) return;
+		likedPostsCache.asMap().computeIfPresent(event.getUserId(), (userId, liked) -> {
+			liked.filter().put(event.getPostId());
+			// 想定件数を超えた場合は偽陽性率が悪化するため破棄する
+			return liked.added().incrementAndGet() > liked.filter().capacity() ? null : liked;
+		});
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * ユーザーのいいね済み投稿IDからフィルタを構築する。
+	 * 構築後のいいね追加に備え、現在の件数の2倍を想定件数とする。
+	 *
+	 * @param userId ユーザーID
+	 * @return 構築したフィルタ
+	 */
+	private LikedPosts load(UUID userId) {
+		List<UUID> postIds = likesRepository.findPostIdsLikedByUser(userId);
+		UuidBloomFilter filter = new UuidBloomFilter(postIds.size() * 2 + 64, falsePositiveRate);
+		postIds.forEach(filter::put);
+		return new LikedPosts(filter, new AtomicInteger(postIds.size()));
+	}
+
+	/**
+	 * 1ユーザー分のキャッシュ内容。
+	 *
+	 * @param filter いいね済み投稿IDのフィルタ
+	 * @param added フィルタに追加した件数
+	 */
+	private record LikedPosts(UuidBloomFilter filter, AtomicInteger added) {
+	}
+}
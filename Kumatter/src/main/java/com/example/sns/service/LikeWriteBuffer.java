@@ -0,0 +1,336 @@
+package com.example.sns.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.dto.LikeKey;
+import com.example.sns.repository.PostsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * いいね・いいね解除の書き込みをメモリ上に溜めて、まとめてDBへ反映するバッファ（ライトビハインド）。
+ * sns.likes.write-mode=buffered の場合に LikesService から使用される。
+ *
+ * - 操作は（ユーザー, 投稿）ごとに合算し、最後の操作だけを保持する（後勝ち）
+ * - 組ごとの最初の操作で、DB上のいいね状態を LikeMembershipService（DBでの確認付き）で確定し、
+ *   状態が変わらない操作（いいね済みへのいいね等）はいいね数を増減させない
+ * - バッファはロックを分割（ストライプ化）し、人気投稿への同時操作でも競合を抑える
+ * - 応答には「DBのいいね数＋未反映の増減」をメモリ上で計算した値を返す
+ * - 投稿一覧のいいね済み判定には、未反映・反映中の操作の状態を重ねて返せるようにする
+ * - 一定間隔、または未反映件数が閾値を超えた時点で、JDBCバッチで likes へ反映する
+ * - 反映は専用の1スレッドで順番に行うため、後の操作が先の操作で上書きされることはない
+ * - 反映に失敗した操作は、その後の新しい操作が無い組に限りバッファへ戻して再試行する
+ * - アプリケーションの正常終了時は、バッファが空になるまで反映してから停止する
+ *
+ * 未反映の操作はプロセスの異常終了時には失われる。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+@ConditionalOnProperty(name = "sns.likes.write-mode", havingValue = "buffered")
+public class LikeWriteBuffer {
+	private static final Logger logger = LoggerFactory.getLogger(LikeWriteBuffer.class);
+	private final LikeBatchWriter likeBatchWriter;
+	private final PostsRepository postsRepository;
+	private final LikeMembershipService likeMembershipService;
+	private final TransactionTemplate transactionTemplate;
+	/** ストライプごとの未反映操作 */
+	private final Stripe[] stripes;
+	/** 反映中（取り出し済みでコミット前）の操作。反映が終わるまでは、これをDB上の状態とみなす */
+	private volatile Map<LikeKey, Intent> inFlight = Map.of();
+	/** 投稿IDごとの、未反映操作によるいいね数の増減 */
+	private final ConcurrentHashMap<UUID, Integer> pendingDeltas = new ConcurrentHashMap<>();
+	/** 投稿IDごとのDB上のいいね数（応答用。反映のたびに破棄する） */
+	private final Cache<UUID, Integer> persistedCounts;
+	/** 未反映の（ユーザー, 投稿）の組の数 */
+	private final AtomicInteger pendingSize = new AtomicInteger();
+	/** 反映処理を順番に実行する専用スレッド */
+	private final ScheduledExecutorService flusher;
+	/** サイズ契機の反映を要求済みかどうか（要求の重複を防ぐ） */
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	/** この件数を超えたら間隔を待たずに反映する */
+	private final int flushThreshold;
+
+	public LikeWriteBuffer(
+			LikeBatchWriter likeBatchWriter,
+			PostsRepository postsRepository,
+			LikeMembershipService likeMembershipService,
+			PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${sns.likes.buffer.stripes:64}") int stripeCount,
+			@Value("${sns.likes.buffer.flush-interval-ms:500}") long flushIntervalMs,
+			@Value("${sns.likes.buffer.flush-threshold:5000}") int flushThreshold) {
+		this.likeBatchWriter       = likeBatchWriter;
+		this.postsRepository       = postsRepository;
+		this.likeMembershipService = likeMembershipService;
+		this.transactionTemplate   = new TransactionTemplate(transactionManager);
+		this.flushThreshold        = flushThreshold;
+		this.stripes               = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe();
+		}
+		this.persistedCounts = Caffeine.newBuilder()
+				.maximumSize(100_000)
+				.expireAfterWrite(Duration.ofMinutes(1))
+				.build();
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "like-write-buffer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+		Gauge.builder("likes.buffer.pending", pendingSize, AtomicInteger::get)
+				.description("DBへ未反映のいいね操作の数")
+				.register(meterRegistry);
+	}
+	/**
+	 * いいね・いいね解除の操作をバッファに追加する。
+	 *
+	 * @param userId 操作したユーザーのID
+	 * @param postId 対象の投稿ID
+	 * @param liked true: いいね / false: いいね解除
+	 * @throws IllegalArgumentException 投稿が存在しない場合にスローされる
+	 */
+	public void submit(UUID userId, UUID postId, boolean liked) {
+		// 存在しない投稿への操作は受け付けない（いいね数の取得を兼ねる）
+		persistedCount(postId);
+		LikeKey key = new LikeKey(userId, postId);
+		Stripe stripe = stripeOf(key);
+		int deltaChange;
+		Boolean persistedLiked = null;
+		while (true) {
+			synchronized (stripe) {
+				Intent previous = stripe.pending.get(key);
+				if (previous != null || persistedLiked != null) {
+					// DB上の状態は、未反映の操作があればその基準を引き継ぎ、無ければ確認した状態を使う
+					Intent next = new Intent(previous != null ? previous.persistedLiked() : persistedLiked, liked);
+					stripe.pending.put(key, next);
+					deltaChange = next.delta() - (previous == null ? 0 : previous.delta());
+					if (previous == null) pendingSize.incrementAndGet();
+					break;
+				}
+			}
+			// 未反映の操作が無い組は、DBアクセスをストライプのロック外で行ってから再試行する
+			persistedLiked = findPersistedLiked(key);
+		}
+		addPendingDelta(postId, deltaChange);
+		if (pendingSize.get() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+			flusher.execute(this::flushSafely);
+		}
+	}
+	/**
+	 * 未反映の操作を含めた、投稿の現在のいいね数を返す。
+	 *
+	 * @param postId 投稿ID
+	 * @return いいね数
+	 * @throws IllegalArgumentException 投稿が存在しない場合にスローされる
+	 */
+	public int currentCount(UUID postId) {
+		return Math.max(0, persistedCount(postId) + pendingDeltas.getOrDefault(postId, 0));
+	}
+	/**
+	 * 指定ユーザーの、未反映または反映中の操作によるいいね状態を返す。
+	 * 操作の無い投稿は結果に含まれないため、DB上の状態をそのまま使うこと。
+	 * DB上の状態より先に呼び出せば、その間に反映が完了しても古い状態を返すことはない。
+	 *
+	 * @param userId ユーザーID
+	 * @param postIds 判定対象の投稿ID
+	 * @return 投稿IDごとのいいね状態（操作のある投稿のみ）
+	 */
+	public Map<UUID, Boolean> findPendingLiked(UUID userId, Collection<UUID> postIds) {
+		Map<UUID, Boolean> result = new HashMap<>();
+		for (UUID postId : postIds) {
+			LikeKey key = new LikeKey(userId, postId);
+			Intent intent;
+			Stripe stripe = stripeOf(key);
+			synchronized (stripe) {
+				intent = stripe.pending.get(key);
+			}
+			// バッファに無ければ反映中の操作を見る（取り出しより先に inFlight が設定されるため、この順で読めば取りこぼさない）
+			if (intent == null) intent = inFlight.get(key);
+			if (intent != null) result.put(postId, intent.liked());
+		}
+		return result;
+	}
+	/**
+	 * アプリケーションの正常終了時に、定期反映を止めてバッファが空になるまで反映する。
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		flusher.shutdown();
+		flusher.awaitTermination(30, TimeUnit.SECONDS);
+		int attempts = 0;
+		while (pendingSize.get() > 0 && attempts++ < 5) {
+			flushSafely();
+		}
+		if (pendingSize.get() > 0) {
+			logger.error("終了時にいいね操作を反映できませんでした: {} 件", pendingSize.get());
+		}
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * バッファの内容をDBへ反映する。失敗した場合はログを出力して次回に再試行する。
+	 */
+	private void flushSafely() {
+		flushRequested.set(false);
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			logger.error("いいね操作の反映に失敗しました。次回に再試行します", e);
+		}
+	}
+	/**
+	 * 各ストライプから未反映の操作を取り出し、1トランザクションでDBへ反映する。
+	 * 失敗した場合は、取り出した後に新しい操作が来ていない組だけをバッファへ戻す。
+	 */
+	private void flush() {
+		Map<LikeKey, Intent> drained = new ConcurrentHashMap<>();
+		// 取り出した操作は、バッファから消えた時点でDB上の状態として参照されるようにする
+		inFlight = drained;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				if (stripe.pending.isEmpty()) continue;
+				drained.putAll(stripe.pending);
+				pendingSize.addAndGet(-stripe.pending.size());
+				stripe.pending = new HashMap<>();
+			}
+		}
+		try {
+			if (drained.isEmpty()) return;
+			transactionTemplate.executeWithoutResult(status -> apply(drained));
+		} catch (RuntimeException e) {
+			restore(drained);
+			throw e;
+		} finally {
+			inFlight = Map.of();
+		}
+		// 反映済みの増減を取り除き、DB上のいいね数を読み直させる
+		Map<UUID, Integer> applied = new HashMap<>();
+		drained.forEach((key, intent) -> applied.merge(key.postId(), intent.delta(), Integer::sum));
+		applied.forEach((postId, delta) -> addPendingDelta(postId, -delta));
+		persistedCounts.invalidateAll(applied.keySet());
+	}
+	/**
+	 * 取り出した操作を LikeBatchWriter でDBへ反映する。
+	 *
+	 * @param drained 反映する操作（組ごとに最後の操作のみ）
+	 */
+	private void apply(Map<LikeKey, Intent> drained) {
+		Map<LikeKey, Boolean> intents = new HashMap<>();
+		drained.forEach((key, intent) -> intents.put(key, intent.liked()));
+		likeBatchWriter.write(intents);
+	}
+	/**
+	 * 反映に失敗した操作をバッファへ戻す。
+	 * 取り出した後に同じ組へ新しい操作が来ている場合は、新しい操作を優先する（後勝ち）。
+	 *
+	 * @param drained 反映に失敗した操作
+	 */
+	private void restore(Map<LikeKey, Intent> drained) {
+		drained.forEach((key, intent) -> {
+			Stripe stripe = stripeOf(key);
+			synchronized (stripe) {
+				Intent newer = stripe.pending.get(key);
+				if (newer == null) {
+					stripe.pending.put(key, intent);
+					pendingSize.incrementAndGet();
+				} else {
+					// 新しい操作の表示用増減は、戻した操作の「DB上の状態」を基準に計算し直す
+					// （戻した操作と新しい操作の増減は、合算後の1操作分に置き換える）
+					Intent merged = new Intent(intent.persistedLiked(), newer.liked());
+					stripe.pending.put(key, merged);
+					int change = merged.delta() - newer.delta() - intent.delta();
+					addPendingDelta(key.postId(), change);
+				}
+			}
+		});
+	}
+	/**
+	 * 組のDB上のいいね状態を返す。反映中の操作があれば、その反映後の状態を返す。
+	 *
+	 * @param key （ユーザー, 投稿）の組
+	 * @return いいね済みならtrue
+	 */
+	private boolean findPersistedLiked(LikeKey key) {
+		Intent flushing = inFlight.get(key);
+		if (flushing != null) return flushing.liked();
+		return likeMembershipService.findLikedAmong(key.userId(), List.of(key.postId())).contains(key.postId());
+	}
+	/**
+	 * DB上のいいね数を返す（キャッシュに無い場合はDBから読む）。
+	 *
+	 * @param postId 投稿ID
+	 * @return いいね数
+	 * @throws IllegalArgumentException 投稿が存在しない場合にスローされる
+	 */
+	private int persistedCount(UUID postId) {
+		Integer count = persistedCounts.get(postId, id -> postsRepository.findLikeCountByPostId(id).orElse(null));
+		if (count == null) throw new IllegalArgumentException("投稿が存在しません");
+		return count;
+	}
+	/**
+	 * 投稿の未反映の増減を加算する。合計が0になった投稿はマップから取り除く。
+	 *
+	 * @param postId 投稿ID
+	 * @param delta 加算する値
+	 */
+	private void addPendingDelta(UUID postId, int delta) {
+		if (delta == 0) return;
+		pendingDeltas.merge(postId, delta, (current, added) -> current + added == 0 ? null : current + added);
+	}
+	private Stripe stripeOf(LikeKey key) {
+		return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+	}
+
+	/**
+	 * ロック分割の単位。pending はストライプのロック下でのみ参照・更新する。
+	 */
+	private static final class Stripe {
+		private Map<LikeKey, Intent> pending = new HashMap<>();
+	}
+
+	/**
+	 * （ユーザー, 投稿）の組に対する未反映の操作。
+	 *
+	 * @param persistedLiked DB上のいいね状態（組の最初の操作の時点で確認した状態）
+	 * @param liked 最後の操作（true: いいね / false: いいね解除）
+	 */
+	private record Intent(boolean persistedLiked, boolean liked) {
+		/**
+		 * 表示用のいいね数の増減を返す。
+		 *
+		 * @return +1 / -1 / 0
+		 */
+		int delta() {
+			if (persistedLiked == liked) return 0;
+			return liked ? 1 : -1;
+		}
+	}
+}
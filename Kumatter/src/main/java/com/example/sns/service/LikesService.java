@@ -1,20 +1,35 @@
 package com.example.sns.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.sns.entity.Likes;
-import com.example.sns.entity.Posts;
-import com.example.sns.entity.Users;
+import com.example.sns.dto.LikeBatchRequest;
+import com.example.sns.dto.LikeBatchResultDto;
+import com.example.sns.dto.LikeCountChange;
+import com.example.sns.dto.LikeKey;
+import com.example.sns.dto.LikeStateDto;
+import com.example.sns.event.LikeChangedEvent;
 import com.example.sns.repository.LikesRepository;
 import com.example.sns.repository.PostsRepository;
-import com.example.sns.repository.UsersRepository;
+import com.example.sns.repository.UserStatsRepository;
 
 /**
 * いいね機能に関するビジネスロジックを提供するサービスクラス。
 * ユーザーのいいね追加・削除やいいね数のカウント処理を行う。
+* いいね数は投稿のカウンタ（posts.like_count）とユーザーのカウンタ（user_stats.liked_count）を
+* 同じトランザクション内で加減算して管理する。
+* いいねの追加・削除は投稿・ユーザーを読み込まず、外部キー制約で存在を検証する単一SQLで行う。
 * トランザクション管理を行い、一貫性のあるデータ操作を保証する。
 * 
 * @author 岡本
@@ -23,65 +38,141 @@ import com.example.sns.repository.UsersRepository;
 @Service
 public class LikesService {
 	private final LikesRepository likesRepository;
-	private final UsersRepository usersRepository;
 	private final PostsRepository postsRepository;
+	private final UserStatsRepository userStatsRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final LikeBatchWriter likeBatchWriter;
+	/** ライトビハインド用のバッファ（sns.likes.write-mode=buffered の場合のみ。それ以外はnull） */
+	private final LikeWriteBuffer likeWriteBuffer;
 	
 	public LikesService(
 			LikesRepository likesRepository,
-			UsersRepository usersRepository,
-			PostsRepository postsRepository) {
+			PostsRepository postsRepository,
+			UserStatsRepository userStatsRepository,
+			ApplicationEventPublisher eventPublisher,
+			LikeBatchWriter likeBatchWriter,
+			ObjectProvider<LikeWriteBuffer> likeWriteBuffer) {
 		this.likesRepository = likesRepository;
-		this.usersRepository = usersRepository;
 		this.postsRepository = postsRepository;
+		this.userStatsRepository = userStatsRepository;
+		this.eventPublisher = eventPublisher;
+		this.likeBatchWriter = likeBatchWriter;
+		this.likeWriteBuffer = likeWriteBuffer.getIfAvailable();
 	}
 	/**
 	 * 指定ユーザーによる投稿へのいいね追加処理。
-	 * 既にいいね済みの場合は何も行わず無視する。
+	 * いいねの追加と投稿のいいね数の加算は1回のSQL（INSERT ... ON CONFLICT DO NOTHING）で行うため、
+	 * 連打などによる同じ組への同時リクエストでもユニーク制約違反にならない。
+	 * 既にいいね済みの場合は何も行わない。
+	 * 新たにいいねした場合はユーザーのいいね数を加算し、いいね変更イベントを発行する。
+	 * バッファ使用時は操作をバッファに追加するだけで、DBへの反映は後でまとめて行う。
 	 * 
 	 * @param userId いいねするユーザーのID(UUID)
 	 * @param postIdStr いいね対象の投稿ID（文字列UUID形式）
-	 * @throws IllegalArgumentException ユーザーまたは投稿が存在しない場合にスローされる
+	 * @return 操作後のいいね状態と投稿のいいね数
+	 * @throws IllegalArgumentException 投稿が存在しない場合にスローされる
 	 */
 	@Transactional
-	public void addLike(UUID userId, String postIdStr) {
+	public LikeStateDto addLike(UUID userId, String postIdStr) {
 		UUID postId = UUID.fromString(postIdStr);
-		Users user = usersRepository.findById(userId)
-				.orElseThrow(() -> new IllegalArgumentException("ユーザーが存在しません"));
-		Posts post = postsRepository.findById(postId)
-				.orElseThrow(() -> new IllegalArgumentException("投稿が存在しません"));
-		// すでにいいね済みか確認（UNIQUE制約を守る）
-		boolean alreadyLiked = likesRepository.existsByUserAndPost(user, post);
-		if (alreadyLiked) return;
-		Likes like = Likes.builder()
-				.user(user)
-				.post(post)
-				.build();
-		likesRepository.save(like);
+		if (likeWriteBuffer != null) {
+			likeWriteBuffer.submit(userId, postId, true);
+			return new LikeStateDto(true, likeWriteBuffer.currentCount(postId));
+		}
+		Optional<LikeCountChange> change;
+		try {
+			change = likesRepository.insertLikeIfAbsent(userId, postId);
+		} catch (DataIntegrityViolationException e) {
+			// 外部キー制約違反（投稿が存在しない）
+			throw new IllegalArgumentException("投稿が存在しません", e);
+		}
+		if (change.isEmpty()) {
+			// 既にいいね済み
+			return new LikeStateDto(true, countLikes(postId));
+		}
+		userStatsRepository.addCounts(userId, 0, 0, 0, 1);
+		eventPublisher.publishEvent(new LikeChangedEvent(userId, postId, change.get().postAuthorId(), true, change.get().likedAt()));
+		return new LikeStateDto(true, change.get().likeCount());
 	}
 	/**
 	 * 指定投稿のいいね数を取得する読み取り専用トランザクション。
+	 * 投稿のいいね数カウンタを主キーで読むため、いいね数に関係なく一定のコストで応答する。
+	 * バッファ使用時は未反映の操作を含めたメモリ上の値を返す。
 	 * 
 	 * @param postId 投稿ID(UUID)
 	 * @return いいね数（件数）
+	 * @throws IllegalArgumentException 投稿が存在しない場合にスローされる
 	 */
 	@Transactional(readOnly = true)
 	public int countLikes(UUID postId) {
-		return likesRepository.countByPost_PostId(postId);
+		if (likeWriteBuffer != null) return likeWriteBuffer.currentCount(postId);
+		return postsRepository.findLikeCountByPostId(postId)
+				.orElseThrow(() -> new IllegalArgumentException("投稿が存在しません"));
 	}
 	/**
 	 * 指定ユーザーによる投稿へのいいね解除処理。
+	 * いいねの削除と投稿のいいね数の減算は1回のSQL（DELETE ... RETURNING）で行う。
+	 * 実際に解除した場合はユーザーのいいね数を減算し、いいね変更イベントを発行する。
+	 * バッファ使用時は操作をバッファに追加するだけで、DBへの反映は後でまとめて行う。
 	 * 
 	 * @param userId いいね解除するユーザーのID(UUID)
 	 * @param postIdStr いいね解除対象の投稿ID（文字列UUID形式）
-	 * @throws IllegalArgumentException ユーザーまたは投稿が存在しない場合にスローされる
+	 * @return 操作後のいいね状態と投稿のいいね数
+	 * @throws IllegalArgumentException 投稿が存在しない場合にスローされる
 	 */
 	@Transactional
-	public void removeLike(UUID userId, String postIdStr) {
+	public LikeStateDto removeLike(UUID userId, String postIdStr) {
 		UUID postId = UUID.fromString(postIdStr);
-		Users user = usersRepository.findById(userId)
-				.orElseThrow(() -> new IllegalArgumentException("ユーザーが存在しません"));
-		Posts post = postsRepository.findById(postId)
-				.orElseThrow(() -> new IllegalArgumentException("投稿が存在しません"));
-		likesRepository.deleteByUserAndPost(user, post);
+		if (likeWriteBuffer != null) {
+			likeWriteBuffer.submit(userId, postId, false);
+			return new LikeStateDto(false, likeWriteBuffer.currentCount(postId));
+		}
+		Optional<LikeCountChange> change = likesRepository.deleteLike(userId, postId);
+		if (change.isEmpty()) {
+			// いいねしていなかった（投稿が存在しない場合は countLikes で例外）
+			return new LikeStateDto(false, countLikes(postId));
+		}
+		userStatsRepository.addCounts(userId, 0, 0, 0, -1);
+		eventPublisher.publishEvent(new LikeChangedEvent(userId, postId, change.get().postAuthorId(), false, change.get().likedAt()));
+		return new LikeStateDto(false, change.get().likeCount());
+	}
+	/**
+	 * 複数投稿のいいね状態をまとめて変更する。
+	 * いいね・いいね解除は1回のJDBCバッチで反映し、いいね数カウンタの更新もバッチでまとめて行う。
+	 * 同じ投稿が複数含まれる場合は最後の指定を採用し、結果は投稿ごとに1件返す。
+	 * バッファ使用時は操作を1件ずつバッファに追加する（DBへの反映は後でまとめて行う）。
+	 * 
+	 * @param userId 操作するユーザーのID(UUID)
+	 * @param items 投稿ごとの操作
+	 * @return 投稿ごとの結果（最初に指定された順）
+	 */
+	@Transactional
+	public List<LikeBatchResultDto> applyBatch(UUID userId, List<LikeBatchRequest.Item> items) {
+		Map<UUID, Boolean> intents = new LinkedHashMap<>();
+		items.forEach(item -> intents.put(item.getPostId(), item.isLiked()));
+		List<LikeBatchResultDto> results = new ArrayList<>();
+		if (likeWriteBuffer != null) {
+			intents.forEach((postId, liked) -> {
+				try {
+					likeWriteBuffer.submit(userId, postId, liked);
+					results.add(new LikeBatchResultDto(postId, liked, likeWriteBuffer.currentCount(postId), LikeBatchResultDto.OK));
+				} catch (IllegalArgumentException e) {
+					results.add(new LikeBatchResultDto(postId, false, 0, LikeBatchResultDto.NOT_FOUND));
+				}
+			});
+			return results;
+		}
+		Map<LikeKey, Boolean> keys = new HashMap<>();
+		intents.forEach((postId, liked) -> keys.put(new LikeKey(userId, postId), liked));
+		likeBatchWriter.write(keys);
+		// 反映後のいいね数を同じトランザクションで読み直す（存在しない投稿は含まれない）
+		Map<UUID, Integer> likeCounts = postsRepository.findLikeCountsByPostIds(intents.keySet());
+		intents.forEach((postId, liked) -> {
+			Integer likeCount = likeCounts.get(postId);
+			results.add(likeCount == null
+					? new LikeBatchResultDto(postId, false, 0, LikeBatchResultDto.NOT_FOUND)
+					: new LikeBatchResultDto(postId, liked, likeCount, LikeBatchResultDto.OK));
+		});
+		return results;
 	}
-}
\ No newline at end of file
+}
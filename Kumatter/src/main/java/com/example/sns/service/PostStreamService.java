@@ -0,0 +1,439 @@
+package com.example.sns.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.sns.dto.PostViewDto;
+import com.example.sns.event.FollowChangedEvent;
+import com.example.sns.event.PostCreatedEvent;
+import com.example.sns.repository.PostsRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 新着投稿を Server-Sent Events でクライアントへ配信するサービスクラス。
+ *
+ * - 投稿作成のコミット後、投稿DTOを1回だけ生成・JSON化し、該当する接続へ配信する
+ *   （followed: 自分＋フォロー中ユーザーの投稿 / all: 全ユーザーの投稿）
+ * - 接続ごとに上限付きの送信キューを持ち、溢れた（受信が遅い）接続は切断する
+ *   （クライアントは Last-Event-ID 付きで再接続し、取りこぼしを再送される）
+ * - 送信スレッドは1回に1接続あたり1イベントだけ送信し、残りは順番を待ち直す（1接続がスレッドを占有しない）
+ * - 送信が一定時間を超えて終わらない接続は切断し、その送信が終わるまで送信スレッドを1つ追加して
+ *   他の接続への配信が止まらないようにする
+ * - 一定間隔でハートビート（コメント行）を送り、中継サーバーによる切断を防ぐ
+ * - イベントIDは配信順の連番（起動ごとの識別子付き）とし、直近の投稿を再送用に保持する
+ *   投稿は作成日時の順ではなくコミット順に届くため、作成日時ではなく連番で再送範囲を決める
+ *   再送範囲より古いIDや、別の起動時のIDで再接続された場合は reset イベントで再取得を促す
+ * - 同時接続数に上限を設ける
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class PostStreamService {
+	private static final Logger logger = LoggerFactory.getLogger(PostStreamService.class);
+	private final PostsRepository postsRepository;
+	private final FollowGraphService followGraphService;
+	private final ObjectMapper objectMapper;
+	/** 接続中の購読 */
+	private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+	/** 接続数（上限判定用） */
+	private final AtomicInteger connections = new AtomicInteger();
+	/** 送信キューを処理するスレッドプール（送信が滞っている接続の分だけ一時的に増やす） */
+	private final ThreadPoolExecutor sender;
+	/** 再送用に保持する直近の投稿（配信順） */
+	private final Deque<StreamedPost> replayBuffer = new ArrayDeque<>();
+	/** イベントIDの接頭辞（起動ごとに異なる。別の起動時のイベントIDを判別する） */
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+	/** 次に配信する投稿の連番 */
+	private long nextSequence = 1;
+	private final int maxConnections;
+	private final int queueCapacity;
+	private final int replayCapacity;
+	private final long timeoutMs;
+	/** 1イベントの送信にかけられる時間の上限（ナノ秒） */
+	private final long sendTimeoutNanos;
+
+	public PostStreamService(
+			PostsRepository postsRepository,
+			FollowGraphService followGraphService,
+			ObjectMapper objectMapper,
+			MeterRegistry meterRegistry,
+			@Value("${sns.stream.max-connections:1000}") int maxConnections,
+			@Value("${sns.stream.queue-capacity:100}") int queueCapacity,
+			@Value("${sns.stream.replay-capacity:1000}") int replayCapacity,
+			@Value("${sns.stream.timeout-ms:1800000}") long timeoutMs,
+			@Value("${sns.stream.sender-threads:4}") int senderThreads,
+			@Value("${sns.stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+		this.postsRepository    = postsRepository;
+		this.followGraphService = followGraphService;
+		this.objectMapper       = objectMapper;
+		this.maxConnections     = maxConnections;
+		this.queueCapacity      = queueCapacity;
+		this.replayCapacity     = replayCapacity;
+		this.timeoutMs          = timeoutMs;
+		this.sendTimeoutNanos   = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+		this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "post-stream-sender");
+					thread.setDaemon(true);
+					return thread;
+				});
+		Gauge.builder("posts.stream.connections", connections, AtomicInteger::get)
+				.description("新着投稿ストリームの接続数")
+				.register(meterRegistry);
+	}
+	/**
+	 * 新着投稿ストリームを購読する。
+	 *
+	 * @param viewerId 閲覧ユーザーのID
+	 * @param followedOnly true: 自分＋フォロー中ユーザーの投稿のみ / false: 全ユーザーの投稿
+	 * @param lastEventId 最後に受信したイベントID（再接続時。初回はnull）
+	 * @return SSE接続
+	 * @throws IllegalStateException 同時接続数の上限に達している場合にスローされる
+	 */
+	public SseEmitter subscribe(UUID viewerId, boolean followedOnly, String lastEventId) {
+		if (connections.incrementAndGet() > maxConnections) {
+			connections.decrementAndGet();
+			throw new IllegalStateException("ストリームの同時接続数が上限に達しています");
+		}
+		Set<UUID> authorIds = null;
+		if (followedOnly) {
+			authorIds = ConcurrentHashMap.newKeySet();
+			authorIds.addAll(followGraphService.findFolloweeIds(viewerId));
+			authorIds.add(viewerId);
+		}
+		SseEmitter emitter = new SseEmitter(timeoutMs);
+		Subscription subscription = new Subscription(viewerId, authorIds, emitter);
+		emitter.onCompletion(() -> unsubscribe(subscription));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> unsubscribe(subscription));
+
+		// 配信（publish）と排他にし、再送分とライブ配信の間で投稿の欠け・順序の入れ替わりが起きないようにする
+		synchronized (this) {
+			subscriptions.add(subscription);
+			// 初回接続時は現在の配信位置を ready イベントのIDとして通知し、以降の再接続の起点にさせる
+			// 再接続時は取りこぼした投稿を配信順に再送する
+			if (lastEventId == null || lastEventId.isBlank()) {
+				subscription.enqueue(SseEmitter.event()
+						.id(eventId(nextSequence - 1))
+						.name("ready")
+						.data("{}", MediaType.APPLICATION_JSON));
+			} else {
+				List<StreamedPost> missed = findReplayAfter(lastEventId);
+				if (missed == null) {
+					subscription.enqueue(SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON));
+				} else {
+					missed.stream()
+						.filter(subscription::accepts)
+						.forEach(post -> subscription.enqueue(post.toEvent()));
+				}
+			}
+		}
+		return emitter;
+	}
+	/**
+	 * 投稿作成のコミット後、該当する接続へ新着投稿を配信する。
+	 *
+	 * @param event 投稿作成イベント
+	 */
+	@Async
+	@TransactionalEventListener
+	public void onPostCreated(PostCreatedEvent event) {
+		List<PostViewDto> views = postsRepository.findPostViewsByIds(List.of(event.getPostId()));
+		if (views.isEmpty()) return;
+		String json;
+		try {
+			json = objectMapper.writeValueAsString(views.get(0));
+		} catch (JsonProcessingException e) {
+			logger.error("新着投稿のJSON変換に失敗しました: {}", event.getPostId(), e);
+			return;
+		}
+		publish(event.getAuthorId(), json);
+	}
+	/**
+	 * フォロー関係の変更のコミット後、フォロー中ユーザーのみを購読している接続の配信対象を更新する。
+	 *
+	 * @param event フォロー変更イベント
+	 */
+	@TransactionalEventListener
+	public void onFollowChanged(FollowChangedEvent event) {
+		for (Subscription subscription : subscriptions) {
+			if (subscription.authorIds == null || !subscription.viewerId.equals(event.getFollowerId())) continue;
+			if (event.isFollowing()) {
+				subscription.authorIds.add(event.getFolloweeId());
+			} else {
+				subscription.authorIds.remove(event.getFolloweeId());
+			}
+		}
+	}
+	/**
+	 * 送信が上限時間を超えて終わらない接続を切断する。
+	 */
+	@Scheduled(fixedDelayString = "${sns.stream.send-timeout-ms:5000}")
+	public void closeStalledConnections() {
+		long now = System.nanoTime();
+		for (Subscription subscription : subscriptions) {
+			subscription.abortIfStalled(now);
+		}
+	}
+	/**
+	 * すべての接続へハートビートを送る。
+	 */
+	@Scheduled(fixedDelayString = "${sns.stream.heartbeat-ms:15000}")
+	public void sendHeartbeats() {
+		for (Subscription subscription : subscriptions) {
+			subscription.enqueue(SseEmitter.event().comment("heartbeat"));
+		}
+	}
+	/**
+	 * アプリケーション終了時にすべての接続を閉じる。
+	 */
+	@PreDestroy
+	public void shutdown() {
+		subscriptions.forEach(subscription -> subscription.emitter.complete());
+		sender.shutdown();
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 購読を解除する（接続の終了・エラー・キュー溢れ時）。
+	 *
+	 * @param subscription 解除する購読
+	 */
+	private void unsubscribe(Subscription subscription) {
+		if (subscriptions.remove(subscription)) {
+			connections.decrementAndGet();
+		}
+	}
+	/**
+	 * 投稿に配信順の連番を付けて再送用に保持し、該当する接続の送信キューへ追加する。
+	 * 連番の採番とキューへの追加を同じロック内で行い、各接続へは連番の順に届くようにする
+	 * （順序が入れ替わると、後の連番を受信した直後の切断で前の連番の投稿を取りこぼす）。
+	 *
+	 * @param authorId 投稿者ID
+	 * @param json 投稿DTOのJSON
+	 */
+	private synchronized void publish(UUID authorId, String json) {
+		long sequence = nextSequence++;
+		StreamedPost post = new StreamedPost(sequence, eventId(sequence), authorId, json);
+		replayBuffer.addLast(post);
+		while (replayBuffer.size() > replayCapacity) {
+			replayBuffer.removeFirst();
+		}
+		for (Subscription subscription : subscriptions) {
+			if (subscription.accepts(post)) subscription.enqueue(post.toEvent());
+		}
+	}
+	/**
+	 * 指定イベントIDより後に配信した投稿を再送用の保持分から取得する。
+	 *
+	 * @param lastEventId 最後に受信したイベントID
+	 * @return 再送する投稿（配信順）／別の起動時のIDや保持範囲外で再送できない場合はnull
+	 */
+	private synchronized List<StreamedPost> findReplayAfter(String lastEventId) {
+		int separator = lastEventId.indexOf('-');
+		if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) return null;
+		long last;
+		try {
+			last = Long.parseLong(lastEventId.substring(separator + 1));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		long oldest = replayBuffer.isEmpty() ? nextSequence : replayBuffer.peekFirst().sequence();
+		if (last < oldest - 1 || last >= nextSequence) return null;
+		List<StreamedPost> missed = new ArrayList<>();
+		for (StreamedPost post : replayBuffer) {
+			if (post.sequence() > last) missed.add(post);
+		}
+		return missed;
+	}
+	private String eventId(long sequence) {
+		return epoch + "-" + sequence;
+	}
+	/**
+	 * 送信スレッドの数を増減する（送信が滞っている接続の分だけ一時的に増やす）。
+	 *
+	 * @param delta 増減数
+	 */
+	private synchronized void resizeSender(int delta) {
+		int size = sender.getMaximumPoolSize() + delta;
+		if (delta > 0) {
+			sender.setMaximumPoolSize(size);
+			sender.setCorePoolSize(size);
+		} else {
+			sender.setCorePoolSize(size);
+			sender.setMaximumPoolSize(size);
+		}
+	}
+
+	/**
+	 * 配信する新着投稿（JSONは全接続で共有する）。
+	 *
+	 * @param sequence 配信順の連番
+	 * @param eventId イベントID（起動ごとの識別子＋連番）
+	 * @param authorId 投稿者ID
+	 * @param json 投稿DTOのJSON
+	 */
+	private record StreamedPost(long sequence, String eventId, UUID authorId, String json) {
+		/**
+		 * 送信用のイベントを生成する（イベントは送信時に変更されるため接続ごとに生成する）。
+		 *
+		 * @return SSEイベント
+		 */
+		SseEmitter.SseEventBuilder toEvent() {
+			return SseEmitter.event()
+					.id(eventId)
+					.name("post")
+					.data(json, MediaType.APPLICATION_JSON);
+		}
+	}
+
+	/**
+	 * 1接続分の購読。送信キューは1スレッドずつ順番に処理し、1回の処理では1イベントだけ送信する。
+	 */
+	private final class Subscription {
+		private final UUID viewerId;
+		/** 配信対象の投稿者ID（全ユーザーの投稿を購読する場合はnull） */
+		private final Set<UUID> authorIds;
+		private final SseEmitter emitter;
+		private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+		/** 送信キューを処理中かどうか */
+		private final AtomicBoolean draining = new AtomicBoolean();
+		/** 送信が上限時間を超えたため切断したかどうか */
+		private final AtomicBoolean stalled = new AtomicBoolean();
+		/** 送信中のスレッド（送信中でなければnull。このインスタンスのロックで保護する） */
+		private Thread sendingThread;
+		/** 送信の開始時刻（System.nanoTime） */
+		private long sendStartedNanos;
+
+		Subscription(UUID viewerId, Set<UUID> authorIds, SseEmitter emitter) {
+			this.viewerId  = viewerId;
+			this.authorIds = authorIds;
+			this.emitter   = emitter;
+			this.queue     = new ArrayBlockingQueue<>(queueCapacity);
+		}
+		boolean accepts(StreamedPost post) {
+			return authorIds == null || authorIds.contains(post.authorId());
+		}
+		/**
+		 * イベントを送信キューに追加する。キューが溢れた場合は接続を閉じる。
+		 *
+		 * @param event 送信するイベント
+		 */
+		void enqueue(SseEmitter.SseEventBuilder event) {
+			if (stalled.get()) return;
+			if (!queue.offer(event)) {
+				logger.debug("送信キューが溢れたため接続を閉じます: {}", viewerId);
+				unsubscribe(this);
+				queue.clear();
+				// emitter は送信中の間ロックされるため、配信中のスレッドを待たせないよう送信スレッドで閉じる
+				execute(emitter::complete);
+				return;
+			}
+			scheduleDrain();
+		}
+		/**
+		 * 送信が上限時間を超えていれば接続を切断する。
+		 * 送信中の emitter は送信と同じロックで閉じるため、ここでは閉じずに送信スレッドへ割り込み、
+		 * その送信が終わるまで送信スレッドを1つ追加して他の接続への配信を続ける。
+		 *
+		 * @param now 現在時刻（System.nanoTime）
+		 */
+		void abortIfStalled(long now) {
+			synchronized (this) {
+				if (sendingThread == null || now - sendStartedNanos < sendTimeoutNanos) return;
+				if (!stalled.compareAndSet(false, true)) return;
+				logger.debug("送信が終わらないため接続を閉じます: {}", viewerId);
+				resizeSender(1);
+				sendingThread.interrupt();
+			}
+			unsubscribe(this);
+			queue.clear();
+		}
+		private void scheduleDrain() {
+			if (draining.compareAndSet(false, true)) {
+				execute(this::drain);
+			}
+		}
+		/**
+		 * 送信スレッドで処理を実行する。
+		 * 終了処理で送信スレッドが停止した後（コミット後の配信が遅れて届いた場合など）は、
+		 * 例外を配信元へ伝えず、この接続を閉じる。
+		 *
+		 * @param task 送信スレッドで実行する処理
+		 */
+		private void execute(Runnable task) {
+			try {
+				sender.execute(task);
+			} catch (RejectedExecutionException e) {
+				unsubscribe(this);
+				queue.clear();
+				emitter.complete();
+			}
+		}
+		private void drain() {
+			try {
+				SseEmitter.SseEventBuilder event = queue.poll();
+				if (event != null && !stalled.get()) send(event);
+			} finally {
+				draining.set(false);
+			}
+			// 残りのイベントは他の接続の後に順番を待ち直す（処理終了の直前に追加されたイベントも取りこぼさない）
+			if (!queue.isEmpty() && subscriptions.contains(this)) scheduleDrain();
+		}
+		private void send(SseEmitter.SseEventBuilder event) {
+			synchronized (this) {
+				sendingThread    = Thread.currentThread();
+				sendStartedNanos = System.nanoTime();
+			}
+			try {
+				emitter.send(event);
+			} catch (IOException | IllegalStateException e) {
+				// 切断済みの接続
+				unsubscribe(this);
+				queue.clear();
+			} finally {
+				synchronized (this) {
+					sendingThread = null;
+					// 送信後に届いた割り込みが、次に処理する接続の送信へ持ち越されないようにする
+					Thread.interrupted();
+				}
+				if (stalled.get()) {
+					resizeSender(-1);
+					emitter.complete();
+				}
+			}
+		}
+	}
+}
@@ -1,21 +1,33 @@
 package com.example.sns.service;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.sns.dto.CursorPageDto;
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.LikedPostView;
+import com.example.sns.dto.PostEntities;
 import com.example.sns.dto.PostViewDto;
+import com.example.sns.dto.TimelinePostRef;
 import com.example.sns.entity.PostType;
 import com.example.sns.entity.Posts;
 import com.example.sns.entity.Users;
-import com.example.sns.repository.FollowsRepository;
-import com.example.sns.repository.LikesRepository;
+import com.example.sns.event.PostCreatedEvent;
+import com.example.sns.event.PostTaggedEvent;
 import com.example.sns.repository.PostsRepository;
-import com.example.sns.util.RelativeTimeUtil;
+import com.example.sns.repository.UserStatsRepository;
+import com.example.sns.service.search.PostSearchIndex;
+import com.example.sns.service.timeline.TimelineEngine;
+import com.example.sns.util.PostEntityExtractor;
 /**
 * 投稿情報のビジネスロジックを担うサービスクラス。
 * コントローラー層とリポジトリ層の橋渡し役として、
@@ -27,20 +39,46 @@ import com.example.sns.util.RelativeTimeUtil;
 @Service
 public class PostsService {
 	private final PostsRepository postsRepository;
-	private final LikesRepository likesRepository;
-	private final FollowsRepository followsRepository;
-	
+	private final UserStatsRepository userStatsRepository;
+	private final TimelineEngine timelineEngine;
+	private final LikeMembershipService likeMembershipService;
+	/** いいねのバッファ（buffered方式の場合のみ。direct方式ではnull） */
+	private final LikeWriteBuffer likeWriteBuffer;
+	private final TrendingPostsService trendingPostsService;
+	private final PostSearchIndex postSearchIndex;
+	private final ApplicationEventPublisher eventPublisher;
+	/** タイムライン1ページの既定件数 */
+	private final int defaultPageSize;
+	/** クライアントが指定できるページサイズの上限 */
+	private final int maxPageSize;
 	
 	public PostsService(
 			PostsRepository postsRepository,
-			LikesRepository likesRepository,
-			FollowsRepository followsRepository) {
-		this.postsRepository   = postsRepository;
-		this.likesRepository   = likesRepository;
-		this.followsRepository = followsRepository;
+			UserStatsRepository userStatsRepository,
+			TimelineEngine timelineEngine,
+			LikeMembershipService likeMembershipService,
+			ObjectProvider<LikeWriteBuffer> likeWriteBuffer,
+			TrendingPostsService trendingPostsService,
+			PostSearchIndex postSearchIndex,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${sns.timeline.page-size:20}") int defaultPageSize,
+			@Value("${sns.timeline.max-page-size:100}") int maxPageSize) {
+		this.postsRepository       = postsRepository;
+		this.userStatsRepository   = userStatsRepository;
+		this.timelineEngine        = timelineEngine;
+		this.likeMembershipService = likeMembershipService;
+		this.likeWriteBuffer       = likeWriteBuffer.getIfAvailable();
+		this.trendingPostsService  = trendingPostsService;
+		this.postSearchIndex       = postSearchIndex;
+		this.eventPublisher        = eventPublisher;
+		this.defaultPageSize       = defaultPageSize;
+		this.maxPageSize           = maxPageSize;
 	}
 	/**
 	 * 通常投稿を作成・保存する。
+	 * 保存と同じトランザクションで投稿者の投稿数（user_stats）を加算し、
+	 * 本文から抽出したハッシュタグ・メンションを post_tags / post_mentions へ保存する。
+	 * 投稿作成イベントを発行してコミット後にタイムライン・急上昇タグ等へ反映させる。
 	 *
 	 * @param user 投稿を行うユーザー
 	 * @param content 投稿内容（null・空文字不可）
@@ -56,126 +94,211 @@ public class PostsService {
 				.content(content)
 				.postType(PostType.NORMAL)
 				.build();
-		return postsRepository.save(post);
+		Posts saved = postsRepository.save(post);
+		userStatsRepository.addCounts(user.getUserId(), 1, 0, 0, 0);
+		PostEntities entities = PostEntityExtractor.extract(content);
+		postsRepository.insertTags(saved.getPostId(), saved.getCreatedAt(), entities.tags());
+		postsRepository.insertMentions(saved.getPostId(), saved.getCreatedAt(), entities.mentions());
+		eventPublisher.publishEvent(new PostCreatedEvent(saved.getPostId(), user.getUserId(), saved.getCreatedAt()));
+		if (!entities.tags().isEmpty()) {
+			eventPublisher.publishEvent(new PostTaggedEvent(saved.getPostId(), entities.tags(), saved.getCreatedAt()));
+		}
+		return saved;
 	}
 	/**
-	 * 全ユーザーの投稿を取得し、いいね数や
+	 * 全ユーザーの投稿を1ページ分取得し、いいね数や
 	 * ログインユーザーのいいね済み判定を含めてDTOに変換して返す。
-	 * -投稿が存在する全ユーザーIDを取得
-	 * -共通処理でDTOリストを取得
 	 * 
 	 * @param loginUser ログイン中のユーザー（nullの場合は未ログイン扱い）
-	 * @return 全投稿のDTOリスト（作成日時降順）
+	 * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+	 * @param size 要求ページサイズ（nullの場合は既定値）
+	 * @return 全投稿のDTOページ（作成日時降順）
 	 */
-	public List<PostViewDto> getAllPostsWithLikes(Users loginUser) {
-		List<UUID> allUserIds = postsRepository.findAllUserIds();
-		return getPostsByUserIdsWithLikes(loginUser, allUserIds);
+	public CursorPageDto<PostViewDto> getAllPostsWithLikes(Users loginUser, KeysetCursor cursor, Integer size) {
+		if (loginUser == null) throw new IllegalArgumentException("ログインユーザーが必要です");
+		int pageSize = resolvePageSize(size);
+		List<PostViewDto> posts = postsRepository.findPostViews(null, cursor, pageSize + 1);
+		return toPage(loginUser, posts, pageSize);
 	}
 	/**
-	 * フォロー中ユーザーと自分自身の投稿を取得し、いいね数や
+	 * フォロー中ユーザーと自分自身の投稿を1ページ分取得し、いいね数や
 	 * ログインユーザーのいいね済み判定を含めてDTOに変換して返す。
-	 * -フォロー中ユーザーIDを取得
-	 * -自分自身のIDも追加（自分の投稿も含めるため）
-	 * -共通処理でDTOリストを取得
+	 * -タイムラインエンジンでページ内の投稿の並びを決定
+	 * -ページ内の投稿だけを投稿者・いいね情報付きで1回のクエリで取得
 	 * 
 	 * @param loginUser ログイン中のユーザー（nullの場合は未ログイン扱い）
-	 * @return フォロー中ユーザー＋自分の投稿DTOリスト（作成日時降順）
+	 * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+	 * @param size 要求ページサイズ（nullの場合は既定値）
+	 * @return フォロー中ユーザー＋自分の投稿DTOページ（作成日時降順）
 	 */
-	public List<PostViewDto> getFollowedUsersPostsWithLikes(Users loginUser) {
-		if (loginUser == null) return List.of();
-		List<UUID> followeeIds = followsRepository.findFolloweeIdsByFollowerId(loginUser.getUserId());
-		followeeIds.add(loginUser.getUserId());
-		return getPostsByUserIdsWithLikes(loginUser, followeeIds);
+	public CursorPageDto<PostViewDto> getFollowedUsersPostsWithLikes(Users loginUser, KeysetCursor cursor, Integer size) {
+		if (loginUser == null) return new CursorPageDto<>(List.of(), null);
+		int pageSize = resolvePageSize(size);
+		List<TimelinePostRef> refs = timelineEngine.findFollowedTimeline(loginUser.getUserId(), cursor, pageSize + 1);
+		boolean hasNext = refs.size() > pageSize;
+		List<TimelinePostRef> pageRefs = hasNext ? refs.subList(0, pageSize) : refs;
+		String next = hasNext ? pageRefs.get(pageSize - 1).toCursor().encode() : null;
+		List<UUID> postIds = pageRefs.stream()
+				.map(TimelinePostRef::getPostId)
+				.collect(Collectors.toList());
+		return new CursorPageDto<>(markLiked(loginUser, findPostViewsInOrder(postIds)), next);
 	}
 	/**
-	 * 指定したユーザーの投稿一覧をDTO付きで取得する（いいね情報含む）
+	 * 指定したユーザーの投稿一覧を1ページ分DTO付きで取得する（いいね情報含む）
 	 *
 	 * @param loginUser ログイン中のユーザー（いいね済み判定に使用）
-	 * @param user 表示対象ユーザー
-	 * @return 投稿DTOリスト（作成日時降順）
+	 * @param userId 表示対象ユーザーのID
+	 * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+	 * @param size 要求ページサイズ（nullの場合は既定値）
+	 * @return 投稿DTOページ（作成日時降順）
 	 */
-	public List<PostViewDto> getPostsByUserWithLikes(Users loginUser, Users user) {
-		if (user == null || loginUser == null) return List.of();
-		List<Posts> posts = postsRepository.findByUserOrderByCreatedAtDesc(user);
-		List<UUID> postIds = posts.stream()
-				.map(Posts::getPostId)
+	public CursorPageDto<PostViewDto> getPostsByUserWithLikes(Users loginUser, UUID userId, KeysetCursor cursor, Integer size) {
+		if (userId == null || loginUser == null) return new CursorPageDto<>(List.of(), null);
+		int pageSize = resolvePageSize(size);
+		List<PostViewDto> posts = postsRepository.findPostViews(userId, cursor, pageSize + 1);
+		return toPage(loginUser, posts, pageSize);
+	}
+	/**
+	 * 指定したユーザーがいいねした投稿を、いいねした日時の新しい順に1ページ分DTO付きで取得する（いいね情報含む）。
+	 * いいね・投稿・投稿者は1回のクエリで取得し、ページ分の行だけを読む。
+	 *
+	 * @param loginUser ログイン中のユーザー（いいね済み判定に使用）
+	 * @param userId いいねしたユーザーのID
+	 * @param cursor 前ページのカーソル（いいね日時＋いいねID。先頭ページの場合はnull）
+	 * @param size 要求ページサイズ（nullの場合は既定値）
+	 * @return 投稿DTOページ（いいね日時降順）
+	 */
+	public CursorPageDto<PostViewDto> getLikedPostsWithLikes(Users loginUser, UUID userId, KeysetCursor cursor, Integer size) {
+		if (userId == null || loginUser == null) return new CursorPageDto<>(List.of(), null);
+		int pageSize = resolvePageSize(size);
+		List<LikedPostView> liked = postsRepository.findLikedPostViews(userId, cursor, pageSize + 1);
+		boolean hasNext = liked.size() > pageSize;
+		List<LikedPostView> page = hasNext ? liked.subList(0, pageSize) : liked;
+		String next = hasNext ? page.get(pageSize - 1).toCursor().encode() : null;
+		List<PostViewDto> posts = page.stream()
+				.map(LikedPostView::post)
 				.collect(Collectors.toList());
-		Map<UUID, Integer> likeCountMap = getLikeCountMap(postIds);
-		List<UUID> likedPostIds = likesRepository.findPostIdsLikedByUser(loginUser.getUserId());
-
-		return convertToPostViewDtoList(posts, likeCountMap, likedPostIds);
+		return new CursorPageDto<>(markLiked(loginUser, posts), next);
+	}
+	/**
+	 * 急上昇投稿（いいねの時間減衰スコアの高い順）を取得し、いいね数や
+	 * ログインユーザーのいいね済み判定を含めてDTOに変換して返す。
+	 * 順位はメモリ上のランキングから求め、DBからはランキング上位の投稿だけを取得する。
+	 *
+	 * @param loginUser ログイン中のユーザー（いいね済み判定に使用）
+	 * @param size 要求件数（nullの場合は既定値）
+	 * @return 投稿DTOのリスト（スコア降順）
+	 */
+	public List<PostViewDto> getTrendingPostsWithLikes(Users loginUser, Integer size) {
+		if (loginUser == null) return List.of();
+		List<UUID> postIds = trendingPostsService.findTopPostIds(resolvePageSize(size));
+		return markLiked(loginUser, findPostViewsInOrder(postIds));
+	}
+	/**
+	 * 本文に検索語を含む投稿を1ページ分取得し、いいね数や
+	 * ログインユーザーのいいね済み判定を含めてDTOに変換して返す。
+	 * 一致する投稿はメモリ上の転置索引（PostSearchIndex）で求め、DBからはページ内の投稿だけを読む。
+	 * 
+	 * @param loginUser ログイン中のユーザー
+	 * @param query 検索語
+	 * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+	 * @param size 要求ページサイズ（nullの場合は既定値）
+	 * @return 投稿DTOページ（作成日時降順）
+	 */
+	public CursorPageDto<PostViewDto> searchPostsWithLikes(Users loginUser, String query, KeysetCursor cursor, Integer size) {
+		if (loginUser == null) throw new IllegalArgumentException("ログインユーザーが必要です");
+		int pageSize = resolvePageSize(size);
+		List<UUID> postIds = postSearchIndex.search(query, cursor, pageSize + 1);
+		return toPage(loginUser, findPostViewsInOrder(postIds), pageSize);
+	}
+	/**
+	 * 指定したハッシュタグの付いた投稿を1ページ分取得し、いいね数や
+	 * ログインユーザーのいいね済み判定を含めてDTOに変換して返す。
+	 * 
+	 * @param loginUser ログイン中のユーザー
+	 * @param tag ハッシュタグ（先頭の「#」は有っても無くてもよい）
+	 * @param cursor 前ページのカーソル（先頭ページの場合はnull）
+	 * @param size 要求ページサイズ（nullの場合は既定値）
+	 * @return 投稿DTOページ（作成日時降順）
+	 * @throws IllegalArgumentException タグとして無効な文字列の場合
+	 */
+	public CursorPageDto<PostViewDto> getTagPostsWithLikes(Users loginUser, String tag, KeysetCursor cursor, Integer size) {
+		if (loginUser == null) throw new IllegalArgumentException("ログインユーザーが必要です");
+		String normalized = PostEntityExtractor.normalizeTag(tag);
+		if (normalized == null) throw new IllegalArgumentException("タグの形式が不正です");
+		int pageSize = resolvePageSize(size);
+		List<PostViewDto> posts = postsRepository.findPostViewsByTag(normalized, cursor, pageSize + 1);
+		return toPage(loginUser, posts, pageSize);
 	}
 	
 	//-- 以下privateメソッド --//
 	
 	/**
-	 * 指定した投稿IDリストに対するいいね数を集計し、投稿IDをキー、いいね数を値としたMapを返す。
+	 * 投稿IDの並び順どおりに投稿DTOを取得する。
+	 * 投稿者・いいね数は1回のクエリでまとめて取得する。
 	 * 
-	 * @param postIds 投稿IDのリスト
-	 * @return 投稿IDごとのいいね数マップ
+	 * @param postIds 投稿IDのリスト（表示順）
+	 * @return 投稿DTOのリスト（投稿IDと同じ順。存在しない投稿は除外）
 	 */
-	private Map<UUID, Integer> getLikeCountMap(List<UUID> postIds) {
-		List<Object[]> results = likesRepository.countLikesByPostIds(postIds);
-		Map<UUID, Integer> likeCountMap = new HashMap<>();
-		for (Object[] row : results) {
-			UUID postId = (UUID) row[0];
-			Long count = (Long) row[1];
-			likeCountMap.put(postId, count.intValue());
-		}
-		return likeCountMap;
+	private List<PostViewDto> findPostViewsInOrder(List<UUID> postIds) {
+		if (postIds.isEmpty()) return List.of();
+		Map<UUID, PostViewDto> postMap = postsRepository.findPostViewsByIds(postIds).stream()
+				.collect(Collectors.toMap(PostViewDto::getPostId, post -> post));
+		return postIds.stream()
+				.map(postMap::get)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
 	}
 	/**
-	 * 指定したユーザーIDリストの投稿を取得し、いいね数や
-	 * ログインユーザーのいいね済み判定を含めてDTOに変換して返す共通メソッド。
-	 * -指定ユーザーの投稿を取得（最新順）
-	 * -投稿IDリストを作成
-	 * -投稿IDごとのいいね数を取得しMapに変換
-	 * -ログインユーザーがいいね済みの投稿IDリストを取得
-	 * - DTOに変換して返却
+	 * ページサイズ+1件で取得した投稿DTOリストから1ページ分を切り出す。
+	 * -余分な1件があれば次ページありと判定し、ページ末尾の投稿からカーソルを作る
 	 * 
 	 * @param loginUser ログイン中のユーザー
-	 * @param userIds 投稿対象のユーザーIDリスト
-	 * @return 投稿DTOリスト（作成日時降順）
+	 * @param posts ページサイズ+1件を上限に取得した投稿DTOリスト（最新順）
+	 * @param pageSize ページサイズ
+	 * @return 投稿DTOページ
 	 */
-	private List<PostViewDto> getPostsByUserIdsWithLikes(Users loginUser, List<UUID> userIds) {
-		
-		if (loginUser == null) throw new IllegalArgumentException("ログインユーザーが必要です");
-
-		List<Posts> posts = postsRepository.findByUser_UserIdInOrderByCreatedAtDesc(userIds);
+	private CursorPageDto<PostViewDto> toPage(Users loginUser, List<PostViewDto> posts, int pageSize) {
+		boolean hasNext = posts.size() > pageSize;
+		List<PostViewDto> pagePosts = hasNext ? posts.subList(0, pageSize) : posts;
 		
+		String next = null;
+		if (hasNext) {
+			PostViewDto last = pagePosts.get(pagePosts.size() - 1);
+			next = new KeysetCursor(last.getCreatedAt(), last.getPostId()).encode();
+		}
+		return new CursorPageDto<>(markLiked(loginUser, pagePosts), next);
+	}
+	/**
+	 * ページ内の投稿に、ログインユーザーのいいね済みフラグを設定する。
+	 * 判定はページ内の投稿IDに限定して行う。
+	 * buffered方式では、DBへ未反映のいいね操作の状態をDB上の状態より優先する。
+	 * 
+	 * @param loginUser ログイン中のユーザー
+	 * @param posts 1ページ分の投稿DTO
+	 * @return フラグ設定後の投稿DTO（引数と同じリスト）
+	 */
+	private List<PostViewDto> markLiked(Users loginUser, List<PostViewDto> posts) {
 		List<UUID> postIds = posts.stream()
-				.map(Posts::getPostId)
+				.map(PostViewDto::getPostId)
 				.collect(Collectors.toList());
-		
-		Map<UUID, Integer> likeCountMap = getLikeCountMap(postIds);
-		
-		List<UUID> likedPostIds = loginUser == null
-				? List.of()
-				: likesRepository.findPostIdsLikedByUser(loginUser.getUserId());
-		return convertToPostViewDtoList(posts, likeCountMap, likedPostIds);
+		// 未反映の操作はDBより先に読む（間に反映が完了しても、DB側で新しい状態を読めるように）
+		Map<UUID, Boolean> pendingLiked = likeWriteBuffer == null
+				? Map.of()
+				: likeWriteBuffer.findPendingLiked(loginUser.getUserId(), postIds);
+		Set<UUID> likedPostIds = likeMembershipService.findLikedAmong(loginUser.getUserId(), postIds);
+		posts.forEach(post -> post.setLikedByLoginUser(
+				pendingLiked.getOrDefault(post.getPostId(), likedPostIds.contains(post.getPostId()))));
+		return posts;
 	}
 	/**
-	 * 投稿エンティティリストをDTOリストに変換するユーティリティメソッド。
-	 * @param posts 投稿エンティティのリスト
-	 * @param likeCountMap 投稿IDごとのいいね数マップ
-	 * @param likedPostIds ログインユーザーがいいね済みの投稿IDリスト
-	 * @return 投稿DTOのリスト（相対時間付き）
+	 * 要求されたページサイズを設定値の範囲に収める。
+	 * 
+	 * @param size 要求ページサイズ（nullの場合は既定値）
+	 * @return 1以上、最大ページサイズ以下のページサイズ
 	 */
-	private List<PostViewDto> convertToPostViewDtoList(
-			List<Posts> posts,
-			java.util.Map<UUID, Integer> likeCountMap,
-			List<UUID> likedPostIds) {
-		return posts.stream()
-				.map(post -> new PostViewDto(
-						post.getPostId(),
-						post.getContent(),
-						RelativeTimeUtil.toRelativeTime(post.getCreatedAt()),
-						post.getUser().getUserId(),
-						post.getUser().getUserName(),
-						post.getUser().getLoginId(),
-						likeCountMap.getOrDefault(post.getPostId(), 0),
-						likedPostIds.contains(post.getPostId())
-					))
-				.collect(Collectors.toList());
+	private int resolvePageSize(Integer size) {
+		if (size == null || size <= 0) return defaultPageSize;
+		return Math.min(size, maxPageSize);
 	}
-}
\ No newline at end of file
+}
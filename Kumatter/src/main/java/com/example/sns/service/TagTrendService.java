@@ -0,0 +1,150 @@
+package com.example.sns.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sns.dto.TagTrendDto;
+import com.example.sns.event.PostTaggedEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 急上昇タグ（直近の集計期間内に付けられた投稿数の多いタグ）をメモリ上で集計するサービスクラス。
+ *
+ * - 集計期間を一定幅の時間バケットに分け、バケットごとにタグ別の投稿数を持つ（スライディングウィンドウ）
+ * - 期間内の合計もタグ別に保持し、投稿のたびに該当バケットと合計へ加算する
+ * - 期間から外れたバケットは、その分を合計から差し引いて破棄する
+ * - ハッシュタグ付き投稿のコミット後に PostTaggedEvent を受けて更新する（post_tags の再集計は行わない）
+ * - 起動時は post_tags から集計期間分を読み込んで再開する
+ *
+ * 急上昇タグの取得は合計の上位を選ぶだけで、期間内のタグの種類数に比例するコストで応答する。
+ * メモリ上の状態はこのインスタンスでの投稿のみを反映するため、単一インスタンスでの運用を前提とする。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class TagTrendService {
+	private static final Logger logger = LoggerFactory.getLogger(TagTrendService.class);
+	/** ランキングの並び順（投稿数降順、同数はタグ順） */
+	private static final Comparator<Map.Entry<String, Integer>> RANKING_ORDER =
+			Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.<String, Integer>comparingByKey());
+
+	private final JdbcTemplate jdbcTemplate;
+	/** バケットの幅（ミリ秒） */
+	private final long bucketMs;
+	/** 集計期間に含まれるバケット数 */
+	private final int bucketCount;
+	/** バケット番号（エポックミリ秒 / バケットの幅）→ タグ別の投稿数 */
+	private final TreeMap<Long, Map<String, Integer>> buckets = new TreeMap<>();
+	/** 集計期間内のタグ別の投稿数（全バケットの合計） */
+	private final Map<String, Integer> totals = new HashMap<>();
+
+	public TagTrendService(
+			JdbcTemplate jdbcTemplate,
+			MeterRegistry meterRegistry,
+			@Value("${sns.tags.trending.window-minutes:60}") long windowMinutes,
+			@Value("${sns.tags.trending.bucket-seconds:60}") long bucketSeconds) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.bucketMs     = TimeUnit.SECONDS.toMillis(bucketSeconds);
+		this.bucketCount  = (int) Math.max(1, TimeUnit.MINUTES.toMillis(windowMinutes) / bucketMs);
+		Gauge.builder("tags.trending.size", this, service -> service.tagCount())
+				.description("急上昇タグの集計期間内のタグの種類数")
+				.register(meterRegistry);
+	}
+	/**
+	 * post_tags から集計期間分のタグを読み込む。
+	 */
+	@PostConstruct
+	public synchronized void load() {
+		long now = System.currentTimeMillis();
+		long since = (now / bucketMs - bucketCount + 1) * bucketMs;
+		int[] rows = {0};
+		jdbcTemplate.query("SELECT tag, created_at FROM post_tags WHERE created_at >= ?", rs -> {
+			add(rs.getString("tag"), rs.getTimestamp("created_at").getTime(), now);
+			rows[0]++;
+		}, new Timestamp(since));
+		logger.info("急上昇タグの集計を読み込みました: タグ付け {} 件, タグ {} 種類", rows[0], totals.size());
+	}
+	/**
+	 * 集計期間内の投稿数の多い順にタグを返す。
+	 *
+	 * @param limit 返す件数の上限
+	 * @return 急上昇タグのリスト（投稿数降順）
+	 */
+	public synchronized List<TagTrendDto> findTrending(int limit) {
+		expire(System.currentTimeMillis());
+		// 上位limit件を、最下位を先頭とするヒープで保持する
+		PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(limit + 1, RANKING_ORDER.reversed());
+		for (Map.Entry<String, Integer> entry : totals.entrySet()) {
+			top.offer(entry);
+			if (top.size() > limit) top.poll();
+		}
+		List<TagTrendDto> result = new ArrayList<>(top.size());
+		while (!top.isEmpty()) {
+			Map.Entry<String, Integer> entry = top.poll();
+			result.add(0, new TagTrendDto(entry.getKey(), entry.getValue()));
+		}
+		return result;
+	}
+	/**
+	 * ハッシュタグ付き投稿のコミット後、投稿日時のバケットと合計にタグを加算する。
+	 *
+	 * @param event ハッシュタグ付き投稿の作成イベント
+	 */
+	@TransactionalEventListener
+	public synchronized void onPostTagged(PostTaggedEvent event) {
+		long now = System.currentTimeMillis();
+		long createdAtMs = toEpochMilli(event.getCreatedAt());
+		for (String tag : event.getTags()) {
+			add(tag, createdAtMs, now);
+		}
+		expire(now);
+	}
+	private synchronized int tagCount() {
+		return totals.size();
+	}
+
+	//-- 以下privateメソッド（インスタンスのロックを取得した状態で呼び出す） --//
+
+	private void add(String tag, long createdAtMs, long now) {
+		long bucket = createdAtMs / bucketMs;
+		if (bucket <= now / bucketMs - bucketCount) return;
+		buckets.computeIfAbsent(bucket, key -> new HashMap<>()).merge(tag, 1, Integer::sum);
+		totals.merge(tag, 1, Integer::sum);
+	}
+	/**
+	 * 集計期間から外れたバケットを破棄し、その投稿数を合計から差し引く。
+	 *
+	 * @param now 現在時刻（エポックミリ秒）
+	 */
+	private void expire(long now) {
+		Map<Long, Map<String, Integer>> expired = buckets.headMap(now / bucketMs - bucketCount + 1);
+		for (Map<String, Integer> counts : expired.values()) {
+			counts.forEach((tag, count) -> totals.computeIfPresent(tag, (key, total) -> total - count > 0 ? total - count : null));
+		}
+		expired.clear();
+	}
+	private static long toEpochMilli(LocalDateTime dateTime) {
+		return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+}
@@ -0,0 +1,249 @@
+package com.example.sns.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.event.LikeChangedEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 急上昇投稿（いいねの時間減衰スコア順）のランキングをメモリ上で管理するサービスクラス。
+ *
+ * - いいね1件の重みは時間とともに指数関数的に減衰する（半減期は設定値）
+ * - スコアは「基準時刻での値」として保持し、いいねの重みを exp(λ(t - 基準時刻)) とすることで、
+ *   全投稿のスコアを毎回減衰させずに済む（全投稿が同じ率で減衰するため、順位は基準時刻の値で決まる）
+ * - いいね変更のコミット後に LikeChangedEvent を受けて、該当投稿のスコアとランキングだけを更新する
+ *   （likes テーブルの再集計は行わない）
+ * - ランキングはスコア順のスキップリストで保持し、上限件数を超えた場合はスコアの低い投稿から外す
+ * - 重みが大きくなり過ぎないよう、定期的に基準時刻を現在時刻へ移し、全スコアを減衰させる
+ * - 同じタイミングでスコアを post_trending_scores へ書き出し、起動時に読み込んで再開する
+ *
+ * ランキングから外れた投稿のスコアは破棄するため、再びいいねされた場合はその時点から数え直す。
+ * メモリ上の状態はこのインスタンスでの変更のみを反映するため、単一インスタンスでの運用を前提とする。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class TrendingPostsService {
+	private static final Logger logger = LoggerFactory.getLogger(TrendingPostsService.class);
+	/** 基準時刻を移す目安（重みの指数がこの値を超えたら移す。exp(30) ≒ 1e13） */
+	private static final double MAX_EXPONENT = 30;
+	/** 基準時刻を移した際に、このスコア未満になった投稿は外す */
+	private static final double MIN_SCORE = 1e-3;
+	/** ランキングの並び順（スコア降順、同点は投稿ID順） */
+	private static final Comparator<Ranked> RANKING_ORDER =
+			Comparator.comparingDouble(Ranked::score).reversed().thenComparing(Ranked::postId);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	/** 減衰率 λ（1ミリ秒あたり） */
+	private final double lambda;
+	/** ランキングに保持する投稿数の上限 */
+	private final int capacity;
+	/** 更新（読み取りロック）と基準時刻の移動（書き込みロック）の排他 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** 投稿IDごとのスコア（基準時刻での値） */
+	private final ConcurrentHashMap<UUID, Double> scores = new ConcurrentHashMap<>();
+	/** スコア順のランキング */
+	private final ConcurrentSkipListSet<Ranked> ranking = new ConcurrentSkipListSet<>(RANKING_ORDER);
+	/** スコアの基準時刻（エポックミリ秒） */
+	private volatile long baseMs = System.currentTimeMillis();
+
+	public TrendingPostsService(
+			JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${sns.posts.trending.half-life-minutes:360}") long halfLifeMinutes,
+			@Value("${sns.posts.trending.capacity:10000}") int capacity) {
+		this.jdbcTemplate        = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.lambda              = Math.log(2) / TimeUnit.MINUTES.toMillis(halfLifeMinutes);
+		this.capacity            = capacity;
+		Gauge.builder("posts.trending.size", scores, Map::size)
+				.description("急上昇ランキングに保持している投稿数")
+				.register(meterRegistry);
+	}
+	/**
+	 * 前回書き出したスコアを読み込み、書き出し時刻からの経過時間分を減衰させて再開する。
+	 */
+	@PostConstruct
+	public void load() {
+		long now = System.currentTimeMillis();
+		lock.writeLock().lock();
+		try {
+			baseMs = now;
+			jdbcTemplate.query("SELECT post_id, score, scored_at FROM post_trending_scores", rs -> {
+				long scoredAt = rs.getTimestamp("scored_at").getTime();
+				double score = rs.getDouble("score") * Math.exp(-lambda * (now - scoredAt));
+				if (score < MIN_SCORE) return;
+				UUID postId = rs.getObject("post_id", UUID.class);
+				scores.put(postId, score);
+				ranking.add(new Ranked(postId, score));
+			});
+			evict();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		logger.info("急上昇スコアを読み込みました: 投稿 {} 件", scores.size());
+	}
+	/**
+	 * スコアの高い順に投稿IDを返す。
+	 *
+	 * @param limit 返す件数の上限
+	 * @return 投稿IDのリスト（スコア降順）
+	 */
+	public List<UUID> findTopPostIds(int limit) {
+		List<UUID> result = new ArrayList<>(limit);
+		for (Ranked ranked : ranking) {
+			if (result.size() >= limit) break;
+			result.add(ranked.postId());
+		}
+		return result;
+	}
+	/**
+	 * いいね変更のコミット後、投稿のスコアにいいねの重みを加減算し、ランキングを更新する。
+	 * 重みはいいねの作成日時で求めるため、いいね解除では、そのいいねを追加した時に加えた重みと同じ値を差し引く
+	 * （解除した時刻の重みを差し引くと、古いいいねの解除で他のいいねの分までスコアが減る）。
+	 *
+	 * @param event いいね変更イベント
+	 */
+	@TransactionalEventListener
+	public void onLikeChanged(LikeChangedEvent event) {
+		long now = System.currentTimeMillis();
+		if (lambda * (now - baseMs) > MAX_EXPONENT) rebase(now);
+		lock.readLock().lock();
+		try {
+			long likedAtMs = Math.min(now, toEpochMilli(event.getLikedAt()));
+			double weight = Math.exp(lambda * (likedAtMs - baseMs)) * (event.isLiked() ? 1 : -1);
+			scores.compute(event.getPostId(), (postId, current) -> {
+				if (current != null) ranking.remove(new Ranked(postId, current));
+				double next = (current == null ? 0 : current) + weight;
+				if (next <= 0) return null;
+				ranking.add(new Ranked(postId, next));
+				return next;
+			});
+			evict();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	/**
+	 * 基準時刻を現在時刻へ移し、スコアを post_trending_scores へ書き出す。
+	 */
+	@Scheduled(fixedDelayString = "${sns.posts.trending.checkpoint-interval-ms:60000}",
+			initialDelayString = "${sns.posts.trending.checkpoint-interval-ms:60000}")
+	public void checkpoint() {
+		long now = System.currentTimeMillis();
+		rebase(now);
+		List<Ranked> snapshot = List.copyOf(ranking);
+		Timestamp scoredAt = new Timestamp(baseMs);
+		transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.update("DELETE FROM post_trending_scores");
+			// 削除された投稿への行で全体が失敗しないよう、投稿の存在を条件に挿入する
+			jdbcTemplate.batchUpdate("INSERT INTO post_trending_scores (post_id, score, scored_at) "
+					+ "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM posts WHERE post_id = ?)",
+					new BatchPreparedStatementSetter() {
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							Ranked ranked = snapshot.get(i);
+							ps.setObject(1, ranked.postId());
+							ps.setDouble(2, ranked.score());
+							ps.setTimestamp(3, scoredAt);
+							ps.setObject(4, ranked.postId());
+						}
+						@Override
+						public int getBatchSize() {
+							return snapshot.size();
+						}
+					});
+		});
+		logger.debug("急上昇スコアを書き出しました: 投稿 {} 件", snapshot.size());
+	}
+	/**
+	 * アプリケーションの正常終了時に、最新のスコアを書き出す。
+	 */
+	@PreDestroy
+	public void shutdown() {
+		try {
+			checkpoint();
+		} catch (RuntimeException e) {
+			logger.error("終了時に急上昇スコアを書き出せませんでした", e);
+		}
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 基準時刻を指定時刻へ移し、全スコアを経過時間分だけ減衰させる。
+	 * 減衰後のスコアが小さくなった投稿はランキングから外す。
+	 *
+	 * @param now 新しい基準時刻（エポックミリ秒）
+	 */
+	private void rebase(long now) {
+		lock.writeLock().lock();
+		try {
+			if (now <= baseMs) return;
+			double factor = Math.exp(-lambda * (now - baseMs));
+			ranking.clear();
+			scores.replaceAll((postId, score) -> score * factor);
+			scores.values().removeIf(score -> score < MIN_SCORE);
+			scores.forEach((postId, score) -> ranking.add(new Ranked(postId, score)));
+			baseMs = now;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	/**
+	 * 上限件数を超えた分を、スコアの低い投稿からランキングとスコアの両方から外す。
+	 */
+	private void evict() {
+		while (scores.size() > capacity) {
+			Ranked lowest = ranking.pollLast();
+			if (lowest == null) return;
+			// 取り出した後に同じ投稿が更新されていれば、新しいスコアを残す
+			scores.remove(lowest.postId(), lowest.score());
+		}
+	}
+
+	private static long toEpochMilli(LocalDateTime dateTime) {
+		return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	/**
+	 * ランキングの要素（投稿IDとその時点のスコア）。
+	 *
+	 * @param postId 投稿ID
+	 * @param score 基準時刻でのスコア
+	 */
+	private record Ranked(UUID postId, double score) {
+	}
+}
@@ -0,0 +1,168 @@
+package com.example.sns.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.sns.dto.UserIdentity;
+import com.example.sns.entity.Users;
+import com.example.sns.event.UserRegisteredEvent;
+import com.example.sns.repository.UsersRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * ユーザーの識別情報（UserIdentity）をリクエストをまたいでキャッシュするコンポーネント。
+ * ログインユーザーの解決（ログインIDまたはメールアドレス）やユーザーの存在確認を、DBへ問い合わせずに行う。
+ *
+ * - 識別情報はユーザーIDをキーに保持し、ログインID・メールアドレスからはユーザーIDを引く索引を持つ
+ * - 同じユーザーの同時の読み込みは1回にまとめる（Caffeineの読み込み）
+ * - 存在しないユーザーはキャッシュしない
+ * - 件数の上限と有効期間で破棄し、ユーザー情報の更新・削除・登録のコミット後に該当ユーザーを破棄する
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+public class UserIdentityCache {
+	private final UsersRepository usersRepository;
+	/** ユーザーID → 識別情報 */
+	private final Cache<UUID, UserIdentity> identities;
+	/** ログインID → ユーザーID */
+	private final Cache<String, UUID> loginIds;
+	/** メールアドレス → ユーザーID */
+	private final Cache<String, UUID> emails;
+
+	public UserIdentityCache(
+			UsersRepository usersRepository,
+			MeterRegistry meterRegistry,
+			@Value("${sns.users.identity.max-size:100000}") long maxSize,
+			@Value("${sns.users.identity.ttl-minutes:30}") long ttlMinutes) {
+		this.usersRepository = usersRepository;
+		this.identities      = newCache(maxSize, ttlMinutes);
+		this.loginIds        = newCache(maxSize, ttlMinutes);
+		this.emails          = newCache(maxSize, ttlMinutes);
+		CaffeineCacheMetrics.monitor(meterRegistry, identities, "users.identity");
+		CaffeineCacheMetrics.monitor(meterRegistry, loginIds, "users.identity.login-id");
+		CaffeineCacheMetrics.monitor(meterRegistry, emails, "users.identity.email");
+	}
+	/**
+	 * ユーザーIDで識別情報を取得する。
+	 *
+	 * @param userId ユーザーID
+	 * @return 識別情報。ユーザーが存在しない場合はnull
+	 */
+	public UserIdentity findById(UUID userId) {
+		return identities.get(userId, id -> usersRepository.findById(id)
+				.map(this::index)
+				.orElse(null));
+	}
+	/**
+	 * ログインIDまたはメールアドレスで識別情報を取得する。
+	 * UsersRepository#findByLoginIdOrEmail と同じく、ログインIDとメールアドレスのどちらかに一致するユーザーを返す。
+	 *
+	 * @param loginIdOrEmail ログインIDまたはメールアドレス
+	 * @return 識別情報。ユーザーが存在しない場合はnull
+	 */
+	public UserIdentity findByLoginIdOrEmail(String loginIdOrEmail) {
+		UUID userId = loginIds.getIfPresent(loginIdOrEmail);
+		if (userId == null) userId = emails.getIfPresent(loginIdOrEmail);
+		if (userId != null) {
+			UserIdentity identity = identities.getIfPresent(userId);
+			if (identity != null) return identity;
+		}
+		UserIdentity identity = usersRepository.findByLoginIdOrEmail(loginIdOrEmail, loginIdOrEmail)
+				.map(this::index)
+				.orElse(null);
+		if (identity != null) identities.put(identity.userId(), identity);
+		return identity;
+	}
+	/**
+	 * 指定したユーザーIDのうち、存在するものを返す。
+	 * キャッシュにあるユーザーは存在するものとし、残りだけをまとめてDBで確認する。
+	 *
+	 * @param userIds ユーザーIDのリスト
+	 * @return 存在するユーザーIDの集合
+	 */
+	public Set<UUID> findExistingUserIds(Collection<UUID> userIds) {
+		Set<UUID> existing = new HashSet<>();
+		List<UUID> unknown = userIds.stream()
+				.filter(userId -> {
+					if (identities.getIfPresent(userId) == null) return true;
+					existing.add(userId);
+					return false;
+				})
+				.toList();
+		if (!unknown.isEmpty()) existing.addAll(usersRepository.findExistingUserIds(unknown));
+		return existing;
+	}
+	/**
+	 * 指定したユーザーの識別情報を破棄する。
+	 * トランザクション内で呼び出した場合はコミット後に破棄する（コミット前の読み込みで古い情報が戻るのを防ぐ）。
+	 *
+	 * @param userId ユーザーID
+	 */
+	public void invalidate(UUID userId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict(userId);
+				}
+			});
+		} else {
+			evict(userId);
+		}
+	}
+	/**
+	 * ユーザー登録のコミット後に、登録したユーザーとそのログインIDのエントリを破棄する。
+	 *
+	 * @param event ユーザー登録イベント
+	 */
+	@TransactionalEventListener
+	public void onUserRegistered(UserRegisteredEvent event) {
+		evict(event.getUserId());
+		loginIds.invalidate(event.getLoginId());
+	}
+
+	//-- 以下privateメソッド --//
+
+	private static <K, V> Cache<K, V> newCache(long maxSize, long ttlMinutes) {
+		return Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+				.recordStats()
+				.build();
+	}
+	/**
+	 * エンティティから識別情報を作り、ログインID・メールアドレスの索引に登録する。
+	 *
+	 * @param user ユーザーエンティティ
+	 * @return 識別情報
+	 */
+	private UserIdentity index(Users user) {
+		UserIdentity identity = new UserIdentity(user.getUserId(), user.getLoginId(), user.getEmail(), user.getUserName());
+		loginIds.put(identity.loginId(), identity.userId());
+		emails.put(identity.email(), identity.userId());
+		return identity;
+	}
+	private void evict(UUID userId) {
+		UserIdentity identity = identities.getIfPresent(userId);
+		identities.invalidate(userId);
+		if (identity == null) return;
+		loginIds.invalidate(identity.loginId());
+		emails.invalidate(identity.email());
+	}
+}
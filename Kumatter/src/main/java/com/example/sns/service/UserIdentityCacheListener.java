@@ -0,0 +1,35 @@
+package com.example.sns.service;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.example.sns.entity.Users;
+
+/**
+ * Usersエンティティの更新・削除を検知し、ユーザー識別情報のキャッシュ（UserIdentityCache）から破棄するJPAエンティティリスナー。
+ * JPA経由の変更であれば、変更箇所に関わらずキャッシュが古いままにならない。
+ * インスタンスはSpringのBeanコンテナから生成される（Spring BootのHibernate設定）。
+ * EntityManagerFactoryの初期化中に生成されるため、キャッシュ（UsersRepositoryに依存する）は使用時に取得する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public class UserIdentityCacheListener {
+	private final ObjectProvider<UserIdentityCache> userIdentityCache;
+
+	public UserIdentityCacheListener(ObjectProvider<UserIdentityCache> userIdentityCache) {
+		this.userIdentityCache = userIdentityCache;
+	}
+	/**
+	 * 更新・削除したユーザーの識別情報を、コミット後に破棄する。
+	 *
+	 * @param user 更新・削除したユーザー
+	 */
+	@PostUpdate
+	@PostRemove
+	public void onChanged(Users user) {
+		userIdentityCache.getObject().invalidate(user.getUserId());
+	}
+}
@@ -0,0 +1,197 @@
+package com.example.sns.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sns.dto.RecommendationCandidate;
+import com.example.sns.dto.Relationship;
+import com.example.sns.dto.UserRecommendationDto;
+import com.example.sns.entity.Users;
+import com.example.sns.event.FollowChangedEvent;
+import com.example.sns.repository.UsersRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * おすすめユーザー（フォローしているユーザーがフォローしているユーザー）を提供するサービスクラス。
+ *
+ * - 候補は FollowGraphService のメモリ上のグラフから、共通のつながりの多い順に上位K件を求める
+ * - 求めた候補はユーザーごとにメモリに保持し、画面表示のたびに2ホップの集計を行わない
+ * - 一定時間内に参照したユーザーを「アクティブ」とみなし、定期ジョブで並列（fork/join）に再計算する
+ * - フォロー変更時は、フォローした相手を即座に候補から外し、短い間隔のジョブで再計算する
+ * - 一定時間参照されないユーザーの候補は破棄する
+ *
+ * 保持するユーザー数の上限を超えた場合は古い候補から追い出し、次回の参照時に計算し直す。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class UserRecommendationService {
+	private static final Logger logger = LoggerFactory.getLogger(UserRecommendationService.class);
+	private final FollowGraphService followGraphService;
+	private final UsersRepository usersRepository;
+	/** ユーザーIDごとの候補 */
+	private final Cache<UUID, Entry> entries;
+	/** 再計算用のスレッドプール */
+	private final ForkJoinPool pool;
+	/** ユーザーごとに保持する候補の件数 */
+	private final int topK;
+	/** 1ユーザーの計算で走査するフォロー関係の数の上限 */
+	private final int maxScan;
+	/** この時間参照されない候補は破棄する（ミリ秒） */
+	private final long idleMs;
+
+	public UserRecommendationService(
+			FollowGraphService followGraphService,
+			UsersRepository usersRepository,
+			MeterRegistry meterRegistry,
+			@Value("${sns.users.recommendations.top-k:20}") int topK,
+			@Value("${sns.users.recommendations.max-scan:200000}") int maxScan,
+			@Value("${sns.users.recommendations.max-users:100000}") long maxUsers,
+			@Value("${sns.users.recommendations.idle-minutes:60}") long idleMinutes,
+			@Value("${sns.users.recommendations.parallelism:0}") int parallelism) {
+		this.followGraphService = followGraphService;
+		this.usersRepository    = usersRepository;
+		this.topK               = topK;
+		this.maxScan            = maxScan;
+		this.idleMs             = TimeUnit.MINUTES.toMillis(idleMinutes);
+		this.pool               = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+		this.entries = Caffeine.newBuilder()
+				.maximumSize(maxUsers)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, entries, "users.recommendations");
+	}
+	/**
+	 * 指定ユーザーへのおすすめユーザーを返す。
+	 * 保持している候補が無い場合はこの場で計算する。
+	 *
+	 * @param userId ログインユーザーのID
+	 * @param limit 返す件数の上限
+	 * @return おすすめユーザーのリスト（共通のつながりの多い順）
+	 */
+	public List<UserRecommendationDto> recommend(UUID userId, int limit) {
+		Entry entry = entries.get(userId, id -> new Entry(compute(id)));
+		entry.lastAccessMs = System.currentTimeMillis();
+		List<RecommendationCandidate> candidates = entry.candidates;
+		candidates = candidates.subList(0, Math.min(limit, candidates.size()));
+		if (candidates.isEmpty()) return new ArrayList<>();
+
+		Map<UUID, Users> users = usersRepository.findAllById(
+				candidates.stream().map(RecommendationCandidate::userId).toList()).stream()
+				.collect(Collectors.toMap(Users::getUserId, Function.identity()));
+		Map<UUID, Relationship> relationships = followGraphService.findRelationships(userId, users.keySet());
+		List<UserRecommendationDto> result = new ArrayList<>(candidates.size());
+		for (RecommendationCandidate candidate : candidates) {
+			Users user = users.get(candidate.userId());
+			if (user == null) continue;
+			result.add(new UserRecommendationDto(
+					user.getUserId(),
+					user.getUserName(),
+					user.getLoginId(),
+					candidate.mutualCount(),
+					relationships.get(user.getUserId()).followedBy()));
+		}
+		return result;
+	}
+	/**
+	 * フォロー変更のコミット後（フォローグラフの更新後）、フォローした側の候補を更新対象にする。
+	 * フォローした相手は再計算を待たずに候補から外す。
+	 *
+	 * @param event フォロー変更イベント
+	 */
+	@TransactionalEventListener
+	public void onFollowChanged(FollowChangedEvent event) {
+		Entry entry = entries.getIfPresent(event.getFollowerId());
+		if (entry == null) return;
+		if (event.isFollowing()) {
+			entry.candidates = entry.candidates.stream()
+					.filter(candidate -> !candidate.userId().equals(event.getFolloweeId()))
+					.toList();
+		}
+		entry.dirty = true;
+	}
+	/**
+	 * フォロー変更のあったユーザーの候補を再計算する。
+	 */
+	@Scheduled(fixedDelayString = "${sns.users.recommendations.dirty-refresh-ms:5000}")
+	public void refreshChanged() {
+		refresh(entry -> entry.dirty);
+	}
+	/**
+	 * 一定時間参照されていないユーザーの候補を破棄し、残り（アクティブなユーザー）の候補をすべて再計算する。
+	 */
+	@Scheduled(fixedDelayString = "${sns.users.recommendations.refresh-interval-ms:600000}",
+			initialDelayString = "${sns.users.recommendations.refresh-interval-ms:600000}")
+	public void refreshActive() {
+		long idleBefore = System.currentTimeMillis() - idleMs;
+		entries.asMap().values().removeIf(entry -> entry.lastAccessMs < idleBefore);
+		long start = System.currentTimeMillis();
+		int refreshed = refresh(entry -> true);
+		logger.info("おすすめユーザーを再計算しました: ユーザー {} 件, {} ms", refreshed, System.currentTimeMillis() - start);
+	}
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 条件に合うユーザーの候補を、専用のスレッドプールで並列に再計算する。
+	 *
+	 * @param filter 再計算の対象とする条件
+	 * @return 再計算したユーザー数
+	 */
+	private int refresh(Predicate<Entry> filter) {
+		List<Map.Entry<UUID, Entry>> targets = entries.asMap().entrySet().stream()
+				.filter(target -> filter.test(target.getValue()))
+				.toList();
+		if (targets.isEmpty()) return 0;
+		pool.submit(() -> targets.parallelStream().forEach(target -> {
+			// 計算中のフォロー変更で再び更新対象になるよう、計算の前に印を外す
+			target.getValue().dirty = false;
+			target.getValue().candidates = compute(target.getKey());
+		})).join();
+		return targets.size();
+	}
+	private List<RecommendationCandidate> compute(UUID userId) {
+		return List.copyOf(followGraphService.findFriendsOfFriends(userId, topK, maxScan));
+	}
+
+	/**
+	 * ユーザーごとの候補と、参照・更新の状態。
+	 */
+	private static final class Entry {
+		/** 候補（共通のつながりの多い順。差し替えのみ行い、中身は変更しない） */
+		volatile List<RecommendationCandidate> candidates;
+		/** 最後に参照した時刻（ミリ秒） */
+		volatile long lastAccessMs = System.currentTimeMillis();
+		/** フォロー変更により再計算が必要かどうか */
+		volatile boolean dirty;
+
+		Entry(List<RecommendationCandidate> candidates) {
+			this.candidates = candidates;
+		}
+	}
+}
@@ -0,0 +1,398 @@
+package com.example.sns.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.dto.UserSearchHit;
+import com.example.sns.event.UserRegisteredEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * ユーザー名・ログインIDの部分一致検索（予測検索）のための索引をメモリ上に保持するサービスクラス。
+ *
+ * - ログインID・ユーザー名を正規化（NFKC・小文字化）し、文字単位の2-gram・3-gramの転置リストを持つ
+ *   （単語の区切りが無い日本語の名前でも部分一致で検索できる）
+ * - ログインIDは正規化後の文字列の順序付きマップにも登録し、前方一致を範囲検索で求める
+ * - 起動時に users テーブルをストリーミングで読み込んで構築し、ユーザー登録のコミット後に
+ *   UserRegisteredEvent を受けて追加する
+ * - 候補は「一致の質（完全一致 → 前方一致 → 部分一致）」「フォロワー数」の順に並べる
+ *
+ * 1回の検索で走査する候補の数は max-scan で打ち切るため、検索時間はユーザー数に比例しない。
+ * 打ち切った場合の部分一致の候補は、新しく登録されたユーザーが優先される。
+ * メモリ上の状態はこのインスタンスでの登録のみを反映するため、単一インスタンスでの運用を前提とする。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class UserSearchIndex {
+	private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+	/** 読み込み時のフェッチサイズ */
+	private static final int FETCH_SIZE = 10_000;
+	/** 索引に登録するn-gramの最小・最大の長さ（文字数） */
+	private static final int MIN_GRAM = 2;
+	private static final int MAX_GRAM = 3;
+	/** 一致の質（値が小さいほど上位） */
+	private static final int LOGIN_ID_EXACT = 0;
+	private static final int LOGIN_ID_PREFIX = 1;
+	private static final int USER_NAME_EXACT = 2;
+	private static final int USER_NAME_PREFIX = 3;
+	private static final int CONTAINS = 4;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final FollowGraphService followGraphService;
+	/** 1回の検索で走査する候補の数の上限 */
+	private final int maxScan;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** UUID → int ID */
+	private final Map<UUID, Integer> idsByUuid = new HashMap<>();
+	/** n-gram → そのn-gramを含むユーザーのint ID（昇順） */
+	private final Map<String, Postings> postings = new HashMap<>();
+	/** 正規化したログインID → int ID（前方一致の範囲検索用） */
+	private final TreeMap<String, Integer> loginIds = new TreeMap<>();
+	/** int ID ごとのユーザー情報 */
+	private UUID[] uuids = new UUID[1024];
+	private String[] rawLoginIds = new String[1024];
+	private String[] rawUserNames = new String[1024];
+	/** int ID ごとの正規化したログインID・ユーザー名（一致の判定用） */
+	private String[] normalizedLoginIds = new String[1024];
+	private String[] normalizedUserNames = new String[1024];
+	/** 割り当て済みのint IDの数 */
+	private int size;
+
+	public UserSearchIndex(
+			JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			FollowGraphService followGraphService,
+			MeterRegistry meterRegistry,
+			@Value("${sns.users.suggest.max-scan:5000}") int maxScan) {
+		this.jdbcTemplate        = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.followGraphService  = followGraphService;
+		this.maxScan             = maxScan;
+		Gauge.builder("users.search.index.users", this, index -> index.userCount())
+				.description("ユーザー検索の索引に登録されたユーザー数")
+				.register(meterRegistry);
+		Gauge.builder("users.search.index.grams", this, index -> index.gramCount())
+				.description("ユーザー検索の索引のn-gramの種類数")
+				.register(meterRegistry);
+	}
+	/**
+	 * users テーブルをストリーミングで読み込み、索引を構築する。
+	 */
+	@PostConstruct
+	public void load() {
+		long start = System.currentTimeMillis();
+		JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+		streaming.setFetchSize(FETCH_SIZE);
+		lock.writeLock().lock();
+		try {
+			transactionTemplate.executeWithoutResult(status ->
+					streaming.query("SELECT user_id, login_id, user_name FROM users ORDER BY created_at", rs -> {
+						add(rs.getObject("user_id", UUID.class), rs.getString("login_id"), rs.getString("user_name"));
+					}));
+		} finally {
+			lock.writeLock().unlock();
+		}
+		logger.info("ユーザー検索の索引を構築しました: ユーザー {} 件, n-gram {} 種類, {} ms",
+				userCount(), gramCount(), System.currentTimeMillis() - start);
+	}
+	/**
+	 * ログインIDまたはユーザー名に検索語を含むユーザーを、一致の質とフォロワー数の順に返す。
+	 *
+	 * @param query 検索語（正規化後に2文字以上）
+	 * @param limit 最大件数
+	 * @return 候補のリスト（上位から順）
+	 */
+	public List<UserSearchHit> search(String query, int limit) {
+		return searchCandidates(query, limit).candidates().stream()
+				.map(Candidate::hit)
+				.toList();
+	}
+	/**
+	 * 検索語に一致する候補を、一致の質とフォロワー数の順に最大 maxCandidates 件返す。
+	 * 走査の打ち切りや件数の上限により一致するユーザーの一部しか含まない場合は、不完全な結果とする。
+	 * 完全な結果は、この検索語で始まるより長い検索語の候補を {@link #rank} で絞り込むことに使える。
+	 *
+	 * @param query 検索語（正規化後に2文字以上）
+	 * @param maxCandidates 最大件数
+	 * @return 検索結果
+	 */
+	public Result searchCandidates(String query, int maxCandidates) {
+		String normalized = normalize(query);
+		if (normalized.codePointCount(0, normalized.length()) < MIN_GRAM) {
+			// 短すぎる検索語は検索しない（延ばした検索語の絞り込みに使われないよう、不完全な結果とする）
+			return new Result(List.of(), false);
+		}
+		List<Candidate> candidates = new ArrayList<>();
+		boolean complete;
+		lock.readLock().lock();
+		try {
+			Set<Integer> ids = new LinkedHashSet<>();
+			boolean prefixComplete = collectLoginIdPrefix(normalized, ids);
+			boolean containingComplete = collectContaining(normalized, ids);
+			complete = prefixComplete && containingComplete;
+			for (int id : ids) {
+				candidates.add(new Candidate(new UserSearchHit(uuids[id], rawLoginIds[id], rawUserNames[id]),
+						normalizedLoginIds[id], normalizedUserNames[id], 0));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		// フォロワー数はフォローグラフから取得する（索引のロックの外で行う）
+		List<Candidate> ranked = rank(candidates.stream()
+				.map(candidate -> candidate.withFollowerCount(followGraphService.countFollowers(candidate.hit().userId())))
+				.toList(), normalized);
+		if (ranked.size() > maxCandidates) return new Result(ranked.subList(0, maxCandidates), false);
+		return new Result(ranked, complete);
+	}
+	/**
+	 * 候補のうち検索語に一致するものを、一致の質・フォロワー数・ログインIDの順に並べて返す。
+	 *
+	 * @param candidates 候補
+	 * @param normalized 正規化した検索語
+	 * @return 並べ替えた候補のリスト
+	 */
+	public static List<Candidate> rank(Collection<Candidate> candidates, String normalized) {
+		return candidates.stream()
+				.filter(candidate -> candidate.matches(normalized))
+				.sorted(Comparator.comparingInt((Candidate candidate) -> candidate.quality(normalized))
+						.thenComparing(Comparator.comparingInt(Candidate::followerCount).reversed())
+						.thenComparing(candidate -> candidate.hit().loginId()))
+				.toList();
+	}
+	/**
+	 * 検索用に文字列を正規化する（全角英数字・半角カナの統一、小文字化）。
+	 *
+	 * @param text 文字列（nullの場合は空文字として扱う）
+	 * @return 正規化した文字列
+	 */
+	public static String normalize(String text) {
+		if (text == null) return "";
+		return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+	}
+	/**
+	 * ユーザー登録のコミット後に、登録されたユーザーを索引に追加する。
+	 *
+	 * @param event ユーザー登録イベント
+	 */
+	@TransactionalEventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onUserRegistered(UserRegisteredEvent event) {
+		lock.writeLock().lock();
+		try {
+			add(event.getUserId(), event.getLoginId(), event.getUserName());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	private int userCount() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	private int gramCount() {
+		lock.readLock().lock();
+		try {
+			return postings.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * ログインIDが検索語で始まるユーザーのint IDを追加する。走査は max-scan 件で打ち切る。
+	 * 読み取りロックを取得した状態で呼び出す。
+	 *
+	 * @param normalized 正規化した検索語
+	 * @param ids 追加先
+	 * @return 該当するユーザーをすべて追加した場合はtrue（打ち切った場合はfalse）
+	 */
+	private boolean collectLoginIdPrefix(String normalized, Set<Integer> ids) {
+		int scanned = 0;
+		for (int id : loginIds.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+			if (scanned++ >= maxScan) return false;
+			ids.add(id);
+		}
+		return true;
+	}
+	/**
+	 * 検索語を含む（正規化後のログインIDまたはユーザー名に部分一致する）ユーザーのint IDを新しい順に追加する。
+	 * 検索語のn-gramの転置リストのうち最も短いものを走査し、他のリストとの共通部分を二分探索で求めた上で、
+	 * n-gramの並びの違いによる誤一致を文字列の比較で除く。走査は max-scan 件で打ち切る。
+	 * 読み取りロックを取得した状態で呼び出す。
+	 *
+	 * @param normalized 正規化した検索語
+	 * @param ids 追加先
+	 * @return 該当するユーザーをすべて追加した場合はtrue（打ち切った場合はfalse）
+	 */
+	private boolean collectContaining(String normalized, Set<Integer> ids) {
+		int gramLength = Math.min(MAX_GRAM, normalized.codePointCount(0, normalized.length()));
+		List<Postings> lists = new ArrayList<>();
+		for (String gram : grams(normalized, gramLength)) {
+			Postings list = postings.get(gram);
+			if (list == null) return true;
+			lists.add(list);
+		}
+		lists.sort(Comparator.comparingInt(list -> list.count));
+		Postings shortest = lists.get(0);
+		int scanned = 0;
+		for (int i = shortest.count - 1; i >= 0; i--) {
+			if (scanned++ >= maxScan) return false;
+			int id = shortest.ids[i];
+			boolean inAll = true;
+			for (int j = 1; j < lists.size() && inAll; j++) {
+				inAll = Arrays.binarySearch(lists.get(j).ids, 0, lists.get(j).count, id) >= 0;
+			}
+			if (inAll && (normalizedLoginIds[id].contains(normalized) || normalizedUserNames[id].contains(normalized))) {
+				ids.add(id);
+			}
+		}
+		return true;
+	}
+	/**
+	 * ユーザーを索引に追加する。登録済みの場合は何もしない。
+	 * 書き込みロックを取得した状態で呼び出す。
+	 *
+	 * @param userId ユーザーID
+	 * @param loginId ログインID
+	 * @param userName ユーザー名
+	 */
+	private void add(UUID userId, String loginId, String userName) {
+		if (idsByUuid.containsKey(userId)) return;
+		if (size == uuids.length) {
+			int capacity = size * 2;
+			uuids               = Arrays.copyOf(uuids, capacity);
+			rawLoginIds         = Arrays.copyOf(rawLoginIds, capacity);
+			rawUserNames        = Arrays.copyOf(rawUserNames, capacity);
+			normalizedLoginIds  = Arrays.copyOf(normalizedLoginIds, capacity);
+			normalizedUserNames = Arrays.copyOf(normalizedUserNames, capacity);
+		}
+		int id = size++;
+		uuids[id]               = userId;
+		rawLoginIds[id]         = loginId;
+		rawUserNames[id]        = userName;
+		normalizedLoginIds[id]  = normalize(loginId);
+		normalizedUserNames[id] = normalize(userName);
+		idsByUuid.put(userId, id);
+		loginIds.put(normalizedLoginIds[id], id);
+		// int IDは昇順に割り当てるため、転置リストへは末尾に追加するだけでソート順が保たれる
+		Set<String> userGrams = new HashSet<>();
+		for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+			userGrams.addAll(grams(normalizedLoginIds[id], n));
+			userGrams.addAll(grams(normalizedUserNames[id], n));
+		}
+		for (String gram : userGrams) {
+			postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+		}
+	}
+	/**
+	 * 文字列の長さnのn-gram（サロゲートペアを1文字として数える）を返す。
+	 *
+	 * @param text 文字列
+	 * @param n n-gramの長さ
+	 * @return n-gramのリスト（文字列がn文字未満の場合は空）
+	 */
+	private static List<String> grams(String text, int n) {
+		int[] codePoints = text.codePoints().toArray();
+		List<String> result = new ArrayList<>();
+		for (int i = 0; i + n <= codePoints.length; i++) {
+			result.add(new String(codePoints, i, n));
+		}
+		return result;
+	}
+	/**
+	 * n-gramの転置リスト。ids の先頭 count 件が有効で、昇順に並ぶ。
+	 */
+	private static final class Postings {
+		private int[] ids = new int[4];
+		private int count;
+
+		private void add(int id) {
+			if (count == ids.length) {
+				ids = Arrays.copyOf(ids, count + (count >> 1));
+			}
+			ids[count++] = id;
+		}
+	}
+
+	/**
+	 * 検索の候補。一致の判定・一致の質の計算に使う正規化済みの文字列を合わせて持つ。
+	 *
+	 * @param hit 候補のユーザー
+	 * @param normalizedLoginId 正規化したログインID
+	 * @param normalizedUserName 正規化したユーザー名
+	 * @param followerCount フォロワー数
+	 */
+	public record Candidate(UserSearchHit hit, String normalizedLoginId, String normalizedUserName, int followerCount) {
+		/**
+		 * ログインIDまたはユーザー名が検索語を含むかどうかを判定する。
+		 *
+		 * @param normalized 正規化した検索語
+		 * @return 含む場合はtrue
+		 */
+		public boolean matches(String normalized) {
+			return normalizedLoginId.contains(normalized) || normalizedUserName.contains(normalized);
+		}
+		/**
+		 * 検索語に対する一致の質を返す（完全一致 → 前方一致 → 部分一致の順に上位）。
+		 *
+		 * @param normalized 正規化した検索語
+		 * @return 一致の質（値が小さいほど上位）
+		 */
+		public int quality(String normalized) {
+			if (normalizedLoginId.equals(normalized)) return LOGIN_ID_EXACT;
+			if (normalizedLoginId.startsWith(normalized)) return LOGIN_ID_PREFIX;
+			if (normalizedUserName.equals(normalized)) return USER_NAME_EXACT;
+			if (normalizedUserName.startsWith(normalized)) return USER_NAME_PREFIX;
+			return CONTAINS;
+		}
+		private Candidate withFollowerCount(int count) {
+			return new Candidate(hit, normalizedLoginId, normalizedUserName, count);
+		}
+	}
+
+	/**
+	 * 検索結果。
+	 *
+	 * @param candidates 候補（上位から順）
+	 * @param complete 検索語に一致するユーザーをすべて含む場合はtrue
+	 */
+	public record Result(List<Candidate> candidates, boolean complete) {
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.sns.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.repository.UserStatsRepository;
+
+/**
+ * ユーザーごとの件数（user_stats）を posts / follows / likes の実件数と照合し、
+ * ずれを修正する定期ジョブ。
+ *
+ * 件数は各操作と同じトランザクションで更新されるため通常はずれないが、
+ * 手作業でのデータ修正などで生じたずれをここで修復する。
+ * 行の無いユーザー（件数の更新が一度も無いユーザー）の行もここで作成する。
+ *
+ * - 1回の実行で照合するユーザー数に上限を設け、ユーザーIDの順に前回の続きから照合する
+ *   （最後まで進んだら先頭に戻る）。全ユーザーは複数回の実行で一巡する
+ * - 一定件数ずつ短いトランザクションで照合する
+ * - 照合では先に件数の行をロックしてから実件数を数える。照合中の操作はロックの解放を待ってから
+ *   修正後の件数へ加減算するため、照合が操作の加減算を上書きすることはない
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+public class UserStatsReconciler {
+	private static final Logger logger = LoggerFactory.getLogger(UserStatsReconciler.class);
+	/** ユーザーIDの走査の起点（最小のUUID） */
+	private static final UUID MIN_ID = new UUID(0L, 0L);
+	private final UserStatsRepository userStatsRepository;
+	private final TransactionTemplate transactionTemplate;
+	/** 1トランザクションで照合するユーザー数 */
+	private final int batchSize;
+	/** 1回の実行で照合するトランザクション数の上限 */
+	private final int batchesPerRun;
+	/** 前回の実行で最後に照合したユーザーID（次回はこの続きから照合する） */
+	private UUID cursor = MIN_ID;
+
+	public UserStatsReconciler(
+			UserStatsRepository userStatsRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${sns.users.stats.reconcile.batch-size:500}") int batchSize,
+			@Value("${sns.users.stats.reconcile.batches-per-run:10}") int batchesPerRun) {
+		this.userStatsRepository = userStatsRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize           = batchSize;
+		this.batchesPerRun       = batchesPerRun;
+	}
+	/**
+	 * 前回の続きから、上限の件数までユーザーの件数を照合・修正する。
+	 */
+	@Scheduled(fixedDelayString = "${sns.users.stats.reconcile.interval-ms:3600000}",
+			initialDelayString = "${sns.users.stats.reconcile.interval-ms:3600000}")
+	public void reconcile() {
+		int repaired = 0;
+		int checked = 0;
+		for (int i = 0; i < batchesPerRun; i++) {
+			List<UUID> userIds = userStatsRepository.findUserIdsAfter(cursor, batchSize);
+			if (userIds.isEmpty()) {
+				cursor = MIN_ID;
+				break;
+			}
+			repaired += reconcileBatch(userIds);
+			checked += userIds.size();
+			cursor = userIds.size() < batchSize ? MIN_ID : userIds.get(userIds.size() - 1);
+			if (cursor.equals(MIN_ID)) break;
+		}
+		if (repaired > 0) {
+			logger.warn("ユーザー件数のずれを修正しました: {} 件 (照合 {} 件)", repaired, checked);
+		} else {
+			logger.info("ユーザー件数の照合完了: ずれなし (照合 {} 件)", checked);
+		}
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 1区切り分のユーザーを、件数の行をロックしてから照合する。
+	 *
+	 * @param userIds ユーザーIDのリスト（ID昇順）
+	 * @return 修正したユーザー数
+	 */
+	private int reconcileBatch(List<UUID> userIds) {
+		return transactionTemplate.execute(status -> {
+			userStatsRepository.insertMissingStats(userIds);
+			List<UUID> locked = userStatsRepository.lockStats(userIds);
+			return locked.isEmpty() ? 0 : userStatsRepository.reconcileStats(locked);
+		});
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.sns.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sns.dto.UserSearchHit;
+import com.example.sns.event.UserRegisteredEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * ユーザー予測検索の候補を、正規化した検索語ごとにキャッシュするコンポーネント。
+ * 入力のたびに送られる検索（users_suggest.js）と、多くのユーザーが同じ名前を検索する状況に対応する。
+ *
+ * - 同じ検索語の同時の要求は1回の検索にまとめ、他の要求はその結果を待って共有する（Caffeineの読み込み）
+ * - 候補は閲覧ユーザーに依存しない形（フォロー状態を含まない）で保持し、フォロー状態は呼び出し側で付ける
+ * - 検索語を延ばした要求は、短い検索語の完全な結果（一致するユーザーをすべて含む結果）がキャッシュにあれば、
+ *   索引を検索せずにその候補を絞り込んで求める
+ * - 有効期間（TTL）と件数の上限（LRUに近い方式）で破棄し、ユーザー登録のコミット後はすべて破棄する
+ *
+ * フォロワー数による順位は有効期間の間は更新されない。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+public class UserSuggestCache {
+	private final UserSearchIndex userSearchIndex;
+	/** 正規化した検索語 → 検索結果 */
+	private final Cache<String, UserSearchIndex.Result> results;
+	/** 検索語1つあたりに保持する候補の数の上限 */
+	private final int maxCandidates;
+	/** 短い検索語の結果の絞り込みで応答した回数 */
+	private final Counter prefixHits;
+
+	public UserSuggestCache(
+			UserSearchIndex userSearchIndex,
+			MeterRegistry meterRegistry,
+			@Value("${sns.users.suggest.cache.ttl-seconds:30}") long ttlSeconds,
+			@Value("${sns.users.suggest.cache.max-entries:10000}") long maxEntries,
+			@Value("${sns.users.suggest.cache.max-candidates:200}") int maxCandidates) {
+		this.userSearchIndex = userSearchIndex;
+		this.maxCandidates   = maxCandidates;
+		this.results         = Caffeine.newBuilder()
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.maximumSize(maxEntries)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, results, "users.suggest");
+		this.prefixHits      = Counter.builder("users.suggest.prefix.hits")
+				.description("短い検索語の結果の絞り込みで応答した回数")
+				.register(meterRegistry);
+	}
+	/**
+	 * 検索語に一致するユーザーを、一致の質とフォロワー数の順に返す。
+	 *
+	 * @param query 検索語
+	 * @param limit 最大件数
+	 * @return 候補のリスト（上位から順）
+	 */
+	public List<UserSearchHit> find(String query, int limit) {
+		String normalized = UserSearchIndex.normalize(query);
+		return results.get(normalized, this::load).candidates().stream()
+				.limit(limit)
+				.map(UserSearchIndex.Candidate::hit)
+				.toList();
+	}
+	/**
+	 * ユーザー登録のコミット後に、キャッシュした候補をすべて破棄する。
+	 * 索引への追加（UserSearchIndex）の後に実行する。
+	 *
+	 * @param event ユーザー登録イベント
+	 */
+	@TransactionalEventListener
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void onUserRegistered(UserRegisteredEvent event) {
+		results.invalidateAll();
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 検索語の候補を求める。短い検索語（1文字ずつ削ったもの）の完全な結果がキャッシュにあれば絞り込み、
+	 * 無ければ索引を検索する。
+	 *
+	 * @param normalized 正規化した検索語
+	 * @return 検索結果
+	 */
+	private UserSearchIndex.Result load(String normalized) {
+		int end = normalized.length();
+		while (end > 0) {
+			end = normalized.offsetByCodePoints(end, -1);
+			UserSearchIndex.Result prefix = results.getIfPresent(normalized.substring(0, end));
+			if (prefix != null && prefix.complete()) {
+				prefixHits.increment();
+				// 短い検索語に一致しないユーザーは、延ばした検索語にも一致しないため、絞り込みで完全な結果になる
+				return new UserSearchIndex.Result(UserSearchIndex.rank(prefix.candidates(), normalized), true);
+			}
+		}
+		return userSearchIndex.searchCandidates(normalized, maxCandidates);
+	}
+}
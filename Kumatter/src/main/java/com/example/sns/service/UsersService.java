@@ -1,23 +1,26 @@
 package com.example.sns.service;
 import java.time.LocalDateTime;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.sns.dto.Relationship;
+import com.example.sns.dto.UserIdentity;
 import com.example.sns.dto.UserProfileDto;
+import com.example.sns.dto.UserSearchHit;
 import com.example.sns.dto.UserSuggestDto;
 import com.example.sns.entity.Users;
-import com.example.sns.repository.FollowsRepository;
-import com.example.sns.repository.LikesRepository;
-import com.example.sns.repository.PostsRepository;
+import com.example.sns.event.UserRegisteredEvent;
+import com.example.sns.repository.UserStatsRepository;
 import com.example.sns.repository.UsersRepository;
 /**
  * ユーザー登録・認証に関するビジネスロジックを担当するサービスクラス。
@@ -28,11 +31,15 @@ import com.example.sns.repository.UsersRepository;
  */
 @Service
 public class UsersService {
+	/** 予測検索で返す候補の最大件数 */
+	private static final int SUGGEST_LIMIT = 10;
 	private final UsersRepository usersRepository;
-	private final FollowsRepository followsRepository;
-	private final LikesRepository likesRepository;
-	private final PostsRepository postsRepository;
+	private final FollowGraphService followGraphService;
+	private final UserSuggestCache userSuggestCache;
+	private final UserIdentityCache userIdentityCache;
+	private final UserStatsRepository userStatsRepository;
 	private final PasswordEncoder passwordEncoder;
+	private final ApplicationEventPublisher eventPublisher;
 	private static final Logger logger = LoggerFactory.getLogger(UsersService.class);
 	/**
 	 * コンストラクタによる依存性注入。
@@ -42,15 +49,19 @@ public class UsersService {
 	 */
 	public UsersService(
 			UsersRepository usersRepository,
-			FollowsRepository followsRepository,
-			LikesRepository likesRepository,
-			PostsRepository postsRepository,
-			PasswordEncoder passwordEncoder) {
-		this.usersRepository   = usersRepository;
-		this.followsRepository = followsRepository;
-		this.likesRepository   = likesRepository;
-		this.passwordEncoder   = passwordEncoder;
-		this.postsRepository    = postsRepository;
+			FollowGraphService followGraphService,
+			UserSuggestCache userSuggestCache,
+			UserIdentityCache userIdentityCache,
+			UserStatsRepository userStatsRepository,
+			PasswordEncoder passwordEncoder,
+			ApplicationEventPublisher eventPublisher) {
+		this.usersRepository     = usersRepository;
+		this.followGraphService  = followGraphService;
+		this.userSuggestCache    = userSuggestCache;
+		this.userIdentityCache   = userIdentityCache;
+		this.userStatsRepository = userStatsRepository;
+		this.passwordEncoder     = passwordEncoder;
+		this.eventPublisher      = eventPublisher;
 	}
 
 	/**
@@ -65,6 +76,7 @@ public class UsersService {
 	 * @return 登録されたユーザー情報
 	 * @throws IllegalArgumentException 既に同じemailまたはloginIdが存在する場合
 	 */
+	@Transactional
 	public Users registerUser(
 			String email,
 			String loginId,
@@ -88,7 +100,12 @@ public class UsersService {
 		user.setCreatedAt(now);
 		user.setUpdatedAt(now);
 		
-		return usersRepository.save(user);
+		Users saved = usersRepository.save(user);
+		// 件数（user_stats）の行を0件で作成しておく
+		userStatsRepository.addCounts(saved.getUserId(), 0, 0, 0, 0);
+		// コミット後にユーザー検索の索引へ追加する
+		eventPublisher.publishEvent(new UserRegisteredEvent(saved.getUserId(), saved.getLoginId(), saved.getUserName()));
+		return saved;
 	}
 	/**
 	 * ログイン認証処理。
@@ -121,37 +138,46 @@ public class UsersService {
 		return usersRepository.findByLoginIdOrEmail(loginIdOrEmail, loginIdOrEmail)
 				.orElse(null);
 	}
+	/**
+	 * ログインIDまたはメールアドレスによりユーザーの識別情報を取得します。
+	 * 識別情報はキャッシュ（UserIdentityCache）から取得し、キャッシュに無い場合のみDBへ問い合わせます。
+	 * ログインユーザーのIDだけが必要な処理（フォロー操作など）で使います。
+	 *
+	 * @param loginIdOrEmail ログインIDまたはメールアドレス
+	 * @return 一致するユーザーが存在すればUserIdentity、存在しなければnull
+	 */
+	public UserIdentity findIdentityByLoginIdOrEmail(String loginIdOrEmail) {
+		return userIdentityCache.findByLoginIdOrEmail(loginIdOrEmail);
+	}
 	/**
 	 * ユーザー名またはログインIDの部分一致によるユーザー候補を取得します。
 	 * 最大10件まで返します。
+	 * 候補はメモリ上の索引（UserSearchIndex）から、一致の質とフォロワー数の順に取得し、DBへは問い合わせません。
+	 * 候補は検索語ごとにキャッシュ（UserSuggestCache）され、同じ検索語の同時の要求は1回の検索にまとめられます。
+	 * フォロー状態はキャッシュした候補に対して、要求ごとに付けます。
+	 * フォロー状態は候補のユーザーについてのみ、フォローグラフでまとめて判定します
+	 * （ログインユーザーの全フォロー・フォロワーは読み込まない）。
 	 *
 	 * @param query 検索文字列
+	 * @param loginUserId ログインユーザーのID（未ログインの場合はnull）
 	 * @return UserSuggestDtoのリスト
 	 */
 	public List<UserSuggestDto> searchUserSuggestions(String query, UUID loginUserId) {
-		List<Users> users = usersRepository.findTop10ByLoginIdContainingIgnoreCaseOrUserNameContainingIgnoreCase(query, query);
+		List<UserSearchHit> users = userSuggestCache.find(query, SUGGEST_LIMIT);
+		Map<UUID, Relationship> relationships = followGraphService.findRelationships(
+				loginUserId, users.stream().map(UserSearchHit::userId).toList());
 
-		final Set<UUID> followedUserIds;
-		final Set<UUID> followingUserIds;
-		if (loginUserId != null) {
-		followedUserIds = new HashSet<>(followsRepository.findFolloweeIdsByFollowerId(loginUserId));
-		followingUserIds = new HashSet<>(followsRepository.findFollowerIdsByFolloweeId(loginUserId));
-		} else {
-		followedUserIds = new HashSet<>();
-		followingUserIds = new HashSet<>();
-		}
 		return users.stream()
 		.map(user -> {
-		boolean followed = followedUserIds.contains(user.getUserId()); // 自分→相手
-		boolean isSelf = loginUserId != null && loginUserId.equals(user.getUserId());
-		boolean followingLoginUser = followingUserIds.contains(user.getUserId());  // 相手→自分
+		Relationship relationship = relationships.get(user.userId());
+		boolean isSelf = loginUserId != null && loginUserId.equals(user.userId());
 		return new UserSuggestDto(
-				user.getUserId(),
-				user.getUserName(),
-				user.getLoginId(),
-				followed,
+				user.userId(),
+				user.userName(),
+				user.loginId(),
+				relationship.following(),  // 自分→相手
 				isSelf,
-				followingLoginUser
+				relationship.followedBy()  // 相手→自分
 			);
 		})
 		.collect(Collectors.toList());
@@ -160,32 +186,29 @@ public class UsersService {
 	public Users findByUserId(UUID userId) {
 		return usersRepository.findById(userId).orElse(null);
 	}
+	/**
+	 * ユーザーIDによりユーザーの識別情報を取得します。
+	 * 識別情報はキャッシュ（UserIdentityCache）から取得し、キャッシュに無い場合のみDBへ問い合わせます。
+	 * ユーザーの存在確認など、エンティティ全体が不要な処理で使います。
+	 *
+	 * @param userId ユーザーID
+	 * @return 一致するユーザーが存在すればUserIdentity、存在しなければnull
+	 */
+	public UserIdentity findIdentity(UUID userId) {
+		return userIdentityCache.findById(userId);
+	}
 	/**
 	 * 指定されたユーザーIDに対応するプロフィール情報を集約してDTOで返す。
 	 * 
 	 * - ユーザー基本情報（名前、自己紹介など）
 	 * - 投稿数、フォロー数、フォロワー数、いいね数 を含む
 	 * 
+	 * 件数は user_stats の非正規化カウンタを読むため、ユーザー情報と合わせて主キーでの1回の読み取りで済む。
+	 * 
 	 * @param userId プロフィール対象のユーザーID
 	 * @return プロフィールDTO（UserProfileDto）／ユーザーが存在しない場合は null
 	 */
 	public UserProfileDto getUserProfileDto(UUID userId) {
-		Users user = usersRepository.findById(userId).orElse(null);
-		if (user == null) return null;
-		
-		int postCount = postsRepository.countByUser_UserId(userId); // 任意：postsRepositoryでも可
-		int followingCount = followsRepository.countByFollower_UserId(userId);
-		int followerCount = followsRepository.countByFollowee_UserId(userId);
-		int likedPostCount =(int)likesRepository.countByLikes_UserId(userId);
-		
-		return new UserProfileDto(
-				user.getUserId(),
-				user.getUserName(),
-				user.getUserBio(),
-				postCount,
-				followingCount,
-				followerCount,
-				likedPostCount
-			);
+		return userStatsRepository.findProfile(userId).orElse(null);
 	}
-}
+}
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.example.sns.service.outbox;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * アウトボックス（outbox テーブル）の未配信イベントを一定間隔で取り出し、購読者（{@link OutboxSubscriber}）へ配信するジョブ。
+ *
+ * - 取り出すのは「同じ集約に先行する未配信イベントが無い」イベントだけで、集約ごとの記録順を保つ
+ *   （同じ集約の書き込みは {@link OutboxWriter} が直列化するため、event_id の順はコミットの順と一致する）
+ * - 取り出したイベントは FOR UPDATE SKIP LOCKED で行ロックし、複数インスタンスでも同じイベントを同時に配信しない
+ * - 1回のポーリングで、バッチが空になるまで（上限回数まで）取り出しを繰り返す
+ * - 購読者の呼び出しは購読者ごとに独立したトランザクションで行う
+ * - 購読者が例外をスローした場合は、試行回数に応じて間隔を空けて再配信する（指数バックオフ）
+ * - 試行回数が上限に達したイベントは、エラーを記録したまま配信済みにして後続をブロックしない
+ * - 配信済みのイベントは保持期間の経過後に削除する
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+public class OutboxDispatcher {
+	private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+	/** 1回のポーリングで取り出しを繰り返す回数の上限 */
+	private static final int MAX_ROUNDS = 10;
+	/** 再配信の間隔の上限 */
+	private static final Duration MAX_BACKOFF = Duration.ofMinutes(10);
+	/** 記録するエラーメッセージの最大長 */
+	private static final int MAX_ERROR_LENGTH = 1000;
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+	private final List<OutboxSubscriber> subscribers;
+	/** 取り出し〜配信結果の記録を行うトランザクション（取り出した行のロックを保持する） */
+	private final TransactionTemplate claimTransaction;
+	/** 購読者ごとの独立したトランザクション */
+	private final TransactionTemplate subscriberTransaction;
+	private final int batchSize;
+	private final int maxAttempts;
+	private final Duration retention;
+	private final Counter dispatchedCounter;
+	private final Counter failedCounter;
+	/** 記録から配信完了までの遅延 */
+	private final Timer lagTimer;
+
+	public OutboxDispatcher(
+			JdbcTemplate jdbcTemplate,
+			ObjectMapper objectMapper,
+			List<OutboxSubscriber> subscribers,
+			PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${sns.outbox.batch-size:100}") int batchSize,
+			@Value("${sns.outbox.max-attempts:10}") int maxAttempts,
+			@Value("${sns.outbox.retention-hours:24}") long retentionHours) {
+		this.jdbcTemplate          = jdbcTemplate;
+		this.objectMapper          = objectMapper;
+		this.subscribers           = subscribers;
+		this.claimTransaction      = new TransactionTemplate(transactionManager);
+		this.subscriberTransaction = new TransactionTemplate(transactionManager);
+		this.subscriberTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.batchSize             = batchSize;
+		this.maxAttempts           = maxAttempts;
+		this.retention             = Duration.ofHours(retentionHours);
+		this.dispatchedCounter     = Counter.builder("outbox.dispatched")
+				.description("配信に成功したイベントの数")
+				.register(meterRegistry);
+		this.failedCounter         = Counter.builder("outbox.failed")
+				.description("配信に失敗したイベントの数（再配信を含む）")
+				.register(meterRegistry);
+		this.lagTimer              = Timer.builder("outbox.lag")
+				.description("イベントの記録から配信完了までの時間")
+				.register(meterRegistry);
+		Gauge.builder("outbox.backlog", this, OutboxDispatcher::countPending)
+				.description("未配信のイベントの数")
+				.register(meterRegistry);
+		Gauge.builder("outbox.oldest.age", this, OutboxDispatcher::oldestPendingAgeSeconds)
+				.description("最も古い未配信イベントの経過時間（秒）")
+				.register(meterRegistry);
+	}
+	/**
+	 * 配信可能なイベントを取り出して購読者へ配信する。
+	 */
+	@Scheduled(fixedDelayString = "${sns.outbox.poll-interval-ms:500}")
+	public void poll() {
+		for (int round = 0; round < MAX_ROUNDS; round++) {
+			// 配信したイベントの後続（同じ集約の次のイベント）を続けて取り出す
+			int dispatched = claimTransaction.execute(status -> {
+				List<OutboxEvent> batch = claim();
+				batch.forEach(this::dispatch);
+				return batch.size();
+			});
+			if (dispatched == 0) return;
+		}
+	}
+	/**
+	 * 保持期間を過ぎた配信済みのイベントを削除する。
+	 */
+	@Scheduled(fixedDelayString = "${sns.outbox.cleanup-interval-ms:3600000}",
+			initialDelayString = "${sns.outbox.cleanup-interval-ms:3600000}")
+	public void cleanup() {
+		int deleted = jdbcTemplate.update(
+				"DELETE FROM outbox WHERE dispatched_at < now() - make_interval(secs => ?)",
+				retention.toSeconds());
+		if (deleted > 0) {
+			logger.info("配信済みのイベントを削除しました: {} 件", deleted);
+		}
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 配信可能なイベント（再配信の時刻を過ぎ、同じ集約に先行する未配信イベントが無いもの）を記録順に取り出す。
+	 * 他のインスタンスがロック中の行は読み飛ばす。先頭のイベントがロック中の集約は、
+	 * 後続のイベントも「先行する未配信イベントがある」ため取り出されない。
+	 *
+	 * @return イベント（最大 batchSize 件）
+	 */
+	private List<OutboxEvent> claim() {
+		return jdbcTemplate.query("""
+				SELECT o.event_id, o.aggregate_id, o.event_type, o.payload, o.created_at, o.attempts
+				FROM outbox o
+				WHERE o.dispatched_at IS NULL
+				  AND o.next_attempt_at <= now()
+				  AND NOT EXISTS (
+				      SELECT 1 FROM outbox p
+				      WHERE p.aggregate_id = o.aggregate_id
+				        AND p.dispatched_at IS NULL
+				        AND p.event_id < o.event_id)
+				ORDER BY o.event_id
+				LIMIT ?
+				FOR UPDATE OF o SKIP LOCKED
+				""", this::mapEvent, batchSize);
+	}
+	/**
+	 * イベントを対応する購読者へ配信し、結果を記録する。
+	 *
+	 * @param event イベント
+	 */
+	private void dispatch(OutboxEvent event) {
+		try {
+			for (OutboxSubscriber subscriber : subscribers) {
+				if (!subscriber.supports(event.getEventType())) continue;
+				subscriberTransaction.executeWithoutResult(status -> subscriber.handle(event));
+			}
+		} catch (RuntimeException e) {
+			failedCounter.increment();
+			recordFailure(event, e);
+			return;
+		}
+		jdbcTemplate.update("UPDATE outbox SET dispatched_at = now() WHERE event_id = ?", event.getEventId());
+		dispatchedCounter.increment();
+		lagTimer.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+	}
+	/**
+	 * 配信の失敗を記録する。試行回数が上限に達した場合は配信済みにして後続のイベントを流す。
+	 *
+	 * @param event イベント
+	 * @param cause 購読者がスローした例外
+	 */
+	private void recordFailure(OutboxEvent event, RuntimeException cause) {
+		int attempts = event.getAttempts() + 1;
+		String error = abbreviate(String.valueOf(cause));
+		if (attempts >= maxAttempts) {
+			logger.error("イベントの配信を断念しました: eventId={}, type={}, attempts={}",
+					event.getEventId(), event.getEventType(), attempts, cause);
+			jdbcTemplate.update(
+					"UPDATE outbox SET attempts = ?, last_error = ?, dispatched_at = now() WHERE event_id = ?",
+					attempts, error, event.getEventId());
+			return;
+		}
+		long backoffSeconds = Math.min(MAX_BACKOFF.toSeconds(), 1L << Math.min(attempts, 30));
+		logger.warn("イベントの配信に失敗しました。{} 秒後に再試行します: eventId={}, type={}",
+				backoffSeconds, event.getEventId(), event.getEventType(), cause);
+		jdbcTemplate.update("""
+				UPDATE outbox
+				SET attempts = ?, last_error = ?, next_attempt_at = now() + make_interval(secs => ?)
+				WHERE event_id = ?
+				""", attempts, error, backoffSeconds, event.getEventId());
+	}
+	/**
+	 * 未配信のイベント数を返す（メトリクスの収集時に呼ばれる）。
+	 *
+	 * @return イベント数（DBから読めない場合はNaN）
+	 */
+	private double countPending() {
+		try {
+			return jdbcTemplate.queryForObject("SELECT count(*) FROM outbox WHERE dispatched_at IS NULL", Long.class);
+		} catch (DataAccessException e) {
+			logger.warn("未配信のイベント数を取得できません", e);
+			return Double.NaN;
+		}
+	}
+	/**
+	 * 最も古い未配信イベントの経過秒数を返す（メトリクスの収集時に呼ばれる）。
+	 *
+	 * @return 経過秒数（未配信のイベントが無い場合は0、DBから読めない場合はNaN）
+	 */
+	private double oldestPendingAgeSeconds() {
+		try {
+			return jdbcTemplate.queryForObject("""
+					SELECT COALESCE(EXTRACT(EPOCH FROM now() - min(created_at)), 0)
+					FROM outbox
+					WHERE dispatched_at IS NULL
+					""", Double.class);
+		} catch (DataAccessException e) {
+			logger.warn("未配信のイベントの経過時間を取得できません", e);
+			return Double.NaN;
+		}
+	}
+	private OutboxEvent mapEvent(ResultSet rs, int rowNum) throws SQLException {
+		try {
+			return new OutboxEvent(
+					rs.getLong("event_id"),
+					rs.getObject("aggregate_id", UUID.class),
+					rs.getString("event_type"),
+					objectMapper.readTree(rs.getString("payload")),
+					rs.getTimestamp("created_at").toLocalDateTime(),
+					rs.getInt("attempts"));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("イベントの内容を読み取れません: eventId=" + rs.getLong("event_id"), e);
+		}
+	}
+	private static String abbreviate(String message) {
+		return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+	}
+}
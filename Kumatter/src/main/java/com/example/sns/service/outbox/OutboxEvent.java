@@ -0,0 +1,44 @@
+package com.example.sns.service.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * アウトボックスから配信されるドメインイベント。
+ * 内容は記録時のイベント（PostCreatedEvent 等）をJSONにしたもので、購読者はフィールド名で参照する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public class OutboxEvent {
+	/** イベントID（記録順の連番） */
+	private final long eventId;
+	/** 集約ID（イベントを発生させたユーザーのID。このIDごとに記録順に配信される） */
+	private final UUID aggregateId;
+	/** イベントの種類（{@link OutboxWriter} の定数） */
+	private final String eventType;
+	/** イベントの内容 */
+	private final JsonNode payload;
+	/** 記録日時 */
+	private final LocalDateTime createdAt;
+	/** 配信の試行回数（初回は0） */
+	private final int attempts;
+
+	/**
+	 * 内容のUUIDフィールドを返す。
+	 *
+	 * @param field フィールド名
+	 * @return UUID（フィールドが無い場合はnull）
+	 */
+	public UUID uuid(String field) {
+		JsonNode node = payload.get(field);
+		return node == null || node.isNull() ? null : UUID.fromString(node.asText());
+	}
+}
@@ -0,0 +1,29 @@
+package com.example.sns.service.outbox;
+
+/**
+ * アウトボックスのイベントを受け取る購読者。
+ * Springのビーンとして登録すると OutboxDispatcher から呼び出される。
+ *
+ * 配信は「少なくとも1回」のため、同じイベントが再配信されても結果が変わらないように実装すること。
+ * 例外をスローした場合、そのイベントは時間をおいて再配信され、
+ * 同じ集約の後続のイベントは再配信が成功するまで配信されない。
+ * 呼び出しは購読者ごとに独立したトランザクションで行われる。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public interface OutboxSubscriber {
+	/**
+	 * このイベントの種類を受け取るかどうかを返す。
+	 *
+	 * @param eventType イベントの種類
+	 * @return 受け取る場合はtrue
+	 */
+	boolean supports(String eventType);
+	/**
+	 * イベントを処理する。
+	 *
+	 * @param event イベント
+	 */
+	void handle(OutboxEvent event);
+}
@@ -0,0 +1,131 @@
+package com.example.sns.service.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.event.FollowChangedEvent;
+import com.example.sns.event.LikeChangedEvent;
+import com.example.sns.event.PostCreatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ドメインイベントをアウトボックス（outbox テーブル）へ記録するコンポーネント。
+ *
+ * PostsService / LikesService / FollowsService 等が発行するイベントを、発行元と同じトランザクションの中で受け取り、
+ * コミット直前にJDBCバッチでまとめて書き込む。変更がロールバックされた場合はイベントも記録されない。
+ * 集約IDにはイベントを発生させたユーザーのIDを使い、ユーザーごとの操作順に配信されるようにする。
+ *
+ * event_id はコミット時ではなくINSERT時に採番されるため、そのままでは同じ集約のトランザクションが
+ * 採番と逆の順にコミットし、配信側が後のイベントを先に取り出すことがある。
+ * そこで書き込みの前に集約ごとのアドバイザリロック（トランザクション終了まで保持）を取り、
+ * 同じ集約への書き込みを直列化する。ロックを取ってから採番するため、同じ集約の中では
+ * event_id の順とコミットの順が一致する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+public class OutboxWriter {
+	/** 投稿作成（内容: postId, authorId, createdAt） */
+	public static final String POST_CREATED = "PostCreated";
+	/** いいね変更（内容: userId, postId, postAuthorId, liked） */
+	public static final String LIKE_CHANGED = "LikeChanged";
+	/** フォロー変更（内容: followerId, followeeId, following） */
+	public static final String FOLLOW_CHANGED = "FollowChanged";
+	/** アウトボックスの書き込みに使うアドバイザリロックの名前空間（他の用途のロックと衝突させない） */
+	private static final int LOCK_NAMESPACE = 0x0b0c;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+	/** トランザクション外で発行されたイベントの書き込み用 */
+	private final TransactionTemplate transactionTemplate;
+
+	public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate        = jdbcTemplate;
+		this.objectMapper        = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+	@EventListener
+	public void onPostCreated(PostCreatedEvent event) {
+		append(event.getAuthorId(), POST_CREATED, event);
+	}
+	@EventListener
+	public void onLikeChanged(LikeChangedEvent event) {
+		append(event.getUserId(), LIKE_CHANGED, event);
+	}
+	@EventListener
+	public void onFollowChanged(FollowChangedEvent event) {
+		append(event.getFollowerId(), FOLLOW_CHANGED, event);
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * イベントを現在のトランザクションの書き込み待ちに追加する。
+	 * トランザクション外で呼ばれた場合は、新しいトランザクションで即座に書き込む。
+	 *
+	 * @param aggregateId 集約ID
+	 * @param eventType イベントの種類
+	 * @param event イベント
+	 */
+	private void append(UUID aggregateId, String eventType, Object event) {
+		Object[] row = { aggregateId, eventType, toJson(event) };
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			transactionTemplate.executeWithoutResult(status -> insert(List.<Object[]>of(row)));
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+		if (pending == null) {
+			List<Object[]> rows = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this, rows);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					insert(rows);
+				}
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+				}
+			});
+			pending = rows;
+		}
+		pending.add(row);
+	}
+	/**
+	 * 集約ごとのロックを取ってからイベントを書き込む。
+	 * 複数の集約のロックはIDの順に取り、トランザクション同士のデッドロックを避ける。
+	 *
+	 * @param rows 書き込む行（集約ID, イベントの種類, 内容）
+	 */
+	private void insert(List<Object[]> rows) {
+		if (rows.isEmpty()) return;
+		TreeSet<UUID> aggregateIds = new TreeSet<>();
+		for (Object[] row : rows) aggregateIds.add((UUID) row[0]);
+		for (UUID aggregateId : aggregateIds) {
+			jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, hashtext(?))",
+					rs -> null, LOCK_NAMESPACE, aggregateId.toString());
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO outbox (aggregate_id, event_type, payload) VALUES (?, ?, ?)", rows);
+	}
+	private String toJson(Object event) {
+		try {
+			return objectMapper.writeValueAsString(event);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("イベントをJSONに変換できません: " + event, e);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.sns.service.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 投稿本文を検索用の語に分割するトークナイザ。
+ *
+ * - 文字列を正規化（NFKC・小文字化）した上で、文字種ごとの連続部分（ラン）に分ける
+ * - 日本語（漢字・ひらがな・カタカナ）のランは、1文字ずつの語と隣接2文字（bigram）の語に分割する
+ * - 英数字のランは、ラン全体を1語とする
+ * - 記号・空白は区切りとして扱い、語には含めない
+ *
+ * 検索語は {@link #queryTokens(String)} で分割し、すべての語を含む投稿を一致とする。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+final class CjkBigramTokenizer {
+	/** 1語の最大長（これより長い英数字のランは切り詰める） */
+	private static final int MAX_WORD_LENGTH = 64;
+
+	private CjkBigramTokenizer() {
+	}
+	/**
+	 * 投稿本文を索引用の語に分割する。
+	 *
+	 * @param text 投稿本文
+	 * @return 語の集合（重複なし）
+	 */
+	static Set<String> indexTokens(String text) {
+		return tokenize(text, true);
+	}
+	/**
+	 * 検索語を語に分割する。
+	 * 日本語のランは2文字以上であればbigramのみ、1文字であればその文字を語とする。
+	 *
+	 * @param query 検索語
+	 * @return 語の集合（重複なし、出現順）
+	 */
+	static Set<String> queryTokens(String query) {
+		return tokenize(query, false);
+	}
+
+	//-- 以下privateメソッド --//
+
+	private static Set<String> tokenize(String text, boolean withUnigrams) {
+		Set<String> tokens = new LinkedHashSet<>();
+		if (text == null) return tokens;
+		int[] codePoints = Normalizer.normalize(text, Normalizer.Form.NFKC)
+				.toLowerCase(Locale.ROOT).codePoints().toArray();
+		int i = 0;
+		while (i < codePoints.length) {
+			int start = i;
+			if (isCjk(codePoints[i])) {
+				while (i < codePoints.length && isCjk(codePoints[i])) i++;
+				addCjkRun(tokens, codePoints, start, i, withUnigrams);
+			} else if (Character.isLetterOrDigit(codePoints[i])) {
+				while (i < codePoints.length && !isCjk(codePoints[i]) && Character.isLetterOrDigit(codePoints[i])) i++;
+				tokens.add(new String(codePoints, start, Math.min(i - start, MAX_WORD_LENGTH)));
+			} else {
+				i++;
+			}
+		}
+		return tokens;
+	}
+	private static void addCjkRun(Set<String> tokens, int[] codePoints, int start, int end, boolean withUnigrams) {
+		if (end - start == 1 || withUnigrams) {
+			for (int i = start; i < end; i++) {
+				tokens.add(new String(codePoints, i, 1));
+			}
+		}
+		for (int i = start; i + 2 <= end; i++) {
+			tokens.add(new String(codePoints, i, 2));
+		}
+	}
+	/**
+	 * 日本語の文字（漢字・ひらがな・カタカナと、長音記号・踊り字）かどうかを判定する。
+	 *
+	 * @param codePoint 文字
+	 * @return 日本語の文字であればtrue
+	 */
+	private static boolean isCjk(int codePoint) {
+		if (codePoint == 'ー' || codePoint == '々') return true;
+		Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+		return script == Character.UnicodeScript.HAN
+				|| script == Character.UnicodeScript.HIRAGANA
+				|| script == Character.UnicodeScript.KATAKANA;
+	}
+}
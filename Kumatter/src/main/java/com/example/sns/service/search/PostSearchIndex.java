@@ -0,0 +1,475 @@
+package com.example.sns.service.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.service.outbox.OutboxEvent;
+import com.example.sns.service.outbox.OutboxSubscriber;
+import com.example.sns.service.outbox.OutboxWriter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 投稿本文の全文検索のための転置索引をメモリ上に保持するサービスクラス。
+ *
+ * - 投稿本文を CjkBigramTokenizer で語に分割し、語ごとに圧縮した転置リスト（PostingList）を持つ
+ * - 投稿のUUIDを連番のint（文書ID）に対応付け、投稿ごとの作成日時と合わせて配列で保持する
+ * - 文書IDはほぼ作成日時の順に割り当たるため、検索は転置リストを新しい文書から降順に走査し、
+ *   文書IDごとの作成日時の上限・下限を使って、カーソルより新しい範囲を飛ばし、limit件が揃った時点で打ち切る
+ * - 投稿作成はアウトボックスの PostCreated イベントとして受け取り、リクエストの処理とは別に索引へ追加する
+ * - 索引は一定間隔と終了時にローカルディスクへスナップショットとして書き出し、
+ *   起動時はスナップショットを読み込んだ上で、それ以降（少し前から）の投稿だけをDBから追加する
+ * - スナップショットが無い・読めない場合は posts テーブルをストリーミングで読み込んで構築する
+ *
+ * 検索語のすべての語を含む投稿を一致とし、作成日時の新しい順（キーセットページング）で返す。
+ * 語の並び順は判定しないため、bigramがすべて含まれていれば離れた位置にあっても一致とする。
+ * メモリ上の状態はこのインスタンスでの投稿のみを反映するため、単一インスタンスでの運用を前提とする。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Service
+public class PostSearchIndex implements OutboxSubscriber {
+	private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+	/** スナップショットの識別子と形式のバージョン */
+	private static final int SNAPSHOT_MAGIC = 0x50534958;
+	private static final int SNAPSHOT_VERSION = 1;
+	/** 読み込み時のフェッチサイズ */
+	private static final int FETCH_SIZE = 5_000;
+	/** 索引の読み込み対象（本文のある投稿） */
+	private static final String SELECT_POSTS = "SELECT post_id, content, created_at FROM posts WHERE content IS NOT NULL";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	/** スナップショットの保存先 */
+	private final Path snapshotPath;
+	/** 起動時、スナップショットの最新の投稿よりこの時間前からの投稿をDBから読み直す */
+	private final Duration catchUp;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	/** 投稿ID → 文書ID */
+	private final Map<UUID, Integer> docsByPostId = new HashMap<>();
+	/** 語 → 転置リスト */
+	private final Map<String, PostingList> postings = new HashMap<>();
+	/** 文書ID → 投稿ID */
+	private UUID[] postIds = new UUID[1024];
+	/** 文書ID → 作成日時（エポックからのマイクロ秒） */
+	private long[] createdAts = new long[1024];
+	/** 文書ID → その文書ID以下の文書の作成日時の最大値（文書IDについて単調増加） */
+	private long[] maxCreatedAts = new long[1024];
+	/** 文書ID → その文書ID以上の文書の作成日時の最小値（文書IDについて単調増加） */
+	private long[] minCreatedAts = new long[1024];
+	/** 割り当て済みの文書IDの数 */
+	private int size;
+	/** 最後にスナップショットを書き出した時点の文書数 */
+	private int snapshotSize = -1;
+
+	public PostSearchIndex(
+			JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${sns.posts.search.snapshot-path:data/post-search.idx}") String snapshotPath,
+			@Value("${sns.posts.search.catch-up-minutes:10}") long catchUpMinutes) {
+		this.jdbcTemplate        = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.snapshotPath        = Path.of(snapshotPath);
+		this.catchUp             = Duration.ofMinutes(catchUpMinutes);
+		Gauge.builder("posts.search.index.posts", this, index -> index.documentCount())
+				.description("全文検索の索引に登録された投稿数")
+				.register(meterRegistry);
+		Gauge.builder("posts.search.index.memory", this, PostSearchIndex::estimatedBytes)
+				.baseUnit("bytes")
+				.description("全文検索の索引の使用メモリ（概算）")
+				.register(meterRegistry);
+	}
+	/**
+	 * スナップショットを読み込み、以降の投稿をDBから追加する。
+	 * スナップショットが無い・読めない場合は posts テーブル全体から構築する。
+	 */
+	@PostConstruct
+	public void load() {
+		long start = System.currentTimeMillis();
+		lock.writeLock().lock();
+		try {
+			if (readSnapshot()) {
+				LocalDateTime from = toDateTime(latestCreatedAt()).minus(catchUp);
+				int before = size;
+				stream(SELECT_POSTS + " AND created_at >= ? ORDER BY created_at, post_id", from);
+				snapshotSize = before;
+				logger.info("全文検索の索引をスナップショットから復元しました: 投稿 {} 件（うち追加 {} 件）, {} ms",
+						size, size - before, System.currentTimeMillis() - start);
+			} else {
+				stream(SELECT_POSTS + " ORDER BY created_at, post_id");
+				logger.info("全文検索の索引を構築しました: 投稿 {} 件, 語 {} 種類, {} ms",
+						size, postings.size(), System.currentTimeMillis() - start);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	/**
+	 * 検索語のすべての語を含む投稿のIDを、作成日時の新しい順に返す。
+	 *
+	 * @param query 検索語
+	 * @param cursor 前ページの最後の投稿の位置（先頭ページの場合はnull）
+	 * @param limit 最大件数
+	 * @return 投稿IDのリスト（作成日時降順）
+	 */
+	public List<UUID> search(String query, KeysetCursor cursor, int limit) {
+		Set<String> tokens = CjkBigramTokenizer.queryTokens(query);
+		if (tokens.isEmpty() || limit <= 0) return List.of();
+		lock.readLock().lock();
+		try {
+			List<PostingList> lists = new ArrayList<>();
+			for (String token : tokens) {
+				PostingList list = postings.get(token);
+				if (list == null) return List.of();
+				lists.add(list);
+			}
+			lists.sort(Comparator.comparingInt(PostingList::size));
+			// カーソルより新しい文書しか無い範囲（大きい文書ID側）は走査しない
+			int from = cursor == null ? size - 1 : lastDocNotAfter(toMicros(cursor.getCreatedAt()));
+			if (from < 0) return List.of();
+			Comparator<Integer> order = Comparator.comparingLong((Integer doc) -> createdAts[doc])
+					.thenComparing(doc -> postIds[doc]);
+			// 条件に合う投稿のうち新しいものlimit件を、最も古いものを先頭とするヒープで保持する
+			PriorityQueue<Integer> newest = new PriorityQueue<>(limit + 1, order);
+			// limit件が揃い、残りの文書がどれも保持中の最も古い投稿より古ければ打ち切る
+			IntPredicate exhausted = doc -> newest.size() == limit && maxCreatedAts[doc] < createdAts[newest.peek()];
+			intersect(lists, from, exhausted, doc -> {
+				if (cursor != null && !isBefore(doc, cursor)) return;
+				newest.offer(doc);
+				if (newest.size() > limit) newest.poll();
+			});
+			List<UUID> result = new ArrayList<>(newest.size());
+			while (!newest.isEmpty()) {
+				result.add(postIds[newest.poll()]);
+			}
+			Collections.reverse(result);
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	@Override
+	public boolean supports(String eventType) {
+		return OutboxWriter.POST_CREATED.equals(eventType);
+	}
+	/**
+	 * 作成された投稿を索引に追加する。索引に登録済みの投稿（再配信）は無視する。
+	 *
+	 * @param event PostCreated イベント
+	 */
+	@Override
+	public void handle(OutboxEvent event) {
+		UUID postId = event.uuid("postId");
+		lock.readLock().lock();
+		try {
+			if (docsByPostId.containsKey(postId)) return;
+		} finally {
+			lock.readLock().unlock();
+		}
+		jdbcTemplate.query(SELECT_POSTS + " AND post_id = ?", rs -> {
+			lock.writeLock().lock();
+			try {
+				addRow(rs);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}, postId);
+	}
+	/**
+	 * 前回から投稿が追加されていれば、索引をスナップショットとして書き出す。
+	 * 読み取りロックの下では文書の配列の複製と転置リストのビューの取得だけを行い、
+	 * ファイルへの書き出しはロックを解放してから行う（書き出し中も索引への追加は止まらない）。
+	 */
+	@Scheduled(fixedDelayString = "${sns.posts.search.snapshot-interval-ms:600000}",
+			initialDelayString = "${sns.posts.search.snapshot-interval-ms:600000}")
+	public synchronized void snapshot() {
+		int count;
+		UUID[] ids;
+		long[] times;
+		List<Map.Entry<String, PostingList>> lists;
+		lock.readLock().lock();
+		try {
+			if (size == snapshotSize) return;
+			count = size;
+			ids   = Arrays.copyOf(postIds, count);
+			times = Arrays.copyOf(createdAts, count);
+			lists = new ArrayList<>(postings.size());
+			for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+				lists.add(Map.entry(entry.getKey(), entry.getValue().view()));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		try {
+			long start = System.currentTimeMillis();
+			writeSnapshot(ids, times, lists);
+			snapshotSize = count;
+			logger.info("全文検索の索引を書き出しました: 投稿 {} 件, {} ms", count, System.currentTimeMillis() - start);
+		} catch (IOException e) {
+			logger.error("全文検索の索引を書き出せませんでした: {}", snapshotPath, e);
+		}
+	}
+	/**
+	 * 終了時にスナップショットを書き出す。
+	 */
+	@PreDestroy
+	public void shutdown() {
+		snapshot();
+	}
+	private int documentCount() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	private double estimatedBytes() {
+		lock.readLock().lock();
+		try {
+			long bytes = (long) postIds.length * (8 + 32 + 16) + (long) size * 48;
+			for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+				bytes += 48 + 2L * entry.getKey().length() + entry.getValue().estimatedBytes();
+			}
+			return bytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 転置リストの共通部分（すべてのリストに含まれる文書ID）を、指定した文書ID以下から降順に通知する。
+	 * 最も短いリストを先頭にし、他のリストはスキップ表で目的のIDまで戻す（リープフロッグ）。
+	 * 読み取りロックを取得した状態で呼び出す。
+	 *
+	 * @param lists 転置リスト（短い順）
+	 * @param from 走査を始める文書ID
+	 * @param exhausted 先頭のリストの文書IDを受け取り、以降（それ以下）の走査が不要ならtrueを返す判定
+	 * @param consumer 共通部分の文書IDを受け取る処理
+	 */
+	private void intersect(List<PostingList> lists, int from, IntPredicate exhausted, IntConsumer consumer) {
+		PostingList.Cursor lead = lists.get(0).cursor();
+		PostingList.Cursor[] others = new PostingList.Cursor[lists.size() - 1];
+		for (int i = 1; i < lists.size(); i++) {
+			others[i - 1] = lists.get(i).cursor();
+		}
+		int doc = lead.retreat(from);
+		while (doc != PostingList.NO_MORE && !exhausted.test(doc)) {
+			int next = doc;
+			for (PostingList.Cursor other : others) {
+				next = other.retreat(doc);
+				if (next != doc) break;
+			}
+			if (next == doc) {
+				consumer.accept(doc);
+				doc = lead.previous();
+			} else {
+				doc = next == PostingList.NO_MORE ? PostingList.NO_MORE : lead.retreat(next);
+			}
+		}
+	}
+	/**
+	 * 作成日時が指定時刻以前の文書を含みうる最大の文書IDを返す。これより大きい文書IDはすべて指定時刻より新しい。
+	 * 読み取りロックを取得した状態で呼び出す。
+	 *
+	 * @param micros 作成日時（エポックからのマイクロ秒）
+	 * @return 文書ID（該当する文書が無い場合は-1）
+	 */
+	private int lastDocNotAfter(long micros) {
+		int low = 0;
+		int high = size;
+		// minCreatedAts は単調増加のため、micros を超える最初の位置を二分探索する
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (minCreatedAts[mid] <= micros) low = mid + 1;
+			else high = mid;
+		}
+		return low - 1;
+	}
+	/**
+	 * 文書がカーソルの位置より古い（作成日時降順で後に並ぶ）かどうかを判定する。
+	 */
+	private boolean isBefore(int doc, KeysetCursor cursor) {
+		long cursorAt = toMicros(cursor.getCreatedAt());
+		if (createdAts[doc] != cursorAt) return createdAts[doc] < cursorAt;
+		return postIds[doc].compareTo(cursor.getId()) < 0;
+	}
+	/**
+	 * 投稿をストリーミングで読み込み、索引に追加する。書き込みロックを取得した状態で呼び出す。
+	 *
+	 * @param sql 投稿ID・本文・作成日時を返すSQL
+	 * @param args SQLのパラメータ
+	 */
+	private void stream(String sql, Object... args) {
+		JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+		streaming.setFetchSize(FETCH_SIZE);
+		transactionTemplate.executeWithoutResult(status -> streaming.query(sql, this::addRow, args));
+	}
+	/**
+	 * 投稿の行を索引に追加する。登録済みの投稿は無視する。書き込みロックを取得した状態で呼び出す。
+	 */
+	private void addRow(ResultSet rs) throws SQLException {
+		add(rs.getObject("post_id", UUID.class), rs.getString("content"),
+				rs.getTimestamp("created_at").toLocalDateTime());
+	}
+	private void add(UUID postId, String content, LocalDateTime createdAt) {
+		if (docsByPostId.containsKey(postId)) return;
+		if (size == postIds.length) {
+			postIds       = Arrays.copyOf(postIds, size * 2);
+			createdAts    = Arrays.copyOf(createdAts, size * 2);
+			maxCreatedAts = Arrays.copyOf(maxCreatedAts, size * 2);
+			minCreatedAts = Arrays.copyOf(minCreatedAts, size * 2);
+		}
+		int doc = size++;
+		postIds[doc]    = postId;
+		createdAts[doc] = toMicros(createdAt);
+		updateBounds(doc);
+		docsByPostId.put(postId, doc);
+		// 文書IDは昇順に割り当てるため、転置リストへは末尾に追加するだけで昇順が保たれる
+		for (String token : CjkBigramTokenizer.indexTokens(content)) {
+			postings.computeIfAbsent(token, key -> new PostingList()).add(doc);
+		}
+	}
+	/**
+	 * 追加した文書の作成日時を、作成日時の上限・下限に反映する。
+	 * 作成日時の順に追加される限り、下限の更新は追加した文書の分だけで済む。
+	 *
+	 * @param doc 追加した文書ID
+	 */
+	private void updateBounds(int doc) {
+		long micros = createdAts[doc];
+		maxCreatedAts[doc] = doc == 0 ? micros : Math.max(maxCreatedAts[doc - 1], micros);
+		minCreatedAts[doc] = micros;
+		for (int i = doc - 1; i >= 0 && minCreatedAts[i] > micros; i--) {
+			minCreatedAts[i] = micros;
+		}
+	}
+	private long latestCreatedAt() {
+		long latest = Long.MIN_VALUE;
+		for (int doc = 0; doc < size; doc++) {
+			latest = Math.max(latest, createdAts[doc]);
+		}
+		return latest;
+	}
+	/**
+	 * 索引を一時ファイルへ書き出し、書き出し後にスナップショットへ置き換える。
+	 *
+	 * @param ids 文書ID → 投稿ID
+	 * @param times 文書ID → 作成日時
+	 * @param lists 語と転置リスト（のビュー）
+	 */
+	private void writeSnapshot(UUID[] ids, long[] times, List<Map.Entry<String, PostingList>> lists)
+			throws IOException {
+		Path parent = snapshotPath.toAbsolutePath().getParent();
+		if (parent != null) Files.createDirectories(parent);
+		Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeInt(SNAPSHOT_VERSION);
+			out.writeInt(ids.length);
+			for (int doc = 0; doc < ids.length; doc++) {
+				out.writeLong(ids[doc].getMostSignificantBits());
+				out.writeLong(ids[doc].getLeastSignificantBits());
+				out.writeLong(times[doc]);
+			}
+			out.writeInt(lists.size());
+			for (Map.Entry<String, PostingList> entry : lists) {
+				out.writeUTF(entry.getKey());
+				entry.getValue().write(out);
+			}
+		}
+		Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	/**
+	 * スナップショットを読み込む。書き込みロックを取得した状態で呼び出す。
+	 *
+	 * @return 読み込めた場合はtrue（読めなかった場合、索引は空のまま）
+	 */
+	private boolean readSnapshot() {
+		if (!Files.isReadable(snapshotPath)) return false;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+			if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+				logger.warn("全文検索のスナップショットの形式が異なるため使用しません: {}", snapshotPath);
+				return false;
+			}
+			int count = in.readInt();
+			postIds       = new UUID[Math.max(1024, count)];
+			createdAts    = new long[Math.max(1024, count)];
+			maxCreatedAts = new long[Math.max(1024, count)];
+			minCreatedAts = new long[Math.max(1024, count)];
+			for (int doc = 0; doc < count; doc++) {
+				postIds[doc]    = new UUID(in.readLong(), in.readLong());
+				createdAts[doc] = in.readLong();
+				updateBounds(doc);
+				docsByPostId.put(postIds[doc], doc);
+			}
+			size = count;
+			int tokens = in.readInt();
+			for (int i = 0; i < tokens; i++) {
+				postings.put(in.readUTF(), PostingList.read(in));
+			}
+			return size > 0;
+		} catch (IOException | RuntimeException e) {
+			logger.warn("全文検索のスナップショットを読み込めないため再構築します: {}", snapshotPath, e);
+			docsByPostId.clear();
+			postings.clear();
+			postIds       = new UUID[1024];
+			createdAts    = new long[1024];
+			maxCreatedAts = new long[1024];
+			minCreatedAts = new long[1024];
+			size          = 0;
+			return false;
+		}
+	}
+	private static long toMicros(LocalDateTime dateTime) {
+		return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), dateTime);
+	}
+	private static LocalDateTime toDateTime(long micros) {
+		return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+				(int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+	}
+}
@@ -0,0 +1,206 @@
+package com.example.sns.service.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 圧縮した転置リスト（語を含む投稿の文書IDの昇順リスト）。
+ *
+ * - 文書IDを128件ずつのブロックに分け、ブロック内は直前のIDとの差分を可変長整数（1〜5バイト）で保持する
+ *   （差分は通常小さいため、多くの場合1件1〜2バイトに収まる）
+ * - ブロックごとの先頭のIDとバイト位置をスキップ表として持ち、共通部分の計算で不要なブロックを読み飛ばす
+ * - 走査は新しい文書（大きいID）から降順に行い、ブロックは1件ずつ展開してから逆順に読む
+ * - 文書IDは昇順に追加される前提で、末尾への追加のみを行う（追加済みのバイト列・スキップ表は書き換えない）
+ *
+ * 同期は行わないため、呼び出し側のロックの下で使用する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+final class PostingList {
+	/** 走査の終端を表す文書ID */
+	static final int NO_MORE = -1;
+	/** 1ブロックあたりの件数 */
+	private static final int BLOCK_SIZE = 128;
+
+	private byte[] data = new byte[8];
+	/** data の使用済みバイト数 */
+	private int length;
+	/** 件数 */
+	private int count;
+	/** 最後に追加した文書ID */
+	private int lastDoc = -1;
+	/** ブロックごとの先頭の文書ID */
+	private int[] blockFirstDocs = new int[1];
+	/** ブロックごとの2件目以降の差分の開始位置 */
+	private int[] blockOffsets = new int[1];
+	/** ブロック数 */
+	private int blocks;
+
+	/**
+	 * 文書IDを末尾に追加する。最後に追加したID以下の場合は何もしない。
+	 *
+	 * @param doc 文書ID
+	 */
+	void add(int doc) {
+		if (doc <= lastDoc) return;
+		if (count % BLOCK_SIZE == 0) {
+			if (blocks == blockFirstDocs.length) {
+				blockFirstDocs = Arrays.copyOf(blockFirstDocs, blocks * 2);
+				blockOffsets   = Arrays.copyOf(blockOffsets, blocks * 2);
+			}
+			blockFirstDocs[blocks] = doc;
+			blockOffsets[blocks]   = length;
+			blocks++;
+		} else {
+			writeVarInt(doc - lastDoc);
+		}
+		lastDoc = doc;
+		count++;
+	}
+	int size() {
+		return count;
+	}
+	/**
+	 * 使用メモリの概算（バイト）を返す。
+	 *
+	 * @return バイト数
+	 */
+	long estimatedBytes() {
+		return 64L + data.length + 8L * blockFirstDocs.length;
+	}
+	Cursor cursor() {
+		return new Cursor();
+	}
+	/**
+	 * 現時点の内容を配列を共有したまま固定したビューを返す。
+	 * 追加は使用済みの範囲の外にしか書き込まないため、ビューの内容は以降の追加で変わらず、
+	 * ロックを解放した後でも読み取り（{@link #write}）に使える。ビューへの追加は行わないこと。
+	 *
+	 * @return ビュー
+	 */
+	PostingList view() {
+		PostingList view = new PostingList();
+		view.data           = data;
+		view.length         = length;
+		view.count          = count;
+		view.lastDoc        = lastDoc;
+		view.blockFirstDocs = blockFirstDocs;
+		view.blockOffsets   = blockOffsets;
+		view.blocks         = blocks;
+		return view;
+	}
+	void write(DataOutput out) throws IOException {
+		out.writeInt(count);
+		out.writeInt(lastDoc);
+		out.writeInt(blocks);
+		for (int i = 0; i < blocks; i++) {
+			out.writeInt(blockFirstDocs[i]);
+			out.writeInt(blockOffsets[i]);
+		}
+		out.writeInt(length);
+		out.write(data, 0, length);
+	}
+	static PostingList read(DataInput in) throws IOException {
+		PostingList list = new PostingList();
+		list.count          = in.readInt();
+		list.lastDoc        = in.readInt();
+		list.blocks         = in.readInt();
+		list.blockFirstDocs = new int[Math.max(1, list.blocks)];
+		list.blockOffsets   = new int[Math.max(1, list.blocks)];
+		for (int i = 0; i < list.blocks; i++) {
+			list.blockFirstDocs[i] = in.readInt();
+			list.blockOffsets[i]   = in.readInt();
+		}
+		list.length = in.readInt();
+		list.data   = new byte[Math.max(8, list.length)];
+		in.readFully(list.data, 0, list.length);
+		return list;
+	}
+
+	//-- 以下privateメソッド --//
+
+	private void writeVarInt(int value) {
+		if (length + 5 > data.length) {
+			data = Arrays.copyOf(data, Math.max(length + 5, data.length + (data.length >> 1)));
+		}
+		while ((value & ~0x7F) != 0) {
+			data[length++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data[length++] = (byte) value;
+	}
+
+	/**
+	 * 転置リストを降順に走査するカーソル。
+	 */
+	final class Cursor {
+		/** 展開したブロックの文書ID */
+		private final int[] buffer = new int[BLOCK_SIZE];
+		/** 展開したブロックの番号（未展開の場合は blocks） */
+		private int block = blocks;
+		/** 展開したブロックでの現在の文書IDの位置 */
+		private int position;
+		private int current = Integer.MAX_VALUE;
+
+		/**
+		 * 次に小さい文書IDを返す。
+		 *
+		 * @return 文書ID（終端の場合は NO_MORE）
+		 */
+		int previous() {
+			if (current == NO_MORE) return NO_MORE;
+			if (position == 0) {
+				if (block == 0) return current = NO_MORE;
+				position = decode(block - 1);
+			}
+			return current = buffer[--position];
+		}
+		/**
+		 * 指定した文書ID以下の最初の文書IDまで戻す。スキップ表で目的のブロックへ直接移動する。
+		 *
+		 * @param target 文書ID
+		 * @return target以下の最初の文書ID（無い場合は NO_MORE）
+		 */
+		int retreat(int target) {
+			if (current <= target) return current;
+			int targetBlock = Arrays.binarySearch(blockFirstDocs, 0, blocks, target);
+			if (targetBlock < 0) targetBlock = -(targetBlock + 1) - 1;
+			if (targetBlock < 0) return current = NO_MORE;
+			if (targetBlock < block) {
+				position = decode(targetBlock) - 1;
+			}
+			// ブロックの先頭はtarget以下のため、ブロック内で必ず止まる
+			while (buffer[position] > target) {
+				position--;
+			}
+			return current = buffer[position];
+		}
+		/**
+		 * ブロックの文書IDを buffer へ展開する。
+		 *
+		 * @param index ブロックの番号
+		 * @return ブロックの件数
+		 */
+		private int decode(int index) {
+			int docs   = Math.min(BLOCK_SIZE, count - index * BLOCK_SIZE);
+			int offset = blockOffsets[index];
+			buffer[0] = blockFirstDocs[index];
+			for (int i = 1; i < docs; i++) {
+				int value = 0;
+				int shift = 0;
+				byte b;
+				do {
+					b = data[offset++];
+					value |= (b & 0x7F) << shift;
+					shift += 7;
+				} while ((b & 0x80) != 0);
+				buffer[i] = buffer[i - 1] + value;
+			}
+			block = index;
+			return docs;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package com.example.sns.service.timeline;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.TimelinePostRef;
+import com.example.sns.repository.PostsRepository;
+import com.example.sns.repository.TimelineEntriesRepository;
+import com.example.sns.repository.UserStatsRepository;
+import com.example.sns.service.ChangeVersionService;
+import com.example.sns.service.FollowGraphService;
+import com.example.sns.service.outbox.OutboxEvent;
+import com.example.sns.service.outbox.OutboxSubscriber;
+import com.example.sns.service.outbox.OutboxWriter;
+
+/**
+ * 書き込み時ファンアウト（受信箱方式）のタイムラインエンジン。
+ * sns.timeline.engine=inbox の場合に使用される。
+ *
+ * - 投稿作成をアウトボックス（OutboxDispatcher）から受け取り、フォロワー全員の受信箱（timeline_entries）へ配信する
+ *   （配信に失敗した場合はアウトボックスが再配信するため、受信箱に投稿の欠けが残らない）
+ * - フォロワー数が閾値以上の投稿者はファンアウトせず、読み取り時にマージする（プル型）
+ * - 自分の投稿も読み取り時にマージする（投稿直後から自分のタイムラインに表示するため）
+ * - フォロー時は相手の投稿を受信箱へ補充し、フォロー解除時は取り除く（フォロー変更もアウトボックスから受け取る）
+ * - 受信箱は新しい順に一定件数だけ保持し、それより古い範囲はDB検索にフォールバックする
+ *   （刈り込みはユーザーID順に一定件数ずつ区切り、区切りごとに別トランザクションで行う）
+ *
+ * これにより、先頭付近のページはフォロー数に関係なく受信箱の範囲走査だけで応答できる。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+@ConditionalOnProperty(name = "sns.timeline.engine", havingValue = "inbox")
+public class InboxTimelineEngine implements TimelineEngine, OutboxSubscriber {
+	private static final Logger logger = LoggerFactory.getLogger(InboxTimelineEngine.class);
+	/** 受信箱の持ち主の走査の起点（最小のUUID） */
+	private static final UUID MIN_ID = new UUID(0L, 0L);
+	private final TimelineEntriesRepository timelineEntriesRepository;
+	private final PostsRepository postsRepository;
+	private final UserStatsRepository userStatsRepository;
+	private final FollowGraphService followGraphService;
+	private final ChangeVersionService changeVersionService;
+	private final TransactionTemplate transactionTemplate;
+	/** 受信箱1つあたりの保持件数 */
+	private final int capacity;
+	/** プル型として扱うフォロワー数の閾値 */
+	private final long pullThreshold;
+	/** 1トランザクションで刈り込む受信箱の数 */
+	private final int trimBatchSize;
+	/** 1回の刈り込みで実行するトランザクション数の上限 */
+	private final int trimBatchesPerRun;
+	/** 前回の刈り込みで最後に処理した受信箱の持ち主のID（次回はこの続きから刈り込む） */
+	private UUID trimCursor = MIN_ID;
+	/** プル型（ファンアウトしない）投稿者のID。定期的に再計算する */
+	private volatile Set<UUID> pullAuthorIds = Set.of();
+
+	public InboxTimelineEngine(
+			TimelineEntriesRepository timelineEntriesRepository,
+			PostsRepository postsRepository,
+			UserStatsRepository userStatsRepository,
+			FollowGraphService followGraphService,
+			ChangeVersionService changeVersionService,
+			PlatformTransactionManager transactionManager,
+			@Value("${sns.timeline.inbox.capacity:800}") int capacity,
+			@Value("${sns.timeline.inbox.pull-threshold:10000}") long pullThreshold,
+			@Value("${sns.timeline.inbox.trim-batch-size:500}") int trimBatchSize,
+			@Value("${sns.timeline.inbox.trim-batches-per-run:20}") int trimBatchesPerRun) {
+		this.timelineEntriesRepository = timelineEntriesRepository;
+		this.postsRepository           = postsRepository;
+		this.userStatsRepository       = userStatsRepository;
+		this.followGraphService        = followGraphService;
+		this.changeVersionService      = changeVersionService;
+		this.transactionTemplate       = new TransactionTemplate(transactionManager);
+		this.capacity                  = capacity;
+		this.pullThreshold             = pullThreshold;
+		this.trimBatchSize             = trimBatchSize;
+		this.trimBatchesPerRun         = trimBatchesPerRun;
+	}
+	/**
+	 * 受信箱のページに、プル型の投稿者と自分の投稿をマージして返す。
+	 * 受信箱がページを満たせない場合（受信箱の末尾に到達した場合）は、
+	 * 受信箱に無い古い範囲を含むため、フォロー中ユーザー全体のDB検索で応答する。
+	 */
+	@Override
+	public List<TimelinePostRef> findFollowedTimeline(UUID viewerId, KeysetCursor cursor, int limit) {
+		List<TimelinePostRef> inbox = cursor == null
+				? timelineEntriesRepository.findRefs(viewerId, Limit.of(limit))
+				: timelineEntriesRepository.findRefsBefore(viewerId, cursor.getCreatedAt(), cursor.getId(), Limit.of(limit));
+		if (inbox.size() < limit) {
+			return findFromPosts(viewerId, cursor, limit);
+		}
+		// 受信箱に配信されない投稿者（自分＋フォロー中のプル型投稿者）
+		Set<UUID> pulledAuthors = new HashSet<>();
+		pulledAuthors.add(viewerId);
+		Set<UUID> pullAuthors = pullAuthorIds;
+		if (!pullAuthors.isEmpty()) {
+			pulledAuthors.addAll(followGraphService.findFolloweeIdsAmong(viewerId, pullAuthors));
+		}
+		List<TimelinePostRef> pulled = cursor == null
+				? postsRepository.findRefsByUserIds(pulledAuthors, Limit.of(limit))
+				: postsRepository.findRefsByUserIdsBefore(pulledAuthors, cursor.getCreatedAt(), cursor.getId(), Limit.of(limit));
+		return merge(inbox, pulled, limit);
+	}
+	@Override
+	public boolean supports(String eventType) {
+		return OutboxWriter.POST_CREATED.equals(eventType) || OutboxWriter.FOLLOW_CHANGED.equals(eventType);
+	}
+	/**
+	 * アウトボックスから配信された投稿作成・フォロー変更のイベントを受信箱へ反映する。
+	 * 失敗した場合はアウトボックスが再配信するため、反映漏れによる受信箱の欠けは残らない。
+	 *
+	 * @param event PostCreated / FollowChanged イベント
+	 */
+	@Override
+	public void handle(OutboxEvent event) {
+		if (OutboxWriter.POST_CREATED.equals(event.getEventType())) {
+			fanOut(event.uuid("postId"), event.uuid("authorId"));
+		} else {
+			changeFollow(event.uuid("followerId"), event.uuid("followeeId"), event.getPayload().path("following").asBoolean());
+		}
+	}
+	/**
+	 * プル型投稿者の一覧を定期的に再計算する。
+	 * 閾値を下回ってファンアウト対象に戻った投稿者は、
+	 * プル型だった期間の投稿をフォロワーの受信箱へ補充する。
+	 */
+	@Scheduled(fixedDelayString = "${sns.timeline.inbox.pull-refresh-ms:60000}")
+	@Transactional
+	public void refreshPullAuthors() {
+		Set<UUID> previous = pullAuthorIds;
+		Set<UUID> current = Set.copyOf(followGraphService.findUserIdsWithFollowersAtLeast(pullThreshold));
+		pullAuthorIds = current;
+		for (UUID authorId : previous) {
+			if (!current.contains(authorId)) {
+				timelineEntriesRepository.backfillFollowers(authorId, capacity);
+				changeVersionService.touchAuthor(authorId);
+			}
+		}
+	}
+	/**
+	 * 前回の続きから、上限の区切り数まで受信箱を保持件数に刈り込む。
+	 * 区切りごとに別トランザクションで削除するため、ロックの保持とWALの生成が一度に集中しない。
+	 * 全受信箱は複数回の実行で一巡する（保持件数を超えた分は読み取りに影響しないため、刈り込みの遅れは許容する）。
+	 */
+	@Scheduled(fixedDelayString = "${sns.timeline.inbox.trim-interval-ms:3600000}",
+			initialDelayString = "${sns.timeline.inbox.trim-interval-ms:3600000}")
+	public void trimInboxes() {
+		int removed = 0;
+		int checked = 0;
+		for (int i = 0; i < trimBatchesPerRun; i++) {
+			List<UUID> ownerIds = userStatsRepository.findUserIdsAfter(trimCursor, trimBatchSize);
+			if (ownerIds.isEmpty()) {
+				trimCursor = MIN_ID;
+				break;
+			}
+			removed += transactionTemplate.execute(status -> timelineEntriesRepository.trimOwners(ownerIds, capacity));
+			checked += ownerIds.size();
+			trimCursor = ownerIds.size() < trimBatchSize ? MIN_ID : ownerIds.get(ownerIds.size() - 1);
+			if (trimCursor.equals(MIN_ID)) break;
+		}
+		logger.info("受信箱の刈り込み完了: {} 件削除 (対象 {} 件)", removed, checked);
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * 投稿をフォロワーの受信箱へファンアウトする。プル型の投稿者の投稿は配信しない。
+	 * 再配信されても、受信箱の一意制約により同じ投稿は重複しない。
+	 *
+	 * @param postId 投稿ID
+	 * @param authorId 投稿者のユーザーID
+	 */
+	private void fanOut(UUID postId, UUID authorId) {
+		if (pullAuthorIds.contains(authorId)) return;
+		int delivered = timelineEntriesRepository.fanOut(postId);
+		// 配信後のタイムラインを新しい内容として扱わせる（ETag）
+		changeVersionService.touchAuthor(authorId);
+		logger.debug("投稿 {} を {} 件の受信箱へ配信しました", postId, delivered);
+	}
+	/**
+	 * フォロー関係の変更に応じて、受信箱を補充・刈り込みする。
+	 * どちらも実行時点のフォロー関係を条件にするため、再配信されても結果は変わらない。
+	 *
+	 * @param followerId フォローする側のユーザーID
+	 * @param followeeId フォローされる側のユーザーID
+	 * @param following true: フォロー追加 / false: フォロー解除
+	 */
+	private void changeFollow(UUID followerId, UUID followeeId, boolean following) {
+		if (following) {
+			if (pullAuthorIds.contains(followeeId)) return;
+			// 補充で保持件数を超えた分は、定期の刈り込みを待たずにこの受信箱だけ刈り込む
+			if (timelineEntriesRepository.backfill(followerId, followeeId, capacity) > 0) {
+				timelineEntriesRepository.trimOwners(List.of(followerId), capacity);
+			}
+		} else {
+			timelineEntriesRepository.prune(followerId, followeeId);
+		}
+		changeVersionService.touchUser(followerId);
+	}
+
+	/**
+	 * フォロー中ユーザー全体を対象にDB検索でタイムラインを取得する（受信箱のフォールバック）。
+	 *
+	 * @param viewerId 閲覧ユーザーのID
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param limit 取得件数の上限
+	 * @return 投稿参照のリスト（最新順）
+	 */
+	private List<TimelinePostRef> findFromPosts(UUID viewerId, KeysetCursor cursor, int limit) {
+		List<UUID> authorIds = followGraphService.findFolloweeIds(viewerId);
+		authorIds.add(viewerId);
+		return cursor == null
+				? postsRepository.findRefsByUserIds(authorIds, Limit.of(limit))
+				: postsRepository.findRefsByUserIdsBefore(authorIds, cursor.getCreatedAt(), cursor.getId(), Limit.of(limit));
+	}
+	/**
+	 * 最新順に並んだ2つの参照リストを重複を除いてマージし、先頭 limit 件を返す。
+	 *
+	 * @param a 参照リスト1（最新順）
+	 * @param b 参照リスト2（最新順）
+	 * @param limit 返す件数の上限
+	 * @return マージ後の参照リスト（最新順）
+	 */
+	private static List<TimelinePostRef> merge(List<TimelinePostRef> a, List<TimelinePostRef> b, int limit) {
+		List<TimelinePostRef> all = new ArrayList<>(a.size() + b.size());
+		all.addAll(a);
+		all.addAll(b);
+		all.sort(TimelinePostRef.NEWEST_FIRST);
+		Map<UUID, TimelinePostRef> unique = new LinkedHashMap<>();
+		for (TimelinePostRef ref : all) {
+			unique.putIfAbsent(ref.getPostId(), ref);
+			if (unique.size() == limit) break;
+		}
+		return new ArrayList<>(unique.values());
+	}
+}
@@ -0,0 +1,231 @@
+package com.example.sns.service.timeline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.TimelinePostRef;
+import com.example.sns.event.PostCreatedEvent;
+import com.example.sns.repository.PostsRepository;
+import com.example.sns.service.FollowGraphService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * 読み取り時マージ（プル方式）のタイムラインエンジン。
+ * sns.timeline.engine=merge の場合に使用される。
+ *
+ * - 投稿者ごとに最新 N 件の投稿参照（投稿ID＋作成日時）をメモリ上にキャッシュする
+ * - 投稿作成のコミット後、キャッシュ済みの投稿者のリストへ追加する（読み込み済みの投稿は重複させない）
+ * - タイムラインはフォロー中ユーザー（＋自分）のリストをヒープでk-wayマージして生成する
+ * - キャッシュに無い投稿者（コールド）はDBからまとめて読み込み、キャッシュに載せる
+ * - キャッシュ範囲より古いページは、該当する投稿者だけDBから補う
+ *
+ * 先頭ページはキャッシュのマージだけで応答でき、DB側のソートは発生しない。
+ * キャッシュのヒット・ミスは「timeline.author-posts」としてメトリクスに公開する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+@ConditionalOnProperty(name = "sns.timeline.engine", havingValue = "merge")
+public class MergeTimelineEngine implements TimelineEngine {
+	private final PostsRepository postsRepository;
+	private final FollowGraphService followGraphService;
+	/** 投稿者IDごとの最新投稿参照 */
+	private final Cache<UUID, AuthorPosts> authorPostsCache;
+	/** 投稿者1人あたりのキャッシュ件数 */
+	private final int perAuthor;
+
+	public MergeTimelineEngine(
+			PostsRepository postsRepository,
+			FollowGraphService followGraphService,
+			MeterRegistry meterRegistry,
+			@Value("${sns.timeline.merge.per-author:50}") int perAuthor,
+			@Value("${sns.timeline.merge.max-authors:100000}") long maxAuthors,
+			@Value("${sns.timeline.merge.ttl-minutes:10}") long ttlMinutes) {
+		this.postsRepository    = postsRepository;
+		this.followGraphService = followGraphService;
+		this.perAuthor          = perAuthor;
+		this.authorPostsCache   = Caffeine.newBuilder()
+				.maximumSize(maxAuthors)
+				.expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, authorPostsCache, "timeline.author-posts");
+	}
+	/**
+	 * フォロー中ユーザー（＋自分）の投稿参照リストをk-wayマージして1ページ分返す。
+	 */
+	@Override
+	public List<TimelinePostRef> findFollowedTimeline(UUID viewerId, KeysetCursor cursor, int limit) {
+		List<UUID> authorIds = followGraphService.findFolloweeIds(viewerId);
+		authorIds.add(viewerId);
+		Map<UUID, AuthorPosts> cached = authorPostsCache.getAll(authorIds, this::loadAuthors);
+
+		PriorityQueue<AuthorCursor> heap = new PriorityQueue<>(
+				Math.max(1, cached.size()), (a, b) -> TimelinePostRef.NEWEST_FIRST.compare(a.head(), b.head()));
+		// キャッシュ範囲がカーソル位置まで届かない投稿者（DBから補う必要がある）
+		List<UUID> uncovered = new ArrayList<>();
+		for (Map.Entry<UUID, AuthorPosts> entry : cached.entrySet()) {
+			AuthorPosts posts = entry.getValue();
+			int start = posts.indexAfter(cursor);
+			if (start < posts.size()) {
+				heap.add(new AuthorCursor(entry.getKey(), posts.refs(), start, posts.complete()));
+			} else if (!posts.complete()) {
+				uncovered.add(entry.getKey());
+			}
+		}
+		if (!uncovered.isEmpty()) {
+			List<TimelinePostRef> fromDb = postsRepository.findRefsByUserIdsBefore(
+					uncovered, cursor.getCreatedAt(), cursor.getId(), Limit.of(limit));
+			if (!fromDb.isEmpty()) heap.add(new AuthorCursor(null, fromDb, 0, fromDb.size() < limit));
+		}
+
+		List<TimelinePostRef> page = new ArrayList<>(limit);
+		while (page.size() < limit && !heap.isEmpty()) {
+			AuthorCursor top = heap.poll();
+			page.add(top.head());
+			if (top.advance() || top.extend(limit - page.size())) {
+				heap.add(top);
+			}
+		}
+		return page;
+	}
+	/**
+	 * 投稿作成のコミット後、キャッシュ済みの投稿者のリストへ投稿を追加する。
+	 * キャッシュに無い投稿者は次回の読み取り時にDBから読み込む。
+	 *
+	 * @param event 投稿作成イベント
+	 */
+	@TransactionalEventListener
+	public void onPostCreated(PostCreatedEvent event) {
+		TimelinePostRef ref = new TimelinePostRef(event.getPostId(), event.getCreatedAt());
+		authorPostsCache.asMap().computeIfPresent(event.getAuthorId(), (authorId, posts) -> posts.insert(ref, perAuthor));
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * キャッシュに無い投稿者の最新投稿参照をDBからまとめて読み込む。
+	 *
+	 * @param authorIds 読み込む投稿者IDの集合
+	 * @return 投稿者IDごとの投稿参照
+	 */
+	private Map<UUID, AuthorPosts> loadAuthors(Iterable<? extends UUID> authorIds) {
+		List<UUID> ids = new ArrayList<>();
+		authorIds.forEach(ids::add);
+		// 1件多く取得し、キャッシュが投稿者の全投稿を含むかどうかを判定する
+		Map<UUID, List<TimelinePostRef>> loaded = postsRepository.findRecentRefsByAuthors(ids, perAuthor + 1);
+		Map<UUID, AuthorPosts> result = new HashMap<>(loaded.size());
+		loaded.forEach((authorId, refs) -> {
+			boolean complete = refs.size() <= perAuthor;
+			List<TimelinePostRef> kept = complete ? refs : refs.subList(0, perAuthor);
+			result.put(authorId, new AuthorPosts(List.copyOf(kept), complete));
+		});
+		return result;
+	}
+
+	/**
+	 * 1投稿者分のキャッシュ内容（不変）。
+	 *
+	 * @param refs 最新の投稿参照（最新順）
+	 * @param complete 投稿者の全投稿を含む場合はtrue（これより古い投稿は存在しない）
+	 */
+	private record AuthorPosts(List<TimelinePostRef> refs, boolean complete) {
+		int size() {
+			return refs.size();
+		}
+		/**
+		 * カーソルより古い最初の要素の位置を二分探索で求める。
+		 *
+		 * @param cursor カーソル（nullの場合は先頭）
+		 * @return 位置（該当が無い場合は size()）
+		 */
+		int indexAfter(KeysetCursor cursor) {
+			if (cursor == null) return 0;
+			int pos = Collections.binarySearch(refs, new TimelinePostRef(cursor.getId(), cursor.getCreatedAt()),
+					TimelinePostRef.NEWEST_FIRST);
+			return pos >= 0 ? pos + 1 : -(pos + 1);
+		}
+		/**
+		 * 投稿を並び順の位置に追加し、上限件数を超えた分を末尾から切り捨てる。
+		 * コミットの順とイベントの順は前後しうるため、先頭とは限らない位置に入れ、
+		 * DBからの読み込みに含まれていた投稿（登録済み）は追加しない。
+		 *
+		 * @param ref 追加する投稿参照
+		 * @param max 保持件数の上限
+		 * @return 追加後のキャッシュ内容
+		 */
+		AuthorPosts insert(TimelinePostRef ref, int max) {
+			int pos = Collections.binarySearch(refs, ref, TimelinePostRef.NEWEST_FIRST);
+			if (pos >= 0) return this;
+			List<TimelinePostRef> next = new ArrayList<>(refs.size() + 1);
+			next.addAll(refs);
+			next.add(-(pos + 1), ref);
+			if (next.size() <= max) return new AuthorPosts(List.copyOf(next), complete);
+			return new AuthorPosts(List.copyOf(next.subList(0, max)), false);
+		}
+	}
+
+	/**
+	 * k-wayマージ中の1投稿者分の読み取り位置。
+	 * キャッシュの末尾に達しても古い投稿が残っている場合は、DBから続きを読み込む。
+	 */
+	private final class AuthorCursor {
+		/** 投稿者ID（複数投稿者をまとめたDB検索結果の場合はnull） */
+		private final UUID authorId;
+		private List<TimelinePostRef> refs;
+		private int index;
+		/** refs より古い投稿が存在しない場合はtrue */
+		private boolean exhausted;
+
+		AuthorCursor(UUID authorId, List<TimelinePostRef> refs, int index, boolean exhausted) {
+			this.authorId  = authorId;
+			this.refs      = refs;
+			this.index     = index;
+			this.exhausted = exhausted;
+		}
+		TimelinePostRef head() {
+			return refs.get(index);
+		}
+		/**
+		 * 次の要素へ進める。
+		 *
+		 * @return 次の要素がある場合はtrue
+		 */
+		boolean advance() {
+			return ++index < refs.size();
+		}
+		/**
+		 * 末尾に達した後、続きの投稿をDBから読み込む。
+		 *
+		 * @param remaining ページを満たすのに必要な残り件数
+		 * @return 続きを読み込めた場合はtrue
+		 */
+		boolean extend(int remaining) {
+			if (exhausted || authorId == null || remaining <= 0) return false;
+			TimelinePostRef last = refs.get(refs.size() - 1);
+			refs = postsRepository.findRefsByUserIdsBefore(
+					List.of(authorId), last.getCreatedAt(), last.getPostId(), Limit.of(remaining));
+			index = 0;
+			exhausted = refs.size() < remaining;
+			return !refs.isEmpty();
+		}
+	}
+}
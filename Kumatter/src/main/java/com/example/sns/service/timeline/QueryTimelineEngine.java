@@ -0,0 +1,43 @@
+package com.example.sns.service.timeline;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.TimelinePostRef;
+import com.example.sns.repository.PostsRepository;
+import com.example.sns.service.FollowGraphService;
+
+/**
+ * 読み取りのたびにフォロー中ユーザーの投稿をDB検索するタイムラインエンジン（既定）。
+ * sns.timeline.engine=query または未設定の場合に使用される。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@Component
+@ConditionalOnProperty(name = "sns.timeline.engine", havingValue = "query", matchIfMissing = true)
+public class QueryTimelineEngine implements TimelineEngine {
+	private final PostsRepository postsRepository;
+	private final FollowGraphService followGraphService;
+
+	public QueryTimelineEngine(PostsRepository postsRepository, FollowGraphService followGraphService) {
+		this.postsRepository    = postsRepository;
+		this.followGraphService = followGraphService;
+	}
+	/**
+	 * フォロー中ユーザーIDと自分のIDでIN検索し、カーソル位置から取得する。
+	 */
+	@Override
+	public List<TimelinePostRef> findFollowedTimeline(UUID viewerId, KeysetCursor cursor, int limit) {
+		List<UUID> authorIds = followGraphService.findFolloweeIds(viewerId);
+		authorIds.add(viewerId);
+		return cursor == null
+				? postsRepository.findRefsByUserIds(authorIds, Limit.of(limit))
+				: postsRepository.findRefsByUserIdsBefore(authorIds, cursor.getCreatedAt(), cursor.getId(), Limit.of(limit));
+	}
+}
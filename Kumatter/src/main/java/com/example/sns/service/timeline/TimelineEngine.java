@@ -0,0 +1,29 @@
+package com.example.sns.service.timeline;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.TimelinePostRef;
+
+/**
+ * ホームタイムライン（フォロー中ユーザー＋自分の投稿）の並びを決定するエンジン。
+ * 実装は設定値 sns.timeline.engine で切り替える。
+ *
+ * エンジンは投稿の参照（投稿ID＋作成日時）の並びだけを返し、
+ * 表示用DTOへの変換は PostsService がページ確定後にまとめて行う。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public interface TimelineEngine {
+	/**
+	 * 閲覧ユーザーのホームタイムラインを、カーソル位置から最大 limit 件取得する。
+	 *
+	 * @param viewerId 閲覧ユーザーのID
+	 * @param cursor 前ページ末尾のカーソル（先頭ページの場合はnull）
+	 * @param limit 取得件数の上限
+	 * @return 投稿参照のリスト（作成日時降順、同時刻は投稿ID降順）
+	 */
+	List<TimelinePostRef> findFollowedTimeline(UUID viewerId, KeysetCursor cursor, int limit);
+}
@@ -0,0 +1,106 @@
+package com.example.sns.util;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import com.example.sns.dto.PostEntities;
+
+/**
+ * 投稿本文からハッシュタグ（#タグ）とメンション（@ログインID）を抽出するユーティリティクラス。
+ * - 本文をNFKCで正規化した上で1回だけ走査し、タグとメンションを同時に抽出する（全角の「＃」「＠」も対象）
+ * - タグは文字・数字・アンダースコア・長音記号の並び。数字のみのタグは対象外
+ * - メンションはログインIDに使える文字（英小文字・数字・アンダースコア・ハイフン）の並び
+ * - 直前が英数字の「#」「@」（メールアドレス等）は対象外
+ * - 1投稿あたりの件数には上限を設け、超えた分は無視する
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public class PostEntityExtractor {
+	/** タグの最大長（post_tags.tag の長さ） */
+	public static final int MAX_TAG_LENGTH = 50;
+	/** メンションの最大長（users.login_id の長さ） */
+	private static final int MAX_MENTION_LENGTH = 50;
+	/** 1投稿あたりのタグ・メンションの上限 */
+	private static final int MAX_PER_POST = 10;
+
+	private PostEntityExtractor() {
+	}
+	/**
+	 * 投稿本文からハッシュタグとメンションを抽出する。
+	 *
+	 * @param content 投稿本文
+	 * @return 抽出結果（該当が無い場合は空の集合）
+	 */
+	public static PostEntities extract(String content) {
+		Set<String> tags = new LinkedHashSet<>();
+		Set<String> mentions = new LinkedHashSet<>();
+		if (content == null) return new PostEntities(tags, mentions);
+		int[] text = normalize(content).codePoints().toArray();
+		int i = 0;
+		while (i < text.length) {
+			int c = text[i];
+			boolean boundary = i == 0 || !isWordChar(text[i - 1]);
+			if (c == '#' && boundary) {
+				int end = scan(text, i + 1, true);
+				addIfValid(tags, text, i + 1, end, MAX_TAG_LENGTH, true);
+				i = Math.max(end, i + 1);
+			} else if (c == '@' && boundary) {
+				int end = scan(text, i + 1, false);
+				addIfValid(mentions, text, i + 1, end, MAX_MENTION_LENGTH, false);
+				i = Math.max(end, i + 1);
+			} else {
+				i++;
+			}
+		}
+		return new PostEntities(tags, mentions);
+	}
+	/**
+	 * URLのパスや検索語として受け取ったタグを、保存時と同じ形式に正規化する。
+	 *
+	 * @param tag タグ（先頭の「#」は有っても無くてもよい）
+	 * @return 正規化したタグ（タグとして無効な場合はnull）
+	 */
+	public static String normalizeTag(String tag) {
+		if (tag == null) return null;
+		int[] text = normalize(tag.strip()).codePoints().toArray();
+		int start = text.length > 0 && text[0] == '#' ? 1 : 0;
+		int end = scan(text, start, true);
+		if (end != text.length) return null;
+		Set<String> result = new LinkedHashSet<>();
+		addIfValid(result, text, start, end, MAX_TAG_LENGTH, true);
+		return result.isEmpty() ? null : result.iterator().next();
+	}
+
+	//-- 以下privateメソッド --//
+
+	/**
+	 * タグ・メンションに使える文字が続く範囲の終端を返す。
+	 */
+	private static int scan(int[] text, int start, boolean tag) {
+		int end = start;
+		while (end < text.length && (tag ? isTagChar(text[end]) : isMentionChar(text[end]))) end++;
+		return end;
+	}
+	private static void addIfValid(Set<String> target, int[] text, int start, int end, int maxLength, boolean tag) {
+		int length = end - start;
+		if (length == 0 || length > maxLength || target.size() >= MAX_PER_POST) return;
+		String value = new String(text, start, length);
+		if (tag && value.chars().allMatch(Character::isDigit)) return;
+		target.add(value);
+	}
+	private static boolean isTagChar(int c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == 'ー';
+	}
+	private static boolean isMentionChar(int c) {
+		return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+	}
+	private static boolean isWordChar(int c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+	private static String normalize(String text) {
+		return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.sns.util;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * UUIDの集合を表す、スレッドセーフなブルームフィルタ。
+ *
+ * 「含まれない」の判定は確実だが、「含まれる」の判定は偽陽性を含む。
+ * 要素の削除はできないため、削除された要素は偽陽性として扱われる。
+ * 呼び出し側は mightContain() が true の要素だけを正確な方法で確認すること。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public class UuidBloomFilter {
+	/** 64ビット乗算ハッシュの定数（黄金比） */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private final AtomicLongArray bits;
+	private final int bitCount;
+	private final int hashCount;
+	/** 想定要素数（これを超えると偽陽性率が設計値より悪化する） */
+	private final int capacity;
+
+	/**
+	 * 想定要素数と偽陽性率からビット数・ハッシュ関数の数を決定して生成する。
+	 *
+	 * @param capacity 想定要素数
+	 * @param falsePositiveRate 目標の偽陽性率（0より大きく1未満）
+	 */
+	public UuidBloomFilter(int capacity, double falsePositiveRate) {
+		int n = Math.max(1, capacity);
+		long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.bitCount  = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+		this.bits      = new AtomicLongArray((bitCount + 63) / 64);
+		this.capacity  = n;
+	}
+	/**
+	 * 要素を追加する。
+	 *
+	 * @param id 追加するUUID
+	 */
+	public void put(UUID id) {
+		long h1 = mix(id.getMostSignificantBits() ^ id.getLeastSignificantBits());
+		long h2 = mix(h1 + GOLDEN_GAMMA) | 1;
+		for (int i = 0; i < hashCount; i++) {
+			int index = (int) Long.remainderUnsigned(h1 + i * h2, bitCount);
+			int word = index >>> 6;
+			long mask = 1L << index;
+			long current;
+			while (((current = bits.get(word)) & mask) == 0
+					&& !bits.compareAndSet(word, current, current | mask)) {
+				// 他スレッドと競合した場合は再試行
+			}
+		}
+	}
+	/**
+	 * 要素が含まれる可能性があるかを判定する。
+	 *
+	 * @param id 判定するUUID
+	 * @return falseなら確実に含まれない／trueなら含まれる可能性がある
+	 */
+	public boolean mightContain(UUID id) {
+		long h1 = mix(id.getMostSignificantBits() ^ id.getLeastSignificantBits());
+		long h2 = mix(h1 + GOLDEN_GAMMA) | 1;
+		for (int i = 0; i < hashCount; i++) {
+			int index = (int) Long.remainderUnsigned(h1 + i * h2, bitCount);
+			if ((bits.get(index >>> 6) & (1L << index)) == 0) return false;
+		}
+		return true;
+	}
+	/**
+	 * 想定要素数を返す。
+	 *
+	 * @return 想定要素数
+	 */
+	public int capacity() {
+		return capacity;
+	}
+	/**
+	 * ビット配列のおおよそのメモリ使用量（バイト）を返す。
+	 *
+	 * @return メモリ使用量
+	 */
+	public int sizeInBytes() {
+		return bits.length() * Long.BYTES;
+	}
+
+	/**
+	 * 64ビット値を攪拌する（SplitMix64 の最終化処理）。
+	 *
+	 * @param z 入力値
+	 * @return 攪拌後の値
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,32 @@
+package com.example.sns.util;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * UUIDをPostgreSQLの uuid 型と同じ順序（符号なしのバイト順）で比較するユーティリティクラス。
+ *
+ * {@link UUID#compareTo} は上位・下位64ビットを符号付きで比較するため、DB側の ORDER BY と順序が一致しない。
+ * DB側と同じ順に行ロックを取る必要がある箇所（デッドロックの回避）やキーセット条件では、こちらを使う。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+public class UuidOrder {
+	/** PostgreSQLの uuid 型と同じ昇順 */
+	public static final Comparator<UUID> UNSIGNED = UuidOrder::compare;
+
+	private UuidOrder() {} // インスタンス化防止
+
+	/**
+	 * UUIDを符号なしのバイト順で比較する。
+	 *
+	 * @param a 比較対象1
+	 * @param b 比較対象2
+	 * @return 比較結果
+	 */
+	public static int compare(UUID a, UUID b) {
+		int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+		return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+	}
+}
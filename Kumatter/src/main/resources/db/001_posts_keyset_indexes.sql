@@ -0,0 +1,15 @@
+-- ============================================================
+-- 001: タイムラインのキーセットページング用インデックス
+--
+-- (created_at, post_id) の行値比較で次ページを範囲走査するため、
+-- 並び順と同じ複合インデックスを作成する。
+-- 稼働中のテーブルに適用するため CONCURRENTLY で作成する。
+-- ============================================================
+
+-- 全体タイムライン（/api/posts/all）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_created_at_post_id
+    ON posts (created_at DESC, post_id DESC);
+
+-- ユーザー別（/api/posts/user/{userId}）・フォロー中（/api/posts/timeline）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_user_id_created_at_post_id
+    ON posts (user_id, created_at DESC, post_id DESC);
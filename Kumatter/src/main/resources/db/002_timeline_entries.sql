@@ -0,0 +1,38 @@
+-- ============================================================
+-- 002: ホームタイムライン受信箱（書き込み時ファンアウト）
+--
+-- sns.timeline.engine=inbox を有効にする前に、011（ファンアウト用の follows のインデックス）とあわせて適用する。
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS timeline_entries (
+    entry_id   UUID        NOT NULL PRIMARY KEY,
+    owner_id   UUID        NOT NULL,
+    post_id    UUID        NOT NULL,
+    author_id  UUID        NOT NULL,
+    created_at TIMESTAMP   NOT NULL,
+    CONSTRAINT uk_timeline_entries_owner_post UNIQUE (owner_id, post_id)
+);
+
+-- 受信箱のキーセットページング用
+CREATE INDEX IF NOT EXISTS idx_timeline_entries_owner_created
+    ON timeline_entries (owner_id, created_at DESC, post_id DESC);
+
+-- フォロー解除時の刈り込み用
+CREATE INDEX IF NOT EXISTS idx_timeline_entries_owner_author
+    ON timeline_entries (owner_id, author_id);
+
+-- 既存データからの初期投入
+-- 各ユーザーについて、フォロー中ユーザーの投稿を新しい順に 800 件
+-- （sns.timeline.inbox.capacity と同じ値）まで受信箱に入れる。
+-- 自分の投稿は読み取り時に posts からマージするため入れない（ファンアウトと同じ）。
+INSERT INTO timeline_entries (entry_id, owner_id, post_id, author_id, created_at)
+SELECT gen_random_uuid(), u.user_id, p.post_id, p.user_id, p.created_at
+FROM users u
+CROSS JOIN LATERAL (
+    SELECT post_id, user_id, created_at
+    FROM posts
+    WHERE user_id IN (SELECT followee_id FROM follows WHERE follower_id = u.user_id)
+    ORDER BY created_at DESC, post_id DESC
+    LIMIT 800
+) p
+ON CONFLICT (owner_id, post_id) DO NOTHING;
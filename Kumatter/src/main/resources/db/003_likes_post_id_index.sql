@@ -0,0 +1,10 @@
+-- ============================================================
+-- 003: 投稿ごとのいいね集計用インデックス
+--
+-- 投稿表示用の一括取得クエリは、ページ内の各投稿のいいね数を
+-- post_id で集計する。likes のユニーク制約 (user_id, post_id) は
+-- user_id 先頭のため、post_id 単独のインデックスを追加する。
+-- ============================================================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_likes_post_id
+    ON likes (post_id);
@@ -0,0 +1,16 @@
+-- ============================================================
+-- 004: 投稿のいいね数カウンタ（非正規化）
+--
+-- 表示のたびに likes を COUNT で集計しないよう、posts に
+-- いいね数を保持する。カウンタはいいねの追加・削除と同じ
+-- トランザクションで加減算し、定期ジョブで実件数と照合する。
+-- ============================================================
+
+ALTER TABLE posts
+    ADD COLUMN IF NOT EXISTS like_count INTEGER NOT NULL DEFAULT 0;
+
+-- 既存データの初期値
+UPDATE posts p
+   SET like_count = c.actual
+  FROM (SELECT post_id, COUNT(*) AS actual FROM likes GROUP BY post_id) c
+ WHERE p.post_id = c.post_id;
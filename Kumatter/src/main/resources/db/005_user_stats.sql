@@ -0,0 +1,26 @@
+-- ============================================================
+-- 005: ユーザーごとの件数（非正規化）
+--
+-- プロフィール表示のたびに posts / follows / likes を COUNT で
+-- 集計しないよう、ユーザーごとの投稿数・フォロー数・フォロワー数・
+-- いいね数を user_stats に保持する。件数は各操作と同じトランザクションで
+-- 加減算し、定期ジョブで実件数と照合する。
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS user_stats (
+    user_id         UUID    PRIMARY KEY REFERENCES users (user_id) ON DELETE CASCADE,
+    post_count      INTEGER NOT NULL DEFAULT 0,
+    following_count INTEGER NOT NULL DEFAULT 0,
+    follower_count  INTEGER NOT NULL DEFAULT 0,
+    liked_count     INTEGER NOT NULL DEFAULT 0
+);
+
+-- 既存データの初期値
+INSERT INTO user_stats (user_id, post_count, following_count, follower_count, liked_count)
+SELECT u.user_id,
+       (SELECT COUNT(*) FROM posts p   WHERE p.user_id = u.user_id),
+       (SELECT COUNT(*) FROM follows f WHERE f.follower_id = u.user_id),
+       (SELECT COUNT(*) FROM follows f WHERE f.followee_id = u.user_id),
+       (SELECT COUNT(*) FROM likes l   WHERE l.user_id = u.user_id)
+  FROM users u
+ON CONFLICT (user_id) DO NOTHING;
@@ -0,0 +1,17 @@
+-- ============================================================
+-- 006: フォロー・フォロワー一覧のキーセットページング用インデックス
+--
+-- (created_at, follow_id) の行値比較で次ページを範囲走査するため、
+-- 並び順と同じ複合インデックスを作成する。
+-- 相手のユーザーIDを INCLUDE し、follows 本体を読まずに
+-- インデックスのみで一覧を返せるようにする（カバリングインデックス）。
+-- 稼働中のテーブルに適用するため CONCURRENTLY で作成する。
+-- ============================================================
+
+-- フォロワー一覧（/api/users/{userId}/followers）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_followee_id_created_at_follow_id
+    ON follows (followee_id, created_at DESC, follow_id DESC) INCLUDE (follower_id);
+
+-- フォロー中一覧（/api/users/{userId}/following）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_follower_id_created_at_follow_id
+    ON follows (follower_id, created_at DESC, follow_id DESC) INCLUDE (followee_id);
@@ -0,0 +1,12 @@
+-- ============================================================
+-- 007: いいねした投稿一覧のキーセットページング用インデックス
+--
+-- ユーザーのいいねを (created_at, like_id) の行値比較で範囲走査するため、
+-- 並び順と同じ複合インデックスを作成する。
+-- 投稿IDを INCLUDE し、likes 本体を読まずに投稿へ結合できるようにする。
+-- 稼働中のテーブルに適用するため CONCURRENTLY で作成する。
+-- ============================================================
+
+-- いいねした投稿一覧（/api/posts/liked/{userId}）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_likes_user_id_created_at_like_id
+    ON likes (user_id, created_at DESC, like_id DESC) INCLUDE (post_id);
@@ -0,0 +1,14 @@
+-- ============================================================
+-- 008: 急上昇投稿スコアのチェックポイント
+--
+-- 急上昇投稿（/api/posts/trending）のスコアはメモリ上で
+-- いいねのたびに更新し、一定間隔でこのテーブルへ書き出す。
+-- 起動時はこのテーブルから読み込み、書き出し時刻からの経過時間分を
+-- 減衰させて再開する。
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS post_trending_scores (
+    post_id   UUID             PRIMARY KEY REFERENCES posts (post_id) ON DELETE CASCADE,
+    score     DOUBLE PRECISION NOT NULL,
+    scored_at TIMESTAMP        NOT NULL
+);
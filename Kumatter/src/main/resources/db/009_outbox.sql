@@ -0,0 +1,31 @@
+-- ============================================================
+-- 009: ドメインイベントのアウトボックス
+--
+-- 投稿・いいね・フォローの変更と同じトランザクションでイベントを記録し、
+-- OutboxDispatcher がバッチで取り出して購読者へ配信する（少なくとも1回）。
+-- 同じ集約（操作したユーザー）のイベントは記録順に配信する。
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS outbox (
+    event_id        BIGSERIAL    PRIMARY KEY,
+    aggregate_id    UUID         NOT NULL,
+    event_type      VARCHAR(64)  NOT NULL,
+    payload         TEXT         NOT NULL,
+    created_at      TIMESTAMP    NOT NULL DEFAULT now(),
+    next_attempt_at TIMESTAMP    NOT NULL DEFAULT now(),
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    last_error      TEXT,
+    dispatched_at   TIMESTAMP
+);
+
+-- 未配信イベントの取り出し（記録順）
+CREATE INDEX IF NOT EXISTS idx_outbox_pending
+    ON outbox (event_id) WHERE dispatched_at IS NULL;
+
+-- 同じ集約の先行する未配信イベントの有無の判定
+CREATE INDEX IF NOT EXISTS idx_outbox_pending_aggregate
+    ON outbox (aggregate_id, event_id) WHERE dispatched_at IS NULL;
+
+-- 配信済みイベントの削除
+CREATE INDEX IF NOT EXISTS idx_outbox_dispatched_at
+    ON outbox (dispatched_at) WHERE dispatched_at IS NOT NULL;
@@ -0,0 +1,29 @@
+-- ============================================================
+-- 010: 投稿のハッシュタグ・メンション
+--
+-- 投稿作成時に本文から抽出した #タグ と @ログインID を保存する。
+-- タグ別の投稿一覧（/api/tags/{tag}/posts）は posts.content を走査せず、
+-- (tag, created_at, post_id) の主キーを範囲走査して取得する。
+-- 作成日時は posts.created_at の複製で、キーセットページングのキーとなる。
+--
+-- timeline_entries と同様に、参照整合性のためのリレーションは持たない
+-- （投稿の保存と同じトランザクションでJDBCバッチにより書き込むため）。
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS post_tags (
+    tag        VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP   NOT NULL,
+    post_id    UUID        NOT NULL,
+    PRIMARY KEY (tag, created_at, post_id)
+);
+
+-- 急上昇タグの集計期間分の読み込み（起動時）
+CREATE INDEX IF NOT EXISTS idx_post_tags_created_at
+    ON post_tags (created_at);
+
+CREATE TABLE IF NOT EXISTS post_mentions (
+    mentioned_user_id UUID      NOT NULL,
+    created_at        TIMESTAMP NOT NULL,
+    post_id           UUID      NOT NULL,
+    PRIMARY KEY (mentioned_user_id, created_at, post_id)
+);
@@ -0,0 +1,11 @@
+-- ============================================================
+-- 011: ファンアウト用の follows インデックス
+--
+-- 受信箱方式（002）のファンアウトで、投稿者のフォロワーを followee_id で引くため、
+-- sns.timeline.engine=inbox を有効にする前に適用する。
+-- 稼働中のテーブルに適用するため CONCURRENTLY で作成する
+-- （トランザクション内では実行できないため、002 とは別に実行する）。
+-- ============================================================
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_followee_id
+    ON follows (followee_id);
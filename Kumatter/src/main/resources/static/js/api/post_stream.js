@@ -0,0 +1,34 @@
+/**
+ * ファイル名: post_stream.js
+ * 概要:
+ *   新着投稿ストリーム（Server-Sent Events）への接続を扱う関数群。
+ *   - /api/posts/stream へ接続し、新着投稿を受信する
+ *   - 切断時はブラウザが Last-Event-ID 付きで自動再接続し、取りこぼしが再送される
+ * 
+ * @author 岡本
+ * @since 2026-10-18
+ */
+
+/**
+ * 新着投稿ストリームに接続する。
+ *
+ * @param {string} mode - 'followed'（フォロー中） or 'all'（全体）
+ * @param {string|null} lastEventId - 前回の接続で最後に受信したイベントID（初回はnull）
+ * @param {Object} handlers - イベントハンドラ
+ * @param {function(string): void} handlers.onReady - 初回接続時（現在の配信位置を表すイベントID）
+ * @param {function(Object, string): void} handlers.onPost - 新着投稿受信時（投稿データ, イベントID）
+ * @param {function(): void} handlers.onReset - 再送できない範囲の取りこぼしがあり、再取得が必要な場合
+ * @returns {EventSource} 接続（close() で切断）
+ */
+export function openPostStream(mode, lastEventId, { onReady, onPost, onReset }) {
+  const params = new URLSearchParams({ mode });
+  if (lastEventId) params.set('lastEventId', lastEventId);
+
+  const source = new EventSource(`/api/posts/stream?${params}`);
+  source.addEventListener('ready', event => onReady(event.lastEventId));
+  source.addEventListener('post', event => {
+    onPost(JSON.parse(event.data), event.lastEventId);
+  });
+  source.addEventListener('reset', () => onReset());
+  return source;
+}
@@ -4,43 +4,77 @@
  *   タイムライン投稿データの取得APIを呼び出す関数群。
  *   - フォロー中の投稿 or 全体投稿の取得
  *   - 指定ユーザーの投稿の取得
+ *   - 指定ユーザーがいいねした投稿の取得
  * 
  * @author 岡本
  * @since 2025-07-17
  */
 
 /**
- * タイムライン（フォロー中 or 全体）投稿を取得するAPI。
+ * ページングAPIのURLにカーソルを付与する。
+ *
+ * @param {string} url - ベースURL
+ * @param {string|null} cursor - 前ページのレスポンスに含まれるnextカーソル
+ * @returns {string} クエリ付きURL
+ */
+function withCursor(url, cursor) {
+  return cursor ? `${url}?cursor=${encodeURIComponent(cursor)}` : url;
+}
+
+/**
+ * タイムライン（フォロー中 or 全体）投稿を1ページ分取得するAPI。
  * 
  * @param {string} mode - 'followed'（フォロー中） or 'all'（全体）
- * @returns {Promise<Array<Object>>} 投稿データの配列
+ * @param {string|null} cursor - 次ページ取得時のカーソル（先頭ページはnull）
+ * @returns {Promise<{items: Array<Object>, next: string|null}>} 投稿データのページ
  */
-export async function fetchTimelinePosts(mode = 'followed') {
+export async function fetchTimelinePosts(mode = 'followed', cursor = null) {
   const url = mode === 'all' ? '/api/posts/all' : '/api/posts/timeline';
 
-  const response = await fetch(url); // GETなのでCSRF不要
+  const response = await fetch(withCursor(url, cursor)); // GETなのでCSRF不要
   if (!response.ok) {
     throw new Error(`タイムラインの取得に失敗しました: ${response.status}`);
   }
 
-  return await response.json(); // 投稿データの配列を返す
+  return await response.json(); // { items: 投稿データの配列, next: 次ページカーソル }
 }
 
 /**
- * 指定ユーザーの投稿一覧を取得するAPI。
+ * 指定ユーザーの投稿一覧を1ページ分取得するAPI。
  * 
  * @param {string} userId - 投稿を取得する対象ユーザーのID
- * @returns {Promise<Array<Object>>} 投稿データの配列
+ * @param {string|null} cursor - 次ページ取得時のカーソル（先頭ページはnull）
+ * @returns {Promise<{items: Array<Object>, next: string|null}>} 投稿データのページ
  */
-export async function fetchUserPosts(userId) {
+export async function fetchUserPosts(userId, cursor = null) {
   if (!userId) {
     throw new Error('ユーザーIDが指定されていません');
   }
 
-  const response = await fetch(`/api/posts/user/${userId}`); // こちらもGETなのでCSRF不要
+  const response = await fetch(withCursor(`/api/posts/user/${userId}`, cursor)); // こちらもGETなのでCSRF不要
   if (!response.ok) {
     throw new Error(`ユーザー投稿の取得に失敗しました: ${response.status}`);
   }
 
-  return await response.json(); // 投稿データの配列を返す
-}
\ No newline at end of file
+  return await response.json(); // { items: 投稿データの配列, next: 次ページカーソル }
+}
+
+/**
+ * 指定ユーザーがいいねした投稿を1ページ分取得するAPI（いいねした日時の新しい順）。
+ * 
+ * @param {string} userId - いいねしたユーザーのID
+ * @param {string|null} cursor - 次ページ取得時のカーソル（先頭ページはnull）
+ * @returns {Promise<{items: Array<Object>, next: string|null}>} 投稿データのページ
+ */
+export async function fetchLikedPosts(userId, cursor = null) {
+  if (!userId) {
+    throw new Error('ユーザーIDが指定されていません');
+  }
+
+  const response = await fetch(withCursor(`/api/posts/liked/${userId}`, cursor)); // GETなのでCSRF不要
+  if (!response.ok) {
+    throw new Error(`いいねした投稿の取得に失敗しました: ${response.status}`);
+  }
+
+  return await response.json(); // { items: 投稿データの配列, next: 次ページカーソル }
+}
@@ -4,6 +4,8 @@
  *  タイムライン画面やユーザー投稿画面で共通使用される「投稿カードの描画ロジック」。
  *   - 投稿データから投稿カードDOMを生成する
  *   - 投稿リスト全体を描画する
+ *   - 新着投稿を先頭に追加する
+ *   - 投稿日時を相対時刻（「3分前」など）で表示し、1分ごとに更新する
  *   - 「いいねボタン」初期化もここで行う（UIの責務）
  * 
  * @author 岡本
@@ -12,6 +14,38 @@
 
 import { initializeLikeButtons } from './like_btn.js';
 
+/** 相対時刻の再描画間隔（ミリ秒） */
+const RELATIVE_TIME_REFRESH_MS = 60 * 1000;
+
+/**
+ * 投稿日時を現在時刻からの相対時刻に変換する。
+ *
+ * @param {number} postedAt - 投稿日時（エポックミリ秒）
+ * @param {number} [now=Date.now()] - 基準となる現在時刻（エポックミリ秒）
+ * @returns {string} - 相対時刻（例: "たった今", "5分前", "3時間前", "2日前"）
+ */
+export function formatRelativeTime(postedAt, now = Date.now()) {
+  if (!postedAt) return '';
+  const minutes = Math.floor(Math.max(0, now - postedAt) / (60 * 1000));
+  if (minutes < 1) return 'たった今';
+  if (minutes < 60) return `${minutes}分前`;
+  const hours = Math.floor(minutes / 60);
+  if (hours < 24) return `${hours}時間前`;
+  return `${Math.floor(hours / 24)}日前`;
+}
+
+/**
+ * 画面内のすべての相対時刻表示を現在時刻で更新する。
+ */
+function refreshRelativeTimes() {
+  const now = Date.now();
+  document.querySelectorAll('.relative-time[data-posted-at]').forEach(time => {
+    time.textContent = formatRelativeTime(Number(time.dataset.postedAt), now);
+  });
+}
+
+setInterval(refreshRelativeTimes, RELATIVE_TIME_REFRESH_MS);
+
 /**
  * 投稿カードのHTML要素を生成（PostViewDtoに準拠）
  *
@@ -21,7 +55,7 @@ import { initializeLikeButtons } from './like_btn.js';
  * @param {string} post.userName
  * @param {string} post.loginId
  * @param {string} post.content
- * @param {string} post.relativeTime - 表示用の経過時間（例: "3分前"）
+ * @param {number} post.postedAt - 投稿日時（エポックミリ秒。相対時刻で表示する）
  * @param {number} post.likeCount
  * @returns {HTMLElement} - 投稿カードDOM要素
  */
@@ -45,7 +79,9 @@ export function createPostCard(post) {
 
   const time = document.createElement('span');
   time.className = 'relative-time';
-  time.textContent = post.relativeTime;
+  time.dataset.postedAt = post.postedAt;
+  time.title = new Date(post.postedAt).toLocaleString();
+  time.textContent = formatRelativeTime(post.postedAt);
 
   header.append(userLink, loginId, time);
 
@@ -81,6 +117,18 @@ export function renderPostList(container, posts) {
 
   container.innerHTML = ''; // 一度中身をクリア
 
+  appendPostList(container, posts);
+}
+
+/**
+ * 既存の投稿リストの末尾に投稿を追加描画する（「もっと見る」用）。
+ *
+ * @param {HTMLElement} container - 描画先のDOM要素
+ * @param {Array<Object>} posts - 追加する投稿データ配列
+ */
+export function appendPostList(container, posts) {
+  if (!container) return;
+
   posts.forEach(post => {
     const postCard = createPostCard(post);
     container.appendChild(postCard);
@@ -88,4 +136,46 @@ export function renderPostList(container, posts) {
 
   // 各投稿に「いいねボタン」を初期化（UIイベント登録も）
   initializeLikeButtons(posts, container);
+}
+
+/**
+ * 新着投稿を投稿リストの先頭に追加描画する（新着投稿ストリーム用）。
+ * 既に表示済みの投稿は追加しない。
+ *
+ * @param {HTMLElement} container - 描画先のDOM要素
+ * @param {Object} post - 追加する投稿データ
+ */
+export function prependPost(container, post) {
+  if (!container) return;
+  if (container.querySelector(`.post-card[data-post-id="${post.postId}"]`)) return;
+
+  container.prepend(createPostCard(post));
+  initializeLikeButtons([post], container);
+}
+
+/**
+ * 次ページがある場合に「もっと見る」ボタンを投稿リストの末尾に表示する。
+ * ボタン押下時は自身を取り除いてから onLoadMore(next) を呼び出す。
+ *
+ * @param {HTMLElement} container - 投稿リストのDOM要素
+ * @param {string|null} next - 次ページカーソル（nullなら表示しない）
+ * @param {function(string): Promise<void>} onLoadMore - 次ページ読み込み処理
+ */
+export function renderLoadMoreButton(container, next, onLoadMore) {
+  if (!container) return;
+
+  // 二重表示防止：既存のボタンを削除
+  const oldBtn = container.querySelector('.load-more-button');
+  if (oldBtn) oldBtn.remove();
+  if (!next) return;
+
+  const btn = document.createElement('button');
+  btn.type = 'button';
+  btn.className = 'load-more-button';
+  btn.textContent = 'もっと見る';
+  btn.addEventListener('click', async () => {
+    btn.remove();
+    await onLoadMore(next);
+  });
+  container.appendChild(btn);
 }
\ No newline at end of file
@@ -3,16 +3,26 @@
  * 概要:
  * - ホーム画面のタイムライン表示を担当。
  * - フォロー中・全体モードの切り替えと投稿データの取得・描画を行う。
+ * - 表示中のモードの新着投稿をストリームで受信し、先頭に追加する。
+ * - 一度表示したモードはタブ切替時に再取得せず、ストリームの再送で差分だけを追加する。
  * 
  * @author 岡本
  * @since 2025-07-17
  */
 
+import { openPostStream } from '../../api/post_stream.js';
 import { fetchTimelinePosts } from '../../api/timeline_api.js';
-import { renderPostList } from '../../components/timeline_view.js';
+import { appendPostList, prependPost, renderLoadMoreButton, renderPostList } from '../../components/timeline_view.js';
+
+/** 表示済みのモード */
+const loadedModes = new Set();
+/** モードごとの最後に受信したイベントID（タブ切替後の再接続で取りこぼしを再送させる） */
+const lastEventIds = {};
+/** 接続中の新着投稿ストリーム */
+let activeStream = null;
 
 /**
- * ホーム画面のタイムラインを描画する。
+ * ホーム画面のタイムラインを描画する（先頭ページ）。
  *
  * @param {string} mode - タイムライン表示モード ('followed' | 'all')
  *
@@ -24,20 +34,68 @@ import { renderPostList } from '../../components/timeline_view.js';
  */
 async function renderHomeTimeline(mode = 'followed') {
   try {
-    const posts = await fetchTimelinePosts(mode);
+    const page = await fetchTimelinePosts(mode);
     const container = document.querySelector(`.${mode}-list`);
     if (!container) return;
 
-    renderPostList(container, posts);
+    renderPostList(container, page.items);
+    renderLoadMoreButton(container, page.next, cursor => loadMoreTimeline(mode, cursor));
+    loadedModes.add(mode);
   } catch (error) {
     console.error('タイムライン取得エラー:', error);
     alert('タイムラインの取得に失敗しました。');
   }
 }
 
+/**
+ * 「もっと見る」押下時に次ページを取得し、既存の投稿リストの末尾に追加する。
+ *
+ * @param {string} mode - タイムライン表示モード ('followed' | 'all')
+ * @param {string} cursor - 前ページのレスポンスに含まれるnextカーソル
+ */
+async function loadMoreTimeline(mode, cursor) {
+  try {
+    const page = await fetchTimelinePosts(mode, cursor);
+    const container = document.querySelector(`.${mode}-list`);
+    if (!container) return;
+
+    appendPostList(container, page.items);
+    renderLoadMoreButton(container, page.next, next => loadMoreTimeline(mode, next));
+  } catch (error) {
+    console.error('タイムライン取得エラー:', error);
+    alert('タイムラインの取得に失敗しました。');
+  }
+}
+
+/**
+ * 指定モードの新着投稿ストリームに接続する（接続中のストリームは閉じる）。
+ * 受信した投稿は投稿リストの先頭に追加する。
+ *
+ * @param {string} mode - タイムライン表示モード ('followed' | 'all')
+ */
+function startPostStream(mode) {
+  if (activeStream) activeStream.close();
+
+  activeStream = openPostStream(mode, lastEventIds[mode], {
+    onReady: eventId => {
+      lastEventIds[mode] = eventId;
+    },
+    onPost: (post, eventId) => {
+      lastEventIds[mode] = eventId;
+      prependPost(document.querySelector(`.${mode}-list`), post);
+    },
+    onReset: () => {
+      // 再送できない範囲の取りこぼしがあるため、先頭ページから取得し直す
+      lastEventIds[mode] = null;
+      renderHomeTimeline(mode);
+    }
+  });
+}
+
 /**
  * タイムラインのタブ切替処理をセットアップする。
- * タブクリック時に投稿リストを切り替え、対応する投稿を再取得・再描画する。
+ * タブクリック時に投稿リストを切り替え、未表示のモードのみ投稿を取得・描画する。
+ * 表示済みのモードはストリームの再送で差分だけを追加する。
  *
  * 使用例:
  *   setupTabSwitching();
@@ -58,12 +116,14 @@ function setupTabSwitching() {
       const targetList = document.querySelector(`.${mode}-list`);
       if (targetList) targetList.classList.add('active');
 
-      await renderHomeTimeline(mode);
+      startPostStream(mode);
+      if (!loadedModes.has(mode)) await renderHomeTimeline(mode);
     });
   });
 }
 
 document.addEventListener('DOMContentLoaded', async () => {
+  startPostStream('followed');
   await renderHomeTimeline('followed'); // 初期表示はフォロー中投稿
   setupTabSwitching();
 });
\ No newline at end of file
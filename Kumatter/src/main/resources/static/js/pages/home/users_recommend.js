@@ -0,0 +1,76 @@
+/**
+ * ファイル名: users_recommend.js
+ * 概要:
+ * - ホーム画面サイドバーの「おすすめユーザー」表示スクリプト。
+ * - フォローしているユーザーがフォローしているユーザーを、共通のつながりの多い順に表示する。
+ * - フォローボタン操作は follow_btn.js に委譲。
+ * 
+ * @author 岡本
+ * @since 2026-10-18
+ */
+import { getCsrfHeaders } from '../../util/csrf_util.js';
+import { createFollowButton } from '../../components/follow_btn.js';
+
+/** 表示する件数 */
+const LIMIT = 5;
+
+document.addEventListener('DOMContentLoaded', () => {
+  const section = document.getElementById('user-recommendations-section');
+  const list = document.getElementById('user-recommendations');
+  if (!section || !list) return;
+
+  fetch(`/api/users/recommendations?limit=${LIMIT}`, {
+    method: 'GET',
+    headers: getCsrfHeaders('GET'),
+    credentials: 'same-origin',
+  })
+    .then(response => {
+      if (!response.ok) throw new Error('ネットワークエラー');
+      return response.json();
+    })
+    .then(data => {
+      list.innerHTML = '';
+      if (data.length === 0) {
+        // 候補が無い場合はサイドバーごと非表示
+        section.style.display = 'none';
+        return;
+      }
+
+      data.forEach(user => {
+        const li = document.createElement('li');
+        li.className = 'user-suggestion-item';
+
+        // ユーザー名・ログインID・共通のつながりの数
+        const leftInfo = document.createElement('div');
+        leftInfo.className = 'user-info';
+
+        const nameLink = document.createElement('a');
+        nameLink.href = `/users/${user.userId}`;
+        nameLink.textContent = user.userName;
+
+        const loginIdSpan = document.createElement('span');
+        loginIdSpan.className = 'user-login-id';
+        loginIdSpan.textContent = ` (@${user.loginId})`;
+
+        const mutualSpan = document.createElement('span');
+        mutualSpan.className = 'user-follow-back';
+        mutualSpan.textContent = user.followingLoginUser
+          ? 'フォローされています'
+          : `共通のつながり ${user.mutualCount} 人`;
+
+        leftInfo.appendChild(nameLink);
+        leftInfo.appendChild(loginIdSpan);
+        leftInfo.appendChild(mutualSpan);
+
+        li.appendChild(leftInfo);
+        li.appendChild(createFollowButton({ userId: user.userId, followedByLoginUser: false }));
+        list.appendChild(li);
+      });
+
+      section.style.display = 'block';
+    })
+    .catch(() => {
+      // エラー時はサイドバーを表示しない
+      section.style.display = 'none';
+    });
+});
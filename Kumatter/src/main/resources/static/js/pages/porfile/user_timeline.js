@@ -2,18 +2,71 @@
  * ファイル名: user_timeline.js
  * 概要:
  * - ユーザー詳細ページに表示される投稿一覧（タイムライン）の描画を担当。
+ * - 「いいねした投稿」タブのコンテナがあれば、いいねした投稿の一覧も描画する。
  * - 対象ユーザーIDはHTMLの <body data-user-id="..."> 属性から取得。
  *
  * 必要な前提:
  * - <body data-user-id="..."> がHTML上に存在していること
  * - 投稿表示用コンテナとして <div id="user-post-list"> が存在していること
+ * - （任意）いいねした投稿の表示用コンテナとして <div id="user-liked-post-list"> が存在していること
  *
  * @author 岡本
  * @since 2025-07-18
  */
 
-import { fetchUserPosts } from '../api/timeline_api.js';
-import { renderPostList } from '../components/timeline_view.js';
+import { fetchLikedPosts, fetchUserPosts } from '../../api/timeline_api.js';
+import { appendPostList, renderLoadMoreButton, renderPostList } from '../../components/timeline_view.js';
+
+/**
+ * 「もっと見る」押下時に次ページを取得し、投稿一覧の末尾に追加する。
+ *
+ * @param {string} userId - 対象ユーザーID
+ * @param {HTMLElement} container - 投稿表示コンテナ
+ * @param {string} cursor - 前ページのレスポンスに含まれるnextカーソル
+ */
+async function loadMoreUserPosts(userId, container, cursor) {
+  try {
+    const page = await fetchUserPosts(userId, cursor);
+    appendPostList(container, page.items);
+    renderLoadMoreButton(container, page.next, next => loadMoreUserPosts(userId, container, next));
+  } catch (error) {
+    console.error('ユーザー投稿の読み込み失敗:', error);
+  }
+}
+
+/**
+ * 「もっと見る」押下時に、いいねした投稿の次ページを取得して一覧の末尾に追加する。
+ *
+ * @param {string} userId - 対象ユーザーID
+ * @param {HTMLElement} container - 投稿表示コンテナ
+ * @param {string} cursor - 前ページのレスポンスに含まれるnextカーソル
+ */
+async function loadMoreLikedPosts(userId, container, cursor) {
+  try {
+    const page = await fetchLikedPosts(userId, cursor);
+    appendPostList(container, page.items);
+    renderLoadMoreButton(container, page.next, next => loadMoreLikedPosts(userId, container, next));
+  } catch (error) {
+    console.error('いいねした投稿の読み込み失敗:', error);
+  }
+}
+
+/**
+ * いいねした投稿の先頭ページを描画する（コンテナが無いページでは何もしない）。
+ *
+ * @param {string} userId - 対象ユーザーID
+ */
+async function renderLikedPosts(userId) {
+  const container = document.getElementById('user-liked-post-list');
+  if (!container) return;
+  try {
+    const page = await fetchLikedPosts(userId);
+    renderPostList(container, page.items);
+    renderLoadMoreButton(container, page.next, next => loadMoreLikedPosts(userId, container, next));
+  } catch (error) {
+    console.error('いいねした投稿の読み込み失敗:', error);
+  }
+}
 
 document.addEventListener('DOMContentLoaded', async () => {
   try {
@@ -24,8 +77,11 @@ document.addEventListener('DOMContentLoaded', async () => {
       return;
     }
 
-    // ユーザーの投稿を非同期で取得
-    const posts = await fetchUserPosts(userId);
+    // いいねした投稿は投稿一覧と並行して取得・描画する
+    renderLikedPosts(userId);
+
+    // ユーザーの投稿（先頭ページ）を非同期で取得
+    const page = await fetchUserPosts(userId);
 
     // 投稿描画先のコンテナを取得
     const container = document.getElementById('user-post-list');
@@ -34,8 +90,9 @@ document.addEventListener('DOMContentLoaded', async () => {
       return;
     }
 
-    // 投稿一覧を描画
-    renderPostList(container, posts);
+    // 投稿一覧を描画し、次ページがあれば「もっと見る」を表示
+    renderPostList(container, page.items);
+    renderLoadMoreButton(container, page.next, next => loadMoreUserPosts(userId, container, next));
   } catch (error) {
     console.error('ユーザー投稿の読み込み失敗:', error);
   }
@@ -0,0 +1,173 @@
+package com.example.sns.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.sns.entity.Posts;
+import com.example.sns.entity.Users;
+
+/**
+ * フォロー・いいねの同時書き込みテスト。
+ * 多数のスレッドが同じ（ユーザー, 相手）・（ユーザー, 投稿）の組を同時に切り替えても
+ * 例外が発生せず、フォロー関係・いいね・各カウンタ・フォローグラフが整合することを確認する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+@SpringBootTest(properties = "sns.likes.write-mode=direct")
+class FollowLikeContentionTest {
+	private static final int THREADS = 16;
+	private static final int OPERATIONS_PER_THREAD = 50;
+
+	@Autowired
+	private UsersService usersService;
+	@Autowired
+	private PostsService postsService;
+	@Autowired
+	private FollowsService followsService;
+	@Autowired
+	private LikesService likesService;
+	@Autowired
+	private FollowGraphService followGraphService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Users follower;
+	private Users followee;
+	private Posts post;
+
+	@BeforeEach
+	void setUp() {
+		follower = registerUser();
+		followee = registerUser();
+		post = postsService.createNormalPost(followee, "同時書き込みテスト");
+	}
+	@AfterEach
+	void tearDown() {
+		List<UUID> userIds = List.of(follower.getUserId(), followee.getUserId());
+		for (UUID userId : userIds) {
+			jdbcTemplate.update("DELETE FROM likes WHERE user_id = ?", userId);
+			jdbcTemplate.update("DELETE FROM follows WHERE follower_id = ? OR followee_id = ?", userId, userId);
+			jdbcTemplate.update("DELETE FROM timeline_entries WHERE owner_id = ? OR author_id = ?", userId, userId);
+		}
+		jdbcTemplate.update("DELETE FROM posts WHERE post_id = ?", post.getPostId());
+		for (UUID userId : userIds) {
+			jdbcTemplate.update("DELETE FROM user_stats WHERE user_id = ?", userId);
+			jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId);
+		}
+	}
+	@Test
+	void concurrentFollowToggleKeepsRelationshipAndCountsConsistent() throws Exception {
+		UUID followerId = follower.getUserId();
+		UUID followeeId = followee.getUserId();
+		List<Throwable> errors = runConcurrently(() -> {
+			if (ThreadLocalRandom.current().nextBoolean()) {
+				followsService.follow(followerId, followeeId);
+			} else {
+				followsService.unfollow(followerId, followeeId);
+			}
+		});
+		assertTrue(errors.isEmpty(), () -> "同時フォロー切り替えで例外が発生: " + errors);
+
+		int rows = count("SELECT COUNT(*) FROM follows WHERE follower_id = ? AND followee_id = ?", followerId, followeeId);
+		assertTrue(rows <= 1);
+		assertEquals(rows, count("SELECT following_count FROM user_stats WHERE user_id = ?", followerId));
+		assertEquals(rows, count("SELECT follower_count FROM user_stats WHERE user_id = ?", followeeId));
+		assertEquals(rows == 1, followGraphService.isFollowing(followerId, followeeId));
+		assertEquals(rows, followGraphService.countFollowees(followerId));
+		assertEquals(rows, followGraphService.countFollowers(followeeId));
+	}
+	@Test
+	void concurrentLikeToggleKeepsLikeAndCountersConsistent() throws Exception {
+		UUID userId = follower.getUserId();
+		String postId = post.getPostId().toString();
+		List<Throwable> errors = runConcurrently(() -> {
+			if (ThreadLocalRandom.current().nextBoolean()) {
+				assertTrue(likesService.addLike(userId, postId).isLiked());
+			} else {
+				assertFalse(likesService.removeLike(userId, postId).isLiked());
+			}
+		});
+		assertTrue(errors.isEmpty(), () -> "同時いいね切り替えで例外が発生: " + errors);
+
+		int rows = count("SELECT COUNT(*) FROM likes WHERE user_id = ? AND post_id = ?", userId, post.getPostId());
+		assertTrue(rows <= 1);
+		assertEquals(rows, count("SELECT like_count FROM posts WHERE post_id = ?", post.getPostId()));
+		assertEquals(rows, count("SELECT liked_count FROM user_stats WHERE user_id = ?", userId));
+		assertEquals(rows, likesService.countLikes(post.getPostId()));
+	}
+	@Test
+	void concurrentDuplicateFollowCreatesSingleRelationship() throws Exception {
+		UUID followerId = follower.getUserId();
+		UUID followeeId = followee.getUserId();
+		List<Throwable> errors = runConcurrently(() -> followsService.follow(followerId, followeeId));
+		assertTrue(errors.isEmpty(), () -> "同時フォローで例外が発生: " + errors);
+
+		assertEquals(1, count("SELECT COUNT(*) FROM follows WHERE follower_id = ? AND followee_id = ?", followerId, followeeId));
+		assertEquals(1, count("SELECT follower_count FROM user_stats WHERE user_id = ?", followeeId));
+		assertTrue(followGraphService.isFollowing(followerId, followeeId));
+	}
+
+	//-- 以下privateメソッド --//
+
+	private Users registerUser() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		return usersService.registerUser(
+				"contention-" + suffix + "@example.com", "ct_" + suffix, "同時書き込み" + suffix, "password", null);
+	}
+	/**
+	 * 全スレッドを同時に開始し、各スレッドで操作を繰り返す。
+	 *
+	 * @param operation 1回分の操作
+	 * @return 発生した例外
+	 */
+	private List<Throwable> runConcurrently(Runnable operation) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+						try {
+							operation.run();
+						} catch (Throwable e) {
+							errors.add(e);
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return new ArrayList<>(errors);
+	}
+	private int count(String sql, Object... args) {
+		Integer value = jdbcTemplate.queryForObject(sql, Integer.class, args);
+		return value == null ? 0 : value;
+	}
+}
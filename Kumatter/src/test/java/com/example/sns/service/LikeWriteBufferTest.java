@@ -0,0 +1,153 @@
+package com.example.sns.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sns.dto.LikeKey;
+import com.example.sns.repository.PostsRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * LikeWriteBuffer の単体テスト。
+ * DBへの反映（LikeBatchWriter）・いいね数・いいね状態の取得をモックに置き換え、
+ * 組ごとの操作の合算、表示用のいいね数、未反映のいいね状態、反映失敗時のバッファへの戻しと新しい操作との合算を確認する。
+ * 定期反映は走らない間隔で生成し、反映は shutdown() で同期的に行う。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+class LikeWriteBufferTest {
+	private static final int BASE_COUNT = 10;
+
+	private final UUID userId = UUID.randomUUID();
+	private final UUID postId = UUID.randomUUID();
+	private final LikeKey key = new LikeKey(userId, postId);
+	/** LikeBatchWriter に渡された操作（呼び出し順） */
+	private final List<Map<LikeKey, Boolean>> writes = new ArrayList<>();
+	private LikeBatchWriter likeBatchWriter;
+	private PostsRepository postsRepository;
+	private LikeMembershipService likeMembershipService;
+	private LikeWriteBuffer buffer;
+
+	@BeforeEach
+	void setUp() {
+		likeBatchWriter = mock(LikeBatchWriter.class);
+		postsRepository = mock(PostsRepository.class);
+		likeMembershipService = mock(LikeMembershipService.class);
+		when(postsRepository.findLikeCountByPostId(postId)).thenReturn(Optional.of(BASE_COUNT));
+		when(likeMembershipService.findLikedAmong(eq(userId), anyCollection())).thenReturn(Set.of());
+		when(likeBatchWriter.write(anyMap())).thenAnswer(invocation -> record(invocation.getArgument(0)));
+		buffer = new LikeWriteBuffer(likeBatchWriter, postsRepository, likeMembershipService,
+				mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 4, 3_600_000, Integer.MAX_VALUE);
+	}
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		buffer.shutdown();
+	}
+	@Test
+	void flushWritesOnlyTheLastOperationPerPair() throws InterruptedException {
+		buffer.submit(userId, postId, true);
+		buffer.submit(userId, postId, false);
+		buffer.submit(userId, postId, true);
+		assertEquals(BASE_COUNT + 1, buffer.currentCount(postId));
+
+		when(postsRepository.findLikeCountByPostId(postId)).thenReturn(Optional.of(BASE_COUNT + 1));
+		buffer.shutdown();
+		assertEquals(List.of(Map.of(key, true)), writes);
+		// 反映後は未反映の増減が消え、DB上のいいね数を読み直す
+		assertEquals(BASE_COUNT + 1, buffer.currentCount(postId));
+	}
+	@Test
+	void likeOfAlreadyLikedPostDoesNotChangeCount() throws InterruptedException {
+		when(likeMembershipService.findLikedAmong(eq(userId), anyCollection())).thenReturn(Set.of(postId));
+		buffer.submit(userId, postId, true);
+		assertEquals(BASE_COUNT, buffer.currentCount(postId));
+		buffer.submit(userId, postId, false);
+		assertEquals(BASE_COUNT - 1, buffer.currentCount(postId));
+		buffer.submit(userId, postId, true);
+		assertEquals(BASE_COUNT, buffer.currentCount(postId));
+	}
+	@Test
+	void unlikeOfNotLikedPostDoesNotChangeCount() {
+		buffer.submit(userId, postId, false);
+		assertEquals(BASE_COUNT, buffer.currentCount(postId));
+	}
+	@Test
+	void restoresOperationsAfterFailedFlush() throws InterruptedException {
+		failFirstWrite(null);
+		buffer.submit(userId, postId, true);
+
+		buffer.shutdown();
+		// 失敗した操作はバッファへ戻り、次の反映で同じ内容を書き込む
+		assertEquals(List.of(Map.of(key, true), Map.of(key, true)), writes);
+	}
+	@Test
+	void mergesNewerOperationIntoRestoredOneAfterFailedFlush() throws InterruptedException {
+		// 反映中に同じ組へ解除が届き、その後に反映が失敗する
+		failFirstWrite(() -> buffer.submit(userId, postId, false));
+		buffer.submit(userId, postId, true);
+		assertEquals(BASE_COUNT + 1, buffer.currentCount(postId));
+
+		buffer.shutdown();
+		// 新しい操作が優先され、DB上の状態（いいね無し）から見て増減の無い操作として再試行される
+		assertEquals(List.of(Map.of(key, true), Map.of(key, false)), writes);
+		assertEquals(BASE_COUNT, buffer.currentCount(postId));
+	}
+	@Test
+	void reportsPendingLikedStateUntilFlushed() throws InterruptedException {
+		UUID otherPostId = UUID.randomUUID();
+		buffer.submit(userId, postId, true);
+		assertEquals(Map.of(postId, true), buffer.findPendingLiked(userId, List.of(postId, otherPostId)));
+
+		// 反映中（コミット前）も、取り出した操作の状態を返す
+		List<Map<UUID, Boolean>> duringWrite = new ArrayList<>();
+		doAnswer(invocation -> {
+			duringWrite.add(buffer.findPendingLiked(userId, List.of(postId)));
+			return record(invocation.getArgument(0));
+		}).when(likeBatchWriter).write(anyMap());
+		buffer.shutdown();
+		assertEquals(List.of(Map.of(postId, true)), duringWrite);
+		assertEquals(Map.of(), buffer.findPendingLiked(userId, List.of(postId)));
+	}
+	@Test
+	void rejectsUnknownPost() {
+		UUID unknown = UUID.randomUUID();
+		when(postsRepository.findLikeCountByPostId(unknown)).thenReturn(Optional.empty());
+		assertThrows(IllegalArgumentException.class, () -> buffer.submit(userId, unknown, true));
+	}
+
+	//-- 以下privateメソッド --//
+
+	private Map<LikeKey, Boolean> record(Map<LikeKey, Boolean> intents) {
+		writes.add(new HashMap<>(intents));
+		return intents;
+	}
+	/**
+	 * 最初の書き込みだけを失敗させる。
+	 *
+	 * @param duringWrite 失敗の前に実行する処理（反映中に届く操作。不要な場合はnull）
+	 */
+	private void failFirstWrite(Runnable duringWrite) {
+		// when() で再設定すると設定済みの応答が呼ばれて記録されるため、doAnswer() で設定する
+		doAnswer(invocation -> {
+			record(invocation.getArgument(0));
+			if (duringWrite != null) duringWrite.run();
+			throw new IllegalStateException("書き込みに失敗しました");
+		}).doAnswer(invocation -> record(invocation.getArgument(0)))
+				.when(likeBatchWriter).write(anyMap());
+	}
+}
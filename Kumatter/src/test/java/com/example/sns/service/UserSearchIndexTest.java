@@ -0,0 +1,140 @@
+package com.example.sns.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sns.dto.UserSearchHit;
+import com.example.sns.event.UserRegisteredEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * UserSearchIndex の単体テスト。
+ * DBからの読み込みは行わず、ユーザー登録イベントで索引に追加したユーザーを検索して、
+ * 一致の判定・並び順・走査の打ち切りと結果の完全性を確認する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+class UserSearchIndexTest {
+	private FollowGraphService followGraphService;
+	private UserSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		followGraphService = mock(FollowGraphService.class);
+		when(followGraphService.countFollowers(any(UUID.class))).thenReturn(0);
+		index = newIndex(5_000);
+	}
+	@Test
+	void ranksByMatchQuality() {
+		register("ktanaka", "K");
+		register("yamada", "Tanaka Fan");
+		register("tanaka_2", "タナカ");
+		register("tanaka", "田中太郎");
+		register("suzuki", "鈴木");
+		assertEquals(List.of("tanaka", "tanaka_2", "yamada", "ktanaka"), loginIds(index.search("Tanaka", 10)));
+	}
+	@Test
+	void ranksSameQualityByFollowerCount() {
+		UUID few = register("sato_a", "佐藤A");
+		UUID many = register("sato_b", "佐藤B");
+		when(followGraphService.countFollowers(few)).thenReturn(5);
+		when(followGraphService.countFollowers(many)).thenReturn(10);
+		assertEquals(List.of("sato_b", "sato_a"), loginIds(index.search("sato", 10)));
+	}
+	@Test
+	void matchesJapaneseNamesByPartialString() {
+		register("hanako", "山田花子");
+		register("taro", "花田太郎");
+		assertEquals(List.of("hanako"), loginIds(index.search("田花", 10)));
+		assertEquals(List.of("taro"), loginIds(index.search("花田", 10)));
+		assertEquals(List.of("hanako"), loginIds(index.search("山田花子", 10)));
+	}
+	@Test
+	void excludesUsersThatHaveAllGramsButNotTheQuery() {
+		// 「abc」「bcd」の両方を含むが「abcd」は含まない
+		register("user1", "abcxbcd");
+		register("user2", "xabcdx");
+		assertEquals(List.of("user2"), loginIds(index.search("abcd", 10)));
+	}
+	@Test
+	void normalizesWidthAndCase() {
+		register("suzuki", "ｽｽﾞｷ");
+		assertEquals(List.of("suzuki"), loginIds(index.search("スズキ", 10)));
+		assertEquals(List.of("suzuki"), loginIds(index.search("ＳＵＺＵ", 10)));
+	}
+	@Test
+	void ignoresTooShortQueries() {
+		register("a1", "A");
+		UserSearchIndex.Result result = index.searchCandidates("a", 10);
+		assertTrue(result.candidates().isEmpty());
+		assertFalse(result.complete());
+	}
+	@Test
+	void ignoresDuplicateRegistration() {
+		UUID userId = register("kato", "加藤");
+		index.onUserRegistered(new UserRegisteredEvent(userId, "kato", "加藤"));
+		assertEquals(1, index.search("kato", 10).size());
+	}
+	@Test
+	void reportsCompletenessOfResults() {
+		for (int i = 0; i < 5; i++) {
+			register("member" + i, "メンバー" + i);
+		}
+		UserSearchIndex.Result all = index.searchCandidates("member", 10);
+		assertEquals(5, all.candidates().size());
+		assertTrue(all.complete());
+		UserSearchIndex.Result truncated = index.searchCandidates("member", 3);
+		assertEquals(3, truncated.candidates().size());
+		assertFalse(truncated.complete());
+	}
+	@Test
+	void stopsScanningAtMaxScanPreferringNewUsers() {
+		index = newIndex(3);
+		for (int i = 0; i < 5; i++) {
+			register("user" + i, "xyz" + i);
+		}
+		UserSearchIndex.Result result = index.searchCandidates("xyz", 10);
+		assertFalse(result.complete());
+		assertEquals(List.of("user2", "user3", "user4"),
+				result.candidates().stream().map(candidate -> candidate.hit().loginId()).sorted().toList());
+	}
+	@Test
+	void rankFiltersCandidatesForLongerQuery() {
+		for (String loginId : List.of("ito", "itou", "itoh", "kito")) {
+			register(loginId, loginId);
+		}
+		UserSearchIndex.Result shorter = index.searchCandidates("ito", 10);
+		assertTrue(shorter.complete());
+		// 完全な結果は、より長い検索語の候補として絞り込みに使える
+		List<UserSearchIndex.Candidate> narrowed = UserSearchIndex.rank(shorter.candidates(), "itou");
+		assertEquals(List.of("itou"), narrowed.stream().map(candidate -> candidate.hit().loginId()).toList());
+		assertEquals(loginIds(index.search("itou", 10)),
+				narrowed.stream().map(candidate -> candidate.hit().loginId()).toList());
+	}
+
+	//-- 以下privateメソッド --//
+
+	private UserSearchIndex newIndex(int maxScan) {
+		return new UserSearchIndex(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+				followGraphService, new SimpleMeterRegistry(), maxScan);
+	}
+	private UUID register(String loginId, String userName) {
+		UUID userId = UUID.randomUUID();
+		index.onUserRegistered(new UserRegisteredEvent(userId, loginId, userName));
+		return userId;
+	}
+	private static List<String> loginIds(List<UserSearchHit> hits) {
+		return hits.stream().map(UserSearchHit::loginId).toList();
+	}
+}
@@ -0,0 +1,62 @@
+package com.example.sns.service.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * CjkBigramTokenizer の単体テスト。
+ * 日本語のbigram・unigram、英数字のラン、正規化と区切り、検索語の語が本文の語に含まれることを確認する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+class CjkBigramTokenizerTest {
+
+	@Test
+	void indexesJapaneseRunsAsUnigramsAndBigrams() {
+		assertIterableEquals(List.of("東", "京", "タ", "ワ", "ー", "東京", "京タ", "タワ", "ワー"),
+				CjkBigramTokenizer.indexTokens("東京タワー"));
+	}
+	@Test
+	void queriesJapaneseRunsAsBigramsOnly() {
+		assertIterableEquals(List.of("東京", "京タ", "タワ", "ワー"), CjkBigramTokenizer.queryTokens("東京タワー"));
+		// 1文字のランはその文字を語とする
+		assertIterableEquals(List.of("猫"), CjkBigramTokenizer.queryTokens("猫"));
+	}
+	@Test
+	void keepsLatinRunsWholeAndNormalizes() {
+		assertIterableEquals(List.of("hello", "world", "2026"), CjkBigramTokenizer.indexTokens("Hello, World! 2026"));
+		assertIterableEquals(List.of("hello"), CjkBigramTokenizer.queryTokens("ＨＥＬＬＯ"));
+		// 半角カナはNFKCで全角になる
+		assertIterableEquals(CjkBigramTokenizer.queryTokens("ラーメン"), CjkBigramTokenizer.queryTokens("ﾗｰﾒﾝ"));
+	}
+	@Test
+	void splitsAtScriptBoundaries() {
+		assertIterableEquals(List.of("java", "入", "門", "入門"), CjkBigramTokenizer.indexTokens("Java入門"));
+		assertIterableEquals(List.of("java", "入門"), CjkBigramTokenizer.queryTokens("Java入門"));
+		assertIterableEquals(List.of("人", "々", "人々"), CjkBigramTokenizer.indexTokens("人々"));
+	}
+	@Test
+	void truncatesLongWords() {
+		Set<String> tokens = CjkBigramTokenizer.indexTokens("x".repeat(100));
+		assertEquals(Set.of("x".repeat(64)), tokens);
+	}
+	@Test
+	void returnsEmptyForNullOrSymbols() {
+		assertTrue(CjkBigramTokenizer.indexTokens(null).isEmpty());
+		assertTrue(CjkBigramTokenizer.queryTokens("!?、。 ・").isEmpty());
+	}
+	@Test
+	void queryTokensOfSubstringAreIndexed() {
+		String content = "週末は東京タワーに行った。Spring Bootの勉強会も";
+		Set<String> indexed = CjkBigramTokenizer.indexTokens(content);
+		for (String query : List.of("タワー", "東京", "行", "spring", "勉強会", "ワーに行")) {
+			assertTrue(indexed.containsAll(CjkBigramTokenizer.queryTokens(query)), () -> "検索できません: " + query);
+		}
+		assertFalse(indexed.containsAll(CjkBigramTokenizer.queryTokens("京都")));
+	}
+}
@@ -0,0 +1,174 @@
+package com.example.sns.service.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * PostingList の単体テスト。
+ * 降順の走査、スキップ表による移動、可変長整数の境界、ブロックをまたぐ共通部分、書き出し・読み込みの往復を確認する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+class PostingListTest {
+
+	@Test
+	void iteratesInDescendingOrderAcrossBlocks() {
+		List<Integer> docs = new ArrayList<>();
+		for (int doc = 0; doc < 1000; doc += 3) docs.add(doc);
+		PostingList list = listOf(docs);
+		assertEquals(docs.size(), list.size());
+		assertIterableEquals(descending(docs), readAll(list));
+	}
+	@Test
+	void ignoresNonIncreasingDocs() {
+		PostingList list = new PostingList();
+		list.add(5);
+		list.add(5);
+		list.add(3);
+		list.add(8);
+		assertEquals(2, list.size());
+		assertIterableEquals(List.of(8, 5), readAll(list));
+	}
+	@Test
+	void encodesGapsOfEveryVarIntLength() {
+		// 差分が1〜5バイトになる境界の値
+		List<Integer> docs = List.of(0, 1, 128, 129, 16_513, 16_514, 2_113_666, 270_549_121, Integer.MAX_VALUE - 1);
+		assertIterableEquals(descending(docs), readAll(listOf(docs)));
+	}
+	@Test
+	void retreatSeeksThroughSkipTable() {
+		List<Integer> docs = new ArrayList<>();
+		for (int doc = 10; doc <= 10_000; doc += 10) docs.add(doc);
+		PostingList.Cursor cursor = listOf(docs).cursor();
+		assertEquals(10_000, cursor.retreat(Integer.MAX_VALUE - 1));
+		assertEquals(5_000, cursor.retreat(5_000));
+		// 既に target 以下にいる場合は移動しない
+		assertEquals(5_000, cursor.retreat(7_000));
+		assertEquals(4_990, cursor.previous());
+		// ブロック内の途中・ブロックの先頭をまたぐ移動
+		assertEquals(1_280, cursor.retreat(1_289));
+		assertEquals(1_270, cursor.retreat(1_279));
+		assertEquals(10, cursor.retreat(15));
+		assertEquals(PostingList.NO_MORE, cursor.retreat(9));
+		assertEquals(PostingList.NO_MORE, cursor.previous());
+	}
+	@Test
+	void retreatMatchesReferenceOnRandomLists() {
+		Random random = new Random(42);
+		for (int trial = 0; trial < 50; trial++) {
+			TreeSet<Integer> expected = new TreeSet<>();
+			int doc = 0;
+			int count = random.nextInt(2_000);
+			for (int i = 0; i < count; i++) {
+				doc += 1 + random.nextInt(trial % 2 == 0 ? 4 : 100_000);
+				expected.add(doc);
+			}
+			PostingList.Cursor cursor = listOf(new ArrayList<>(expected)).cursor();
+			int target = doc + 1;
+			while (true) {
+				Integer floor = expected.floor(target);
+				int actual = cursor.retreat(target);
+				assertEquals(floor == null ? PostingList.NO_MORE : floor, actual);
+				if (actual == PostingList.NO_MORE) break;
+				target = actual - 1 - random.nextInt(500);
+			}
+		}
+	}
+	@Test
+	void emptyListHasNoDocs() {
+		PostingList list = new PostingList();
+		assertEquals(PostingList.NO_MORE, list.cursor().previous());
+		assertEquals(PostingList.NO_MORE, list.cursor().retreat(100));
+	}
+	@Test
+	void intersectsAcrossBlockBoundaries() {
+		List<Integer> multiplesOf3 = new ArrayList<>();
+		List<Integer> multiplesOf5 = new ArrayList<>();
+		List<Integer> expected = new ArrayList<>();
+		for (int doc = 0; doc < 5_000; doc++) {
+			if (doc % 3 == 0) multiplesOf3.add(doc);
+			if (doc % 5 == 0) multiplesOf5.add(doc);
+			if (doc % 15 == 0) expected.add(doc);
+		}
+		List<Integer> actual = intersect(listOf(multiplesOf5), listOf(multiplesOf3));
+		assertIterableEquals(descending(expected), actual);
+	}
+	@Test
+	void roundTripsThroughWriteAndRead() throws IOException {
+		List<Integer> docs = new ArrayList<>();
+		for (int doc = 7; doc < 100_000; doc += 37) docs.add(doc);
+		PostingList restored = copy(listOf(docs));
+		assertEquals(docs.size(), restored.size());
+		assertIterableEquals(descending(docs), readAll(restored));
+		// 読み込んだリストにも続けて追加できる
+		restored.add(200_000);
+		assertEquals(200_000, restored.cursor().previous());
+	}
+	@Test
+	void viewIsNotAffectedByLaterAdds() throws IOException {
+		List<Integer> docs = new ArrayList<>();
+		for (int doc = 0; doc < 300; doc++) docs.add(doc * 2);
+		PostingList list = listOf(docs);
+		PostingList view = list.view();
+		for (int doc = 600; doc < 2_000; doc++) list.add(doc);
+		assertIterableEquals(descending(docs), readAll(copy(view)));
+		assertEquals(300 + 1_400, list.size());
+	}
+
+	//-- 以下privateメソッド --//
+
+	private static PostingList listOf(List<Integer> docs) {
+		PostingList list = new PostingList();
+		docs.forEach(list::add);
+		return list;
+	}
+	private static List<Integer> descending(List<Integer> docs) {
+		List<Integer> reversed = new ArrayList<>(docs);
+		Collections.reverse(reversed);
+		return reversed;
+	}
+	private static List<Integer> readAll(PostingList list) {
+		List<Integer> docs = new ArrayList<>();
+		PostingList.Cursor cursor = list.cursor();
+		int doc;
+		while ((doc = cursor.previous()) != PostingList.NO_MORE) docs.add(doc);
+		return docs;
+	}
+	/**
+	 * PostSearchIndex と同じ方法（リープフロッグ）で2つのリストの共通部分を降順に求める。
+	 */
+	private static List<Integer> intersect(PostingList first, PostingList second) {
+		List<Integer> docs = new ArrayList<>();
+		PostingList.Cursor lead = first.cursor();
+		PostingList.Cursor other = second.cursor();
+		int doc = lead.previous();
+		while (doc != PostingList.NO_MORE) {
+			int next = other.retreat(doc);
+			if (next == doc) {
+				docs.add(doc);
+				doc = lead.previous();
+			} else {
+				doc = next == PostingList.NO_MORE ? PostingList.NO_MORE : lead.retreat(next);
+			}
+		}
+		return docs;
+	}
+	private static PostingList copy(PostingList list) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		list.write(new DataOutputStream(bytes));
+		return PostingList.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+}
@@ -0,0 +1,189 @@
+package com.example.sns.service.timeline;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import com.example.sns.dto.KeysetCursor;
+import com.example.sns.dto.TimelinePostRef;
+import com.example.sns.event.PostCreatedEvent;
+import com.example.sns.repository.PostsRepository;
+import com.example.sns.service.FollowGraphService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * MergeTimelineEngine の単体テスト。
+ * 投稿の読み込みはメモリ上の投稿一覧を返すモックで代替し、k-wayマージの並び順と重複の無さ、
+ * カーソル位置の境界、キャッシュ範囲を超えたページでのDBからの補完を確認する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+class MergeTimelineEngineTest {
+	private static final LocalDateTime BASE = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+	private final UUID viewer = UUID.randomUUID();
+	private final UUID alice = UUID.randomUUID();
+	private final UUID bob = UUID.randomUUID();
+	/** 投稿者ID → 投稿参照（DBの代わり） */
+	private final Map<UUID, List<TimelinePostRef>> postsByAuthor = new HashMap<>();
+	private PostsRepository postsRepository;
+	private FollowGraphService followGraphService;
+
+	@BeforeEach
+	void setUp() {
+		postsRepository = mock(PostsRepository.class);
+		followGraphService = mock(FollowGraphService.class);
+		when(followGraphService.findFolloweeIds(viewer)).thenAnswer(invocation -> new ArrayList<>(List.of(alice, bob)));
+		when(postsRepository.findRecentRefsByAuthors(anyCollection(), anyInt())).thenAnswer(invocation -> {
+			Collection<UUID> authorIds = invocation.getArgument(0);
+			int perAuthor = invocation.getArgument(1);
+			Map<UUID, List<TimelinePostRef>> result = new HashMap<>();
+			for (UUID authorId : authorIds) {
+				List<TimelinePostRef> refs = sorted(postsByAuthor.getOrDefault(authorId, List.of()));
+				result.put(authorId, new ArrayList<>(refs.subList(0, Math.min(perAuthor, refs.size()))));
+			}
+			return result;
+		});
+		when(postsRepository.findRefsByUserIdsBefore(anyCollection(), any(), any(), any())).thenAnswer(invocation -> {
+			Collection<UUID> authorIds = invocation.getArgument(0);
+			KeysetCursor cursor = new KeysetCursor(invocation.getArgument(1), invocation.getArgument(2));
+			Limit limit = invocation.getArgument(3);
+			List<TimelinePostRef> refs = new ArrayList<>();
+			for (UUID authorId : authorIds) {
+				for (TimelinePostRef ref : postsByAuthor.getOrDefault(authorId, List.of())) {
+					if (ref.isBefore(cursor)) refs.add(ref);
+				}
+			}
+			refs = sorted(refs);
+			return refs.subList(0, Math.min(limit.max(), refs.size()));
+		});
+	}
+	@Test
+	void mergesAuthorsNewestFirst() {
+		post(alice, 1);
+		post(bob, 2);
+		post(viewer, 3);
+		post(alice, 4);
+		post(bob, 5);
+		post(alice, 6);
+		MergeTimelineEngine engine = newEngine(50);
+		assertEquals(postIds(expectedTimeline().subList(0, 4)), postIds(engine.findFollowedTimeline(viewer, null, 4)));
+	}
+	@Test
+	void pagesThroughEveryPostOnceAcrossTies() {
+		// 同時刻の投稿が投稿者をまたいで並ぶ場合も、投稿IDの順で一意に並ぶ
+		for (int minute = 0; minute < 20; minute++) {
+			post(alice, minute);
+			post(bob, minute);
+			if (minute % 3 == 0) post(viewer, minute);
+		}
+		MergeTimelineEngine engine = newEngine(50);
+		for (int limit : List.of(1, 2, 3, 7)) {
+			List<TimelinePostRef> all = readAll(engine, limit);
+			assertEquals(postIds(expectedTimeline()), postIds(all), "limit=" + limit);
+			assertEquals(all.size(), new HashSet<>(postIds(all)).size(), "重複: limit=" + limit);
+		}
+	}
+	@Test
+	void excludesCursorPostAndReturnsOlderOnes() {
+		for (int minute = 0; minute < 5; minute++) {
+			post(alice, minute);
+			post(bob, minute);
+		}
+		MergeTimelineEngine engine = newEngine(50);
+		List<TimelinePostRef> expected = expectedTimeline();
+		for (int i = 0; i < expected.size(); i++) {
+			KeysetCursor cursor = expected.get(i).toCursor();
+			assertEquals(postIds(expected.subList(i + 1, expected.size())),
+					postIds(engine.findFollowedTimeline(viewer, cursor, expected.size())), "cursor=" + i);
+		}
+	}
+	@Test
+	void extendsAuthorBeyondCacheFromDatabase() {
+		for (int minute = 0; minute < 10; minute++) {
+			post(alice, minute * 2);
+		}
+		post(bob, 19);
+		post(bob, 1);
+		// 投稿者1人あたり3件だけキャッシュし、それより古い投稿はDBから補う
+		MergeTimelineEngine engine = newEngine(3);
+		assertEquals(postIds(expectedTimeline().subList(0, 8)), postIds(engine.findFollowedTimeline(viewer, null, 8)));
+		verify(postsRepository, atLeastOnce()).findRefsByUserIdsBefore(eq(List.of(alice)), any(), any(), any());
+		assertEquals(postIds(expectedTimeline()), postIds(readAll(engine, 4)));
+	}
+	@Test
+	void readsAuthorsWithCacheEndingBeforeCursorFromDatabase() {
+		for (int minute = 0; minute < 12; minute++) {
+			post(minute % 2 == 0 ? alice : bob, minute);
+		}
+		MergeTimelineEngine engine = newEngine(2);
+		List<TimelinePostRef> expected = expectedTimeline();
+		// キャッシュ（各2件）より古い位置のカーソルでは、該当する投稿者をまとめてDBから読む
+		KeysetCursor cursor = expected.get(5).toCursor();
+		assertEquals(postIds(expected.subList(6, 10)), postIds(engine.findFollowedTimeline(viewer, cursor, 4)));
+	}
+	@Test
+	void insertsCreatedPostWithoutDuplicatingLoadedOnes() {
+		post(alice, 1);
+		TimelinePostRef committedLate = post(alice, 2);
+		post(alice, 3);
+		MergeTimelineEngine engine = newEngine(50);
+		engine.findFollowedTimeline(viewer, null, 10);
+		// 読み込み済みの投稿のイベントが後から届いても重複しない
+		engine.onPostCreated(new PostCreatedEvent(committedLate.getPostId(), alice, committedLate.getCreatedAt()));
+		// 新しい投稿はキャッシュに追加され、DBを読み直さずに先頭に並ぶ
+		TimelinePostRef created = post(alice, 4);
+		engine.onPostCreated(new PostCreatedEvent(created.getPostId(), alice, created.getCreatedAt()));
+		assertEquals(postIds(expectedTimeline()), postIds(engine.findFollowedTimeline(viewer, null, 10)));
+		verify(postsRepository, times(1)).findRecentRefsByAuthors(anyCollection(), anyInt());
+	}
+
+	//-- 以下privateメソッド --//
+
+	private MergeTimelineEngine newEngine(int perAuthor) {
+		return new MergeTimelineEngine(postsRepository, followGraphService, new SimpleMeterRegistry(),
+				perAuthor, 1_000, 10);
+	}
+	private TimelinePostRef post(UUID authorId, int minute) {
+		TimelinePostRef ref = new TimelinePostRef(UUID.randomUUID(), BASE.plusMinutes(minute));
+		postsByAuthor.computeIfAbsent(authorId, key -> new ArrayList<>()).add(ref);
+		return ref;
+	}
+	private List<TimelinePostRef> expectedTimeline() {
+		List<TimelinePostRef> refs = new ArrayList<>();
+		postsByAuthor.values().forEach(refs::addAll);
+		return sorted(refs);
+	}
+	private List<TimelinePostRef> readAll(MergeTimelineEngine engine, int limit) {
+		List<TimelinePostRef> all = new ArrayList<>();
+		KeysetCursor cursor = null;
+		while (true) {
+			List<TimelinePostRef> page = engine.findFollowedTimeline(viewer, cursor, limit);
+			if (page.isEmpty()) return all;
+			all.addAll(page);
+			cursor = page.get(page.size() - 1).toCursor();
+		}
+	}
+	private static List<TimelinePostRef> sorted(Collection<TimelinePostRef> refs) {
+		List<TimelinePostRef> result = new ArrayList<>(refs);
+		result.sort(TimelinePostRef.NEWEST_FIRST);
+		return result;
+	}
+	private static List<UUID> postIds(List<TimelinePostRef> refs) {
+		return refs.stream().map(TimelinePostRef::getPostId).toList();
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.sns.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.sns.dto.PostEntities;
+
+/**
+ * PostEntityExtractor の単体テスト。
+ * ハッシュタグ・メンションの抽出規則（正規化、メールアドレスの除外、数字のみのタグの除外、件数の上限）を確認する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+class PostEntityExtractorTest {
+
+	@Test
+	void extractsTagsAndMentionsInOrder() {
+		PostEntities entities = PostEntityExtractor.extract("今日は #Java と #SpringBoot の話。@Alice さん、@bob_2 さんもどうぞ");
+		assertIterableEquals(List.of("java", "springboot"), entities.tags());
+		assertIterableEquals(List.of("alice", "bob_2"), entities.mentions());
+	}
+	@Test
+	void ignoresEmailAddressesAndSymbolsInsideWords() {
+		PostEntities entities = PostEntityExtractor.extract("連絡は bob@example.com まで。issue#12 と C#言語");
+		assertTrue(entities.mentions().isEmpty());
+		assertTrue(entities.tags().isEmpty());
+	}
+	@Test
+	void acceptsFullWidthMarks() {
+		PostEntities entities = PostEntityExtractor.extract("＃ラーメン ＃ﾗｰﾒﾝ ＠ａｌｉｃｅ");
+		// 半角カナ・全角英字はNFKCで正規化され、同じタグ・メンションになる
+		assertIterableEquals(List.of("ラーメン"), entities.tags());
+		assertIterableEquals(List.of("alice"), entities.mentions());
+	}
+	@Test
+	void ignoresAllDigitTags() {
+		PostEntities entities = PostEntityExtractor.extract("#123 #２０２６ #2026年 #v2");
+		assertIterableEquals(List.of("2026年", "v2"), entities.tags());
+	}
+	@Test
+	void stopsAtCharactersOutsideTheName() {
+		PostEntities entities = PostEntityExtractor.extract("#tag. @user!");
+		assertIterableEquals(List.of("tag"), entities.tags());
+		assertIterableEquals(List.of("user"), entities.mentions());
+	}
+	@Test
+	void deduplicatesCaseInsensitively() {
+		PostEntities entities = PostEntityExtractor.extract("#Java #JAVA #java @Alice @ALICE");
+		assertEquals(Set.of("java"), entities.tags());
+		assertEquals(Set.of("alice"), entities.mentions());
+	}
+	@Test
+	void capsEntitiesPerPost() {
+		StringBuilder content = new StringBuilder();
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 15; i++) {
+			content.append("#tag").append(i).append(' ').append("@user").append(i).append(' ');
+			if (i < 10) expected.add("tag" + i);
+		}
+		PostEntities entities = PostEntityExtractor.extract(content.toString());
+		assertIterableEquals(expected, entities.tags());
+		assertEquals(10, entities.mentions().size());
+	}
+	@Test
+	void ignoresTooLongNames() {
+		String longName = "a".repeat(PostEntityExtractor.MAX_TAG_LENGTH + 1);
+		PostEntities entities = PostEntityExtractor.extract("#" + longName + " @" + longName);
+		assertTrue(entities.tags().isEmpty());
+		assertTrue(entities.mentions().isEmpty());
+	}
+	@Test
+	void returnsEmptyForNullOrPlainContent() {
+		PostEntities fromNull = PostEntityExtractor.extract(null);
+		assertTrue(fromNull.tags().isEmpty());
+		assertTrue(fromNull.mentions().isEmpty());
+		PostEntities plain = PostEntityExtractor.extract("# @ ただの文章");
+		assertTrue(plain.tags().isEmpty());
+		assertTrue(plain.mentions().isEmpty());
+	}
+	@Test
+	void normalizesTagLikeExtraction() {
+		assertEquals("java", PostEntityExtractor.normalizeTag("#Ｊａｖａ"));
+		assertEquals("ラーメン", PostEntityExtractor.normalizeTag(" ﾗｰﾒﾝ "));
+		assertNull(PostEntityExtractor.normalizeTag("java script"));
+		assertNull(PostEntityExtractor.normalizeTag("123"));
+		assertNull(PostEntityExtractor.normalizeTag("#"));
+		assertNull(PostEntityExtractor.normalizeTag(null));
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.sns.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * UuidBloomFilter の単体テスト。
+ * 追加した要素は必ず「含まれる可能性がある」と判定され（偽陰性が無い）、
+ * 追加していない要素の偽陽性率がおおむね設計値に収まることを確認する。
+ *
+ * @author 岡本
+ * @since 2026-10-18
+ */
+class UuidBloomFilterTest {
+	private static final int CAPACITY = 10_000;
+	private static final double FALSE_POSITIVE_RATE = 0.01;
+
+	@Test
+	void addedIdsAreAlwaysReported() {
+		UuidBloomFilter filter = new UuidBloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+		List<UUID> ids = randomIds(CAPACITY, 1);
+		ids.forEach(filter::put);
+		for (UUID id : ids) {
+			assertTrue(filter.mightContain(id), () -> "偽陰性: " + id);
+		}
+	}
+	@Test
+	void addedIdsAreAlwaysReportedBeyondCapacity() {
+		// 想定要素数を超えても偽陽性率が悪化するだけで、偽陰性にはならない
+		UuidBloomFilter filter = new UuidBloomFilter(100, FALSE_POSITIVE_RATE);
+		List<UUID> ids = randomIds(10 * CAPACITY, 2);
+		ids.forEach(filter::put);
+		for (UUID id : ids) {
+			assertTrue(filter.mightContain(id), () -> "偽陰性: " + id);
+		}
+	}
+	@Test
+	void concurrentPutsLoseNoBits() throws Exception {
+		UuidBloomFilter filter = new UuidBloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+		int threads = 8;
+		List<List<UUID>> chunks = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			chunks.add(randomIds(CAPACITY / threads, 10 + i));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (List<UUID> chunk : chunks) {
+				futures.add(executor.submit(() -> chunk.forEach(filter::put)));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		for (List<UUID> chunk : chunks) {
+			for (UUID id : chunk) {
+				assertTrue(filter.mightContain(id), () -> "偽陰性: " + id);
+			}
+		}
+	}
+	@Test
+	void falsePositiveRateStaysNearTarget() {
+		UuidBloomFilter filter = new UuidBloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+		Set<UUID> added = new HashSet<>(randomIds(CAPACITY, 3));
+		added.forEach(filter::put);
+		int trials = 100_000;
+		int falsePositives = 0;
+		for (UUID id : randomIds(trials, 4)) {
+			if (!added.contains(id) && filter.mightContain(id)) falsePositives++;
+		}
+		// 乱数のばらつきを見込み、設計値の3倍までを許容する
+		assertTrue(falsePositives < trials * FALSE_POSITIVE_RATE * 3, () -> "偽陽性が多すぎます");
+	}
+	@Test
+	void emptyFilterContainsNothing() {
+		UuidBloomFilter filter = new UuidBloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+		for (UUID id : randomIds(1_000, 5)) {
+			assertFalse(filter.mightContain(id));
+		}
+		assertEquals(CAPACITY, filter.capacity());
+		assertTrue(filter.sizeInBytes() > 0);
+	}
+
+	//-- 以下privateメソッド --//
+
+	private static List<UUID> randomIds(int count, long seed) {
+		Random random = new Random(seed);
+		List<UUID> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ids.add(new UUID(random.nextLong(), random.nextLong()));
+		}
+		return ids;
+	}
+}